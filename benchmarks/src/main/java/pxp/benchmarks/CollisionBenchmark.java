@@ -0,0 +1,88 @@
+package pxp.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import pxp.engine.core.GameObject;
+import pxp.engine.core.HeadlessRunner;
+import pxp.engine.core.Transform;
+import pxp.engine.core.component.BoxCollider;
+import pxp.engine.core.component.CircleCollider;
+import pxp.engine.core.component.Collider;
+import pxp.engine.core.component.Component;
+import pxp.engine.core.manager.CollisionManager;
+import pxp.engine.data.GameObjectSupplier;
+import pxp.engine.data.GameSettings;
+import pxp.engine.data.Vector2;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link CollisionManager#update()} with unit boxes and circles spread over a grid (half of them moving every frame,
+ * the other half static)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class CollisionBenchmark
+{
+    @Param({ "100", "1000", "10000" })
+    public int colliders;
+
+    private HeadlessRunner runner;
+    private CollisionManager manager;
+    private Transform[] moving;
+    private float[] originX;
+    private int frame = 0;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        int side = (int) Math.ceil(Math.sqrt(this.colliders));
+        List<GameObjectSupplier> objects = new ArrayList<>();
+        for (int i = 0; i < this.colliders; i++) {
+            // neighbours overlap a little, so there are contacts to resolve
+            Vector2 position = new Vector2((i % side) * 0.9f, (i / side) * 0.9f);
+            boolean box = i % 2 == 0;
+            // the static half isn't pushed away by the corrections, so the contacts last
+            boolean still = i >= this.colliders / 2;
+            objects.add(() -> {
+                Collider collider = box ? new BoxCollider(new Vector2(), new Vector2(0.5f, 0.5f)) : new CircleCollider(new Vector2(), 0.5f);
+                collider.isStatic = still;
+                return new GameObject("collider", new Component[] { collider }) {{
+                    transform.position = position;
+                    // the first update doesn't see the bodies as having teleported from the origin
+                    transform.lastPosition = position.clone();
+                }};
+            });
+        }
+
+        this.runner = Headless.load(new GameSettings(), objects);
+        this.manager = this.runner.process.collisionManager;
+
+        List<Transform> moving = new ArrayList<>();
+        for (GameObject go : this.runner.getScene().objects)
+            if (!go.colliders.isEmpty() && !go.colliders.get(0).isStatic)
+                moving.add(go.transform);
+
+        this.moving = moving.toArray(new Transform[0]);
+        this.originX = new float[this.moving.length];
+        for (int i = 0; i < this.moving.length; i++)
+            this.originX[i] = this.moving[i].position.x;
+    }
+
+    @Benchmark
+    public void update() {
+        // sway the moving half, so that it never goes to sleep
+        float offset = (float) Math.sin(this.frame++ * 0.1f) * 0.25f;
+        for (int i = 0; i < this.moving.length; i++) {
+            Transform transform = this.moving[i];
+            transform.lastPosition.set(transform.position);
+            transform.position.x = this.originX[i] + offset;
+        }
+
+        this.manager.update();
+    }
+}
@@ -0,0 +1,38 @@
+package pxp.benchmarks;
+
+import pxp.engine.core.GameObject;
+import pxp.engine.core.HeadlessRunner;
+import pxp.engine.core.Scene;
+import pxp.engine.core.component.Camera;
+import pxp.engine.core.component.Component;
+import pxp.engine.data.GameObjectSupplier;
+import pxp.engine.data.GameSettings;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Creates loaded headless games for the benchmarks
+ */
+public final class Headless
+{
+    private Headless() { }
+
+    /**
+     * Creates a game with a single scene (with a camera) and loads it
+     * @param settings the settings of the game
+     * @param objects the game objects of the scene
+     * @return the runner of the game, with the scene loaded
+     */
+    public static HeadlessRunner load(GameSettings settings, List<GameObjectSupplier> objects) {
+        List<GameObjectSupplier> suppliers = new ArrayList<>(objects);
+        suppliers.add(() -> new GameObject("camera", new Component[] { new Camera() }));
+
+        HeadlessRunner runner = HeadlessRunner.create(settings, new Scene(suppliers.toArray(new GameObjectSupplier[0])));
+        runner.start();
+        // the scene is marked as loaded on the next frame
+        runner.step();
+        runner.step();
+        return runner;
+    }
+}
@@ -0,0 +1,58 @@
+package pxp.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import pxp.engine.core.Transform;
+import pxp.engine.data.Vector2;
+import pxp.engine.data.Vector3;
+import pxp.engine.data.collision.Box;
+import pxp.engine.data.collision.Circle;
+import pxp.engine.data.collision.ContactManifold;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The hit tests of the pairs of shapes (overlapping, so that the manifold is calculated)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class HitTestBenchmark
+{
+    private Box box;
+    private Box rotatedBox;
+    private Circle circle;
+    private Circle otherCircle;
+    private final Vector2 velocity = new Vector2(0.1f, 0f);
+    private final ContactManifold manifold = new ContactManifold();
+
+    @Setup
+    public void setup() {
+        this.box = new Box(new Vector2(), new Vector2(0.5f, 0.5f), new Transform(new Vector2(0f, 0f)));
+        this.rotatedBox = new Box(new Vector2(), new Vector2(0.5f, 0.5f), new Transform(new Vector2(0.6f, 0.2f), new Vector3(0f, 0f, 30f)));
+        this.circle = new Circle(new Vector2(0.7f, 0.1f), 0.5f);
+        this.otherCircle = new Circle(new Vector2(1.1f, 0.3f), 0.5f);
+    }
+
+    @Benchmark
+    public boolean boxBox() {
+        return this.box.hitTest(this.rotatedBox, this.velocity, this.manifold);
+    }
+
+    @Benchmark
+    public boolean boxCircle() {
+        return this.box.hitTest(this.circle, this.velocity, this.manifold);
+    }
+
+    @Benchmark
+    public boolean circleBox() {
+        return this.circle.hitTest(this.box, this.velocity, this.manifold);
+    }
+
+    @Benchmark
+    public boolean circleCircle() {
+        return this.circle.hitTest(this.otherCircle, this.velocity, this.manifold);
+    }
+}
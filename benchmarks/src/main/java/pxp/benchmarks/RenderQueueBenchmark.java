@@ -0,0 +1,62 @@
+package pxp.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import pxp.engine.core.GameObject;
+import pxp.engine.core.HeadlessRunner;
+import pxp.engine.core.component.Component;
+import pxp.engine.core.component.Renderer;
+import pxp.engine.core.component.SpriteRenderer;
+import pxp.engine.data.GameObjectSupplier;
+import pxp.engine.data.GameSettings;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moving renderers around the render queue (changing their order in layer), in scenes of different sizes
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class RenderQueueBenchmark
+{
+    @Param({ "100", "1000", "10000" })
+    public int renderers;
+
+    private HeadlessRunner runner;
+    private Renderer[] queue;
+    private int next = 0;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        List<GameObjectSupplier> objects = new ArrayList<>();
+        for (int i = 0; i < this.renderers; i++) {
+            int order = i % 64;
+            objects.add(() -> {
+                SpriteRenderer renderer = new SpriteRenderer();
+                renderer.setOrderInLayer(order);
+                return new GameObject("renderer", new Component[] { renderer });
+            });
+        }
+
+        this.runner = Headless.load(new GameSettings(), objects);
+
+        List<Renderer> queue = new ArrayList<>();
+        for (GameObject go : this.runner.getScene().objects)
+            if (go.renderer != null)
+                queue.add(go.renderer);
+
+        this.queue = queue.toArray(new Renderer[0]);
+    }
+
+    @Benchmark
+    public void changeOrder() {
+        int i = this.next++;
+        Renderer renderer = this.queue[i % this.queue.length];
+        renderer.setOrderInLayer((renderer.getOrderInLayer() + 17) % 64);
+    }
+}
@@ -0,0 +1,80 @@
+package pxp.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import processing.awt.PGraphicsJava2D;
+import processing.core.PApplet;
+import processing.core.PFont;
+import processing.core.PGraphics;
+import pxp.engine.core.component.ui.TextLayout;
+import pxp.engine.data.assets.FontAsset;
+import pxp.engine.data.assets.GlyphAdvances;
+
+import java.awt.Font;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The layout of {@link pxp.engine.core.component.ui.Text}: a label whose number changes every frame (laid out
+ * incrementally), a paragraph replaced by another one, and a paragraph laid out from scratch
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class TextLayoutBenchmark
+{
+    private static final String LABEL = "The score of the player in the current round is ";
+    private static final String[] PARAGRAPHS = {
+        "Lorem ipsum dolor sit amet, consectetur adipiscing elit, sed do eiusmod tempor incididunt ut labore et dolore "
+            + "magna aliqua.\nUt enim ad minim veniam, quis nostrud exercitation ullamco laboris nisi ut aliquip ex ea "
+            + "commodo consequat.\n\nDuis aute irure dolor in reprehenderit in voluptate velit esse cillum dolore.",
+        "Sed ut perspiciatis unde omnis iste natus error sit voluptatem accusantium doloremque laudantium, totam rem "
+            + "aperiam.\nNemo enim ipsam voluptatem quia voluptas sit aspernatur aut odit aut fugit, sed quia "
+            + "consequuntur magni dolores.\n\nNeque porro quisquam est, qui dolorem ipsum quia dolor sit amet."
+    };
+    private static final float WIDTH = 240f;
+
+    private PGraphics graphics;
+    private GlyphAdvances advances;
+    private final TextLayout layout = new TextLayout();
+    private int counter = 0;
+
+    @Setup
+    public void setup() {
+        // an offscreen Java2D graphics is enough to measure glyphs, without a sketch
+        this.graphics = new PGraphicsJava2D();
+        this.graphics.setParent(new PApplet());
+        this.graphics.setPrimary(false);
+        this.graphics.setSize(16, 16);
+        this.graphics.beginDraw();
+        this.graphics.textFont(new PFont(new Font(Font.SANS_SERIF, Font.PLAIN, 16), true));
+
+        this.advances = new FontAsset("", "", "", "").getGlyphAdvances(FontAsset.NORMAL, 16f);
+        // measure every glyph once, as a running game would have
+        for (String paragraph : PARAGRAPHS)
+            this.layout.layout(paragraph, WIDTH, this.advances, this.graphics);
+        this.layout.layout(LABEL + "0123456789", WIDTH, this.advances, this.graphics);
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.graphics.endDraw();
+    }
+
+    @Benchmark
+    public int changingNumber() {
+        return this.layout.layout(LABEL + this.counter++, WIDTH, this.advances, this.graphics);
+    }
+
+    @Benchmark
+    public int changingParagraph() {
+        return this.layout.layout(PARAGRAPHS[this.counter++ & 1], WIDTH, this.advances, this.graphics);
+    }
+
+    @Benchmark
+    public int fromScratch() {
+        this.layout.invalidate();
+        return this.layout.layout(PARAGRAPHS[0], WIDTH, this.advances, this.graphics);
+    }
+}
@@ -0,0 +1,78 @@
+package pxp.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import processing.core.PMatrix3D;
+import pxp.engine.core.GameObject;
+import pxp.engine.core.Transform;
+import pxp.engine.data.Vector2;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Transform#getMatrix()} and {@link Transform#localToWorld(Vector2)} at the bottom of a deep hierarchy, with the
+ * hierarchy unchanged (cached matrices) and with the root moving every invocation (rebuilding the whole chain)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class TransformBenchmark
+{
+    @Param({ "1", "8", "32" })
+    public int depth;
+
+    private Transform root;
+    private Transform leaf;
+    private final PMatrix3D matrix = new PMatrix3D();
+    private final Vector2 point = new Vector2(0.5f, 0.25f);
+    private final Vector2 out = new Vector2();
+    private float time = 0f;
+
+    @Setup
+    public void setup() {
+        // built from the leaf up, since children are given to the constructor
+        GameObject go = new GameObject("0");
+        GameObject leaf = go;
+        for (int i = 1; i < this.depth; i++)
+            go = new GameObject(String.valueOf(i), new GameObject[] { go });
+
+        this.root = go.transform;
+        this.leaf = leaf.transform;
+
+        // every level is moved, rotated & scaled a bit
+        for (GameObject level = leaf; level != null; level = level.parent) {
+            level.transform.position.set(0.5f, 0.25f);
+            level.transform.rotation.z = 5f;
+            level.transform.scale.set(1.01f, 0.99f);
+        }
+    }
+
+    @Benchmark
+    public PMatrix3D getMatrixCached() {
+        return this.leaf.getMatrix(this.matrix);
+    }
+
+    @Benchmark
+    public PMatrix3D getMatrixAllocating() {
+        return this.leaf.getMatrix();
+    }
+
+    @Benchmark
+    public PMatrix3D getMatrixRootMoved() {
+        this.root.position.x = (this.time += 0.001f);
+        return this.leaf.getMatrix(this.matrix);
+    }
+
+    @Benchmark
+    public Vector2 localToWorldCached() {
+        return this.leaf.localToWorld(this.point, this.out);
+    }
+
+    @Benchmark
+    public Vector2 localToWorldRootMoved() {
+        this.root.position.x = (this.time += 0.001f);
+        return this.leaf.localToWorld(this.point, this.out);
+    }
+}
@@ -0,0 +1,44 @@
+package pxp.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import pxp.engine.data.Vector2;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vector math written with the in place operations of {@link Vector2} (reusing a vector) against the static ones
+ * (allocating a vector per operation)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class Vector2Benchmark
+{
+    private final Vector2 position = new Vector2(1.5f, -2.25f);
+    private final Vector2 target = new Vector2(-4f, 8f);
+    private final Vector2 velocity = new Vector2(0.3f, 0.7f);
+    private final Vector2 temp = new Vector2();
+
+    @Benchmark
+    public float inPlace() {
+        // the direction to the target, moved by the velocity
+        Vector2 direction = this.temp.set(this.target).subtract(this.position).normalize();
+        direction.multiply(0.5f).add(this.velocity);
+        return direction.dot(this.velocity) + this.position.distance(this.target);
+    }
+
+    @Benchmark
+    public float allocating() {
+        Vector2 direction = Vector2.subtract(this.target, this.position).getNormalized();
+        direction = Vector2.add(Vector2.multiply(direction, 0.5f), this.velocity);
+        return direction.dot(this.velocity) + this.position.distance(this.target);
+    }
+
+    @Benchmark
+    public Vector2 lerp() {
+        return Vector2.lerp(this.position, this.target, 0.25f);
+    }
+}
@@ -0,0 +1,85 @@
+package pxp.engine.core;
+
+import pxp.engine.core.component.Renderer;
+import pxp.engine.core.component.ui.UIRenderer;
+import pxp.engine.data.GameSettings;
+import pxp.engine.data.Rect;
+import pxp.engine.data.collision.AABB;
+
+/**
+ * The Camera Culling finds the renderers that are inside the view of the camera, so that the scene only renders those.<br/>
+ * The world bounds of every renderer are tested against the rect of the camera as the renderer is about to be rendered
+ * (the world matrix is cached by the transform, so this is a few multiplications). Renderers with unknown bounds (see
+ * {@link Renderer#getWorldBounds(AABB)}) are always visible.
+ * @see GameSettings#cameraCulling
+ */
+public class CameraCulling
+{
+    // reused every frame
+    private final AABB bounds = new AABB();
+    private final AABB cameraBounds = new AABB();
+
+    // the amount of renderers in each state, as of the last frame
+    private int visibleCount = 0;
+    private int culledCount = 0;
+
+    /**
+     * Starts a frame, with the view of the camera the renderers are tested against
+     * @param cameraRect the rect of the camera, in world space
+     */
+    public void update(Rect cameraRect) {
+        this.cameraBounds.set(cameraRect.left(), cameraRect.top(), cameraRect.right(), cameraRect.bottom());
+        this.visibleCount = 0;
+        this.culledCount = 0;
+    }
+
+    /**
+     * Checks whether a game object's renderer is inside the view of the camera (as of the last update)
+     */
+    public boolean isVisible(GameObject gameObject) {
+        if (!canCull(gameObject) || !gameObject.renderer.getWorldBounds(this.bounds) || this.bounds.overlaps(this.cameraBounds)) {
+            this.visibleCount++;
+            return true;
+        }
+
+        this.culledCount++;
+        return false;
+    }
+
+    /**
+     * Gets the amount of renderers that were visible during the last frame
+     */
+    public int getVisibleCount() {
+        return this.visibleCount;
+    }
+
+    /**
+     * Gets the amount of renderers that were outside the view of the camera during the last frame
+     */
+    public int getCulledCount() {
+        return this.culledCount;
+    }
+
+    /**
+     * Resets the counts of the renderers
+     */
+    public void clear() {
+        this.visibleCount = 0;
+        this.culledCount = 0;
+    }
+
+    /**
+     * Checks whether the renderer of a game object can be culled: its bounds must be known and not depend on the
+     * rendering itself (anchors and canvases change the transforms while rendering)
+     */
+    private static boolean canCull(GameObject gameObject) {
+        if (gameObject.renderer instanceof UIRenderer)
+            return false;
+
+        for (GameObject go = gameObject; go != null; go = go.parent)
+            if ((go.transform instanceof RectTransform rt && rt.anchor != null) || (go != gameObject && go.renderer instanceof UIRenderer))
+                return false;
+
+        return true;
+    }
+}
@@ -0,0 +1,217 @@
+package pxp.engine.core;
+
+import pxp.engine.data.GameSettings;
+import pxp.engine.data.assets.AssetManager;
+import pxp.logging.Counter;
+import pxp.logging.Gauge;
+import pxp.logging.Histogram;
+import pxp.logging.Metrics;
+
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * The Engine Metrics record the state of a game into a {@link Metrics} registry every frame: the frame rate and frame
+ * times, the collisions and routines, and (once a second) the game objects and components of the current scene and the
+ * memory of the loaded sprites. The JVM's garbage collections and heap are read when exported.<br/>
+ * Recording a frame doesn't allocate.
+ * @see GameSettings#metrics
+ */
+public class EngineMetrics
+{
+    /**
+     * The upper bounds of the buckets of the frame times, in seconds
+     */
+    private static final double[] FRAME_TIME_BOUNDS = {
+        0.001, 0.002, 0.004, 0.008, 0.012, 0.0167, 0.02, 0.025, 0.0333, 0.05, 0.1, 0.25, 1
+    };
+    /**
+     * The upper bounds of the buckets of the garbage collection pauses, in seconds
+     */
+    private static final double[] GC_PAUSE_BOUNDS = {
+        0.001, 0.002, 0.005, 0.01, 0.02, 0.05, 0.1, 0.2, 0.5, 1
+    };
+
+    /**
+     * The registries the metrics of the JVM were registered in (once per registry, they are shared by all the games
+     * recording into it)
+     */
+    private static final Set<Metrics> jvmRegistered = Collections.newSetFromMap(new WeakHashMap<>());
+
+    private final GameProcess context;
+    private final Metrics metrics;
+
+    private final Counter frames;
+    private final Gauge fps;
+    private final Histogram frameTime;
+    private final Gauge colliderPairs;
+    private final Gauge colliderContacts;
+    private final Gauge awakeColliders;
+    private final Gauge routines;
+    private final Gauge imageMemory;
+
+    /**
+     * The counts of the scenes, by their index (registered when the scene is first counted)
+     */
+    private final Gauge[] sceneGameObjects;
+    private final Gauge[] sceneComponents;
+    /**
+     * The index of the scene counted last (-1 if none)
+     */
+    private int countedScene = -1;
+
+    private long lastFrame = -1;
+    private long lastSample = -1;
+    private float smoothedFps = 0f;
+
+    /**
+     * Registers the metrics of a game
+     * @param context the game process to record
+     * @param metrics the registry to record into
+     */
+    public EngineMetrics(GameProcess context, Metrics metrics) {
+        this.context = context;
+        this.metrics = metrics;
+
+        this.frames = metrics.counter("pxp_frames_total", "The amount of frames stepped");
+        this.fps = metrics.gauge("pxp_fps", "The frame rate, smoothed over the recent frames");
+        this.frameTime = metrics.histogram("pxp_frame_time_seconds", "The time between frames", FRAME_TIME_BOUNDS);
+        this.colliderPairs = metrics.gauge("pxp_collider_pairs", "The pairs of colliders hit tested in the last tick");
+        this.colliderContacts = metrics.gauge("pxp_collider_contacts", "The pairs of colliders in contact after the last tick");
+        this.awakeColliders = metrics.gauge("pxp_colliders_awake", "The colliders that were neither static nor asleep in the last tick");
+        this.routines = metrics.gauge("pxp_routines", "The running routines");
+        this.imageMemory = metrics.gauge("pxp_asset_image_bytes", "The memory used by the pixels of the loaded sprites");
+
+        int scenes = context.game.scenes.length;
+        this.sceneGameObjects = new Gauge[scenes];
+        this.sceneComponents = new Gauge[scenes];
+
+        registerJvm(metrics);
+    }
+
+    /**
+     * [Internal] Records a frame (called at the end of every frame)
+     */
+    void record() {
+        long now = System.nanoTime();
+        this.frames.increment();
+
+        if (this.lastFrame != -1) {
+            float seconds = (now - this.lastFrame) / 1e9f;
+            this.frameTime.observe(seconds);
+            if (seconds > 0f)
+                this.smoothedFps = this.smoothedFps == 0f ? 1f / seconds : this.smoothedFps + (1f / seconds - this.smoothedFps) * 0.05f;
+            this.fps.set(this.smoothedFps);
+        }
+        this.lastFrame = now;
+
+        this.colliderPairs.set(this.context.collisionManager.getPairCount());
+        this.colliderContacts.set(this.context.collisionManager.getContactCount());
+        this.awakeColliders.set(this.context.collisionManager.getAwakeCount());
+        this.routines.set(this.context.getRoutineCount());
+
+        // walking the scene is left to once a second
+        if (this.lastSample == -1 || now - this.lastSample >= 1_000_000_000L) {
+            this.lastSample = now;
+            this.sample();
+        }
+    }
+
+    /**
+     * Counts the game objects and components of the current scene, and measures the sprites
+     */
+    private void sample() {
+        Scene scene = this.context.getCurrentScene();
+        int index = scene.index;
+
+        // the scene that was left has nothing alive anymore
+        if (this.countedScene != -1 && this.countedScene != index) {
+            this.sceneGameObjects[this.countedScene].set(0);
+            this.sceneComponents[this.countedScene].set(0);
+        }
+        this.countedScene = index;
+
+        if (this.sceneGameObjects[index] == null) {
+            String label = String.valueOf(index);
+            this.sceneGameObjects[index] = this.metrics.gauge("pxp_scene_game_objects", "The game objects of the scene (with their children)", "scene", label);
+            this.sceneComponents[index] = this.metrics.gauge("pxp_scene_components", "The components of the game objects of the scene", "scene", label);
+        }
+
+        int gameObjects = 0;
+        int components = 0;
+        List<GameObject> objects = scene.objects;
+        for (int i = 0; i < objects.size(); i++) {
+            long counts = count(objects.get(i));
+            gameObjects += (int) (counts >>> 32);
+            components += (int) counts;
+        }
+
+        this.sceneGameObjects[index].set(gameObjects);
+        this.sceneComponents[index].set(components);
+
+        this.imageMemory.set(AssetManager.getImageMemory());
+    }
+
+    /**
+     * Counts a game object and its children, and their components
+     * @return the amount of game objects (in the high 32 bits) and components (in the low 32 bits)
+     */
+    private static long count(GameObject go) {
+        long gameObjects = 1;
+        long components = go.getComponentCount();
+        for (int i = 0; i < go.children.size(); i++) {
+            long counts = count(go.children.get(i));
+            gameObjects += counts >>> 32;
+            components += counts & 0xFFFFFFFFL;
+        }
+
+        return gameObjects << 32 | components;
+    }
+
+    /**
+     * Registers the metrics of the garbage collectors and the heap, read when exported
+     */
+    private static void registerJvm(Metrics metrics) {
+        synchronized (jvmRegistered) {
+            if (!jvmRegistered.add(metrics))
+                return;
+        }
+
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            String name = collector.getName();
+            metrics.gauge("pxp_gc_collections", "The garbage collections since the start", collector::getCollectionCount, "collector", name);
+            metrics.gauge("pxp_gc_time_seconds", "The time spent collecting garbage since the start", () -> collector.getCollectionTime() / 1000d, "collector", name);
+        }
+
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        metrics.gauge("pxp_heap_used_bytes", "The memory used by the heap", () -> memory.getHeapMemoryUsage().getUsed());
+
+        // every pause, as they happen (on the thread of the notifications)
+        Histogram pauses = metrics.histogram("pxp_gc_pause_seconds", "The pauses of the garbage collections", GC_PAUSE_BOUNDS);
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (!(collector instanceof NotificationEmitter emitter))
+                continue;
+
+            emitter.addNotificationListener((notification, handback) -> {
+                if (!"com.sun.management.gc.notification".equals(notification.getType())
+                    || !(notification.getUserData() instanceof CompositeData data))
+                    return;
+
+                // the cycles of the concurrent collectors run alongside the game
+                String name = String.valueOf(data.get("gcName"));
+                if (name.contains("Concurrent"))
+                    return;
+
+                CompositeData info = (CompositeData) data.get("gcInfo");
+                pauses.observe(((Number) info.get("duration")).longValue() / 1000d);
+            }, null, null);
+        }
+    }
+}
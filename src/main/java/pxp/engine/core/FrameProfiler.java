@@ -0,0 +1,475 @@
+package pxp.engine.core;
+
+import pxp.engine.core.component.Component;
+
+import java.lang.invoke.VarHandle;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The Frame Profiler records how long every phase of a frame takes (in nanoseconds) and how much memory the frame
+ * allocates, in a ring buffer of the last frames. It also records the cost of the update of every type of component.<br/>
+ * The ring buffer is lock-free: the game thread never waits, and readers on other threads retry if the frames they copied
+ * were overwritten meanwhile. The component stats must be read from the game thread.<br/>
+ * When the profiler is disabled, the frame costs a few checks.
+ * <pre>
+ * FrameProfiler profiler = GameProcess.getInstance().profiler;
+ * profiler.setEnabled(true);
+ * ...
+ * Debug.log("p99: " + profiler.getPercentile(0.99) / 1e6 + " ms");
+ * </pre>
+ * @see pxp.engine.data.GameSettings#profiler
+ * @see ProfilerOverlay
+ */
+public class FrameProfiler
+{
+    /**
+     * The phases of a frame, in order (update, collisions and routines run once per tick)
+     */
+    public enum Phase
+    {
+        /**
+         * The start of the frame and the next frame queue
+         */
+        NEXT_FRAME,
+        UPDATE,
+        COLLISIONS,
+        ROUTINES,
+        RENDER,
+        /**
+         * Resetting the input
+         */
+        INPUT
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+    // the columns of a frame in the ring buffer, after the phases
+    private static final int FRAME_TIME = PHASES.length;
+    private static final int ALLOCATED = PHASES.length + 1;
+    private static final int STRIDE = PHASES.length + 2;
+
+    /**
+     * How much of the average of a component stat the last frame makes up
+     */
+    private static final float SMOOTHING = 0.05f;
+
+    /**
+     * The allocation counter of the threads, or null if the JVM can't count allocations
+     */
+    private static final com.sun.management.ThreadMXBean THREADS = allocationCounter();
+
+    /**
+     * The amount of frames kept
+     */
+    public final int capacity;
+
+    private volatile boolean enabled = false;
+    private boolean overlayVisible = false;
+
+    /**
+     * The frames, each made of the time of every phase, the time of the frame and the allocated bytes
+     * (there's an extra slot, which is the one being written)
+     */
+    private final long[] frames;
+    /**
+     * The amount of frames written (a frame is visible to readers once this counts it)
+     */
+    private volatile long written = 0;
+    /**
+     * The column read by the averages and percentiles (owned by the game thread)
+     */
+    private final long[] scratch;
+
+    // the frame being recorded
+    private boolean recording = false;
+    private final long[] current = new long[STRIDE];
+    private long frameStart;
+    private long lapStart;
+    private long allocatedStart;
+
+    // the component being updated
+    private long componentStart;
+    private long componentAllocatedStart;
+
+    /**
+     * The stats of every type of component that was updated while profiling
+     */
+    private final Map<Class<?>, ComponentStats> componentStats = new HashMap<>();
+    private final List<ComponentStats> componentStatsList = new ArrayList<>();
+
+    /**
+     * Creates a profiler
+     * @param capacity the amount of frames to keep
+     */
+    public FrameProfiler(int capacity) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("The amount of frames the profiler keeps must be positive.");
+
+        this.capacity = capacity;
+        this.frames = new long[(capacity + 1) * STRIDE];
+        this.scratch = new long[capacity];
+    }
+
+    /**
+     * Starts or stops recording (from the next frame)
+     * @param enabled whether to record
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Whether the profiler records the frames
+     */
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    /**
+     * Shows or hides the overlay (showing it enables the profiler)
+     * @param visible whether to draw the overlay
+     * @see ProfilerOverlay
+     */
+    public void setOverlayVisible(boolean visible) {
+        this.overlayVisible = visible;
+        if (visible)
+            this.enabled = true;
+    }
+
+    /**
+     * Whether the overlay is drawn
+     */
+    public boolean isOverlayVisible() {
+        return this.overlayVisible;
+    }
+
+    /**
+     * Whether the JVM counts the memory allocated by threads (otherwise the allocations are always 0)
+     */
+    public static boolean canCountAllocations() {
+        return THREADS != null;
+    }
+
+    /**
+     * Forgets all recorded frames and component stats (must be called from the game thread)
+     */
+    public void reset() {
+        this.written = 0;
+        this.componentStats.clear();
+        this.componentStatsList.clear();
+    }
+
+    // ==================== RECORDING ====================
+
+    /**
+     * [Internal] Starts recording a frame, if enabled
+     */
+    void beginFrame() {
+        this.recording = this.enabled;
+        if (!this.recording)
+            return;
+
+        Arrays.fill(this.current, 0);
+        this.allocatedStart = allocated();
+        this.frameStart = System.nanoTime();
+        this.lapStart = this.frameStart;
+    }
+
+    /**
+     * [Internal] Adds the time since the end of the last phase to a phase
+     * @param phase the phase that just ended
+     */
+    void lap(Phase phase) {
+        if (!this.recording)
+            return;
+
+        long now = System.nanoTime();
+        this.current[phase.ordinal()] += now - this.lapStart;
+        this.lapStart = now;
+    }
+
+    /**
+     * [Internal] Ends the frame and publishes it to the readers
+     */
+    void endFrame() {
+        if (!this.recording)
+            return;
+
+        this.recording = false;
+        this.current[FRAME_TIME] = System.nanoTime() - this.frameStart;
+        this.current[ALLOCATED] = allocated() - this.allocatedStart;
+
+        long frame = this.written;
+        int slot = (int) (frame % (this.capacity + 1));
+        System.arraycopy(this.current, 0, this.frames, slot * STRIDE, STRIDE);
+        this.written = frame + 1;
+
+        for (ComponentStats stats : this.componentStatsList)
+            stats.endFrame();
+    }
+
+    /**
+     * [Internal] Whether the current frame is recorded (so the components must be measured)
+     */
+    boolean isRecording() {
+        return this.recording;
+    }
+
+    /**
+     * [Internal] Starts measuring the update of a component
+     */
+    void beginComponent() {
+        this.componentAllocatedStart = allocated();
+        this.componentStart = System.nanoTime();
+    }
+
+    /**
+     * [Internal] Adds the cost since {@link FrameProfiler#beginComponent()} to the type of a component
+     * @param component the component that was updated
+     */
+    void endComponent(Component component) {
+        long time = System.nanoTime() - this.componentStart;
+        long allocated = allocated() - this.componentAllocatedStart;
+
+        ComponentStats stats = this.componentStats.get(component.getClass());
+        if (stats == null) {
+            stats = new ComponentStats(component.getClass());
+            this.componentStats.put(component.getClass(), stats);
+            this.componentStatsList.add(stats);
+        }
+
+        stats.frameTime += time;
+        stats.frameAllocated += allocated;
+        stats.frameCalls++;
+    }
+
+    private static long allocated() {
+        return THREADS == null ? 0 : THREADS.getCurrentThreadAllocatedBytes();
+    }
+
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        try {
+            if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                && threads.isThreadAllocatedMemorySupported()) {
+                threads.setThreadAllocatedMemoryEnabled(true);
+                return threads;
+            }
+        }
+        catch (RuntimeException | LinkageError e) {
+            // not a HotSpot-like JVM, or not allowed to
+        }
+
+        return null;
+    }
+
+    // ==================== READING ====================
+
+    /**
+     * Gets the amount of frames recorded since the profiler was created or reset (including the ones no longer kept)
+     */
+    public long getFrameCount() {
+        return this.written;
+    }
+
+    /**
+     * Copies the times of the kept frames (from the start to the end of the work of the frame, without the time spent
+     * waiting for the next frame), from the oldest to the newest
+     * @param out the array to copy into (the newest frames are copied if it's too small)
+     * @return the amount of frames copied
+     */
+    public int getFrameTimes(long[] out) {
+        return this.read(FRAME_TIME, out);
+    }
+
+    /**
+     * Copies the times of a phase of the kept frames, from the oldest to the newest
+     * @param phase the phase
+     * @param out the array to copy into (the newest frames are copied if it's too small)
+     * @return the amount of frames copied
+     */
+    public int getPhaseTimes(Phase phase, long[] out) {
+        return this.read(phase.ordinal(), out);
+    }
+
+    /**
+     * Copies the bytes allocated by the kept frames, from the oldest to the newest
+     * @param out the array to copy into (the newest frames are copied if it's too small)
+     * @return the amount of frames copied
+     */
+    public int getAllocations(long[] out) {
+        return this.read(ALLOCATED, out);
+    }
+
+    /**
+     * Gets the average time of a phase over the kept frames (must be called from the game thread, other threads should
+     * copy the times with {@link FrameProfiler#getPhaseTimes(Phase, long[])})
+     * @param phase the phase
+     * @return the time in nanoseconds (0 if no frames were recorded)
+     */
+    public long getAverage(Phase phase) {
+        int count = this.getPhaseTimes(phase, this.scratch);
+        return average(this.scratch, count);
+    }
+
+    /**
+     * Gets the average time of the kept frames (must be called from the game thread)
+     * @return the time in nanoseconds (0 if no frames were recorded)
+     */
+    public long getAverageFrameTime() {
+        int count = this.getFrameTimes(this.scratch);
+        return average(this.scratch, count);
+    }
+
+    /**
+     * Gets a percentile of the times of the kept frames (must be called from the game thread)
+     * @param percentile the percentile, from 0 to 1 (i.e.: 0.99 for p99)
+     * @return the time in nanoseconds (0 if no frames were recorded)
+     */
+    public long getPercentile(double percentile) {
+        int count = this.getFrameTimes(this.scratch);
+        Arrays.sort(this.scratch, 0, count);
+        return percentile(this.scratch, count, percentile);
+    }
+
+    /**
+     * Gets the stats of the types of components, the most expensive first (must be called from the game thread)
+     * @return a copy of the list of stats
+     */
+    public List<ComponentStats> getComponentStats() {
+        List<ComponentStats> stats = new ArrayList<>(this.componentStatsList);
+        stats.sort((a, b) -> Float.compare(b.averageTime, a.averageTime));
+        return stats;
+    }
+
+    /**
+     * Copies a column of the kept frames, checking that the writer didn't overwrite them while copying
+     */
+    private int read(int column, long[] out) {
+        while (true) {
+            long end = this.written;
+            int count = (int) Math.min(Math.min(end, this.capacity), out.length);
+            long first = end - count;
+
+            for (int i = 0; i < count; i++) {
+                int slot = (int) ((first + i) % (this.capacity + 1));
+                out[i] = this.frames[slot * STRIDE + column];
+            }
+
+            // the copies must happen before checking whether the writer got to them
+            VarHandle.acquireFence();
+            // the frame being written overwrites the slot of the frame capacity + 1 frames before it
+            if (this.written - first <= this.capacity)
+                return count;
+        }
+    }
+
+    static long average(long[] values, int count) {
+        if (count == 0)
+            return 0;
+
+        long sum = 0;
+        for (int i = 0; i < count; i++)
+            sum += values[i];
+
+        return sum / count;
+    }
+
+    /**
+     * Gets a percentile of sorted values (the nearest rank)
+     */
+    static long percentile(long[] sorted, int count, double percentile) {
+        if (count == 0)
+            return 0;
+
+        int rank = (int) Math.ceil(percentile * count) - 1;
+        return sorted[Math.max(0, Math.min(count - 1, rank))];
+    }
+
+    /**
+     * The cost of the updates (fixedUpdate and update) of a type of component
+     */
+    public static class ComponentStats
+    {
+        /**
+         * The type of the components
+         */
+        public final Class<?> type;
+
+        // the current frame
+        private long frameTime = 0;
+        private long frameAllocated = 0;
+        private int frameCalls = 0;
+
+        // the last recorded frame
+        private long lastTime = 0;
+        private long lastAllocated = 0;
+        private int lastCalls = 0;
+
+        // smoothed over the recorded frames
+        private float averageTime = 0f;
+        private float averageAllocated = 0f;
+
+        private ComponentStats(Class<?> type) {
+            this.type = type;
+        }
+
+        private void endFrame() {
+            this.lastTime = this.frameTime;
+            this.lastAllocated = this.frameAllocated;
+            this.lastCalls = this.frameCalls;
+
+            this.averageTime += (this.frameTime - this.averageTime) * SMOOTHING;
+            this.averageAllocated += (this.frameAllocated - this.averageAllocated) * SMOOTHING;
+
+            this.frameTime = 0;
+            this.frameAllocated = 0;
+            this.frameCalls = 0;
+        }
+
+        /**
+         * Gets the name of the type of the components
+         */
+        public String getName() {
+            return this.type.getSimpleName().isEmpty() ? this.type.getName() : this.type.getSimpleName();
+        }
+
+        /**
+         * Gets the time all components of this type took to update in the last frame, in nanoseconds
+         */
+        public long getLastTime() {
+            return this.lastTime;
+        }
+
+        /**
+         * Gets the bytes all components of this type allocated while updating in the last frame
+         */
+        public long getLastAllocated() {
+            return this.lastAllocated;
+        }
+
+        /**
+         * Gets the amount of updates (fixedUpdate and update count separately) in the last frame
+         */
+        public int getLastCalls() {
+            return this.lastCalls;
+        }
+
+        /**
+         * Gets the time the components of this type take to update per frame, averaged over the recent frames, in nanoseconds
+         */
+        public float getAverageTime() {
+            return this.averageTime;
+        }
+
+        /**
+         * Gets the bytes the components of this type allocate per frame, averaged over the recent frames
+         */
+        public float getAverageAllocated() {
+            return this.averageAllocated;
+        }
+    }
+}
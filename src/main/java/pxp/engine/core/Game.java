@@ -23,9 +23,29 @@ public abstract class Game
         settings = this.startup();
         scenes = this.buildScenes();
 
-        // create GameProcess
-        this.process = new GameProcess(this);
-        this.process.run();
+        this.process = this.createProcess();
+    }
+
+    /**
+     * Creates & starts a game of given settings and scenes, without calling startup() and buildScenes() (used by the
+     * headless runner, so every game gets its own settings)
+     * @param settings the settings of the game
+     * @param scenes the scenes of the game, in order
+     */
+    Game(GameSettings settings, Scene[] scenes) {
+        this.settings = settings;
+        this.scenes = scenes;
+
+        this.process = this.createProcess();
+    }
+
+    private GameProcess createProcess() {
+        GameProcess process = new GameProcess(this);
+        // the headless runner steps the process itself, without a window
+        if (!settings.headless)
+            process.run();
+
+        return process;
     }
 
     /**
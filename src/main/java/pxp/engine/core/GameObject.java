@@ -44,6 +44,13 @@ public class GameObject
      */
     public Renderer renderer;
 
+    /**
+     * [Internal] The sorting layer and slot of the GameObject in the render queue of its scene (-1 if it isn't in the queue)
+     * @see RenderQueue
+     */
+    public int renderLayer = -1;
+    public int renderSlot = -1;
+
     /**
      * [Internal] The colliders of the GameObject
      */
@@ -183,25 +190,56 @@ public class GameObject
     }
 
     /**
-     * Game step event, runs every frame
+     * Game step event, calls the fixed updates (every tick) and/or the updates (every frame) of the components and children.<br/>
+     * Both run together once per frame, unless using a {@link pxp.engine.data.GameSettings#fixedTimestep}
+     * @param fixedUpdate whether to call fixedUpdate (a tick is simulated)
+     * @param update whether to call update (a frame is stepped)
      */
-    protected void update() {
+    protected void update(boolean fixedUpdate, boolean update) {
         if (!isLoaded) return;
         if (this.isDestroyed) return;
         if (!this.isActive) return;
 
-        // set last position
-        this.transform.lastPosition = this.transform.position.clone();
+        // set last position (the movement of a tick is what the colliders see)
+        if (fixedUpdate)
+            this.transform.lastPosition = this.transform.position.clone();
 
-        // bind transform
-        this.transform.bind(scene.context);
+        // bind transform (there are no matrices to bind to when running headless)
+        boolean bind = !scene.context.isHeadless();
+        if (bind)
+            this.transform.bind(scene.context);
         // call update methods
-        this.components.forEach(Component::update);
+        FrameProfiler profiler = scene.context.profiler;
+        if (profiler.isRecording()) {
+            // measured one by one, by the type of the component
+            if (fixedUpdate) {
+                for (Component component : this.components) {
+                    profiler.beginComponent();
+                    component.fixedUpdate();
+                    profiler.endComponent(component);
+                }
+            }
+            if (update) {
+                for (Component component : this.components) {
+                    profiler.beginComponent();
+                    component.update();
+                    profiler.endComponent(component);
+                }
+            }
+        }
+        else {
+            if (fixedUpdate)
+                this.components.forEach(Component::fixedUpdate);
+            if (update)
+                this.components.forEach(Component::update);
+        }
 
         // call draw methods for children
-        this.children.forEach(GameObject::update);
+        for (GameObject child : this.children)
+            child.update(fixedUpdate, update);
 
-        this.transform.unbind();
+        if (bind)
+            this.transform.unbind();
     }
 
     /**
@@ -360,6 +398,13 @@ public class GameObject
         return components.toArray((T[]) Array.newInstance(type, components.size()));
     }
 
+    /**
+     * Gets the amount of components of this game object (without its children)
+     */
+    public int getComponentCount() {
+        return this.components.size();
+    }
+
     /**
      * Removes and destroys a component
      * @param component the component to remove
@@ -429,6 +474,8 @@ public class GameObject
         else if (c instanceof Collider col) {
             this.colliders.remove(col);
 
+            this.scene.context.collisionManager.unregister(col);
+
             if (this.colliders.size() == 0)
                 this.scene.context.collisionManager.unregister(this);
         }
@@ -561,8 +608,12 @@ public class GameObject
             if (register)
                 scene.registerSortingLayer(this);
         }
-        else if (c instanceof Collider col)
+        else if (c instanceof Collider col) {
             this.colliders.add(col);
+
+            if (register)
+                scene.context.collisionManager.register(this);
+        }
     }
 
     /**
@@ -2,6 +2,7 @@ package pxp.engine.core;
 
 import pxp.engine.core.manager.CollisionManager;
 import pxp.engine.core.manager.LayerManager;
+import pxp.engine.data.assets.AssetLoader;
 import pxp.engine.data.assets.AssetManager;
 import pxp.engine.data.ui.Cursor;
 import processing.core.PApplet;
@@ -9,7 +10,10 @@ import processing.event.MouseEvent;
 import processing.opengl.PGraphicsOpenGL;
 import pxp.engine.data.*;
 import pxp.logging.Debug;
+import pxp.logging.Metrics;
+import pxp.logging.MetricsExporter;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -68,6 +72,12 @@ public class GameProcess extends PApplet
      */
     public boolean autoDraw = true;
 
+    /**
+     * Whether this GameProcess is stepped by a {@link HeadlessRunner} (without a window, nothing is rendered)
+     * @see GameSettings#headless
+     */
+    private final boolean headless;
+
     private final List<Runnable> nextFrameQueue = new ArrayList<>();
 
     private final List<Routine> routines = new ArrayList<>();
@@ -77,6 +87,29 @@ public class GameProcess extends PApplet
      */
     public CollisionManager collisionManager;
 
+    /**
+     * The Frame Profiler (records the timings of the frames when enabled)
+     */
+    public final FrameProfiler profiler;
+    /**
+     * Draws the recordings of the profiler over the game
+     */
+    private final ProfilerOverlay profilerOverlay;
+
+    /**
+     * The metrics of the engine (null unless {@link GameSettings#metrics} is set)
+     */
+    public final EngineMetrics metrics;
+    /**
+     * Writes the metrics to disk (null unless {@link GameSettings#metricsFile} is set)
+     */
+    private MetricsExporter metricsExporter = null;
+
+    /**
+     * Loads the assets while the game runs (null unless {@link GameSettings#asyncAssetLoading} is set)
+     */
+    private AssetLoader assetLoader = null;
+
     /**
      * Whether to forcibly draw all gizmos (may cause lag, as every component's gizmosDraw will be invoked every frame)
      */
@@ -112,15 +145,28 @@ public class GameProcess extends PApplet
 
         this.game = game;
         this.settings = game.settings;
+        this.headless = game.settings.headless;
         this.forceDrawGizmos = game.settings.forceDrawGizmos;
         this.scenes = game.scenes;
 
         for (int i = 0; i < this.scenes.length; i++)
             this.scenes[i].index = i;
 
+        if (this.settings.fixedTimestep && (this.settings.tickRate <= 0 || this.settings.maxSubsteps <= 0))
+            throw new IllegalArgumentException("The tick rate and the maximum amount of substeps must be positive.");
+
         LayerManager.initialize(this.settings.layers, this.settings.sortingLayers);
 
-        this.collisionManager = new CollisionManager(this.settings.ignoreCollisionLayers);
+        this.collisionManager = new CollisionManager(this.settings);
+
+        this.profiler = new FrameProfiler(this.settings.profilerFrames);
+        this.profiler.setEnabled(this.settings.profiler);
+        this.profiler.setOverlayVisible(this.settings.profilerOverlay);
+        this.profilerOverlay = new ProfilerOverlay(this.profiler);
+
+        this.metrics = this.settings.metrics ? new EngineMetrics(this, Metrics.getInstance()) : null;
+        if (this.metrics != null && this.settings.metricsFile != null)
+            this.metricsExporter = new MetricsExporter(Metrics.getInstance(), new File(this.settings.metricsFile), this.settings.metricsFormat);
 
         this.windowSize = new Vector2(settings.size);
     }
@@ -151,15 +197,45 @@ public class GameProcess extends PApplet
         ((PGraphicsOpenGL) g).textureSampling(settings.textureFilter.ordinal());
 
         // load assets
-        AssetManager.load();
-
-        // game settings after asset manager
-        resetCursor();
+        if (settings.asyncAssetLoading) {
+            this.assetLoader = AssetManager.loadAsync(settings.assetLoadingThreads);
+            // the cursor may be a sprite
+            this.assetLoader.getFuture().thenRun(this::resetCursor);
+        }
+        else {
+            AssetManager.load();
+
+            // game settings after asset manager
+            resetCursor();
+        }
 
         // load first scene
         getCurrentScene().context = this;
         getCurrentScene().load();
 
+        this.startMetricsExporter();
+
+        this.finishSetup = true;
+        this.finishSetupCallback.run();
+    }
+
+    /**
+     * [Internal] Sets up the game without a window (used by {@link HeadlessRunner}): loads the assets (optionally) and
+     * the first scene. Game#setup, the cursor and the graphics settings are skipped, since Processing doesn't run
+     * @param loadAssets whether to load the assets with the AssetManager
+     */
+    public void setupHeadless(boolean loadAssets) {
+        if (!this.headless)
+            throw new IllegalStateException("Only a headless game (see GameSettings#headless) can be set up without a window.");
+
+        if (loadAssets)
+            AssetManager.load();
+
+        getCurrentScene().context = this;
+        getCurrentScene().load();
+
+        this.startMetricsExporter();
+
         this.finishSetup = true;
         this.finishSetupCallback.run();
     }
@@ -172,32 +248,116 @@ public class GameProcess extends PApplet
 
     /**
      * Step method, called every frame, checks window size,
-     * calls update for all GameObjects of the current scene and calls render
+     * simulates the game (once, or in fixed ticks) and calls render
      */
     public void step() {
         this.windowSize = new Vector2(width, height);
 
         if (!finishSetup) return;
 
+        this.profiler.beginFrame();
+        if (this.assetLoader != null && !this.assetLoader.isDone())
+            // up to half of the frame
+            this.assetLoader.update((long) (1e9 / Math.max(1, settings.targetFPS) / 2));
+
         Time.newFrame();
+        this.simulate();
 
+        getCurrentScene().render();
+        this.profiler.lap(FrameProfiler.Phase.RENDER);
+        Input.reset();
+        this.profiler.lap(FrameProfiler.Phase.INPUT);
+        this.profiler.endFrame();
+        if (this.metrics != null)
+            this.metrics.record();
+
+        // drawn after the frame is recorded, so it doesn't count itself
+        if (this.profiler.isOverlayVisible())
+            this.profilerOverlay.render(this);
+    }
+
+    /**
+     * [Internal] Steps the game without rendering, advancing the time by a given delta time instead of measuring it
+     * (used by {@link HeadlessRunner})
+     * @param deltaTime the time passed since the previous frame in seconds
+     */
+    public void step(float deltaTime) {
+        if (!finishSetup) return;
+
+        this.profiler.beginFrame();
+        Time.newFrame(deltaTime);
+        this.simulate();
+
+        Input.reset();
+        this.profiler.lap(FrameProfiler.Phase.INPUT);
+        this.profiler.endFrame();
+        if (this.metrics != null)
+            this.metrics.record();
+    }
+
+    /**
+     * Runs the next frame queue, then simulates the game (once, or in fixed ticks)
+     */
+    private void simulate() {
         // execute next frame queue
         // PREVENT CONCURRENT ON THE FUCKING QUEUE (╯°□°)╯︵ ┻━┻
         List<Runnable> queue = new ArrayList<>(this.nextFrameQueue);
         queue.forEach(Runnable::run);
         this.nextFrameQueue.removeAll(queue);
+        this.profiler.lap(FrameProfiler.Phase.NEXT_FRAME);
+
+        if (this.settings.fixedTimestep) {
+            // simulate as many ticks as the time since the last frame covers
+            int ticks = Time.accumulate(this.settings.tickRate, this.settings.maxSubsteps);
+
+            Time.beginTicks();
+            Input.setTicking(true);
+            for (int i = 0; i < ticks; i++) {
+                this.tick(true, false);
+                // the clicks and scrolling of the frame are only seen by its first tick
+                Input.consumeTick();
+            }
+            Input.setTicking(false);
+            Time.endTicks();
+
+            // the updates still run once per frame
+            for (GameObject go : getCurrentScene().objects)
+                go.update(false, true);
+            this.profiler.lap(FrameProfiler.Phase.UPDATE);
+        }
+        else
+            this.tick(true, true);
+    }
 
+    /**
+     * Simulates a tick of the game: updates all GameObjects of the current scene, checks collisions and advances routines.<br/>
+     * Runs once per frame, or at a fixed rate if {@link GameSettings#fixedTimestep} is set (then only the fixed updates run)
+     * @param fixedUpdate whether the fixed updates of the components run
+     * @param update whether the updates of the components run
+     */
+    private void tick(boolean fixedUpdate, boolean update) {
         // update method
         for (GameObject go : getCurrentScene().objects)
-            go.update();
+            go.update(fixedUpdate, update);
+        this.profiler.lap(FrameProfiler.Phase.UPDATE);
 
         this.collisionManager.update();
+        this.profiler.lap(FrameProfiler.Phase.COLLISIONS);
 
         // routines
         this.stepRoutines();
+        this.profiler.lap(FrameProfiler.Phase.ROUTINES);
+    }
 
-        getCurrentScene().render();
-        Input.reset();
+    /**
+     * Starts exporting the metrics periodically, writing a last snapshot when the JVM exits
+     */
+    private void startMetricsExporter() {
+        if (this.metricsExporter == null)
+            return;
+
+        this.metricsExporter.start(this.settings.metricsInterval);
+        Runtime.getRuntime().addShutdownHook(new Thread(this.metricsExporter::stop, "PXP Metrics Exporter Shutdown"));
     }
 
     /**
@@ -208,6 +368,24 @@ public class GameProcess extends PApplet
         runSketch(args, this);
     }
 
+    /**
+     * The time in milliseconds since the game started (the simulated time when running headless)
+     */
+    @Override
+    public int millis() {
+        if (this.headless)
+            return (int) (Time.get(this)._lastTime * 1000f);
+
+        return super.millis();
+    }
+
+    /**
+     * Whether this GameProcess is stepped by a {@link HeadlessRunner} (without a window, nothing is rendered)
+     */
+    public boolean isHeadless() {
+        return this.headless;
+    }
+
     // ==================== INPUT ====================
 
     @Override
@@ -341,6 +519,13 @@ public class GameProcess extends PApplet
         this.routines.removeIf(r -> r.id == gameObject.hashCode());
     }
 
+    /**
+     * Gets the amount of running routines
+     */
+    public int getRoutineCount() {
+        return this.routines.size();
+    }
+
     /**
      * Called every frame to advance routines
      */
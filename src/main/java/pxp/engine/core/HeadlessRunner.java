@@ -0,0 +1,191 @@
+package pxp.engine.core;
+
+import pxp.engine.data.GameSettings;
+
+import java.util.function.Supplier;
+
+/**
+ * The Headless Runner runs a game without a window or OpenGL: the scenes are loaded and the game objects, collisions and
+ * routines are simulated from a plain loop, with a simulated time (every frame advances it by a fixed delta time), while
+ * rendering is skipped.<br/>
+ * Used to test and benchmark the logic of a game on machines without a GPU, faster than real time.<br/>
+ * <i>Components that use Processing to draw or measure something outside of rendering (i.e.: in start) can't run headless</i>
+ * <pre>
+ * // the settings of the game must have GameSettings#headless set
+ * HeadlessRunner runner = HeadlessRunner.create(MyGame::new);
+ * runner.start();
+ * runner.run(10000);
+ * </pre>
+ */
+public class HeadlessRunner
+{
+    /**
+     * The game that runs
+     */
+    public final Game game;
+    /**
+     * The process of the game (never run by Processing)
+     */
+    public final GameProcess process;
+
+    /**
+     * The time every frame advances by in seconds
+     */
+    private float deltaTime;
+    /**
+     * Whether the assets are loaded when the runner starts
+     */
+    private boolean loadAssets = false;
+    private boolean started = false;
+
+    private HeadlessRunner(Game game) {
+        this.game = game;
+        this.process = game.process;
+
+        // a frame per tick when using a fixed timestep, otherwise the target frame rate
+        GameSettings settings = game.process.settings;
+        this.deltaTime = 1f / (settings.fixedTimestep ? settings.tickRate : Math.max(settings.targetFPS, 1));
+    }
+
+    /**
+     * Creates a game without a window
+     * @param game creates the game (i.e.: the constructor of the class that extends Game), whose settings must have
+     *             {@link GameSettings#headless} set (otherwise the game opens its window as usual)
+     * @return the runner of the game (not started)
+     * @throws IllegalArgumentException if the game isn't headless
+     */
+    public static HeadlessRunner create(Supplier<? extends Game> game) {
+        Game created = game.get();
+        if (!created.settings.headless)
+            throw new IllegalArgumentException("The settings of a game run by the headless runner must have GameSettings#headless set.");
+
+        return new HeadlessRunner(created);
+    }
+
+    /**
+     * Creates a game without a window, given its settings and scenes
+     * @param settings the settings of the game ({@link GameSettings#headless} is set)
+     * @param scenes the scenes of the game, in order
+     * @return the runner of the game (not started)
+     */
+    public static HeadlessRunner create(GameSettings settings, Scene... scenes) {
+        settings.headless = true;
+        return create(() -> new SettingsGame(settings, scenes));
+    }
+
+    /**
+     * Sets the time every frame advances by
+     * @param deltaTime the delta time in seconds
+     * @return this runner (for chaining)
+     */
+    public HeadlessRunner setDeltaTime(float deltaTime) {
+        if (deltaTime <= 0f)
+            throw new IllegalArgumentException("The delta time must be positive.");
+
+        this.deltaTime = deltaTime;
+        return this;
+    }
+
+    /**
+     * Sets whether the assets are loaded when the runner starts (off by default, since loading fonts and sounds may need
+     * a display or an audio device)
+     * @param loadAssets whether to load the assets
+     * @return this runner (for chaining)
+     */
+    public HeadlessRunner setLoadAssets(boolean loadAssets) {
+        this.loadAssets = loadAssets;
+        return this;
+    }
+
+    /**
+     * Loads the first scene (and the assets, if set)
+     * @return this runner (for chaining)
+     */
+    public HeadlessRunner start() {
+        if (this.started)
+            return this;
+
+        this.started = true;
+        this.process.setupHeadless(this.loadAssets);
+        return this;
+    }
+
+    /**
+     * Simulates a frame
+     */
+    public void step() {
+        this.step(this.deltaTime);
+    }
+
+    /**
+     * Simulates a frame, given its delta time
+     * @param deltaTime the time passed since the previous frame in seconds
+     */
+    public void step(float deltaTime) {
+        if (!this.started)
+            this.start();
+
+        this.process.step(deltaTime);
+    }
+
+    /**
+     * Simulates multiple frames
+     * @param frames the amount of frames
+     */
+    public void run(int frames) {
+        for (int i = 0; i < frames; i++)
+            this.step();
+    }
+
+    /**
+     * Simulates frames until an amount of (simulated) time passes
+     * @param seconds the amount of time in seconds
+     * @return the amount of frames simulated
+     */
+    public int runFor(float seconds) {
+        int frames = (int) Math.ceil(seconds / this.deltaTime);
+        this.run(frames);
+        return frames;
+    }
+
+    /**
+     * Gets the amount of frames simulated
+     */
+    public int getFrameCount() {
+        return Time.get(this.process)._frameCount;
+    }
+
+    /**
+     * Gets the simulated time since the runner started in seconds
+     */
+    public float getTime() {
+        return Time.get(this.process)._lastTime;
+    }
+
+    /**
+     * Gets the current scene
+     */
+    public Scene getScene() {
+        return this.process.getCurrentScene();
+    }
+
+    /**
+     * A game made of given settings and scenes
+     */
+    private static class SettingsGame extends Game
+    {
+        private SettingsGame(GameSettings settings, Scene[] scenes) {
+            super(settings, scenes);
+        }
+
+        @Override
+        public GameSettings startup() {
+            return this.settings;
+        }
+
+        @Override
+        public Scene[] buildScenes() {
+            return this.scenes;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package pxp.engine.core;
+
+import processing.core.PConstants;
+import processing.core.PFont;
+import processing.core.PGraphics;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The Profiler Overlay draws the recordings of the {@link FrameProfiler} over the game, in the top left corner of the
+ * window: a graph of the times of the kept frames (against the budget of a frame at the target frame rate), the average,
+ * p50 and p99 frame time, the average time of every phase and the types of components that take the longest to update.
+ * @see FrameProfiler#setOverlayVisible(boolean)
+ */
+public class ProfilerOverlay
+{
+    private static final int WIDTH = 300;
+    private static final int GRAPH_HEIGHT = 60;
+    private static final int LINE_HEIGHT = 14;
+    private static final int PADDING = 6;
+    /**
+     * The amount of types of components listed
+     */
+    private static final int TOP_COMPONENTS = 5;
+
+    private final FrameProfiler profiler;
+
+    // reused every frame
+    private final long[] times;
+    private final long[] sorted;
+    private PFont font = null;
+
+    /**
+     * Creates the overlay of a profiler
+     * @param profiler the profiler to draw the recordings of
+     */
+    public ProfilerOverlay(FrameProfiler profiler) {
+        this.profiler = profiler;
+        this.times = new long[profiler.capacity];
+        this.sorted = new long[profiler.capacity];
+    }
+
+    /**
+     * Draws the overlay, in screen space (replaces the camera, so it must be drawn after the scene)
+     * @param context the game process to draw with
+     */
+    public void render(GameProcess context) {
+        PGraphics g = context.g;
+        if (this.font == null)
+            this.font = context.createFont("SansSerif", 12, true);
+
+        float budget = 1e9f / Math.max(1, context.settings.targetFPS);
+        int count = this.profiler.getFrameTimes(this.times);
+        System.arraycopy(this.times, 0, this.sorted, 0, count);
+        Arrays.sort(this.sorted, 0, count);
+
+        List<FrameProfiler.ComponentStats> components = this.profiler.getComponentStats();
+        int componentLines = Math.min(TOP_COMPONENTS, components.size());
+        int lines = 2 + FrameProfiler.Phase.values().length + (componentLines > 0 ? 1 + componentLines : 0);
+        int height = PADDING * 3 + GRAPH_HEIGHT + lines * LINE_HEIGHT;
+
+        g.push();
+        g.hint(PConstants.DISABLE_DEPTH_TEST);
+        // pixels, from the top left corner of the window
+        g.camera();
+        g.ortho();
+        g.resetMatrix();
+        g.translate(-g.width / 2f, -g.height / 2f);
+        g.blendMode(PConstants.BLEND);
+
+        g.noStroke();
+        g.fill(0, 0, 0, 180);
+        g.rect(0, 0, WIDTH, height);
+
+        // ==== graph ====
+        float graphTop = PADDING;
+        float graphWidth = WIDTH - PADDING * 2;
+        // the budget sits at two thirds of the height
+        float scale = GRAPH_HEIGHT / (budget * 1.5f);
+        float barWidth = graphWidth / this.profiler.capacity;
+        for (int i = 0; i < count; i++) {
+            long time = this.times[i];
+            if (time > budget)
+                g.fill(0xffe04040);
+            else if (time > budget * 0.75f)
+                g.fill(0xffe0c040);
+            else
+                g.fill(0xff40c060);
+
+            float barHeight = Math.min(GRAPH_HEIGHT, time * scale);
+            float x = PADDING + graphWidth - (count - i) * barWidth;
+            g.rect(x, graphTop + GRAPH_HEIGHT - barHeight, Math.max(1f, barWidth), barHeight);
+        }
+
+        g.stroke(0xffffffff);
+        float budgetY = graphTop + GRAPH_HEIGHT - budget * scale;
+        g.line(PADDING, budgetY, PADDING + graphWidth, budgetY);
+        g.noStroke();
+
+        // ==== text ====
+        g.fill(0xffffffff);
+        g.textFont(this.font);
+        g.textAlign(PConstants.LEFT, PConstants.TOP);
+
+        float y = graphTop + GRAPH_HEIGHT + PADDING;
+        g.text(String.format("frame  avg %.2f  p50 %.2f  p99 %.2f ms",
+            ms(FrameProfiler.average(this.times, count)),
+            ms(FrameProfiler.percentile(this.sorted, count, 0.5)),
+            ms(FrameProfiler.percentile(this.sorted, count, 0.99))
+        ), PADDING, y);
+        y += LINE_HEIGHT;
+
+        this.profiler.getAllocations(this.times);
+        g.text(String.format("allocated  %.1f KB/frame  (budget %.2f ms)",
+            FrameProfiler.average(this.times, count) / 1024f, ms(budget)
+        ), PADDING, y);
+        y += LINE_HEIGHT;
+
+        for (FrameProfiler.Phase phase : FrameProfiler.Phase.values()) {
+            this.profiler.getPhaseTimes(phase, this.times);
+            g.text(String.format("  %-12s %.3f ms", phase.name().toLowerCase(), ms(FrameProfiler.average(this.times, count))), PADDING, y);
+            y += LINE_HEIGHT;
+        }
+
+        if (componentLines > 0) {
+            g.text("top components", PADDING, y);
+            y += LINE_HEIGHT;
+            for (int i = 0; i < componentLines; i++) {
+                FrameProfiler.ComponentStats stats = components.get(i);
+                g.text(String.format("  %-16s %.3f ms  %dx  %.1f KB",
+                    stats.getName(), ms(stats.getAverageTime()), stats.getLastCalls(), stats.getAverageAllocated() / 1024f
+                ), PADDING, y);
+                y += LINE_HEIGHT;
+            }
+        }
+
+        g.hint(PConstants.ENABLE_DEPTH_TEST);
+        g.pop();
+    }
+
+    private static float ms(float nanoseconds) {
+        return nanoseconds / 1e6f;
+    }
+}
@@ -86,8 +86,16 @@ public class RectTransform extends Transform
      */
     @Override
     protected void bind(GameProcess context) {
+        this.updateAnchor();
+
         super.bind(context);
+    }
 
+    /**
+     * Calculates the anchor translation (relative to the size of the parent) and forces the pivot of the renderer to
+     * match the anchor
+     */
+    protected void updateAnchor() {
         // check if this rect transform has an anchor
         if (anchor == null) return;
 
@@ -96,9 +104,8 @@ public class RectTransform extends Transform
         &&  gameObject.parent.transform instanceof RectTransform rectTransform
         && (rectTransform.size.x != -1f && rectTransform.size.y != -1f)) {
             Vector2 calcAnchor = this.anchor.calc.apply(rectTransform.size);
-            // translate by the anchor calculation and store the amount
+            // store the amount to translate by the anchor calculation (applied by the matrix, so that the scale is taken into account)
             this.anchorTranslation = new Vector2(calcAnchor);
-            // context.translate(calcAnchor.x, calcAnchor.y); - moved to super (it was being translated while taking scale into account)
 
             // check if this has a pivoted renderer
             if (this.gameObject.renderer != null && this.gameObject.renderer instanceof PivotedRenderer pivRend)
@@ -0,0 +1,297 @@
+package pxp.engine.core;
+
+import pxp.engine.core.manager.LayerManager;
+
+import java.util.Arrays;
+
+/**
+ * The Render Queue holds the game objects with renderers of a scene, by sorting layer, each layer kept ordered by the
+ * order in layer of the renderers (game objects with the same order keep the order they were added in).<br/>
+ * Game objects are inserted with a binary search and remember their slot, so that removing one only clears its slot.
+ * The cleared slots are compacted once they make up half of a layer.<br/>
+ * <i>When iterating, the slots of removed game objects are null and must be skipped</i>
+ */
+public class RenderQueue
+{
+    /**
+     * The sorting layers
+     */
+    private final Layer[] layers;
+    /**
+     * The sequence of the next game object added (orders the game objects with the same order in layer)
+     */
+    private long nextSequence = 0;
+    /**
+     * The layers changed while adding in bulk (null if not adding in bulk)
+     */
+    private boolean[] bulkChanged = null;
+
+    /**
+     * Creates an empty render queue
+     * @param layerCount the amount of sorting layers
+     */
+    public RenderQueue(int layerCount) {
+        this.layers = new Layer[layerCount];
+        for (int i = 0; i < layerCount; i++)
+            this.layers[i] = new Layer();
+    }
+
+    /**
+     * Gets the sorting layer a game object's renderer is in (the Default layer if its sorting layer doesn't exist)
+     * @param gameObject the game object (must have a renderer)
+     * @return the id of the sorting layer
+     */
+    public static int getLayerId(GameObject gameObject) {
+        int sortingLayerId = LayerManager.getSortingLayerId(gameObject.renderer.getSortingLayer());
+
+        // in case the sorting layer doesn't exist, we default
+        if (sortingLayerId == -1)
+            sortingLayerId = LayerManager.getSortingLayerId("Default");
+
+        return sortingLayerId;
+    }
+
+    /**
+     * Adds a game object in its place (binary insertion), moving it if it was already added
+     * @param gameObject the game object to add (must have a renderer)
+     */
+    public void add(GameObject gameObject) {
+        this.remove(gameObject);
+
+        int layerId = getLayerId(gameObject);
+        Layer layer = this.layers[layerId];
+        int order = gameObject.renderer.getOrderInLayer();
+
+        // the game objects with the same order keep the order they were added in, so it goes after them
+        int slot = layer.size;
+        if (this.bulkChanged != null)
+            // sorted once the bulk ends
+            this.bulkChanged[layerId] = true;
+        else if (layer.size > 0 && layer.orders[layer.size - 1] > order) {
+            int low = 0;
+            int high = layer.size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (layer.orders[middle] <= order)
+                    low = middle + 1;
+                else
+                    high = middle;
+            }
+
+            slot = low;
+        }
+
+        layer.insert(slot, gameObject, order, this.nextSequence++);
+        gameObject.renderLayer = layerId;
+    }
+
+    /**
+     * Starts adding game objects in bulk (used when a scene loads): until {@link RenderQueue#endBulk()}, game objects
+     * are appended to their layers, which are then sorted only once
+     */
+    public void beginBulk() {
+        if (this.bulkChanged == null)
+            this.bulkChanged = new boolean[this.layers.length];
+    }
+
+    /**
+     * Stops adding game objects in bulk, sorting the layers that changed
+     */
+    public void endBulk() {
+        if (this.bulkChanged == null)
+            return;
+
+        for (int i = 0; i < this.layers.length; i++)
+            if (this.bulkChanged[i])
+                this.layers[i].sort();
+
+        this.bulkChanged = null;
+    }
+
+    /**
+     * Removes a game object, clearing its slot
+     * @param gameObject the game object to remove
+     * @return true if the game object was in the queue
+     */
+    public boolean remove(GameObject gameObject) {
+        if (gameObject.renderSlot == -1)
+            return false;
+
+        this.layers[gameObject.renderLayer].clear(gameObject.renderSlot);
+        gameObject.renderLayer = -1;
+        gameObject.renderSlot = -1;
+        return true;
+    }
+
+    /**
+     * Removes all game objects
+     */
+    public void clear() {
+        for (Layer layer : this.layers) {
+            for (int i = 0; i < layer.size; i++)
+                if (layer.objects[i] != null) {
+                    layer.objects[i].renderLayer = -1;
+                    layer.objects[i].renderSlot = -1;
+                }
+
+            Arrays.fill(layer.objects, 0, layer.size, null);
+            layer.size = 0;
+            layer.removed = 0;
+        }
+    }
+
+    /**
+     * Gets the amount of sorting layers
+     */
+    public int getLayerCount() {
+        return this.layers.length;
+    }
+
+    /**
+     * Gets the amount of slots of a layer (including the cleared ones)
+     * @param layer the id of the sorting layer
+     */
+    public int getSlotCount(int layer) {
+        return this.layers[layer].size;
+    }
+
+    /**
+     * Gets the game object in a slot of a layer
+     * @param layer the id of the sorting layer
+     * @param slot the slot (0 to {@link RenderQueue#getSlotCount(int)})
+     * @return the game object, or null if the slot was cleared
+     */
+    public GameObject get(int layer, int slot) {
+        return this.layers[layer].objects[slot];
+    }
+
+    /**
+     * Gets the amount of game objects in a layer
+     * @param layer the id of the sorting layer
+     */
+    public int size(int layer) {
+        return this.layers[layer].size - this.layers[layer].removed;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < this.layers.length; i++) {
+            builder.append("  [Layer \"").append(LayerManager.getSortingLayerName(i)).append("\"]: \n    [");
+
+            Layer layer = this.layers[i];
+            boolean first = true;
+            for (int j = 0; j < layer.size; j++)
+                if (layer.objects[j] != null) {
+                    builder.append(first ? "" : ", ").append(layer.objects[j]);
+                    first = false;
+                }
+
+            builder.append("]\n");
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * The game objects of a sorting layer, ordered by the order in layer and the sequence they were added in
+     */
+    private static class Layer
+    {
+        private GameObject[] objects = new GameObject[16];
+        private int[] orders = new int[16];
+        private long[] sequences = new long[16];
+        /**
+         * The amount of slots used (including the cleared ones)
+         */
+        private int size = 0;
+        /**
+         * The amount of cleared slots
+         */
+        private int removed = 0;
+
+        private void insert(int slot, GameObject gameObject, int order, long sequence) {
+            if (this.size == this.objects.length) {
+                int length = this.size * 2;
+                this.objects = Arrays.copyOf(this.objects, length);
+                this.orders = Arrays.copyOf(this.orders, length);
+                this.sequences = Arrays.copyOf(this.sequences, length);
+            }
+
+            // shift the following slots
+            int moved = this.size - slot;
+            if (moved > 0) {
+                System.arraycopy(this.objects, slot, this.objects, slot + 1, moved);
+                System.arraycopy(this.orders, slot, this.orders, slot + 1, moved);
+                System.arraycopy(this.sequences, slot, this.sequences, slot + 1, moved);
+
+                for (int i = slot + 1; i <= this.size; i++)
+                    if (this.objects[i] != null)
+                        this.objects[i].renderSlot = i;
+            }
+
+            this.objects[slot] = gameObject;
+            this.orders[slot] = order;
+            this.sequences[slot] = sequence;
+            gameObject.renderSlot = slot;
+            this.size++;
+        }
+
+        private void clear(int slot) {
+            // the order and sequence are kept, so the binary search still works
+            this.objects[slot] = null;
+            this.removed++;
+
+            if (this.removed * 2 > this.size)
+                this.compact();
+        }
+
+        /**
+         * Removes the cleared slots
+         */
+        private void compact() {
+            int count = 0;
+            for (int i = 0; i < this.size; i++)
+                if (this.objects[i] != null) {
+                    this.objects[count] = this.objects[i];
+                    this.orders[count] = this.orders[i];
+                    this.sequences[count] = this.sequences[i];
+                    this.objects[count].renderSlot = count;
+                    count++;
+                }
+
+            Arrays.fill(this.objects, count, this.size, null);
+            this.size = count;
+            this.removed = 0;
+        }
+
+        /**
+         * Sorts the layer by the order in layer, then the sequence (after appending multiple game objects)
+         */
+        private void sort() {
+            this.compact();
+
+            Integer[] indices = new Integer[this.size];
+            for (int i = 0; i < this.size; i++)
+                indices[i] = i;
+            Arrays.sort(indices, (a, b) -> this.orders[a] != this.orders[b]
+                ? Integer.compare(this.orders[a], this.orders[b])
+                : Long.compare(this.sequences[a], this.sequences[b]));
+
+            GameObject[] objects = new GameObject[this.objects.length];
+            int[] orders = new int[this.orders.length];
+            long[] sequences = new long[this.sequences.length];
+            for (int i = 0; i < this.size; i++) {
+                int index = indices[i];
+                objects[i] = this.objects[index];
+                orders[i] = this.orders[index];
+                sequences[i] = this.sequences[index];
+                objects[i].renderSlot = i;
+            }
+
+            this.objects = objects;
+            this.orders = orders;
+            this.sequences = sequences;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package pxp.engine.core;
 
 import pxp.engine.core.component.Camera;
+import pxp.engine.core.component.ui.Canvas;
 import pxp.engine.core.manager.LayerManager;
 import pxp.engine.data.GameObjectSupplier;
 import pxp.engine.data.Rect;
@@ -8,9 +9,7 @@ import processing.event.MouseEvent;
 import pxp.engine.core.component.Component;
 import pxp.logging.Debug;
 
-import java.lang.reflect.Array;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 
 /**
@@ -34,9 +33,9 @@ public class Scene
     public final List<GameObject> objects = new ArrayList<>();
 
     /**
-     * The instantiated GameObjects sorted by sortingLayer
+     * The instantiated GameObjects (with renderers) by sorting layer, ordered by their order in layer
      */
-    public ArrayList<GameObject>[] objectsByLayer = null;
+    public RenderQueue renderQueue = null;
 
     /**
      * Whether the scene has loaded
@@ -53,6 +52,22 @@ public class Scene
      */
     private boolean debugSortingLayers = false;
 
+    /**
+     * Draws the consecutive sprites sharing an image, blend mode and tint at once
+     * @see pxp.engine.data.GameSettings#spriteBatching
+     */
+    private final SpriteBatch spriteBatch = new SpriteBatch();
+    /**
+     * Finds the renderers inside the view of the camera
+     * @see pxp.engine.data.GameSettings#cameraCulling
+     */
+    private final CameraCulling culling = new CameraCulling();
+    /**
+     * The caches of the static sorting layers, by sorting layer id (null for the layers that aren't static)
+     * @see pxp.engine.data.GameSettings#staticSortingLayers
+     */
+    private StaticLayerCache[] staticLayers = null;
+
     /**
      * The main camera of the scene
      */
@@ -93,7 +108,10 @@ public class Scene
     protected void load() {
         // Default layer check is performed by the LayerManager
 
-        this.createLayersArray();
+        this.createRenderQueue();
+
+        // the layers are sorted once everything is added
+        renderQueue.beginBulk();
 
         for (GameObjectSupplier supplier : gameObjectSuppliers) {
             GameObject go = supplier.get();
@@ -108,16 +126,11 @@ public class Scene
             go.load();
         }
 
-        // debugging the layers to console
-        if (debugSortingLayers) {
-            StringBuilder stringBuilder = new StringBuilder("[Scene]\nSorting Layers:\n");
-            for (int i = 0; i < objectsByLayer.length; i++) {
-                stringBuilder.append("  [Layer \"").append(LayerManager.getSortingLayerName(i)).append("\"]: \n");
-                stringBuilder.append("    ").append(objectsByLayer[i]).append("\n");
-            }
+        renderQueue.endBulk();
 
-            Debug.log(stringBuilder.toString());
-        }
+        // debugging the layers to console
+        if (debugSortingLayers)
+            Debug.log("[Scene]\nSorting Layers:\n" + renderQueue);
 
         GameProcess.nextFrame(() -> this.loaded = true);
     }
@@ -129,8 +142,9 @@ public class Scene
         if (!loaded) return;
 
         // refresh background
-        if (context.settings.backgroundImage != null)
-            context.background(context.settings.backgroundImage.getPImage());
+        // the background image may still be loading
+        if (context.settings.backgroundImage != null && context.settings.backgroundImage.getPImage() != null)
+            context.background(context.settings.backgroundImage.getCroppedPImage());
         else
             context.background(context.settings.background.getHex());
 
@@ -143,17 +157,47 @@ public class Scene
             System.exit(0);
         }
 
-        for (List<GameObject> layer : this.objectsByLayer)
-            if (layer != null)
-                for (GameObject go : layer)
-                    if (go.renderer != null && go.isActive) {
-                        go.transform.bindAll(context);
-                        go.renderer.render();
-                        if (!go.renderer.handlesReset)
-                            go.renderer.reset();
-                        go.transform.unbindAll(context);
+        boolean batching = context.settings.spriteBatching;
+        this.spriteBatch.begin();
+
+        // find the renderers inside the view of the camera
+        boolean culling = context.settings.cameraCulling;
+        if (culling)
+            this.culling.update(this.getCamera().getRect());
+
+        for (int layer = 0; layer < this.renderQueue.getLayerCount(); layer++) {
+            // drawn as a single image
+            if (this.staticLayers[layer] != null) {
+                this.spriteBatch.flush(context);
+                this.staticLayers[layer].render(this, context);
+                continue;
+            }
+
+            for (int slot = 0; slot < this.renderQueue.getSlotCount(layer); slot++) {
+                GameObject go = this.renderQueue.get(layer, slot);
+                if (go != null && go.renderer != null && go.isActive) {
+                    // drawn into the cache of its canvas
+                    if (Canvas.isDrawnByCache(go))
+                        continue;
+
+                    if (culling && !this.culling.isVisible(go))
+                        continue;
+
+                    if (batching && SpriteBatch.canBatch(go)) {
+                        this.spriteBatch.add(go, context);
+                        continue;
                     }
 
+                    // draw the sprites batched so far, to keep the order
+                    this.spriteBatch.flush(context);
+
+                    this.renderGameObject(go);
+                }
+            }
+        }
+
+        this.spriteBatch.flush(context);
+
         this.objects.forEach((go) -> {
             if (!go.isDestroyed && go.isActive) {
                 go.transform.bind(this.context);
@@ -178,55 +222,55 @@ public class Scene
     }
 
     /**
-     * Creates the layers array based on the sorting layers of the game
+     * [Internal] Renders the renderer of a game object, bound to its transform (and its parents')
+     * @param gameObject the game object to render (must have a renderer)
+     */
+    public void renderGameObject(GameObject gameObject) {
+        gameObject.transform.bindAll(context);
+        gameObject.renderer.render();
+        if (!gameObject.renderer.handlesReset)
+            gameObject.renderer.reset();
+        gameObject.transform.unbindAll(context);
+    }
+
+    /**
+     * Creates the render queue based on the sorting layers of the game
      */
-    private void createLayersArray() {
-        // in case this was called before, we don't want to override the array
-        if (objectsByLayer != null) return;
+    private void createRenderQueue() {
+        // in case this was called before, we don't want to override the queue
+        if (renderQueue != null) return;
 
-        // this is how it would make sense for it to work \/
-        // objectsByLayer = new ArrayList<GameObject> [handlingProcess.settings.sortingLayers.size()];
-        // but java, for some god-damned reason doesn't want to allow it, so...
-        // giant fucking no-no right here \/
-        objectsByLayer = (ArrayList<GameObject>[]) Array.newInstance(ArrayList.class, LayerManager.sortingLayers.size());
+        renderQueue = new RenderQueue(LayerManager.sortingLayers.size());
+
+        staticLayers = new StaticLayerCache[LayerManager.sortingLayers.size()];
+        for (String name : context.settings.staticSortingLayers) {
+            int id = LayerManager.getSortingLayerId(name);
+            if (id != -1)
+                staticLayers[id] = new StaticLayerCache(id);
+        }
     }
 
     /**
-     * Adds a GameObjects to the objectsByLayer map and sorts the map (in case a new layer was added)
+     * Adds a GameObject to the render queue, in its place in its sorting layer (moving it if it was already added)
      * @param gameObject the game object to register
      */
     public void registerSortingLayer(GameObject gameObject) {
         if (gameObject.renderer == null)
             return;
 
-        // just in case the objectsByLayer array doesn't exist, we can try to create one
-        createLayersArray();
+        // just in case the render queue doesn't exist, we can try to create one
+        createRenderQueue();
 
-        int sortingLayerId = LayerManager.getSortingLayerId(gameObject.renderer.getSortingLayer());
-
-        // in case the sorting layer doesn't exist, we default
-        if (sortingLayerId == -1)
-            sortingLayerId = LayerManager.getSortingLayerId("Default");
-
-        if (objectsByLayer[sortingLayerId] == null)
-            objectsByLayer[sortingLayerId] = new ArrayList<>() {{ add(gameObject); }};
-        else
-            objectsByLayer[sortingLayerId].add(gameObject);
-
-        // sort layer
-        objectsByLayer[sortingLayerId].sort(Comparator.comparingInt(o -> o.renderer.getOrderInLayer()));
+        renderQueue.add(gameObject);
     }
 
     /**
-     * Looks for the game object in the sorting layers and removes it if it is found
+     * Removes the game object from the render queue, if it is in it
      * @param gameObject the game object to unregister
      */
     public void unregisterSortingLayer(GameObject gameObject) {
-        if (objectsByLayer != null)
-            for (List<GameObject> layer : objectsByLayer)
-                if (layer != null)
-                    if (layer.remove(gameObject))
-                        break;
+        if (renderQueue != null)
+            renderQueue.remove(gameObject);
     }
 
     /**
@@ -234,13 +278,13 @@ public class Scene
      * @param event the event to propagate
      */
     protected void propagateMouseEvent(MouseEvent event) {
-        if (objectsByLayer != null)
-            for (List<GameObject> layer : objectsByLayer)
-                if (layer != null)
-                    layer.forEach(go -> {
-                        if (!go.isDestroyed && go.isActive)
-                            go.propagateMouseEvent(event);
-                    });
+        if (renderQueue != null)
+            for (int layer = 0; layer < renderQueue.getLayerCount(); layer++)
+                for (int slot = 0; slot < renderQueue.getSlotCount(layer); slot++) {
+                    GameObject go = renderQueue.get(layer, slot);
+                    if (go != null && !go.isDestroyed && go.isActive)
+                        go.propagateMouseEvent(event);
+                }
     }
 
     /**
@@ -363,6 +407,45 @@ public class Scene
         return null;
     }
 
+    /**
+     * Gets the sprite batch of the scene (for the amount of sprites and draws of the last frame)
+     */
+    public SpriteBatch getSpriteBatch() {
+        return this.spriteBatch;
+    }
+
+    /**
+     * Gets the camera culling of the scene (for the amount of visible and culled renderers of the last frame)
+     */
+    public CameraCulling getCulling() {
+        return this.culling;
+    }
+
+    /**
+     * Gets the cache of a static sorting layer
+     * @param layer the name of the sorting layer
+     * @return the cache, or null if the sorting layer isn't static
+     * @see pxp.engine.data.GameSettings#staticSortingLayers
+     */
+    public StaticLayerCache getStaticLayer(String layer) {
+        int id = LayerManager.getSortingLayerId(layer);
+        if (this.staticLayers == null || id == -1)
+            return null;
+
+        return this.staticLayers[id];
+    }
+
+    /**
+     * Forces a static sorting layer to be re-rendered the next frame (i.e.: after a renderer of the layer changed what
+     * it draws in a way that can't be detected)
+     * @param layer the name of the sorting layer
+     */
+    public void markStaticLayerDirty(String layer) {
+        StaticLayerCache cache = this.getStaticLayer(layer);
+        if (cache != null)
+            cache.markDirty();
+    }
+
     /**
      * Enables/disables drawing a grid in the background
      */
@@ -400,7 +483,15 @@ public class Scene
                     go.destroy();
 
             objects.clear();
-            objectsByLayer = null;
+            if (renderQueue != null)
+                renderQueue.clear();
+            renderQueue = null;
+            if (staticLayers != null)
+                for (StaticLayerCache cache : staticLayers)
+                    if (cache != null)
+                        cache.dispose();
+            staticLayers = null;
+            culling.clear();
             loaded = false;
             mainCam = null; // AAAAAAAAAAAAAAH not resetting this took me 30 minutes of debugging hash codes ʘ‿ʘ
             // context = null; // this just invites NullPointers AAAAH
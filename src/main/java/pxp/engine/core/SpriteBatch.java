@@ -0,0 +1,180 @@
+package pxp.engine.core;
+
+import processing.core.PConstants;
+import processing.core.PImage;
+import processing.core.PMatrix3D;
+import pxp.engine.core.component.SpriteRenderer;
+import pxp.engine.data.BlendMode;
+import pxp.engine.data.GameSettings;
+
+import java.util.Arrays;
+
+/**
+ * The Sprite Batch draws consecutive sprites that share the same image, blend mode and tint as a single shape.<br/>
+ * The quads of the sprites are transformed into world space on the CPU (instead of binding the matrices of every game
+ * object), then submitted all at once. Sprites are never reordered, so the result is the same as drawing them one by one.
+ * @see GameSettings#spriteBatching
+ */
+public class SpriteBatch
+{
+    /**
+     * The amount of floats per vertex (x, y, z, u, v)
+     */
+    private static final int VERTEX_SIZE = 5;
+    /**
+     * The amount of floats per quad (4 vertices)
+     */
+    private static final int QUAD_FLOATS = VERTEX_SIZE * 4;
+
+    // the state shared by the sprites of the current batch
+    private PImage image;
+    private BlendMode blendMode;
+    private int tint;
+
+    /**
+     * The vertices of the current batch
+     */
+    private float[] vertices = new float[QUAD_FLOATS * 64];
+    private int quadCount = 0;
+
+    // reused every sprite
+    private final float[] quad = new float[SpriteRenderer.QUAD_SIZE];
+    private final PMatrix3D matrix = new PMatrix3D();
+
+    // the amount of draws & sprites since the frame started
+    private int drawCount = 0;
+    private int spriteCount = 0;
+
+    /**
+     * Starts a new frame (resets the counts)
+     */
+    public void begin() {
+        this.drawCount = 0;
+        this.spriteCount = 0;
+    }
+
+    /**
+     * Checks whether a game object's renderer can be drawn by the batch: a plain {@link SpriteRenderer} that resets
+     * itself, with no anchored transform in its hierarchy (anchors are calculated while binding)
+     */
+    public static boolean canBatch(GameObject gameObject) {
+        if (gameObject.renderer == null || gameObject.renderer.getClass() != SpriteRenderer.class || gameObject.renderer.handlesReset)
+            return false;
+
+        for (GameObject go = gameObject; go != null; go = go.parent)
+            if (go.transform instanceof RectTransform rt && rt.anchor != null)
+                return false;
+
+        return true;
+    }
+
+    /**
+     * Adds the sprite of a game object to the batch, drawing the previous batch first if the sprite can't be part of it
+     * @param gameObject the game object (must pass {@link SpriteBatch#canBatch(GameObject)})
+     * @param context the game process to draw with
+     */
+    public void add(GameObject gameObject, GameProcess context) {
+        SpriteRenderer renderer = (SpriteRenderer) gameObject.renderer;
+        if (renderer.sprite == null)
+            return;
+
+        PImage image = renderer.sprite.getPImage();
+        int tint = renderer.color.getHex();
+        if (this.quadCount > 0 && (image != this.image || renderer.blendMode != this.blendMode || tint != this.tint))
+            this.flush(context);
+
+        this.image = image;
+        this.blendMode = renderer.blendMode;
+        this.tint = tint;
+
+        renderer.updateQuad(this.quad);
+
+        // the same transformations as binding the transforms, then translating by the pivot
+        PMatrix3D mat = gameObject.transform.getMatrix(this.matrix);
+        mat.translate(this.quad[SpriteRenderer.QUAD_PIVOT_X], this.quad[SpriteRenderer.QUAD_PIVOT_Y], 1f);
+
+        if ((this.quadCount + 1) * QUAD_FLOATS > this.vertices.length)
+            this.vertices = Arrays.copyOf(this.vertices, this.vertices.length * 2);
+
+        // the corners in the same order as PGraphics#image
+        float width = this.quad[SpriteRenderer.QUAD_WIDTH];
+        float height = this.quad[SpriteRenderer.QUAD_HEIGHT];
+        float u1 = this.quad[SpriteRenderer.QUAD_U1];
+        float v1 = this.quad[SpriteRenderer.QUAD_V1];
+        float u2 = this.quad[SpriteRenderer.QUAD_U2];
+        float v2 = this.quad[SpriteRenderer.QUAD_V2];
+
+        int offset = this.quadCount * QUAD_FLOATS;
+        offset = this.putVertex(mat, offset, 0, 0, u1, v1);
+        offset = this.putVertex(mat, offset, 0, height, u1, v2);
+        offset = this.putVertex(mat, offset, width, height, u2, v2);
+        this.putVertex(mat, offset, width, 0, u2, v1);
+
+        this.quadCount++;
+        this.spriteCount++;
+    }
+
+    /**
+     * Draws the current batch (if any) as a single shape
+     * @param context the game process to draw with
+     */
+    public void flush(GameProcess context) {
+        if (this.quadCount == 0)
+            return;
+
+        // the same state as a renderer, in the same way as PGraphics#image (no stroke, image texture coordinates)
+        boolean stroke = context.g.stroke;
+        int textureMode = context.g.textureMode;
+        context.blendMode(this.blendMode.mode);
+        context.tint(this.tint);
+        context.fill(this.tint);
+        context.noStroke();
+        context.textureMode(PConstants.IMAGE);
+
+        context.beginShape(PConstants.QUADS);
+        context.texture(this.image);
+        for (int i = 0, length = this.quadCount * QUAD_FLOATS; i < length; i += VERTEX_SIZE)
+            context.vertex(this.vertices[i], this.vertices[i + 1], this.vertices[i + 2], this.vertices[i + 3], this.vertices[i + 4]);
+        context.endShape();
+
+        context.textureMode(textureMode);
+        if (stroke)
+            context.stroke(context.g.strokeColor);
+
+        // the same reset as a renderer
+        context.noTint();
+        context.noFill();
+        context.blendMode(PConstants.BLEND);
+
+        this.quadCount = 0;
+        this.image = null;
+        this.drawCount++;
+    }
+
+    /**
+     * Gets the amount of batches drawn since the frame started
+     */
+    public int getDrawCount() {
+        return this.drawCount;
+    }
+
+    /**
+     * Gets the amount of sprites drawn by the batch since the frame started
+     */
+    public int getSpriteCount() {
+        return this.spriteCount;
+    }
+
+    /**
+     * Transforms a corner of a quad into world space and writes the vertex
+     * @return the offset of the next vertex
+     */
+    private int putVertex(PMatrix3D mat, int offset, float x, float y, float u, float v) {
+        this.vertices[offset] = mat.m00 * x + mat.m01 * y + mat.m03;
+        this.vertices[offset + 1] = mat.m10 * x + mat.m11 * y + mat.m13;
+        this.vertices[offset + 2] = mat.m20 * x + mat.m21 * y + mat.m23;
+        this.vertices[offset + 3] = u;
+        this.vertices[offset + 4] = v;
+        return offset + VERTEX_SIZE;
+    }
+}
@@ -0,0 +1,205 @@
+package pxp.engine.core;
+
+import processing.core.PConstants;
+import processing.core.PGraphics;
+import processing.opengl.PGraphicsOpenGL;
+import pxp.engine.core.component.Camera;
+import pxp.engine.core.component.PivotedRenderer;
+import pxp.engine.core.component.Renderer;
+import pxp.engine.core.component.SpriteRenderer;
+import pxp.engine.core.component.ui.Canvas;
+import pxp.engine.core.component.ui.CanvasCacheState;
+import pxp.engine.data.GameSettings;
+import pxp.engine.data.Rect;
+
+/**
+ * The Static Layer Cache renders the game objects of a static sorting layer into an image, which is drawn instead of
+ * them every frame.<br/>
+ * The image covers the view of the camera grown by a margin, so it is only re-rendered when the camera moves past the
+ * margin, the view changes size, or one of the game objects of the layer changes (they are checked the same way as the
+ * elements of a cached canvas).
+ * @see GameSettings#staticSortingLayers
+ * @see GameSettings#staticLayerMargin
+ */
+public class StaticLayerCache
+{
+    /**
+     * The id of the sorting layer
+     */
+    public final int layer;
+
+    private PGraphics cache = null;
+    // the world rect the image covers
+    private float left;
+    private float top;
+    private float width;
+    private float height;
+    // the size of the view the image was rendered for
+    private float viewWidth;
+    private float viewHeight;
+
+    /**
+     * The state of the game objects of the layer, as of the last frame
+     */
+    private final CanvasCacheState state = new CanvasCacheState();
+    /**
+     * Whether the image must be re-rendered (i.e.: a renderer of the layer drew something else)
+     */
+    private boolean dirty = true;
+
+    /**
+     * The amount of times the image was rendered
+     */
+    private int renderCount = 0;
+
+    /**
+     * Creates the cache of a sorting layer
+     * @param layer the id of the sorting layer
+     */
+    public StaticLayerCache(int layer) {
+        this.layer = layer;
+    }
+
+    /**
+     * Forces the image to be re-rendered the next frame
+     */
+    public void markDirty() {
+        this.dirty = true;
+    }
+
+    /**
+     * Gets the amount of times the image was rendered (i.e.: to check how often the layer changes)
+     */
+    public int getRenderCount() {
+        return this.renderCount;
+    }
+
+    /**
+     * Re-renders the image if needed, then draws it (the camera must be applied)
+     * @param scene the scene the layer belongs to
+     * @param context the game process to draw with
+     */
+    public void render(Scene scene, GameProcess context) {
+        if (scene.renderQueue.size(this.layer) == 0)
+            return;
+
+        Rect view = scene.getCamera().getRect();
+
+        // the state is written every frame, so that it is up to date after a forced re-render
+        this.state.begin();
+        this.writeState(scene.renderQueue);
+        boolean changed = this.state.end();
+
+        boolean moved = view.left() < this.left || view.top() < this.top
+            || view.right() > this.left + this.width || view.bottom() > this.top + this.height;
+        boolean resized = view.size.x != this.viewWidth || view.size.y != this.viewHeight;
+
+        if (this.cache == null || changed || moved || resized || this.dirty)
+            this.renderCache(scene, context, view);
+
+        context.image(this.cache, this.left, this.top, this.width, this.height);
+    }
+
+    /**
+     * Disposes of the image
+     */
+    public void dispose() {
+        if (this.cache != null)
+            this.cache.dispose();
+
+        this.cache = null;
+        this.dirty = true;
+    }
+
+    /**
+     * Renders the game objects of the layer into the image, around the view of the camera
+     */
+    private void renderCache(Scene scene, GameProcess context, Rect view) {
+        this.dirty = false;
+        this.renderCount++;
+
+        float margin = Math.max(0f, context.settings.staticLayerMargin);
+        this.viewWidth = view.size.x;
+        this.viewHeight = view.size.y;
+        this.width = view.size.x * (1f + margin * 2f);
+        this.height = view.size.y * (1f + margin * 2f);
+        this.left = view.left() - view.size.x * margin;
+        this.top = view.top() - view.size.y * margin;
+
+        // the same amount of pixels per unit as the screen
+        int pixelWidth = Math.max(1, Math.round(context.width * (1f + margin * 2f)));
+        int pixelHeight = Math.max(1, Math.round(context.height * (1f + margin * 2f)));
+        if (this.cache == null || this.cache.width != pixelWidth || this.cache.height != pixelHeight) {
+            if (this.cache != null)
+                this.cache.dispose();
+
+            this.cache = context.createGraphics(pixelWidth, pixelHeight, PConstants.P3D);
+        }
+
+        Camera camera = scene.getCamera();
+        float centerX = this.left + this.width / 2f;
+        float centerY = this.top + this.height / 2f;
+
+        PGraphics cache = this.cache;
+        cache.beginDraw();
+        cache.clear();
+        ((PGraphicsOpenGL) cache).textureSampling(context.settings.textureFilter.ordinal());
+
+        cache.beginCamera();
+        cache.camera(
+            centerX, centerY, camera.cameraZ,
+            centerX, centerY, -10,
+            0, 1, 0
+        );
+        cache.ortho(-this.width / 2f, this.width / 2f, -this.height / 2f, this.height / 2f, 10, -1000f);
+        cache.endCamera();
+
+        // the game objects draw through the context, so its graphics are swapped for the cache while they render
+        PGraphics graphics = context.g;
+        context.g = cache;
+        try {
+            RenderQueue queue = scene.renderQueue;
+            for (int slot = 0; slot < queue.getSlotCount(this.layer); slot++) {
+                GameObject go = queue.get(this.layer, slot);
+                if (go != null && go.renderer != null && go.isActive && !Canvas.isDrawnByCache(go))
+                    scene.renderGameObject(go);
+            }
+        }
+        finally {
+            context.g = graphics;
+            cache.endDraw();
+        }
+    }
+
+    /**
+     * Writes what the game objects of the layer look like
+     */
+    private void writeState(RenderQueue queue) {
+        CanvasCacheState state = this.state;
+        for (int slot = 0; slot < queue.getSlotCount(this.layer); slot++) {
+            GameObject go = queue.get(this.layer, slot);
+            if (go == null)
+                continue;
+
+            state.write(go);
+            state.write(go.isActive);
+            // changes whenever the transform or one of its parents moves
+            state.write((int) go.transform.getWorldVersion());
+
+            Renderer renderer = go.renderer;
+            state.write(renderer);
+            if (renderer == null)
+                continue;
+
+            state.write(renderer.color.getHex());
+            state.write(renderer.blendMode);
+            if (renderer instanceof PivotedRenderer pivoted)
+                state.write(pivoted.pivot);
+            if (renderer instanceof SpriteRenderer spriteRenderer) {
+                state.write(spriteRenderer.sprite);
+                state.write(spriteRenderer.flipX);
+                state.write(spriteRenderer.flipY);
+            }
+        }
+    }
+}
@@ -57,6 +57,20 @@ public class Time
      */
     public float _timeScale = 1.0F;
 
+    /**
+     * The duration of a simulation tick in seconds (when using a fixed timestep)
+     */
+    public float _fixedDeltaTime = 0f;
+    /**
+     * The time (in seconds) not yet simulated by ticks
+     */
+    protected float _accumulator = 0f;
+    /**
+     * How far (0-1) the rendered frame is between the last tick and the next one.<br/>
+     * Always 1 when not using a fixed timestep (the frame is rendered right after the simulation)
+     */
+    public float _alpha = 1f;
+
     private Time(GameProcess ctx) {
         this.ctx = ctx;
         timeInstances.put(ctx.hashCode(), this);
@@ -103,6 +117,61 @@ public class Time
         }
     }
 
+    /**
+     * Advances the time by a given delta time instead of measuring it (used when running headless)
+     * @param deltaTime the time passed since the previous frame in seconds
+     */
+    protected void _newFrame(float deltaTime) {
+        _frameCount++;
+
+        _deltaTime = deltaTime;
+        _lastTime += deltaTime;
+
+        if (timeInstances.containsKey(ctx.hashCode())) {
+            frameCount = this._frameCount;
+            lastTime = this._lastTime;
+            Time.deltaTime = this._deltaTime;
+        }
+    }
+
+    /**
+     * [Internal] Adds the delta time of the frame to the accumulator and calculates the amount of ticks to simulate
+     * @param tickRate the amount of ticks per second
+     * @param maxSubsteps the maximum amount of ticks per frame (the time past that is dropped, slowing down the simulation instead of falling behind)
+     * @return the amount of ticks to simulate this frame
+     */
+    protected int _accumulate(int tickRate, int maxSubsteps) {
+        _fixedDeltaTime = 1f / tickRate;
+        _accumulator += Math.min(_deltaTime, maxSubsteps * _fixedDeltaTime);
+
+        int ticks = (int) (_accumulator / _fixedDeltaTime);
+        _accumulator -= ticks * _fixedDeltaTime;
+        _alpha = _accumulator / _fixedDeltaTime;
+
+        if (timeInstances.containsKey(ctx.hashCode())) {
+            fixedDeltaTime = this._fixedDeltaTime;
+            alpha = this._alpha;
+        }
+
+        return ticks;
+    }
+
+    /**
+     * [Internal] Sets the delta time to the duration of a tick, while the ticks of the frame are simulated
+     */
+    protected void _beginTicks() {
+        if (timeInstances.containsKey(ctx.hashCode()))
+            deltaTime = this._fixedDeltaTime;
+    }
+
+    /**
+     * [Internal] Sets the delta time back to the time of the frame, after the ticks of the frame were simulated
+     */
+    protected void _endTicks() {
+        if (timeInstances.containsKey(ctx.hashCode()))
+            deltaTime = this._deltaTime;
+    }
+
 
     /**
      * The amount of frames that were generated from the beginning of the game
@@ -116,6 +185,18 @@ public class Time
      * Delta Time in seconds (time passed between the previous frame and the current)
      */
     public static float deltaTime = 0f;
+    /**
+     * The duration of a simulation tick in seconds (when using a fixed timestep, see {@link pxp.engine.data.GameSettings#fixedTimestep})<br/>
+     * While the ticks are simulated, {@link Time#deltaTime} is equal to this
+     */
+    public static float fixedDeltaTime = 0f;
+    /**
+     * How far (0-1) the rendered frame is between the last simulated tick and the next one.<br/>
+     * Renderers can use it to interpolate between the last position and the current one of a transform, so that the
+     * movement looks smooth even though the simulation runs at a different rate than the frames.
+     * Always 1 when not using a fixed timestep.
+     */
+    public static float alpha = 1f;
 
     /**
      * Retrieves the time in milliseconds from Processing since the application has started
@@ -154,4 +235,33 @@ public class Time
     protected static void newFrame() {
         getDefault()._newFrame();
     }
+
+    /**
+     * Advances the time by a given delta time (used when running headless)
+     */
+    protected static void newFrame(float deltaTime) {
+        getDefault()._newFrame(deltaTime);
+    }
+
+    /**
+     * Calculates the amount of ticks to simulate this frame (when using a fixed timestep)
+     * @see Time#_accumulate(int, int)
+     */
+    protected static int accumulate(int tickRate, int maxSubsteps) {
+        return getDefault()._accumulate(tickRate, maxSubsteps);
+    }
+
+    /**
+     * Sets the delta time to the duration of a tick
+     */
+    protected static void beginTicks() {
+        getDefault()._beginTicks();
+    }
+
+    /**
+     * Sets the delta time back to the time of the frame
+     */
+    protected static void endTicks() {
+        getDefault()._endTicks();
+    }
 }
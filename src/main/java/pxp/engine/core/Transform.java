@@ -6,8 +6,7 @@ import processing.core.PMatrix3D;
 import processing.core.PVector;
 import pxp.util.Mathf;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
 /**
  * The Transform contains the position, scale and rotation of a GameObject
@@ -43,11 +42,53 @@ public class Transform
      */
     public Vector2 lastPosition;
 
+    /**
+     * Reused by the allocation free conversions (collision shapes are converted every frame)
+     */
+    private final PVector scratchVector = new PVector();
+
+    /**
+     * The cached local matrix, rebuilt only when the values of this transform change
+     */
+    private final PMatrix3D localMatrix = new PMatrix3D();
+    /**
+     * The values the local matrix was built from (anchored position, z position, rotation, scale)
+     */
+    private final float[] localValues = new float[LOCAL_VALUES];
+    /**
+     * The cached world matrix (the parents' world matrix multiplied by the local matrix)
+     */
+    private final PMatrix3D worldMatrix = new PMatrix3D();
+    /**
+     * The cached inverse of the world matrix
+     */
+    private final PMatrix3D inverseWorldMatrix = new PMatrix3D();
+
+    /**
+     * The version of the world matrix, which changes every time it is rebuilt (unique among all transforms, so that
+     * children can tell whether the matrix of their parent changed, even if the parent was replaced)
+     */
+    private long worldVersion = NO_VERSION;
+    /**
+     * The version of the parent's world matrix the world matrix was built from
+     */
+    private long parentWorldVersion = NO_VERSION;
+    /**
+     * The version of the world matrix the inverse was built from
+     */
+    private long inverseVersion = NO_VERSION;
+
+    private static final int LOCAL_VALUES = 8;
+    private static final long NO_VERSION = -1;
+    private static final long NO_PARENT = -2;
+    private static long nextVersion = 0;
 
     /**
      * Creates a new Transform with default position, rotation and scale
      */
-    public Transform() { }
+    public Transform() {
+        Arrays.fill(this.localValues, Float.NaN);
+    }
 
     /**
      * Creates a new Transform given a position and the default rotation and scale
@@ -74,6 +115,9 @@ public class Transform
      * Creates a new Transform given a position, rotation and scale
      */
     public Transform(Vector2 position, Vector3 rotation, Vector2 scale) {
+        // NaN never equals anything, so the first matrix is always built
+        Arrays.fill(this.localValues, Float.NaN);
+
         this.position = position;
         this.rotation = rotation;
         this.scale = scale;
@@ -130,18 +174,7 @@ public class Transform
      */
     protected void bind(GameProcess context) {
         context.pushMatrix();
-        // add anchor position
-        Vector2 position = this.position.clone();
-        if (this instanceof RectTransform rt)
-            position.add(rt.anchorTranslation);
-
-        context.translate(position.x, position.y, zPosition);
-
-        context.rotateX((float) Math.toRadians(rotation.x));
-        context.rotateY((float) Math.toRadians(rotation.y));
-        context.rotateZ((float) Math.toRadians(rotation.z));
-
-        context.scale(scale.x, scale.y, 1);
+        context.applyMatrix(this.getCachedLocalMatrix());
     }
 
     /**
@@ -158,20 +191,23 @@ public class Transform
         context.popMatrix();
     }
     /**
-     * Binds the transform's matrix as well as all the parents' transform matrices
+     * Binds the transform's matrix as well as all the parents' transform matrices (using the cached world matrix)
      */
     protected void bindAll(GameProcess context) {
-        if (gameObject.parent != null)
-            gameObject.parent.transform.bindAll(context);
+        // the anchors of the hierarchy are calculated while binding
+        for (GameObject go = this.gameObject; go != null; go = go.parent)
+            if (go.transform instanceof RectTransform rt)
+                rt.updateAnchor();
 
-        bind(context);
+        context.pushMatrix();
+        context.applyMatrix(this.getWorldMatrix());
     }
 
+    /**
+     * Unbinds the transform's matrix as well as all the parents' transform matrices
+     */
     protected void unbindAll(GameProcess context) {
-        unbind(context);
-
-        if (gameObject.parent != null)
-            gameObject.parent.transform.unbindAll(context);
+        context.popMatrix();
     }
 
     /**
@@ -179,14 +215,60 @@ public class Transform
      * @return a PMatrix3D (Matrix4)
      */
     protected PMatrix3D getLocalMatrix() {
-        PMatrix3D mat = new PMatrix3D();
+        return this.getLocalMatrix(new PMatrix3D());
+    }
 
-        // add anchor position
-        Vector2 position = this.position.clone();
-        if (this instanceof RectTransform rt)
-            position.add(rt.anchorTranslation);
+    /**
+     * Writes this transform's properties into an existing {@link PMatrix3D} (Matrix4)
+     * @param mat the matrix to write into
+     * @return the given matrix
+     */
+    protected PMatrix3D getLocalMatrix(PMatrix3D mat) {
+        mat.set(this.getCachedLocalMatrix());
+        return mat;
+    }
 
-        mat.translate(position.x, position.y, zPosition);
+    /**
+     * Gets the cached local matrix, rebuilding it if the values of this transform changed<br/>
+     * <i>The matrix is reused, it must not be modified</i>
+     */
+    protected PMatrix3D getCachedLocalMatrix() {
+        this.updateLocalMatrix();
+        return this.localMatrix;
+    }
+
+    /**
+     * Rebuilds the local matrix if the values of this transform changed since it was last built (the fields are public,
+     * so the values are compared instead of being flagged by setters)
+     * @return true if the matrix was rebuilt
+     */
+    private boolean updateLocalMatrix() {
+        // add anchor position
+        float x = this.position.x;
+        float y = this.position.y;
+        if (this instanceof RectTransform rt) {
+            x += rt.anchorTranslation.x;
+            y += rt.anchorTranslation.y;
+        }
+
+        float[] values = this.localValues;
+        if (values[0] == x && values[1] == y && values[2] == this.zPosition
+        &&  values[3] == this.rotation.x && values[4] == this.rotation.y && values[5] == this.rotation.z
+        &&  values[6] == this.scale.x && values[7] == this.scale.y)
+            return false;
+
+        values[0] = x;
+        values[1] = y;
+        values[2] = this.zPosition;
+        values[3] = this.rotation.x;
+        values[4] = this.rotation.y;
+        values[5] = this.rotation.z;
+        values[6] = this.scale.x;
+        values[7] = this.scale.y;
+
+        PMatrix3D mat = this.localMatrix;
+        mat.reset();
+        mat.translate(x, y, this.zPosition);
 
         mat.rotateX(Mathf.degreesToRadians(this.rotation.x));
         mat.rotateY(Mathf.degreesToRadians(this.rotation.y));
@@ -203,20 +285,64 @@ public class Transform
          * mat.translate(this.position.x, this.position.y, this.zPosition);
          */
 
-        return mat;
+        return true;
     }
 
     /**
-     * Composes a list of all matrices of this transform's and all parents'
+     * Gets the cached world matrix (all the parents' matrices multiplied by this transform's), rebuilding it only if
+     * this transform or one of its parents changed<br/>
+     * <i>The matrix is reused, it must not be modified (use {@link Transform#getMatrix()} for a copy)</i>
+     * @return the world matrix
      */
-    private List<PMatrix3D> getMatrixStack() {
-        List<PMatrix3D> matrices = new ArrayList<>();
-        if (gameObject.parent != null)
-            matrices.addAll(gameObject.parent.transform.getMatrixStack());
+    public PMatrix3D getWorldMatrix() {
+        this.updateWorldMatrix();
+        return this.worldMatrix;
+    }
 
-        // add this matrix too (to simulate the order properly)
-        matrices.add(getLocalMatrix());
-        return matrices;
+    /**
+     * Gets the version of the world matrix, which changes every time the matrix is rebuilt (the transform or one of its
+     * parents changed)
+     */
+    public long getWorldVersion() {
+        return this.updateWorldMatrix();
+    }
+
+    /**
+     * Rebuilds the world matrix if this transform or one of its parents changed (a change in a parent is propagated
+     * through the version of its world matrix)
+     * @return the version of the world matrix
+     */
+    private long updateWorldMatrix() {
+        Transform parent = this.gameObject != null && this.gameObject.parent != null ? this.gameObject.parent.transform : null;
+        long parentVersion = parent != null ? parent.updateWorldMatrix() : NO_PARENT;
+
+        if (this.updateLocalMatrix() || parentVersion != this.parentWorldVersion || this.worldVersion == NO_VERSION) {
+            if (parent != null) {
+                this.worldMatrix.set(parent.worldMatrix);
+                this.worldMatrix.apply(this.localMatrix);
+            }
+            else
+                this.worldMatrix.set(this.localMatrix);
+
+            this.parentWorldVersion = parentVersion;
+            this.worldVersion = nextVersion++;
+        }
+
+        return this.worldVersion;
+    }
+
+    /**
+     * Gets the cached inverse of the world matrix
+     */
+    private PMatrix3D getInverseWorldMatrix() {
+        long version = this.updateWorldMatrix();
+        if (this.inverseVersion != version) {
+            this.inverseWorldMatrix.set(this.worldMatrix);
+            this.inverseWorldMatrix.invert();
+            this.inverseVersion = version;
+        }
+
+        return this.inverseWorldMatrix;
     }
 
     /**
@@ -224,14 +350,18 @@ public class Transform
      * @return a PMatrix3D (Matrix4)
      */
     public PMatrix3D getMatrix() {
-        // get all matrices
-        List<PMatrix3D> matrices = getMatrixStack();
-
-        // multiply them
-        PMatrix3D identity = new PMatrix3D();
-        matrices.forEach(identity::apply);
+        return new PMatrix3D(this.getWorldMatrix());
+    }
 
-        return identity;
+    /**
+     * Writes the matrix of this transform, multiplied by all the parents' matrices, into an existing {@link PMatrix3D}
+     * (same as {@link Transform#getMatrix()}, without allocating)
+     * @param out the matrix to write into
+     * @return the given matrix
+     */
+    public PMatrix3D getMatrix(PMatrix3D out) {
+        out.set(this.getWorldMatrix());
+        return out;
     }
 
     /**
@@ -242,13 +372,42 @@ public class Transform
     public Vector2 localToWorld(Vector2 local) {
         PVector pLocal = local.toPVector();
 
-        // we use get matrix to get the total matrix transformation (excluding our own)
-        PMatrix3D mat = this.getLocalMatrix();
+        // the local matrix is the transformation of the children (excluding their own)
+        PMatrix3D mat = this.getCachedLocalMatrix();
         pLocal = mat.mult(pLocal, pLocal); // then multiply the local position by the matrix
 
         return Vector2.fromPVector(pLocal);
     }
 
+    /**
+     * Converts a position from local to world (same as {@link Transform#localToWorld(Vector2)}), without allocating
+     * @param local the local position to transform
+     * @param out the vector to write the world position into (can be the same as local)
+     * @return the out vector
+     */
+    public Vector2 localToWorld(Vector2 local, Vector2 out) {
+        PMatrix3D mat = this.getCachedLocalMatrix();
+
+        this.scratchVector.set(local.x, local.y, 0);
+        mat.mult(this.scratchVector, this.scratchVector);
+
+        return out.set(this.scratchVector.x, this.scratchVector.y);
+    }
+
+    /**
+     * Converts multiple positions from local to world in place, building the matrix only once
+     * @param points the local positions to transform, overwritten by the world positions
+     */
+    public void localToWorld(Vector2[] points) {
+        PMatrix3D mat = this.getCachedLocalMatrix();
+
+        for (Vector2 point : points) {
+            this.scratchVector.set(point.x, point.y, 0);
+            mat.mult(this.scratchVector, this.scratchVector);
+            point.set(this.scratchVector.x, this.scratchVector.y);
+        }
+    }
+
     /**
      * Converts a position from world to the local coordinate space of this game object
      * @param world the world position to transform
@@ -257,11 +416,8 @@ public class Transform
     public Vector2 worldToLocal(Vector2 world) {
         PVector pWorld = world.toPVector();
 
-        // Get the complete transformation matrix for this object
-        PMatrix3D mat = this.getMatrix();
-
-        // Invert the matrix to reverse the transformation
-        mat.invert();
+        // the inverse of the complete transformation matrix of this object reverses the transformation
+        PMatrix3D mat = this.getInverseWorldMatrix();
 
         // Multiply the world position by the inverted matrix
         pWorld = mat.mult(pWorld, pWorld);
@@ -270,6 +426,21 @@ public class Transform
         return Vector2.fromPVector(pWorld);
     }
 
+    /**
+     * Converts a position from world to local (same as {@link Transform#worldToLocal(Vector2)}), without allocating
+     * @param world the world position to transform
+     * @param out the vector to write the local position into (can be the same as world)
+     * @return the out vector
+     */
+    public Vector2 worldToLocal(Vector2 world, Vector2 out) {
+        PMatrix3D mat = this.getInverseWorldMatrix();
+
+        this.scratchVector.set(world.x, world.y, 0);
+        mat.mult(this.scratchVector, this.scratchVector);
+
+        return out.set(this.scratchVector.x, this.scratchVector.y);
+    }
+
 
     /**
      * Clones the Transform
@@ -3,7 +3,6 @@ package pxp.engine.core.component;
 import pxp.engine.data.Vector2;
 import pxp.engine.data.collision.BoundingBox;
 import pxp.engine.data.collision.Box;
-import pxp.util.Pointer;
 
 /**
  * The box collider component represents a 2d rectangle that is able to detect other colliders and correct the position
@@ -45,12 +44,11 @@ public class BoxCollider extends Collider
 
     @Override
     protected void updateShape() {
-        this.shape = new Box(this.centerOffset, this.halfSize, this.transform());
-    }
-
-    @Override
-    public boolean collisionCheck(Collider other, Pointer<Vector2> reflectVelocity, Pointer<Float> toi, Vector2 contact) {
-        return this.shape.hitTest(other.shape, this.currentVelocity.clone(), reflectVelocity, toi, contact);
+        // the box is reused, only its corners are recalculated
+        if (this.shape instanceof Box box)
+            box.set(this.centerOffset, this.halfSize, this.transform());
+        else
+            this.shape = new Box(this.centerOffset, this.halfSize, this.transform());
     }
 
     @Override
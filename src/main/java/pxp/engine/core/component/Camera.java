@@ -9,6 +9,7 @@ import pxp.engine.data.Pivot;
 import pxp.engine.data.Rect;
 import pxp.engine.data.Vector2;
 import pxp.engine.data.Vector3;
+import pxp.engine.data.collision.AABB;
 
 /**
  * The Camera Component represents the eyes through which the game is seen. This component is required for the game to run.<br/>
@@ -115,6 +116,18 @@ public class Camera extends Component
         return new Rect(transform().position, size, Pivot.CENTER);
     }
 
+    /**
+     * Gets the camera bounds in world coordinates (same as {@link Camera#getRect()}), without allocating
+     * @param out the bounds to write into
+     * @return the out bounds
+     */
+    public AABB getBounds(AABB out) {
+        calcUnitSize();
+        Vector2 position = transform().position;
+
+        return out.set(position.x - this.unitSize.x, position.y - this.unitSize.y, position.x + this.unitSize.x, position.y + this.unitSize.y);
+    }
+
     /**
      * Calculates the world position from a point on the screen
      * @param screenPosition the position in screen units (pixels)
@@ -149,7 +162,10 @@ public class Camera extends Component
         float heightUnits = orthoSize;
         float widthUnits = heightUnits * aspect;
 
-        this.unitSize = new Vector2(widthUnits, heightUnits);
+        if (this.unitSize == null)
+            this.unitSize = new Vector2();
+
+        this.unitSize.set(widthUnits, heightUnits);
     }
 
     /**
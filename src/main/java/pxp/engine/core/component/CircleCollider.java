@@ -3,7 +3,6 @@ package pxp.engine.core.component;
 import pxp.engine.data.CollisionEvent;
 import pxp.engine.data.Vector2;
 import pxp.engine.data.collision.Circle;
-import pxp.util.Pointer;
 
 /**
  * The circle collider component represents a 2d circle that is able to detect other colliders and correct the position
@@ -44,12 +43,13 @@ public class CircleCollider extends Collider
 
     @Override
     protected void updateShape() {
-        this.shape = new Circle(this.transform().localToWorld(this.centerOffset), this.radius);
-    }
-
-    @Override
-    public boolean collisionCheck(Collider other, Pointer<Vector2> reflectVelocity, Pointer<Float> toi, Vector2 contact) {
-        return this.shape.hitTest(other.shape, this.currentVelocity.clone(), reflectVelocity, toi, contact);
+        // the circle is reused, only its center is recalculated
+        if (this.shape instanceof Circle circle) {
+            this.transform().localToWorld(this.centerOffset, circle.center);
+            circle.radius = this.radius;
+        }
+        else
+            this.shape = new Circle(this.transform().localToWorld(this.centerOffset), this.radius);
     }
 
     @Override
@@ -5,9 +5,10 @@ import pxp.engine.data.Color;
 import pxp.engine.data.LayerMask;
 import pxp.engine.data.TriggerCollisionEvent;
 import pxp.engine.data.Vector2;
+import pxp.engine.data.collision.AABB;
+import pxp.engine.data.collision.ContactManifold;
 import pxp.engine.data.collision.Shape;
 import pxp.util.Mathf;
-import pxp.util.Pointer;
 
 /**
  * The base Collider for all types of colliders to use.<br/>
@@ -17,6 +18,16 @@ public abstract class Collider extends Component
 {
     protected static final Color gizmosColor = new Color(3, 252, 40);
 
+    /**
+     * The id given to the next collider created
+     */
+    private static int nextId = 0;
+
+    /**
+     * A unique id of this collider (used to track its contacts)
+     */
+    public final int id = nextId++;
+
     /**
      * The shape of the collider (e.g.: circle or rect (AABB))
      */
@@ -25,10 +36,33 @@ public abstract class Collider extends Component
      * Whether this collider is a trigger (only registers collisions, but doesn't stop them)
      */
     public boolean trigger = false;
+    /**
+     * Whether this collider uses continuous collision detection: when it doesn't hit anything at its current position,
+     * it is swept along its movement since last frame and, if it hit something on the way, moved back to the time of impact<br/>
+     * Meant for fast colliders (i.e.: bullets) that would otherwise pass through thin colliders between two frames
+     */
+    public boolean continuous = false;
+    /**
+     * Whether this collider never moves (i.e.: walls). Static colliders are never tested against other static (or sleeping)
+     * colliders, and their shape is only recalculated when they move<br/>
+     * <i>Rotating or scaling a static collider requires calling {@link Collider#refreshShape()}</i>
+     */
+    public boolean isStatic = false;
     /**
      * The layer to collide with (there can only be one layer)
      */
     public int layer = LayerMask.nameToId("Default");
+    /**
+     * The layers this collider collides with (both colliders of a pair have to accept each other's layer)<br/>
+     * Applied on top of the collision matrix of the layers (see {@link pxp.engine.core.manager.CollisionManager#setIgnoreLayers})
+     */
+    public LayerMask collidesWith = new LayerMask(LayerMask.EVERYTHING);
+
+    /**
+     * [Internal] The layers this collider can collide with this frame (its layer's collision mask combined with
+     * {@link Collider#collidesWith}), calculated by the CollisionManager
+     */
+    public int collisionMask = LayerMask.EVERYTHING;
 
     /**
      * The velocity of this frame, calculated by the transform
@@ -36,11 +70,140 @@ public abstract class Collider extends Component
     protected Vector2 currentVelocity = new Vector2();
 
     /**
-     * Called by the CollisionManager to update the shape and velocity every frame
+     * The world space bounds of the shape, updated together with the shape by the CollisionManager
+     */
+    protected final AABB bounds = new AABB();
+
+    /**
+     * The amount of frames in a row this collider didn't move
+     */
+    private int idleFrames = 0;
+    /**
+     * Whether this collider stood still for long enough to fall asleep
+     */
+    private boolean sleeping = false;
+    /**
+     * Whether the shape has to be recalculated, even if the collider didn't move
+     */
+    private boolean shapeDirty = true;
+
+    /**
+     * [Internal] The id of this collider inside the broadphase of the CollisionManager (-1 if it isn't tracked)
      */
-    public void collisionUpdate() {
-        this.currentVelocity = this.transform().calculateVelocity();
+    public int proxyId = -1;
+
+    /**
+     * Called by the CollisionManager to update the velocity and shape every frame<br/>
+     * Static and sleeping colliders that stood still keep their shape as it is.
+     * @param sleepFrames the amount of frames a (non static) collider has to stand still before falling asleep (0 to never sleep)
+     * @return whether the shape was updated
+     */
+    public boolean collisionUpdate(int sleepFrames) {
+        Vector2 position = this.transform().position;
+        Vector2 lastPosition = this.transform().lastPosition;
+        if (lastPosition != null)
+            this.currentVelocity.set(position.x - lastPosition.x, position.y - lastPosition.y);
+        else
+            this.currentVelocity.set(0, 0);
+
+        if (this.currentVelocity.x != 0 || this.currentVelocity.y != 0)
+            this.idleFrames = 0;
+        else if (this.idleFrames < Integer.MAX_VALUE)
+            this.idleFrames++;
+
+        this.sleeping = !this.isStatic && sleepFrames > 0 && this.idleFrames >= sleepFrames;
+
+        // the shape is kept from the frame after it stopped (so that the bounds don't include the last movement)
+        if (!this.shapeDirty && this.idleFrames > 1 && !this.isAwake())
+            return false;
+
+        this.shapeDirty = false;
         this.updateShape();
+        this.updateBounds();
+        return true;
+    }
+
+    /**
+     * Forces the shape to be recalculated on the next collision update, needed after rotating or scaling a static or sleeping collider
+     */
+    public void refreshShape() {
+        this.shapeDirty = true;
+    }
+
+    /**
+     * Whether this collider is asleep (it didn't move for a while, so it isn't tested against static or other sleeping colliders)
+     */
+    public boolean isSleeping() {
+        return this.sleeping;
+    }
+
+    /**
+     * Whether this collider is neither static nor asleep (pairs of colliders that aren't awake are never tested)
+     */
+    public boolean isAwake() {
+        return !this.isStatic && !this.sleeping;
+    }
+
+    /**
+     * Wakes this collider up (called when a collider touches it), restarting the count of frames until it can sleep again
+     */
+    public void wakeUp() {
+        if (this.isStatic)
+            return;
+
+        this.sleeping = false;
+        this.idleFrames = 0;
+    }
+
+    /**
+     * Checks whether the layers of this and another collider allow them to collide (using the collision masks of this frame)
+     * @param other the other collider
+     * @return true if the colliders can collide
+     */
+    public boolean canCollideWith(Collider other) {
+        return (this.collisionMask & (1 << other.layer)) != 0 && (other.collisionMask & (1 << this.layer)) != 0;
+    }
+
+    /**
+     * Recalculates the world space bounds from the shape
+     */
+    protected void updateBounds() {
+        if (this.shape == null)
+            return;
+
+        this.shape.getBounds(this.bounds);
+
+        // continuous colliders can hit anything along their movement, so the bounds cover the previous position too
+        if (this.continuous) {
+            this.bounds.minX = Math.min(this.bounds.minX, this.bounds.minX - this.currentVelocity.x);
+            this.bounds.minY = Math.min(this.bounds.minY, this.bounds.minY - this.currentVelocity.y);
+            this.bounds.maxX = Math.max(this.bounds.maxX, this.bounds.maxX - this.currentVelocity.x);
+            this.bounds.maxY = Math.max(this.bounds.maxY, this.bounds.maxY - this.currentVelocity.y);
+        }
+    }
+
+    /**
+     * Gets the velocity of this frame, as calculated during the last collision update
+     * @return the velocity (do not modify)
+     */
+    public Vector2 getVelocity() {
+        return this.currentVelocity;
+    }
+
+    /**
+     * Gets the shape of this collider, as of the last collision update
+     * @return the shape (do not modify)
+     */
+    public Shape getShape() {
+        return this.shape;
+    }
+
+    /**
+     * Gets the world space bounds of this collider's shape, as of the last collision update
+     * @return the bounds (do not modify)
+     */
+    public AABB getBounds() {
+        return this.bounds;
     }
 
     /**
@@ -51,10 +214,10 @@ public abstract class Collider extends Component
     /**
      * Called when a collision happens (enter or stay)
      * @param event the collision event
-     * @param reflectVelocity the velocity to subtract from current velocity in order to correct the position
-     * @param toi the time of impact (expressed as a float from 0-1 (but can exceed the interval))
+     * @param manifold the contact of the hit test (its reflect velocity is subtracted from the current velocity in order
+     *                 to correct the position)
      */
-    public void collide(CollisionEvent event, Pointer<Vector2> reflectVelocity, float toi) {
+    public void collide(CollisionEvent event, ContactManifold manifold) {
         if (this.trigger)
             event = TriggerCollisionEvent.convert(event);
 
@@ -66,21 +229,26 @@ public abstract class Collider extends Component
         if (event.collision.otherCollider.trigger)
             return;
 
-        if (reflectVelocity.value != null) {
+        if (manifold.hasCorrection()) {
             if (!(this.currentVelocity.getMagnitude() > 0.0F))
                 return;
 
-            Vector2 finalVelocity = Vector2.subtract(this.currentVelocity, reflectVelocity.value);
-            this.transform().position = Vector2.add(this.transform().lastPosition, finalVelocity);
-            this.currentVelocity = finalVelocity;
+            float penetration = manifold.penetration;
+            this.currentVelocity.set(this.currentVelocity.x - manifold.normal.x * penetration, this.currentVelocity.y - manifold.normal.y * penetration);
+            // a new vector, since the position may be shared (e.g.: the camera's position is used by the canvas)
+            this.transform().position = Vector2.add(this.transform().lastPosition, this.currentVelocity);
+        }
+        else if (manifold.hasTimeOfImpact() && this.currentVelocity.getSqrtMagnitude() > 0.0F) {
+            // hit along the movement, go back to where the collision happened
+            Vector2 lastPosition = this.transform().lastPosition;
+            float x = Mathf.lerpUnclamped(lastPosition.x, this.transform().position.x, manifold.toi);
+            float y = Mathf.lerpUnclamped(lastPosition.y, this.transform().position.y, manifold.toi);
+            this.transform().position = new Vector2(x, y);
+            this.currentVelocity.set(x - lastPosition.x, y - lastPosition.y);
         }
-//        else {
-//            float x = Mathf.lerpUnclamped(this.transform().lastPosition.x, this.transform().position.x, toi);
-//            float y = Mathf.lerpUnclamped(this.transform().lastPosition.y, this.transform().position.y, toi);
-//            this.transform().position = new Vector2(x, y);
-//        }
 
         this.updateShape();
+        this.updateBounds();
     }
 
     /**
@@ -96,12 +264,24 @@ public abstract class Collider extends Component
     }
 
     /**
-     * The hit test to be performed every frame
+     * The hit test to be performed every frame (followed by a sweep test if either collider is {@link Collider#continuous})
      * @param other the other collider
-     * @param reflectVelocity the velocity to subtract from current velocity in order to correct the position
-     * @param toi time of impact (out - passed as a {@link Pointer<Float>})
-     * @param contact the contact point of the shapes
+     * @param manifold the manifold to write the contact into (normal, penetration, toi and contact points)
      * @return whether the collision happened
      */
-    public abstract boolean collisionCheck(Collider other, Pointer<Vector2> reflectVelocity, Pointer<Float> toi, Vector2 contact);
+    public boolean collisionCheck(Collider other, ContactManifold manifold) {
+        if (this.shape.hitTest(other.shape, this.currentVelocity, manifold))
+            return true;
+
+        if (!this.continuous && !other.continuous)
+            return false;
+
+        // the movement of this collider, as seen by the other
+        float velocityX = this.currentVelocity.x - other.currentVelocity.x;
+        float velocityY = this.currentVelocity.y - other.currentVelocity.y;
+        if (velocityX == 0 && velocityY == 0)
+            return false;
+
+        return this.shape.sweepTest(other.shape, velocityX, velocityY, manifold.reset());
+    }
 }
@@ -42,10 +42,19 @@ public class Component implements PConstants
     public void start() { }
 
     /**
-     * Called every frame
+     * Called every frame (after the ticks of the frame, when using a {@link pxp.engine.data.GameSettings#fixedTimestep})
      */
     public void update() { }
 
+    /**
+     * Called every simulation tick, before the collisions of the tick.<br/>
+     * With {@link pxp.engine.data.GameSettings#fixedTimestep}, ticks run at a fixed rate (possibly multiple times or
+     * not at all in a frame) and {@link pxp.engine.core.Time#deltaTime} is always {@link pxp.engine.core.Time#fixedDeltaTime},
+     * which makes it the place for movement and physics. The clicks and scrolling of a frame are only seen by its first tick.
+     * Otherwise, it runs once per frame, before update (of all components of the game object).
+     */
+    public void fixedUpdate() { }
+
     /**
      * Called when the game object is destroyed or when the component is removed dynamically
      */
@@ -0,0 +1,578 @@
+package pxp.engine.core.component;
+
+import processing.core.PImage;
+import processing.core.PMatrix3D;
+import processing.core.PShape;
+import pxp.engine.core.Time;
+import pxp.engine.data.Color;
+import pxp.engine.data.Curve;
+import pxp.engine.data.EmissionShape;
+import pxp.engine.data.Gradient;
+import pxp.engine.data.Vector2;
+import pxp.engine.data.assets.SpriteAsset;
+import pxp.engine.data.collision.AABB;
+
+/**
+ * The ParticleSystem Component emits, simulates and renders many small sprites (particles), as a replacement for a game
+ * object (with a SpriteRenderer and a Routine for its lifetime) per particle.<br/>
+ * The particles aren't objects: their properties are kept in flat arrays (one per property), all particles are simulated
+ * in a single loop and dead particles are removed by moving the last particle into their place. The particles are drawn
+ * from retained shapes (a quad per particle) whose vertices are updated in place every frame.<br/>
+ * <i>The renderer's color tints all particles</i>
+ */
+public class ParticleSystem extends Renderer
+{
+    /**
+     * The amount of particles per retained shape (small enough that a shape never needs more than one index buffer, so
+     * its vertices can be updated in place)
+     */
+    private static final int BATCH_SIZE = 8192;
+
+    /**
+     * The sprite of the particles (if null, the particles are squares of their color)
+     */
+    public SpriteAsset sprite = null;
+
+    /**
+     * The maximum amount of particles alive at the same time (particles aren't emitted while at the maximum)
+     */
+    public final int maxParticles;
+
+    // emission
+    /**
+     * The amount of particles emitted every second while playing
+     */
+    public float emissionRate = 10f;
+    /**
+     * The shape the particles are emitted from
+     */
+    public EmissionShape shape = EmissionShape.POINT;
+    /**
+     * The size of the shape in units (the radius for circles is x)
+     */
+    public Vector2 shapeSize = new Vector2(1f, 1f);
+    /**
+     * The angle of the cone shape in degrees
+     */
+    public float coneAngle = 30f;
+    /**
+     * Whether the particles are simulated in world space (they stay in place when the game object moves) or in the local
+     * space of the game object (they move with it)
+     */
+    public boolean worldSpace = true;
+    /**
+     * Whether the particle system starts playing when the component starts
+     */
+    public boolean playOnStart = true;
+
+    // the properties of new particles (random between the minimum and the maximum)
+    /**
+     * The lifetime of a new particle in seconds
+     */
+    public float minLifetime = 1f;
+    public float maxLifetime = 1f;
+    /**
+     * The speed of a new particle in units per second
+     */
+    public float minSpeed = 1f;
+    public float maxSpeed = 1f;
+    /**
+     * The size of a new particle in units
+     */
+    public float minSize = 0.1f;
+    public float maxSize = 0.1f;
+    /**
+     * The color of a new particle
+     */
+    public Color startColor = Color.white();
+
+    // simulation
+    /**
+     * The acceleration applied to the particles in units per second squared
+     */
+    public Vector2 gravity = new Vector2();
+    /**
+     * The fraction of the velocity lost every second
+     */
+    public float drag = 0f;
+
+    // over the lifetime of the particles (null to not change)
+    /**
+     * Multiplies the size of the particles
+     */
+    public Curve sizeOverLifetime = null;
+    /**
+     * Multiplies the speed of the particles
+     */
+    public Curve speedOverLifetime = null;
+    /**
+     * Multiplies the color of the particles
+     */
+    public Gradient colorOverLifetime = null;
+
+    // the particles, one array per property
+    private final float[] positionX;
+    private final float[] positionY;
+    private final float[] velocityX;
+    private final float[] velocityY;
+    private final float[] ages;
+    private final float[] lifetimes;
+    private final float[] sizes;
+    private final int[] colors;
+    // the size & color to draw the particles with, as of the last simulation
+    private final float[] drawSizes;
+    private final int[] drawColors;
+    /**
+     * The amount of particles alive (the first ones in the arrays)
+     */
+    private int count = 0;
+    /**
+     * The corner transformed by getWorldBounds (reused every frame)
+     */
+    private final Vector2 corner = new Vector2();
+    // the point & direction sampled by emit (reused every particle)
+    private final Vector2 point = new Vector2();
+    private final Vector2 direction = new Vector2();
+
+    // the retained shapes the particles are drawn with, created when first needed
+    private PShape[] batches = null;
+    // the sprite & image the shapes were created with (they're recreated when either changes)
+    private SpriteAsset batchSprite = null;
+    private PImage batchImage = null;
+    /**
+     * The amount of particles drawn in the last render (the quads of the particles that died since are collapsed)
+     */
+    private int drawn = 0;
+
+    private boolean playing = false;
+    /**
+     * The fraction of a particle left to emit from the previous frames
+     */
+    private float emissionAccumulator = 0f;
+    /**
+     * The state of the random number generator (xorshift)
+     */
+    private int seed = (int) System.nanoTime() | 1;
+
+    // the bounds of the particles (in the simulation space) as of the last simulation
+    private float minX;
+    private float minY;
+    private float maxX;
+    private float maxY;
+
+    /**
+     * Creates a ParticleSystem component with a maximum of 1000 particles
+     */
+    public ParticleSystem() {
+        this(1000);
+    }
+
+    /**
+     * Creates a ParticleSystem component
+     * @param maxParticles the maximum amount of particles alive at the same time
+     */
+    public ParticleSystem(int maxParticles) {
+        if (maxParticles <= 0)
+            throw new IllegalArgumentException("The maximum amount of particles must be positive.");
+
+        this.maxParticles = maxParticles;
+        this.positionX = new float[maxParticles];
+        this.positionY = new float[maxParticles];
+        this.velocityX = new float[maxParticles];
+        this.velocityY = new float[maxParticles];
+        this.ages = new float[maxParticles];
+        this.lifetimes = new float[maxParticles];
+        this.sizes = new float[maxParticles];
+        this.colors = new int[maxParticles];
+        this.drawSizes = new float[maxParticles];
+        this.drawColors = new int[maxParticles];
+    }
+
+    /**
+     * Creates a ParticleSystem component, given the sprite of the particles
+     * @param sprite the sprite of the particles (use AssetManager)
+     * @param maxParticles the maximum amount of particles alive at the same time
+     */
+    public ParticleSystem(SpriteAsset sprite, int maxParticles) {
+        this(maxParticles);
+        this.sprite = sprite;
+    }
+
+    @Override
+    public void start() {
+        if (this.playOnStart)
+            this.play();
+    }
+
+    @Override
+    public void update() {
+        float deltaTime = Time.deltaTime;
+
+        if (this.playing) {
+            this.emissionAccumulator += this.emissionRate * deltaTime;
+            int amount = (int) this.emissionAccumulator;
+            this.emissionAccumulator -= amount;
+            this.emit(amount);
+        }
+
+        this.simulate(deltaTime);
+    }
+
+    // ========================== CONTROLS ==========================
+
+    /**
+     * Starts emitting particles
+     */
+    public void play() {
+        this.playing = true;
+    }
+
+    /**
+     * Stops emitting particles (the alive particles keep being simulated until they die)
+     */
+    public void stop() {
+        this.playing = false;
+        this.emissionAccumulator = 0f;
+    }
+
+    /**
+     * Whether the particle system is emitting particles
+     */
+    public boolean isPlaying() {
+        return this.playing;
+    }
+
+    /**
+     * Removes all particles
+     */
+    public void clear() {
+        this.count = 0;
+    }
+
+    /**
+     * Gets the amount of particles alive
+     */
+    public int getParticleCount() {
+        return this.count;
+    }
+
+    /**
+     * Emits particles right away (i.e.: for a burst), even if the particle system isn't playing
+     * @param amount the amount of particles (less are emitted if the maximum is reached)
+     */
+    public void emit(int amount) {
+        amount = Math.min(amount, this.maxParticles - this.count);
+        if (amount <= 0)
+            return;
+
+        PMatrix3D mat = this.worldSpace && gameObject != null ? transform().getWorldMatrix() : null;
+        int startColor = this.startColor.getHex();
+        int tint = this.color.getHex();
+        Vector2 point = this.point;
+        Vector2 direction = this.direction;
+
+        for (int n = 0; n < amount; n++) {
+            this.samplePoint(point, direction);
+
+            float speed = this.range(this.minSpeed, this.maxSpeed);
+            float x = point.x, y = point.y;
+            float vx = direction.x, vy = direction.y;
+            if (mat != null) {
+                x = mat.m00 * point.x + mat.m01 * point.y + mat.m03;
+                y = mat.m10 * point.x + mat.m11 * point.y + mat.m13;
+                vx = mat.m00 * direction.x + mat.m01 * direction.y;
+                vy = mat.m10 * direction.x + mat.m11 * direction.y;
+
+                // keep the speed, only the rotation of the transform matters
+                float length = (float) Math.sqrt(vx * vx + vy * vy);
+                if (length > 0f) {
+                    vx /= length;
+                    vy /= length;
+                }
+            }
+
+            int i = this.count++;
+            this.positionX[i] = x;
+            this.positionY[i] = y;
+            this.velocityX[i] = vx * speed;
+            this.velocityY[i] = vy * speed;
+            this.ages[i] = 0f;
+            this.lifetimes[i] = Math.max(this.range(this.minLifetime, this.maxLifetime), 0.0001f);
+            this.sizes[i] = this.range(this.minSize, this.maxSize);
+            this.colors[i] = startColor;
+            this.drawSizes[i] = this.sizes[i] * (this.sizeOverLifetime == null ? 1f : this.sizeOverLifetime.evaluate(0f));
+            this.drawColors[i] = this.colorOf(startColor, 0f, tint);
+        }
+    }
+
+    // ========================== SIMULATION ==========================
+
+    /**
+     * Advances all particles, removing the dead ones
+     */
+    private void simulate(float deltaTime) {
+        float gravityX = this.gravity.x * deltaTime;
+        float gravityY = this.gravity.y * deltaTime;
+        float damping = this.drag > 0f ? Math.max(0f, 1f - this.drag * deltaTime) : 1f;
+        Curve sizeOverLifetime = this.sizeOverLifetime;
+        Curve speedOverLifetime = this.speedOverLifetime;
+        int tint = this.color.getHex();
+
+        float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE;
+        float maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+
+        int i = 0;
+        while (i < this.count) {
+            float age = this.ages[i] + deltaTime;
+            if (age >= this.lifetimes[i]) {
+                // move the last particle here, then simulate it
+                this.remove(i);
+                continue;
+            }
+
+            float t = age / this.lifetimes[i];
+            float vx = (this.velocityX[i] + gravityX) * damping;
+            float vy = (this.velocityY[i] + gravityY) * damping;
+            float speed = speedOverLifetime == null ? deltaTime : speedOverLifetime.evaluate(t) * deltaTime;
+            float x = this.positionX[i] + vx * speed;
+            float y = this.positionY[i] + vy * speed;
+            float size = this.sizes[i] * (sizeOverLifetime == null ? 1f : sizeOverLifetime.evaluate(t));
+
+            this.ages[i] = age;
+            this.velocityX[i] = vx;
+            this.velocityY[i] = vy;
+            this.positionX[i] = x;
+            this.positionY[i] = y;
+            this.drawSizes[i] = size;
+            this.drawColors[i] = this.colorOf(this.colors[i], t, tint);
+
+            float half = size * 0.5f;
+            if (x - half < minX) minX = x - half;
+            if (y - half < minY) minY = y - half;
+            if (x + half > maxX) maxX = x + half;
+            if (y + half > maxY) maxY = y + half;
+
+            i++;
+        }
+
+        this.minX = minX;
+        this.minY = minY;
+        this.maxX = maxX;
+        this.maxY = maxY;
+    }
+
+    /**
+     * Removes a particle by moving the last particle into its place
+     */
+    private void remove(int i) {
+        int last = --this.count;
+        this.positionX[i] = this.positionX[last];
+        this.positionY[i] = this.positionY[last];
+        this.velocityX[i] = this.velocityX[last];
+        this.velocityY[i] = this.velocityY[last];
+        this.ages[i] = this.ages[last];
+        this.lifetimes[i] = this.lifetimes[last];
+        this.sizes[i] = this.sizes[last];
+        this.colors[i] = this.colors[last];
+        this.drawSizes[i] = this.drawSizes[last];
+        this.drawColors[i] = this.drawColors[last];
+    }
+
+    /**
+     * Calculates the color to draw a particle with (its color, multiplied by the color over lifetime and the tint)
+     */
+    private int colorOf(int color, float t, int tint) {
+        if (this.colorOverLifetime != null)
+            color = Gradient.multiply(color, this.colorOverLifetime.evaluate(t));
+
+        return tint == 0xFFFFFFFF ? color : Gradient.multiply(color, tint);
+    }
+
+    /**
+     * Picks a random point of the emission shape and the direction a particle emitted from it moves in (local space)
+     */
+    private void samplePoint(Vector2 point, Vector2 direction) {
+        switch (this.shape) {
+            case POINT -> {
+                point.set(0f, 0f);
+                this.randomDirection(direction);
+            }
+            case CIRCLE, CIRCLE_EDGE -> {
+                this.randomDirection(direction);
+                float radius = this.shapeSize.x;
+                // uniform over the area of the circle
+                if (this.shape == EmissionShape.CIRCLE)
+                    radius *= (float) Math.sqrt(this.random());
+
+                point.set(direction.x * radius, direction.y * radius);
+            }
+            case BOX -> {
+                point.set((this.random() - 0.5f) * this.shapeSize.x, (this.random() - 0.5f) * this.shapeSize.y);
+                this.randomDirection(direction);
+            }
+            case CONE -> {
+                point.set(0f, 0f);
+                // around up (negative y)
+                float angle = (float) Math.toRadians((this.random() - 0.5f) * this.coneAngle);
+                direction.set((float) Math.sin(angle), -(float) Math.cos(angle));
+            }
+        }
+    }
+
+    private void randomDirection(Vector2 direction) {
+        float angle = this.random() * (float) (Math.PI * 2);
+        direction.set((float) Math.cos(angle), (float) Math.sin(angle));
+    }
+
+    private float range(float min, float max) {
+        return min + (max - min) * this.random();
+    }
+
+    /**
+     * Gets a random number between 0 and 1 (xorshift, cheaper than a shared Random)
+     */
+    private float random() {
+        this.seed ^= this.seed << 13;
+        this.seed ^= this.seed >>> 17;
+        this.seed ^= this.seed << 5;
+        return (this.seed >>> 8) * 0x1.0p-24f;
+    }
+
+    // ========================== RENDERING ==========================
+
+    @Override
+    public void render() {
+        super.render();
+
+        if (this.count == 0 && this.drawn == 0)
+            return;
+
+        PImage image = this.sprite == null ? null : this.sprite.getPImage();
+        if (this.batches == null || this.batchSprite != this.sprite || this.batchImage != image) {
+            this.batches = new PShape[(this.maxParticles + BATCH_SIZE - 1) / BATCH_SIZE];
+            this.batchSprite = this.sprite;
+            this.batchImage = image;
+            this.drawn = 0;
+        }
+
+        // the scene bound the transform, the particles are already in world space
+        if (this.worldSpace) {
+            ctx().popMatrix();
+            ctx().pushMatrix();
+        }
+
+        int updated = Math.max(this.count, this.drawn);
+        for (int batch = 0; batch * BATCH_SIZE < updated; batch++) {
+            int from = batch * BATCH_SIZE;
+            int to = Math.min(from + BATCH_SIZE, updated);
+
+            PShape shape = this.batches[batch];
+            if (shape == null) {
+                shape = this.createBatch(Math.min(BATCH_SIZE, this.maxParticles - from), image);
+                this.batches[batch] = shape;
+            }
+
+            // writes straight into the vertex buffers of the shape
+            shape.beginTessellation(TRIANGLES);
+            for (int i = from; i < to; i++) {
+                int vertex = (i - from) * 4;
+                if (i >= this.count) {
+                    // died since the last render
+                    for (int corner = 0; corner < 4; corner++)
+                        shape.setVertex(vertex + corner, 0f, 0f);
+
+                    continue;
+                }
+
+                int color = this.drawColors[i];
+                // invisible particles are collapsed
+                float half = (color >>> 24) == 0 ? 0f : this.drawSizes[i] * 0.5f;
+                float x = this.positionX[i];
+                float y = this.positionY[i];
+
+                // the corners in the same order as the sprite batch
+                shape.setVertex(vertex, x - half, y - half);
+                shape.setVertex(vertex + 1, x - half, y + half);
+                shape.setVertex(vertex + 2, x + half, y + half);
+                shape.setVertex(vertex + 3, x + half, y - half);
+
+                for (int corner = 0; corner < 4; corner++) {
+                    if (image != null)
+                        shape.setTint(vertex + corner, color);
+                    else
+                        shape.setFill(vertex + corner, color);
+                }
+            }
+            shape.endTessellation();
+
+            if (from < this.count)
+                ctx().shape(shape);
+        }
+
+        this.drawn = this.count;
+    }
+
+    /**
+     * Creates a retained shape of collapsed quads, textured with the sprite
+     * @param quads the amount of quads (particles)
+     * @param image the image of the sprite, or null to draw squares
+     */
+    private PShape createBatch(int quads, PImage image) {
+        // the texture coordinates of the sprite (in pixels)
+        float u1 = 0, v1 = 0, u2 = 0, v2 = 0;
+        if (image != null) {
+            u2 = this.sprite.size.x;
+            v2 = this.sprite.size.y;
+            if (this.sprite.isSubSprite) {
+                u1 = this.sprite.pos.x;
+                v1 = this.sprite.pos.y;
+                u2 += u1;
+                v2 += v1;
+            }
+        }
+
+        PShape shape = ctx().createShape();
+        shape.beginShape(QUADS);
+        shape.noStroke();
+        shape.textureMode(IMAGE);
+        if (image != null)
+            shape.texture(image);
+
+        for (int i = 0; i < quads; i++) {
+            shape.vertex(0f, 0f, u1, v1);
+            shape.vertex(0f, 0f, u1, v2);
+            shape.vertex(0f, 0f, u2, v2);
+            shape.vertex(0f, 0f, u2, v1);
+        }
+
+        shape.endShape();
+        return shape;
+    }
+
+    @Override
+    public boolean getWorldBounds(AABB out) {
+        if (this.count == 0) {
+            // nothing is drawn
+            Vector2 position = transform().getWorldPosition();
+            out.set(position.x, position.y, position.x, position.y);
+            return true;
+        }
+
+        if (this.worldSpace) {
+            out.set(this.minX, this.minY, this.maxX, this.maxY);
+            return true;
+        }
+
+        // the corners of the bounds, transformed by the world matrix
+        out.set(Float.MAX_VALUE, Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE);
+        Vector2 corner = this.corner;
+        for (int i = 0; i < 4; i++) {
+            corner.set(i == 1 || i == 2 ? this.maxX : this.minX, i >= 2 ? this.maxY : this.minY);
+            transform().localToWorld(corner, corner);
+
+            out.set(Math.min(out.minX, corner.x), Math.min(out.minY, corner.y), Math.max(out.maxX, corner.x), Math.max(out.maxY, corner.y));
+        }
+
+        return true;
+    }
+}
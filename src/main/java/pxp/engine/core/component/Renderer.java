@@ -9,6 +9,7 @@ import pxp.engine.core.component.ui.Interactable;
 import pxp.engine.data.BlendMode;
 import pxp.engine.data.Color;
 import pxp.engine.data.GameSettings;
+import pxp.engine.data.collision.AABB;
 
 /**
  * Base for renderer components
@@ -59,6 +60,15 @@ public abstract class Renderer extends Component
         ctx().fill(this.color.getHex());
     }
 
+    /**
+     * Calculates the bounds of what this renderer draws, in world space (used to skip the renderers outside the camera)
+     * @param out the bounding box to write into
+     * @return false if the bounds are unknown, in which case the renderer is always rendered
+     */
+    public boolean getWorldBounds(AABB out) {
+        return false;
+    }
+
     /**
      * Needs to be used after rendering to reset some settings
      */
@@ -72,7 +82,7 @@ public abstract class Renderer extends Component
     public void setSortingLayer(String layer) {
         this.sortingLayer = layer;
         if (started && gameObject != null && gameObject.scene != null) {
-            this.gameObject.scene.unregisterSortingLayer(gameObject);
+            // moves the game object to its new place
             this.gameObject.scene.registerSortingLayer(gameObject);
         }
     }
@@ -80,7 +90,7 @@ public abstract class Renderer extends Component
     public void setOrderInLayer(int order) {
         this.orderInLayer = order;
         if (started && gameObject != null && gameObject.scene != null) {
-            this.gameObject.scene.unregisterSortingLayer(gameObject);
+            // moves the game object to its new place
             this.gameObject.scene.registerSortingLayer(gameObject);
         }
     }
@@ -1,11 +1,13 @@
 package pxp.engine.core.component;
 
+import processing.core.PMatrix3D;
 import pxp.annotations.RequiresRectTransform;
 import pxp.engine.core.RectTransform;
 import pxp.engine.data.Vector2;
 import pxp.engine.data.Pivot;
 import pxp.engine.data.assets.SpriteAsset;
 import pxp.engine.data.assets.AssetManager;
+import pxp.engine.data.collision.AABB;
 
 /**
  * The SpriteRenderer Component is crucial to displaying images/textures on the screen.
@@ -27,6 +29,29 @@ public class SpriteRenderer extends PivotedRenderer
      */
     public boolean flipY = false;
 
+    // the layout of a quad (see updateQuad)
+    public static final int QUAD_PIVOT_X = 0;
+    public static final int QUAD_PIVOT_Y = 1;
+    public static final int QUAD_WIDTH = 2;
+    public static final int QUAD_HEIGHT = 3;
+    public static final int QUAD_U1 = 4;
+    public static final int QUAD_V1 = 5;
+    public static final int QUAD_U2 = 6;
+    public static final int QUAD_V2 = 7;
+    public static final int QUAD_SIZE = 8;
+
+    /**
+     * The quad of the last render (reused)
+     */
+    private final float[] quad = new float[QUAD_SIZE];
+
+    // the pivot of the world bounds, only recalculated when the size of the sprite or the pivot changes
+    private Pivot boundsPivot = null;
+    private float boundsWidth = -1f;
+    private float boundsHeight = -1f;
+    private float boundsPivotX = 0f;
+    private float boundsPivotY = 0f;
+
     /**
      * Creates a blank SpriteRenderer component
      */
@@ -75,6 +100,59 @@ public class SpriteRenderer extends PivotedRenderer
 
         if (sprite == null) return;
 
+        this.updateQuad(this.quad);
+
+        // push translation for pivot
+        ctx().translate(this.quad[QUAD_PIVOT_X], this.quad[QUAD_PIVOT_Y], 1f);
+
+        ctx().image(
+            sprite.getPImage(),
+            0, 0, this.quad[QUAD_WIDTH], this.quad[QUAD_HEIGHT], // position and size to draw
+            (int) this.quad[QUAD_U1], (int) this.quad[QUAD_V1], // corner 1 (u1v1)
+            (int) this.quad[QUAD_U2], (int) this.quad[QUAD_V2]  // corner 2 (u2v2)
+        );
+    }
+
+    @Override
+    public boolean getWorldBounds(AABB out) {
+        if (sprite == null) return false;
+
+        float width = sprite.size.x / (float) sprite.getPixelsPerUnit();
+        float height = sprite.size.y / (float) sprite.getPixelsPerUnit();
+        if (this.pivot != this.boundsPivot || width != this.boundsWidth || height != this.boundsHeight) {
+            Vector2 pivot = this.pivot.calc.apply(new Vector2(width, height));
+            this.boundsPivot = this.pivot;
+            this.boundsWidth = width;
+            this.boundsHeight = height;
+            this.boundsPivotX = pivot.x;
+            this.boundsPivotY = pivot.y;
+        }
+
+        // the corners of the quad, transformed by the world matrix
+        PMatrix3D mat = transform().getWorldMatrix();
+        float x1 = this.boundsPivotX, y1 = this.boundsPivotY;
+        float x2 = x1 + width, y2 = y1 + height;
+
+        float ax = mat.m00 * x1 + mat.m01 * y1, ay = mat.m10 * x1 + mat.m11 * y1;
+        float bx = mat.m00 * x2 + mat.m01 * y1, by = mat.m10 * x2 + mat.m11 * y1;
+        float cx = mat.m00 * x2 + mat.m01 * y2, cy = mat.m10 * x2 + mat.m11 * y2;
+        float dx = mat.m00 * x1 + mat.m01 * y2, dy = mat.m10 * x1 + mat.m11 * y2;
+
+        // the z translation of the pivot doesn't move the quad on the screen (the camera is orthographic)
+        out.set(
+            Math.min(Math.min(ax, bx), Math.min(cx, dx)) + mat.m03, Math.min(Math.min(ay, by), Math.min(cy, dy)) + mat.m13,
+            Math.max(Math.max(ax, bx), Math.max(cx, dx)) + mat.m03, Math.max(Math.max(ay, by), Math.max(cy, dy)) + mat.m13
+        );
+        return true;
+    }
+
+    /**
+     * [Internal] Sets the size of the rect transform to the size of the sprite (in case the sprite changed) and writes
+     * the quad the sprite is drawn on, in the local space of the game object: the pivot translation, the size and the
+     * texture coordinates (in pixels, flipped if needed)
+     * @param quad the array to write into (indexed by the QUAD_ constants)
+     */
+    public void updateQuad(float[] quad) {
         Vector2 size = sprite.size.clone();
 
         size.x = size.x / (float) sprite.getPixelsPerUnit();
@@ -85,49 +163,34 @@ public class SpriteRenderer extends PivotedRenderer
 
         Vector2 pivot = this.pivot.calc.apply(size);
 
-        // push translation for pivot
-        ctx().translate(pivot.x, pivot.y, 1f);
-
+        // the texture coordinates of the corners (u1v1 and u2v2)
+        int u1 = 0, v1 = 0;
+        int u2 = (int) sprite.size.x, v2 = (int) sprite.size.y;
         if (sprite.isSubSprite) {
-            int[] uvs = new int[] {
-                //                  u1                                   v1
-                           (int) sprite.pos.x,                  (int) sprite.pos.y,         // corner 1
-                (int) (sprite.pos.x + sprite.size.x), (int) (sprite.pos.y + sprite.size.y)  // corner 2
-            };
-
-            if (flipX) {
-                uvs[0] = (int) (sprite.pos.x + sprite.size.x);
-                uvs[2] = (int) sprite.pos.x;
-            }
-            if (flipY) {
-                uvs[1] = (int) (sprite.pos.y + sprite.size.y);
-                uvs[3] = (int) sprite.pos.y;
-            }
-
-            ctx().image(
-                sprite.getPImage(),
-                0, 0, size.x, size.y, // position and size to draw
-                uvs[0], uvs[1], // corner 1 (u1v1)
-                uvs[2], uvs[3]  // corner 2 (u2v2)
-            );
+            u1 = (int) sprite.pos.x;
+            v1 = (int) sprite.pos.y;
+            u2 = (int) (sprite.pos.x + sprite.size.x);
+            v2 = (int) (sprite.pos.y + sprite.size.y);
         }
-        else {
-            int[] uvs = new int[] {
-                //       u1                    v1
-                          0,                   0,           // corner 1
-                (int) sprite.size.x, (int) sprite.size.y    // corner 2
-            };
-
-            if (flipX) {
-                uvs[0] = (int) sprite.size.x;
-                uvs[2] = 0;
-            }
-            if (flipY) {
-                uvs[1] = (int) sprite.size.y;
-                uvs[3] = 0;
-            }
-
-            ctx().image(sprite.getPImage(), 0, 0, size.x, size.y, uvs[0], uvs[1], uvs[2], uvs[3]);
+
+        if (flipX) {
+            int u = u1;
+            u1 = u2;
+            u2 = u;
         }
+        if (flipY) {
+            int v = v1;
+            v1 = v2;
+            v2 = v;
+        }
+
+        quad[QUAD_PIVOT_X] = pivot.x;
+        quad[QUAD_PIVOT_Y] = pivot.y;
+        quad[QUAD_WIDTH] = size.x;
+        quad[QUAD_HEIGHT] = size.y;
+        quad[QUAD_U1] = u1;
+        quad[QUAD_V1] = v1;
+        quad[QUAD_U2] = u2;
+        quad[QUAD_V2] = v2;
     }
 }
@@ -0,0 +1,583 @@
+package pxp.engine.core.component;
+
+import processing.core.PImage;
+import processing.core.PShape;
+import pxp.engine.core.manager.CollisionManager;
+import pxp.engine.data.LayerMask;
+import pxp.engine.data.Pivot;
+import pxp.engine.data.Vector2;
+import pxp.engine.data.assets.AssetManager;
+import pxp.engine.data.assets.SpriteAsset;
+import pxp.engine.data.collision.AABB;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The Tilemap Component renders a grid of tiles from a sprite sheet, as a replacement for a game object (with a
+ * SpriteRenderer and a BoxCollider) per tile.<br/>
+ * The tiles are indices of sub sprites of the sheet, kept in a single array. The grid is split into square chunks, each
+ * baked into a single cached shape that is only rebuilt when one of its tiles changes, and only the chunks inside the
+ * view of the camera are drawn.<br/>
+ * The solid tiles are covered by as few static box colliders as possible (runs of solid tiles are merged into rectangles),
+ * which belong to the game object of the tilemap.
+ * @see AssetManager#createSpriteSheet(String, String, int, int)
+ */
+public class Tilemap extends PivotedRenderer
+{
+    /**
+     * The index of an empty tile
+     */
+    public static final int EMPTY = -1;
+
+    /**
+     * The sprite sheet the tiles are taken from
+     */
+    public final SpriteAsset tileSet;
+
+    /**
+     * The amount of columns and rows of the grid
+     */
+    private final int columns;
+    private final int rows;
+    /**
+     * The tiles of the grid (indices of sub sprites of the tile set), row by row
+     */
+    private final int[] tiles;
+
+    /**
+     * The size of a tile in units (if null, the size of a sub sprite of the tile set is used)<br/>
+     * <i>Must be set before the tilemap starts</i>
+     */
+    public Vector2 tileSize = null;
+    /**
+     * The amount of tiles on each side of a chunk
+     */
+    public final int chunkSize;
+
+    /**
+     * Whether to generate colliders for the solid tiles
+     */
+    public boolean generateColliders = true;
+    /**
+     * The layer of the generated colliders
+     */
+    public int colliderLayer = LayerMask.nameToId("Default");
+    /**
+     * The tiles (of the tile set) that aren't solid, all tiles are solid by default
+     */
+    private final BitSet nonSolidTiles = new BitSet();
+
+    /**
+     * The sub sprites of the tile set, by index (created as they are used)
+     */
+    private SpriteAsset[] subSprites = new SpriteAsset[0];
+
+    /**
+     * The baked chunks, row by row
+     */
+    private Chunk[] chunks;
+    private int chunkColumns;
+    private int chunkRows;
+
+    /**
+     * The generated colliders, as of the last rebuild
+     */
+    private final List<BoxCollider> colliders = new ArrayList<>();
+    /**
+     * The corner transformed by getWorldBounds (reused every frame)
+     */
+    private final Vector2 corner = new Vector2();
+    /**
+     * The rect of the camera in the local space of the tilemap, as of the last render (reused every frame)
+     */
+    private final AABB view = new AABB();
+    // the origin of the grid, only recalculated when the pivot or the size of the grid changes
+    private final Vector2 origin = new Vector2();
+    private Pivot originPivot = null;
+    private float originWidth = -1f;
+    private float originHeight = -1f;
+    /**
+     * Whether the colliders have to be rebuilt (a tile changed)
+     */
+    private boolean collidersDirty = true;
+
+    /**
+     * Creates an empty Tilemap component
+     * @param tileSet the sprite sheet of the tiles (use AssetManager)
+     * @param columns the amount of columns of the grid
+     * @param rows the amount of rows of the grid
+     */
+    public Tilemap(SpriteAsset tileSet, int columns, int rows) {
+        this(tileSet, columns, rows, null, 16);
+    }
+
+    /**
+     * Creates a Tilemap component, given its tiles
+     * @param tileSet the sprite sheet of the tiles (use AssetManager)
+     * @param columns the amount of columns of the grid
+     * @param rows the amount of rows of the grid
+     * @param tiles the indices of the sub sprites of the tiles, row by row ({@link Tilemap#EMPTY} for no tile)
+     */
+    public Tilemap(SpriteAsset tileSet, int columns, int rows, int[] tiles) {
+        this(tileSet, columns, rows, tiles, 16);
+    }
+
+    /**
+     * Creates a Tilemap component, given its tiles and the size of the chunks
+     * @param tileSet the sprite sheet of the tiles (use AssetManager)
+     * @param columns the amount of columns of the grid
+     * @param rows the amount of rows of the grid
+     * @param tiles the indices of the sub sprites of the tiles, row by row ({@link Tilemap#EMPTY} for no tile), or null
+     * @param chunkSize the amount of tiles on each side of a chunk
+     */
+    public Tilemap(SpriteAsset tileSet, int columns, int rows, int[] tiles, int chunkSize) {
+        if (columns <= 0 || rows <= 0)
+            throw new IllegalArgumentException("The tilemap must have at least one column and one row.");
+        if (chunkSize <= 0)
+            throw new IllegalArgumentException("The chunk size must be positive.");
+        if (tiles != null && tiles.length != columns * rows)
+            throw new IllegalArgumentException("The amount of tiles (" + tiles.length + ") doesn't match the size of the tilemap (" + columns + "x" + rows + ").");
+
+        this.tileSet = tileSet;
+        this.columns = columns;
+        this.rows = rows;
+        this.chunkSize = chunkSize;
+        this.pivot = Pivot.TOP_LEFT;
+
+        if (tiles != null)
+            this.tiles = tiles.clone();
+        else {
+            this.tiles = new int[columns * rows];
+            Arrays.fill(this.tiles, EMPTY);
+        }
+    }
+
+    @Override
+    public void start() {
+        if (this.tileSize == null) {
+            SpriteAsset sprite = this.getSubSprite(0);
+            this.tileSize = new Vector2(sprite.size.x / (float) sprite.getPixelsPerUnit(), sprite.size.y / (float) sprite.getPixelsPerUnit());
+        }
+
+        this.chunkColumns = (this.columns + this.chunkSize - 1) / this.chunkSize;
+        this.chunkRows = (this.rows + this.chunkSize - 1) / this.chunkSize;
+        this.chunks = new Chunk[this.chunkColumns * this.chunkRows];
+        for (int i = 0; i < this.chunks.length; i++)
+            this.chunks[i] = new Chunk();
+
+        this.rebuildColliders();
+    }
+
+    @Override
+    public void update() {
+        if (this.collidersDirty)
+            this.rebuildColliders();
+    }
+
+    @Override
+    public void destroy() {
+        this.removeColliders();
+    }
+
+    // ========================== TILES ==========================
+
+    /**
+     * Gets the amount of columns of the grid
+     */
+    public int getColumns() {
+        return this.columns;
+    }
+
+    /**
+     * Gets the amount of rows of the grid
+     */
+    public int getRows() {
+        return this.rows;
+    }
+
+    /**
+     * Gets a tile of the grid
+     * @param column the column of the tile
+     * @param row the row of the tile
+     * @return the index of the sub sprite of the tile, or {@link Tilemap#EMPTY}
+     */
+    public int getTile(int column, int row) {
+        this.checkCell(column, row);
+        return this.tiles[row * this.columns + column];
+    }
+
+    /**
+     * Sets a tile of the grid (its chunk is rebaked and the colliders are rebuilt before they are used again)
+     * @param column the column of the tile
+     * @param row the row of the tile
+     * @param tile the index of the sub sprite of the tile, or {@link Tilemap#EMPTY}
+     */
+    public void setTile(int column, int row, int tile) {
+        this.checkCell(column, row);
+
+        int index = row * this.columns + column;
+        if (this.tiles[index] == tile)
+            return;
+
+        if (this.isSolid(this.tiles[index]) != this.isSolid(tile))
+            this.collidersDirty = true;
+
+        this.tiles[index] = tile;
+        if (this.chunks != null)
+            this.chunks[(row / this.chunkSize) * this.chunkColumns + column / this.chunkSize].dirty = true;
+    }
+
+    /**
+     * Sets whether a tile (of the tile set) is solid, all tiles are solid by default
+     * @param tile the index of the sub sprite
+     * @param solid whether colliders are generated for the tile
+     */
+    public void setSolid(int tile, boolean solid) {
+        if (tile < 0)
+            throw new IndexOutOfBoundsException("The tile index must be positive.");
+
+        if (this.nonSolidTiles.get(tile) == solid) {
+            this.nonSolidTiles.set(tile, !solid);
+            this.collidersDirty = true;
+        }
+    }
+
+    /**
+     * Checks whether a tile has a collider
+     * @param tile the index of the sub sprite of the tile, or {@link Tilemap#EMPTY}
+     */
+    public boolean isSolid(int tile) {
+        return tile != EMPTY && !this.nonSolidTiles.get(tile);
+    }
+
+    /**
+     * Finds the cell of the grid at a position
+     * @param worldPosition the position in world space
+     * @return the column (x) and row (y) of the cell, which might be outside the grid
+     */
+    public Vector2 worldToCell(Vector2 worldPosition) {
+        Vector2 local = transform().worldToLocal(worldPosition);
+        Vector2 origin = this.getOrigin();
+
+        return new Vector2(
+            (float) Math.floor((local.x - origin.x) / this.tileSize.x),
+            (float) Math.floor((local.y - origin.y) / this.tileSize.y)
+        );
+    }
+
+    /**
+     * Gets the colliders generated for the solid tiles, as of the last rebuild
+     * @return the colliders (do not modify)
+     */
+    public List<BoxCollider> getColliders() {
+        return Collections.unmodifiableList(this.colliders);
+    }
+
+    // ========================== RENDERING ==========================
+
+    @Override
+    public void render() {
+        super.render();
+
+        if (this.chunks == null || this.tileSet.getPImage() == null)
+            return;
+
+        // the rect of the camera in the local space of the tilemap
+        AABB view = this.getLocalView();
+        Vector2 origin = this.getOrigin();
+        float chunkWidth = this.chunkSize * this.tileSize.x;
+        float chunkHeight = this.chunkSize * this.tileSize.y;
+
+        int tint = this.color.getHex();
+        for (int chunkRow = 0; chunkRow < this.chunkRows; chunkRow++)
+            for (int chunkColumn = 0; chunkColumn < this.chunkColumns; chunkColumn++) {
+                if (view != null) {
+                    float x = origin.x + chunkColumn * chunkWidth;
+                    float y = origin.y + chunkRow * chunkHeight;
+                    if (x > view.maxX || y > view.maxY || x + chunkWidth < view.minX || y + chunkHeight < view.minY)
+                        continue;
+                }
+
+                Chunk chunk = this.chunks[chunkRow * this.chunkColumns + chunkColumn];
+                if (chunk.dirty)
+                    this.bake(chunk, chunkColumn, chunkRow, origin);
+
+                if (chunk.shape == null)
+                    continue;
+
+                // the tint is baked into the vertices
+                if (chunk.tint != tint) {
+                    chunk.shape.setTint(tint);
+                    chunk.tint = tint;
+                }
+
+                ctx().shape(chunk.shape);
+            }
+    }
+
+    @Override
+    public boolean getWorldBounds(AABB out) {
+        if (this.tileSize == null)
+            return false;
+
+        // the corners of the grid, transformed by the world matrix
+        Vector2 origin = this.getOrigin();
+        float width = this.columns * this.tileSize.x;
+        float height = this.rows * this.tileSize.y;
+
+        out.set(Float.MAX_VALUE, Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE);
+        Vector2 corner = this.corner;
+        for (int i = 0; i < 4; i++) {
+            corner.set(origin.x + (i == 1 || i == 2 ? width : 0), origin.y + (i >= 2 ? height : 0));
+            transform().localToWorld(corner, corner);
+
+            out.set(Math.min(out.minX, corner.x), Math.min(out.minY, corner.y), Math.max(out.maxX, corner.x), Math.max(out.maxY, corner.y));
+        }
+
+        return true;
+    }
+
+    @Override
+    public void gizmosDraw() {
+        ctx().stroke(Collider.gizmosColor.getHex());
+        ctx().noFill();
+        ctx().rectMode(CENTER);
+        for (BoxCollider collider : this.colliders)
+            ctx().rect(collider.centerOffset.x, collider.centerOffset.y, collider.halfSize.x * 2f, collider.halfSize.y * 2f);
+        ctx().rectMode(CORNER);
+        ctx().noStroke();
+    }
+
+    /**
+     * Bakes the tiles of a chunk into a single shape (textured quads)
+     */
+    private void bake(Chunk chunk, int chunkColumn, int chunkRow, Vector2 origin) {
+        chunk.dirty = false;
+        chunk.shape = null;
+
+        PImage image = this.tileSet.getPImage();
+        int fromColumn = chunkColumn * this.chunkSize;
+        int fromRow = chunkRow * this.chunkSize;
+        int toColumn = Math.min(fromColumn + this.chunkSize, this.columns);
+        int toRow = Math.min(fromRow + this.chunkSize, this.rows);
+
+        PShape shape = null;
+        for (int row = fromRow; row < toRow; row++)
+            for (int column = fromColumn; column < toColumn; column++) {
+                int tile = this.tiles[row * this.columns + column];
+                if (tile == EMPTY)
+                    continue;
+
+                if (shape == null) {
+                    shape = ctx().createShape();
+                    shape.beginShape(QUADS);
+                    shape.noStroke();
+                    shape.textureMode(NORMAL);
+                    shape.texture(image);
+                }
+
+                // the texture coordinates of the sub sprite, normalized
+                SpriteAsset sprite = this.getSubSprite(tile);
+                float u1 = sprite.pos.x / image.width;
+                float v1 = sprite.pos.y / image.height;
+                float u2 = (sprite.pos.x + sprite.size.x) / image.width;
+                float v2 = (sprite.pos.y + sprite.size.y) / image.height;
+
+                float x1 = origin.x + column * this.tileSize.x;
+                float y1 = origin.y + row * this.tileSize.y;
+                float x2 = x1 + this.tileSize.x;
+                float y2 = y1 + this.tileSize.y;
+
+                // the corners in the same order as the sprite batch
+                shape.vertex(x1, y1, u1, v1);
+                shape.vertex(x1, y2, u1, v2);
+                shape.vertex(x2, y2, u2, v2);
+                shape.vertex(x2, y1, u2, v1);
+            }
+
+        if (shape == null)
+            return;
+
+        shape.endShape();
+        chunk.shape = shape;
+        // the tint is applied before the next draw
+        chunk.tint = ~this.color.getHex();
+    }
+
+    /**
+     * Gets the rect of the camera in the local space of the tilemap
+     * @return the bounds of the rect, or null if there is no camera
+     */
+    private AABB getLocalView() {
+        Camera camera = this.gameObject.scene == null ? null : this.gameObject.scene.getCamera();
+        if (camera == null)
+            return null;
+
+        AABB view = camera.getBounds(this.view);
+        float left = view.minX, top = view.minY, right = view.maxX, bottom = view.maxY;
+
+        view.set(Float.MAX_VALUE, Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE);
+        Vector2 corner = this.corner;
+        for (int i = 0; i < 4; i++) {
+            corner.set(i == 1 || i == 2 ? right : left, i >= 2 ? bottom : top);
+            transform().worldToLocal(corner, corner);
+            view.set(Math.min(view.minX, corner.x), Math.min(view.minY, corner.y), Math.max(view.maxX, corner.x), Math.max(view.maxY, corner.y));
+        }
+
+        return view;
+    }
+
+    // ========================== COLLIDERS ==========================
+
+    /**
+     * Replaces the colliders with new ones covering the solid tiles: each rectangle starts at the first solid tile not
+     * covered yet (row by row), grows to the right as long as the tiles are solid, then down as long as the whole run
+     * below is solid and not covered yet
+     */
+    private void rebuildColliders() {
+        this.collidersDirty = false;
+        this.removeColliders();
+
+        if (!this.generateColliders || this.gameObject == null)
+            return;
+
+        Vector2 origin = this.getOrigin();
+        boolean[] covered = new boolean[this.tiles.length];
+        for (int row = 0; row < this.rows; row++)
+            for (int column = 0; column < this.columns; column++) {
+                if (covered[row * this.columns + column] || !this.isSolid(this.tiles[row * this.columns + column]))
+                    continue;
+
+                // the run to the right
+                int width = 1;
+                while (column + width < this.columns && this.isCollidable(column + width, row, covered))
+                    width++;
+
+                // the runs below
+                int height = 1;
+                while (row + height < this.rows && this.isRunCollidable(column, row + height, width, covered))
+                    height++;
+
+                for (int y = row; y < row + height; y++)
+                    Arrays.fill(covered, y * this.columns + column, y * this.columns + column + width, true);
+
+                Vector2 halfSize = new Vector2(width * this.tileSize.x / 2f, height * this.tileSize.y / 2f);
+                Vector2 center = new Vector2(origin.x + column * this.tileSize.x + halfSize.x, origin.y + row * this.tileSize.y + halfSize.y);
+                this.addCollider(center, halfSize);
+            }
+
+        if (!this.colliders.isEmpty())
+            this.getCollisionManager().register(this.gameObject);
+    }
+
+    private boolean isCollidable(int column, int row, boolean[] covered) {
+        int index = row * this.columns + column;
+        return !covered[index] && this.isSolid(this.tiles[index]);
+    }
+
+    private boolean isRunCollidable(int column, int row, int width, boolean[] covered) {
+        for (int x = column; x < column + width; x++)
+            if (!this.isCollidable(x, row, covered))
+                return false;
+
+        return true;
+    }
+
+    /**
+     * Creates a static collider on the game object of the tilemap (registered with the CollisionManager afterwards)
+     */
+    private void addCollider(Vector2 center, Vector2 halfSize) {
+        BoxCollider collider = new BoxCollider(center, halfSize);
+        collider.gameObject = this.gameObject;
+        collider.isStatic = true;
+        collider.layer = this.colliderLayer;
+        collider.start();
+        collider.started = true;
+
+        this.colliders.add(collider);
+        this.gameObject.colliders.add(collider);
+    }
+
+    /**
+     * Removes the generated colliders from the game object and the CollisionManager
+     */
+    private void removeColliders() {
+        if (this.colliders.isEmpty())
+            return;
+
+        CollisionManager collisionManager = this.getCollisionManager();
+        for (BoxCollider collider : this.colliders) {
+            this.gameObject.colliders.remove(collider);
+            collisionManager.unregister(collider);
+        }
+        this.colliders.clear();
+
+        if (this.gameObject.colliders.isEmpty())
+            collisionManager.unregister(this.gameObject);
+    }
+
+    // ========================== UTILS ==========================
+
+    private CollisionManager getCollisionManager() {
+        return ctx().collisionManager;
+    }
+
+    /**
+     * Gets the local position of the top left corner of the grid (moved by the pivot)
+     */
+    private Vector2 getOrigin() {
+        float width = this.columns * this.tileSize.x;
+        float height = this.rows * this.tileSize.y;
+        if (this.pivot != this.originPivot || width != this.originWidth || height != this.originHeight) {
+            this.origin.set(this.pivot.calc.apply(new Vector2(width, height)));
+            this.originPivot = this.pivot;
+            this.originWidth = width;
+            this.originHeight = height;
+        }
+
+        return this.origin;
+    }
+
+    private SpriteAsset getSubSprite(int tile) {
+        if (tile >= this.subSprites.length)
+            this.subSprites = Arrays.copyOf(this.subSprites, Math.max(tile + 1, this.subSprites.length * 2));
+
+        if (this.subSprites[tile] == null) {
+            SpriteAsset sprite = this.tileSet.getSubSprite(tile);
+            if (sprite == null)
+                throw new IllegalArgumentException("The tile set of a tilemap must be a sprite sheet.");
+
+            this.subSprites[tile] = sprite;
+        }
+
+        return this.subSprites[tile];
+    }
+
+    private void checkCell(int column, int row) {
+        if (column < 0 || column >= this.columns || row < 0 || row >= this.rows)
+            throw new IndexOutOfBoundsException("The cell (" + column + ", " + row + ") is outside the tilemap (" + this.columns + "x" + this.rows + ").");
+    }
+
+    /**
+     * A square of tiles, baked into a single shape
+     */
+    private static class Chunk
+    {
+        /**
+         * The baked shape (null if the chunk is empty)
+         */
+        private PShape shape;
+        /**
+         * The tint applied to the shape
+         */
+        private int tint;
+        /**
+         * Whether a tile changed since the chunk was baked
+         */
+        private boolean dirty = true;
+    }
+}
@@ -3,8 +3,16 @@ package pxp.engine.core.component.ui;
 import pxp.annotations.LinkFieldInInspector;
 import pxp.annotations.LinkState;
 import pxp.annotations.LinkType;
+import processing.core.PGraphics;
+import processing.opengl.PGraphicsOpenGL;
 import pxp.engine.core.GameObject;
+import pxp.engine.core.GameProcess;
 import pxp.engine.core.RectTransform;
+import pxp.engine.core.RenderQueue;
+import pxp.engine.core.Transform;
+import pxp.engine.core.component.Camera;
+import pxp.engine.core.component.Renderer;
+import pxp.engine.data.Rect;
 import pxp.engine.data.Vector2;
 import pxp.engine.data.ui.RenderMode;
 
@@ -29,6 +37,28 @@ public class Canvas extends UIRenderer
      */
     private RenderMode renderMode = RenderMode.CAMERA;
 
+    /**
+     * Whether the elements of this canvas are rendered once into an offscreen image, which is then drawn every frame
+     * instead of the elements (only when using {@link RenderMode#CAMERA}).<br/>
+     * The image is only re-rendered when the elements change: their transforms, colors, sprites, texts, the transitions
+     * of interactables, or when {@link Canvas#markDirty()} is called.<br/>
+     * <i>Meant for static UI (i.e.: HUDs), changing the elements every frame costs more than rendering them directly</i>
+     */
+    public boolean cached = false;
+
+    /**
+     * The offscreen image the elements are rendered into (when cached)
+     */
+    private PGraphics cache = null;
+    /**
+     * The state of the elements as of the last render of the cache
+     */
+    private final CanvasCacheState cacheState = new CanvasCacheState();
+    /**
+     * Whether the cache has to be re-rendered, regardless of the state of the elements
+     */
+    private boolean dirty = true;
+
     /**
      * Creates a default Canvas component
      */
@@ -74,6 +104,181 @@ public class Canvas extends UIRenderer
 
             // follow camera
             transform().position = gameObject.scene.getCamera().transform().position;
+
+            if (this.isCaching())
+                this.renderCached();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (this.cache != null)
+            this.cache.dispose();
+
+        this.cache = null;
+    }
+
+    /**
+     * Marks the cache as outdated, so that the elements are re-rendered on the next frame
+     * @see Canvas#cached
+     */
+    public void markDirty() {
+        this.dirty = true;
+    }
+
+    /**
+     * Whether the elements of this canvas are drawn by its cache
+     * @see Canvas#cached
+     */
+    public boolean isCaching() {
+        return this.cached && this.started && this.renderMode == RenderMode.CAMERA;
+    }
+
+    /**
+     * [Internal] Checks whether a game object is drawn by the cache of a canvas (one of its parents)
+     * @param gameObject the game object to check
+     */
+    public static boolean isDrawnByCache(GameObject gameObject) {
+        for (GameObject go = gameObject.parent; go != null; go = go.parent)
+            if (go.renderer instanceof Canvas canvas && canvas.isCaching())
+                return true;
+
+        return false;
+    }
+
+    /**
+     * Re-renders the cache if the elements changed, then draws it over the canvas
+     */
+    private void renderCached() {
+        Vector2 size = rectTransform().size;
+        int width = (int) size.x;
+        int height = (int) size.y;
+        if (width <= 0 || height <= 0)
+            return;
+
+        if (this.cache == null || this.cache.width != width || this.cache.height != height) {
+            if (this.cache != null)
+                this.cache.dispose();
+
+            this.cache = ctx().createGraphics(width, height, P3D);
+            this.dirty = true;
+        }
+
+        // the state is written every frame, so that it is up to date after a forced re-render
+        this.cacheState.begin();
+        this.writeCacheState(this.gameObject);
+        if (this.cacheState.end() || this.dirty)
+            this.renderCache();
+
+        // the scene bound the transform before it was moved to the camera, bind it again
+        ctx().popMatrix();
+        ctx().pushMatrix();
+        ctx().applyMatrix(transform().getWorldMatrix());
+
+        Vector2 pivot = this.pivot.calc.apply(size);
+        ctx().image(this.cache, pivot.x, pivot.y, size.x, size.y);
+    }
+
+    /**
+     * Renders the elements into the cache, with the same view as the camera (the canvas follows the camera, so the image
+     * stays the same while the camera moves)
+     */
+    private void renderCache() {
+        this.dirty = false;
+
+        GameProcess context = ctx();
+        Camera camera = this.gameObject.scene.getCamera();
+        Vector2 cameraPosition = camera.transform().position;
+        Rect view = camera.getRect();
+
+        PGraphics cache = this.cache;
+        cache.beginDraw();
+        cache.clear();
+        ((PGraphicsOpenGL) cache).textureSampling(context.settings.textureFilter.ordinal());
+
+        cache.beginCamera();
+        cache.camera(
+            cameraPosition.x, cameraPosition.y, camera.cameraZ,
+            cameraPosition.x, cameraPosition.y, -10,
+            0, 1, 0
+        );
+        cache.ortho(-view.size.x / 2f, view.size.x / 2f, -view.size.y / 2f, view.size.y / 2f, 10, -1000f);
+        cache.endCamera();
+
+        // the elements draw through the context, so its graphics are swapped for the cache while they render
+        PGraphics graphics = context.g;
+        context.g = cache;
+        try {
+            RenderQueue queue = this.gameObject.scene.renderQueue;
+            for (int layer = 0; layer < queue.getLayerCount(); layer++)
+                for (int slot = 0; slot < queue.getSlotCount(layer); slot++) {
+                    GameObject go = queue.get(layer, slot);
+                    if (go != null && go.renderer != null && go.isActive && this.isElement(go))
+                        this.gameObject.scene.renderGameObject(go);
+                }
+        }
+        finally {
+            context.g = graphics;
+            cache.endDraw();
+        }
+    }
+
+    /**
+     * Whether a game object is drawn by the cache of this canvas (and not by a nested cached canvas)
+     */
+    private boolean isElement(GameObject gameObject) {
+        for (GameObject go = gameObject.parent; go != null; go = go.parent) {
+            if (go == this.gameObject)
+                return true;
+            if (go.renderer instanceof Canvas canvas && canvas.isCaching())
+                return false;
+        }
+
+        return false;
+    }
+
+    /**
+     * Writes the state of the children of a game object (recursively)
+     */
+    private void writeCacheState(GameObject gameObject) {
+        // the size of the canvas (the size of the screen)
+        if (gameObject == this.gameObject) {
+            this.cacheState.write(rectTransform().size.x);
+            this.cacheState.write(rectTransform().size.y);
+        }
+
+        for (GameObject child : gameObject.children) {
+            CanvasCacheState state = this.cacheState;
+            state.write(child);
+            state.write(child.isActive);
+
+            Transform transform = child.transform;
+            state.write(transform.position.x);
+            state.write(transform.position.y);
+            state.write(transform.zPosition);
+            state.write(transform.rotation.x);
+            state.write(transform.rotation.y);
+            state.write(transform.rotation.z);
+            state.write(transform.scale.x);
+            state.write(transform.scale.y);
+            if (transform instanceof RectTransform rt) {
+                state.write(rt.size.x);
+                state.write(rt.size.y);
+                state.write(rt.anchor);
+            }
+
+            Renderer renderer = child.renderer;
+            state.write(renderer);
+            if (renderer != null) {
+                state.write(renderer.color.getHex());
+                state.write(renderer.blendMode);
+                if (renderer instanceof UIRenderer uiRenderer)
+                    uiRenderer.writeCacheState(state);
+            }
+
+            // a nested cached canvas checks its own elements
+            if (!(renderer instanceof Canvas canvas && canvas.isCaching()))
+                this.writeCacheState(child);
         }
     }
 
@@ -0,0 +1,95 @@
+package pxp.engine.core.component.ui;
+
+import java.util.Arrays;
+
+/**
+ * The state of the elements of a cached {@link Canvas}, as of its last render: the values that change what the elements
+ * look like are written in the same order every frame and compared to the previous ones, so that the canvas only
+ * re-renders its cache when one of them changed (also used by the caches of static sorting layers).<br/>
+ * <i>Numbers are compared by value, objects (i.e.: sprites, fonts, texts) by reference</i>
+ */
+public class CanvasCacheState
+{
+    private int[] values = new int[64];
+    private Object[] references = new Object[16];
+    private int valueCount = 0;
+    private int referenceCount = 0;
+    // the amounts written during the previous frame
+    private int lastValueCount = -1;
+    private int lastReferenceCount = -1;
+
+    /**
+     * Whether a value differs from the previous state (or the amount of values does)
+     */
+    private boolean changed = false;
+
+    /**
+     * [Internal] Starts writing the state of this frame
+     */
+    public void begin() {
+        this.valueCount = 0;
+        this.referenceCount = 0;
+        this.changed = false;
+    }
+
+    /**
+     * [Internal] Finishes writing the state of this frame
+     * @return whether the state changed since the previous frame
+     */
+    public boolean end() {
+        // less values than before (i.e.: an element was removed)
+        if (this.valueCount < this.values.length)
+            Arrays.fill(this.values, this.valueCount, this.values.length, 0);
+        if (this.referenceCount < this.references.length)
+            Arrays.fill(this.references, this.referenceCount, this.references.length, null);
+
+        boolean changed = this.changed || this.valueCount != this.lastValueCount || this.referenceCount != this.lastReferenceCount;
+        this.lastValueCount = this.valueCount;
+        this.lastReferenceCount = this.referenceCount;
+        return changed;
+    }
+
+    /**
+     * Writes a number
+     */
+    public void write(int value) {
+        if (this.valueCount == this.values.length)
+            this.values = Arrays.copyOf(this.values, this.values.length * 2);
+
+        if (this.values[this.valueCount] != value) {
+            this.values[this.valueCount] = value;
+            this.changed = true;
+        }
+
+        this.valueCount++;
+    }
+
+    /**
+     * Writes a number
+     */
+    public void write(float value) {
+        this.write(Float.floatToIntBits(value));
+    }
+
+    /**
+     * Writes a flag
+     */
+    public void write(boolean value) {
+        this.write(value ? 1 : 0);
+    }
+
+    /**
+     * Writes an object (compared by reference)
+     */
+    public void write(Object reference) {
+        if (this.referenceCount == this.references.length)
+            this.references = Arrays.copyOf(this.references, this.references.length * 2);
+
+        if (this.references[this.referenceCount] != reference) {
+            this.references[this.referenceCount] = reference;
+            this.changed = true;
+        }
+
+        this.referenceCount++;
+    }
+}
@@ -69,6 +69,16 @@ public class Image extends UIRenderer
         this.pivot = pivot;
     }
 
+    @Override
+    protected void writeCacheState(CanvasCacheState state) {
+        super.writeCacheState(state);
+        state.write(this.sprite);
+        state.write(this.flipX);
+        state.write(this.flipY);
+        state.write(this.preserveAspect);
+        state.write(this.usePixelsPerUnit);
+    }
+
     @Override
     public void render() {
         super.render();
@@ -289,6 +289,9 @@ public class Interactable extends UIRenderer implements PointerHandlerHover, Poi
     }
 
     private void transition(Color color, SpriteAsset sprite, String animation) {
+        // the state changed, a cached canvas has to re-render
+        markCanvasDirty();
+
         switch (transition) {
             case COLOR -> {
                 if (targetGraphic == null) return;
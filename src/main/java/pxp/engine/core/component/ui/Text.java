@@ -48,6 +48,11 @@ public class Text extends UIRenderer
      */
     private Vector2 textSize = new Vector2(-1f, -1f);
 
+    /**
+     * The line breaking of the text, reused until the text, width or font changes
+     */
+    private final TextLayout layout = new TextLayout();
+
 
     /**
      * Creates a blank Text component
@@ -118,11 +123,24 @@ public class Text extends UIRenderer
 //        ctx().rectMode();
 //    }
 
+    @Override
+    protected void writeCacheState(CanvasCacheState state) {
+        super.writeCacheState(state);
+        state.write(this.text);
+        state.write(this.font);
+        state.write(this.fontStyle);
+        state.write(this.customStyle);
+        state.write(this.fontSize);
+        state.write(this.lineSpacing);
+    }
+
     @LinkFieldInInspector(name = "text", type = LinkType.SETTER, state = LinkState.BOTH)
     public void setText(String text) {
         this.text = text;
-        if (started)
+        if (started) {
             calcTextHeight();
+            markCanvasDirty();
+        }
     }
     @LinkFieldInInspector(name = "text", type = LinkType.GETTER, state = LinkState.BOTH)
     public String getText() {
@@ -137,15 +155,19 @@ public class Text extends UIRenderer
         return lineSpacing * Math.round(this.fontSize * 1.2f);
     }
 
+    /**
+     * Gets the index of the font style used (the custom style, if set)
+     */
+    private int getStyleIndex() {
+        return customStyle >= 0 ? customStyle : fontStyle.index;
+    }
+
     /**
      * Through the current processing render context, set all properties of this Text component
      */
     private void setTextProperties() {
         // set font
-        if (customStyle >= 0)
-            ctx().textFont(this.font.getPFont(customStyle));
-        else
-            ctx().textFont(this.font.getPFont(fontStyle));
+        ctx().textFont(this.font.getPFont(getStyleIndex()));
 
         // set size & leading (line spacing)
         ctx().textSize(this.fontSize);
@@ -173,32 +195,9 @@ public class Text extends UIRenderer
             // set them in an else, as they are already set if the statement was true
             setTextProperties();
 
-        // split by new lines first
-        String[] paragraphs = this.text.split("\n");
-        int numberEmptyLines = 0;
-        int numTextLines = 0;
-
-        for (String paragraph : paragraphs)
-            // anything with length 0 ignore and increment empty line count
-            if (paragraph.length() == 0)
-                numberEmptyLines++;
-            else {
-                numTextLines++;
-
-                // word wrap
-                String[] wordsArray = paragraph.split(" ");
-                StringBuilder tempString = new StringBuilder();
-
-                for (String s : wordsArray)
-                    if (ctx().textWidth(tempString + s) <= this.textSize.x)
-                        tempString.append(s).append(" ");
-                    else {
-                        tempString = new StringBuilder(s + " ");
-                        numTextLines++;
-                    }
-            }
-
-        float totalLines = numTextLines + numberEmptyLines;
+        // word wrap (only the words after the first change are laid out again)
+        int totalLines = this.layout.layout(this.text, this.textSize.x, this.font.getGlyphAdvances(getStyleIndex(), this.fontSize), ctx().g);
+
         this.textSize.y = Math.round(totalLines * calcLeading());
     }
 }
@@ -0,0 +1,275 @@
+package pxp.engine.core.component.ui;
+
+import processing.core.PGraphics;
+import pxp.engine.data.assets.GlyphAdvances;
+
+import java.util.Arrays;
+
+/**
+ * The TextLayout counts the lines a text wraps into (word by word) for a maximum width, using the cached advances of
+ * the glyphs instead of measuring strings.<br/>
+ * The state of the layout is saved at the start of every word, so when the text changes, the layout resumes from the
+ * last word before the first changed character (i.e.: a label that only changes its number re-lays out only the number).
+ * Changing the width or the font lays the text out from the start.
+ */
+public class TextLayout
+{
+    // the input of the last layout
+    private String text = null;
+    private float maxWidth;
+    private GlyphAdvances advances = null;
+    /**
+     * The graphics new glyphs are measured with (during a layout)
+     */
+    private PGraphics graphics = null;
+
+    /**
+     * The amount of lines of the last layout
+     */
+    private int lineCount = 0;
+
+    // the state of the layout while scanning the text
+    private int textLines;
+    private int emptyLines;
+    /**
+     * The empty paragraphs that weren't followed by a paragraph with text yet (trailing ones aren't counted)
+     */
+    private int pendingParagraphs;
+    /**
+     * The empty words (between consecutive spaces) that weren't followed by a word yet (trailing ones aren't counted)
+     */
+    private int pendingWords;
+    private boolean inParagraph;
+    /**
+     * The width of the current line, including the space after its last word
+     */
+    private float lineWidth;
+
+    // the current word
+    private int wordLength;
+    private float wordWidth;
+    /**
+     * The width of the current line with the current word added
+     */
+    private float candidateWidth;
+
+    // the state at the start of the words (after each space or new line)
+    private int checkpointCount = 0;
+    private int[] checkpointIndex = new int[16];
+    private int[] checkpointTextLines = new int[16];
+    private int[] checkpointEmptyLines = new int[16];
+    private int[] checkpointPendingParagraphs = new int[16];
+    private int[] checkpointPendingWords = new int[16];
+    private boolean[] checkpointInParagraph = new boolean[16];
+    private float[] checkpointLineWidth = new float[16];
+
+    /**
+     * Lays a text out, reusing as much of the last layout as possible
+     * @param text the text
+     * @param maxWidth the width the lines wrap at
+     * @param advances the advances of the glyphs of the font
+     * @param graphics the graphics to measure new glyphs with (their font must be set)
+     * @return the amount of lines
+     */
+    public int layout(String text, float maxWidth, GlyphAdvances advances, PGraphics graphics) {
+        if (text.equals(this.text) && maxWidth == this.maxWidth && advances == this.advances)
+            return this.lineCount;
+
+        // resume from the last word that starts before the first changed character
+        int from = 0;
+        if (this.text != null && maxWidth == this.maxWidth && advances == this.advances)
+            from = this.restore(commonPrefix(this.text, text));
+        else
+            this.reset();
+
+        this.text = text;
+        this.maxWidth = maxWidth;
+        this.advances = advances;
+
+        this.graphics = graphics;
+        this.scan(text, from);
+        this.lineCount = this.finish(text);
+        this.graphics = null;
+        return this.lineCount;
+    }
+
+    /**
+     * Gets the amount of lines of the last layout
+     */
+    public int getLineCount() {
+        return this.lineCount;
+    }
+
+    /**
+     * Forgets the last layout, so that the next one starts from scratch
+     */
+    public void invalidate() {
+        this.text = null;
+        this.advances = null;
+    }
+
+    private void scan(String text, int from) {
+        for (int i = from; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\n') {
+                this.endParagraph();
+                this.checkpoint(i + 1);
+                continue;
+            }
+
+            if (!this.inParagraph) {
+                this.inParagraph = true;
+                this.textLines++;
+                this.emptyLines += this.pendingParagraphs;
+                this.pendingParagraphs = 0;
+                this.lineWidth = 0;
+            }
+
+            if (c == ' ') {
+                if (this.wordLength > 0)
+                    this.endWord();
+                else
+                    this.pendingWords++;
+
+                this.checkpoint(i + 1);
+                continue;
+            }
+
+            if (this.wordLength == 0) {
+                // the empty words before this one count as spaces
+                for (; this.pendingWords > 0; this.pendingWords--)
+                    this.addEmptyWord();
+
+                this.candidateWidth = this.lineWidth;
+                this.wordWidth = 0;
+            }
+
+            float advance = this.advances.get(c, this.graphics);
+            this.candidateWidth += advance;
+            this.wordWidth += advance;
+            this.wordLength++;
+        }
+    }
+
+    /**
+     * Ends the last paragraph
+     * @return the amount of lines
+     */
+    private int finish(String text) {
+        // a single empty paragraph
+        if (text.isEmpty())
+            return 1;
+
+        if (this.inParagraph && this.wordLength > 0)
+            this.endWord();
+
+        return this.textLines + this.emptyLines;
+    }
+
+    private void endParagraph() {
+        if (this.inParagraph) {
+            if (this.wordLength > 0)
+                this.endWord();
+
+            this.pendingWords = 0;
+            this.inParagraph = false;
+        }
+        else
+            this.pendingParagraphs++;
+    }
+
+    private void endWord() {
+        float space = this.advances.get(' ', this.graphics);
+        if (this.candidateWidth <= this.maxWidth)
+            this.lineWidth = this.candidateWidth + space;
+        else {
+            // the word goes on a new line
+            this.lineWidth = this.wordWidth + space;
+            this.textLines++;
+        }
+
+        this.wordLength = 0;
+    }
+
+    private void addEmptyWord() {
+        float space = this.advances.get(' ', this.graphics);
+        if (this.lineWidth <= this.maxWidth)
+            this.lineWidth += space;
+        else {
+            this.lineWidth = space;
+            this.textLines++;
+        }
+    }
+
+    private void reset() {
+        this.textLines = 0;
+        this.emptyLines = 0;
+        this.pendingParagraphs = 0;
+        this.pendingWords = 0;
+        this.inParagraph = false;
+        this.lineWidth = 0;
+        this.wordLength = 0;
+        this.checkpointCount = 0;
+    }
+
+    private void checkpoint(int index) {
+        int i = this.checkpointCount++;
+        if (i == this.checkpointIndex.length) {
+            int length = i * 2;
+            this.checkpointIndex = Arrays.copyOf(this.checkpointIndex, length);
+            this.checkpointTextLines = Arrays.copyOf(this.checkpointTextLines, length);
+            this.checkpointEmptyLines = Arrays.copyOf(this.checkpointEmptyLines, length);
+            this.checkpointPendingParagraphs = Arrays.copyOf(this.checkpointPendingParagraphs, length);
+            this.checkpointPendingWords = Arrays.copyOf(this.checkpointPendingWords, length);
+            this.checkpointInParagraph = Arrays.copyOf(this.checkpointInParagraph, length);
+            this.checkpointLineWidth = Arrays.copyOf(this.checkpointLineWidth, length);
+        }
+
+        this.checkpointIndex[i] = index;
+        this.checkpointTextLines[i] = this.textLines;
+        this.checkpointEmptyLines[i] = this.emptyLines;
+        this.checkpointPendingParagraphs[i] = this.pendingParagraphs;
+        this.checkpointPendingWords[i] = this.pendingWords;
+        this.checkpointInParagraph[i] = this.inParagraph;
+        this.checkpointLineWidth[i] = this.lineWidth;
+    }
+
+    /**
+     * Restores the state of the last checkpoint at or before an index of the text, dropping the ones after it
+     * @return the index to resume scanning from
+     */
+    private int restore(int index) {
+        int low = 0;
+        int high = this.checkpointCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (this.checkpointIndex[middle] <= index)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+
+        int i = low - 1;
+        this.reset();
+        if (i < 0)
+            return 0;
+
+        this.textLines = this.checkpointTextLines[i];
+        this.emptyLines = this.checkpointEmptyLines[i];
+        this.pendingParagraphs = this.checkpointPendingParagraphs[i];
+        this.pendingWords = this.checkpointPendingWords[i];
+        this.inParagraph = this.checkpointInParagraph[i];
+        this.lineWidth = this.checkpointLineWidth[i];
+        this.checkpointCount = i + 1;
+        return this.checkpointIndex[i];
+    }
+
+    private static int commonPrefix(String a, String b) {
+        int length = Math.min(a.length(), b.length());
+        for (int i = 0; i < length; i++)
+            if (a.charAt(i) != b.charAt(i))
+                return i;
+
+        return length;
+    }
+}
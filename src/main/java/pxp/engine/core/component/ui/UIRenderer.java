@@ -1,5 +1,6 @@
 package pxp.engine.core.component.ui;
 
+import pxp.engine.core.GameObject;
 import pxp.engine.core.RectTransform;
 import pxp.engine.core.component.PivotedRenderer;
 
@@ -24,6 +25,29 @@ public abstract class UIRenderer extends PivotedRenderer
 //        throw new IllegalStateException("Cannot set sorting layer of a UI element!");
 //    }
 
+    /**
+     * Writes the values that change what this element looks like, so that a cached canvas can tell when to re-render
+     * (the transform, color and blend mode are written by the canvas)
+     * @param state the state to write into
+     * @see Canvas#cached
+     */
+    protected void writeCacheState(CanvasCacheState state) {
+        state.write(this.pivot);
+    }
+
+    /**
+     * Marks the cache of the canvas this element is drawn by (if any) as outdated
+     * @see Canvas#cached
+     */
+    protected void markCanvasDirty() {
+        if (this.gameObject == null)
+            return;
+
+        for (GameObject go = this.gameObject.parent; go != null; go = go.parent)
+            if (go.renderer instanceof Canvas canvas)
+                canvas.markDirty();
+    }
+
     /**
      * Internal method to bypass sorting layer restriction for UI elements and set the sorting layer (used by Canvas)
      * @param layer the layer to set
@@ -0,0 +1,206 @@
+package pxp.engine.core.manager;
+
+import pxp.engine.core.component.Collider;
+import pxp.engine.data.Vector2;
+import pxp.engine.data.collision.AABB;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A broadphase backed by a {@link DynamicAABBTree}. Colliders are inserted and removed incrementally as they are
+ * registered and only re-inserted when they move out of their fat bounds.<br/>
+ * Handles colliders of very different sizes (i.e.: huge walls next to tiny pickups) much better than a uniform grid.
+ * @see pxp.engine.data.collision.BroadphaseType#AABB_TREE
+ */
+public class AABBTreeBroadphase implements Broadphase, DynamicAABBTree.QueryCallback
+{
+    /**
+     * The default amount of units the fat bounds are grown by
+     */
+    public static final float DEFAULT_FAT_MARGIN = 0.1f;
+
+    private final DynamicAABBTree tree;
+
+    /**
+     * The tracked colliders, in the order they were added (used to run the queries in a deterministic order)
+     */
+    private final List<Collider> colliders = new ArrayList<>();
+    /**
+     * The position of each collider inside the colliders list (indexed by proxy id)
+     */
+    private int[] listIndex = new int[16];
+
+    // the state of the current query
+    private final AABB queryBounds = new AABB();
+    private Collider queryCollider;
+    private PairCallback queryCallback;
+
+    // the state of the current area query or raycast (restored after each one, in case they're started from a callback)
+    private AABB areaBounds;
+    private QueryCallback areaCallback;
+    private RaycastCallback raycastCallback;
+    private final DynamicAABBTree.QueryCallback treeAreaCallback = this::areaFound;
+    private final DynamicAABBTree.RaycastCallback treeRaycastCallback = this::raycastFound;
+    private float rayFromX;
+    private float rayFromY;
+    private float rayDirectionX;
+    private float rayDirectionY;
+
+    /**
+     * Creates a tree broadphase with the default fat margin
+     */
+    public AABBTreeBroadphase() {
+        this(DEFAULT_FAT_MARGIN);
+    }
+
+    /**
+     * Creates a tree broadphase
+     * @param fatMargin the amount of units the bounds of colliders are grown by inside the tree (bigger means fewer re-inserts, but more pairs)
+     */
+    public AABBTreeBroadphase(float fatMargin) {
+        this.tree = new DynamicAABBTree(fatMargin);
+    }
+
+    /**
+     * Gets the tree of this broadphase
+     */
+    public DynamicAABBTree getTree() {
+        return this.tree;
+    }
+
+    @Override
+    public void add(Collider collider) {
+        if (collider.proxyId != -1) return;
+
+        collider.proxyId = this.tree.createProxy(collider.getBounds(), collider);
+
+        if (collider.proxyId >= this.listIndex.length)
+            this.listIndex = Arrays.copyOf(this.listIndex, Math.max(this.listIndex.length * 2, collider.proxyId + 1));
+
+        this.listIndex[collider.proxyId] = this.colliders.size();
+        this.colliders.add(collider);
+    }
+
+    @Override
+    public void remove(Collider collider) {
+        if (collider.proxyId == -1) return;
+
+        // swap remove, the last collider takes the removed one's place
+        int index = this.listIndex[collider.proxyId];
+        Collider last = this.colliders.remove(this.colliders.size() - 1);
+        if (last != collider) {
+            this.colliders.set(index, last);
+            this.listIndex[last.proxyId] = index;
+        }
+
+        this.tree.destroyProxy(collider.proxyId);
+        collider.proxyId = -1;
+    }
+
+    @Override
+    public void update(Collider collider) {
+        if (collider.proxyId == -1) return;
+
+        Vector2 velocity = collider.getVelocity();
+        this.tree.moveProxy(collider.proxyId, collider.getBounds(), velocity.x, velocity.y);
+    }
+
+    @Override
+    public void findPairs(PairCallback callback) {
+        this.queryCallback = callback;
+
+        for (int i = 0; i < this.colliders.size(); i++) {
+            this.queryCollider = this.colliders.get(i);
+            // colliders whose layers collide with nothing don't need to query the tree, neither do static and sleeping
+            // ones (the awake colliders find them)
+            if (this.queryCollider.collisionMask == 0 || !this.queryCollider.isAwake())
+                continue;
+
+            // the fat bounds only guarantee containing the tight bounds, so the query covers the margin of both colliders
+            AABB bounds = this.queryCollider.getBounds();
+            float margin = 2 * CONTACT_MARGIN;
+            this.queryBounds.set(bounds.minX - margin, bounds.minY - margin, bounds.maxX + margin, bounds.maxY + margin);
+
+            this.tree.query(this.queryBounds, this);
+        }
+
+        this.queryCollider = null;
+        this.queryCallback = null;
+    }
+
+    /**
+     * [Internal] Called by the tree for every proxy found by the query of findPairs
+     */
+    @Override
+    public boolean found(int proxy) {
+        Collider other = (Collider) this.tree.getUserData(proxy);
+
+        // awake colliders find each other, so the pair is only reported by the one with the lower proxy id
+        if (proxy <= this.queryCollider.proxyId && other.isAwake())
+            return true;
+
+        if (this.queryCollider.canCollideWith(other) && this.queryCollider.getBounds().overlaps(other.getBounds(), CONTACT_MARGIN))
+            this.queryCallback.pair(this.queryCollider, other);
+
+        return true;
+    }
+
+    @Override
+    public void query(AABB bounds, QueryCallback callback) {
+        AABB lastBounds = this.areaBounds;
+        QueryCallback lastCallback = this.areaCallback;
+        this.areaBounds = bounds;
+        this.areaCallback = callback;
+
+        this.tree.query(bounds, this.treeAreaCallback);
+
+        this.areaBounds = lastBounds;
+        this.areaCallback = lastCallback;
+    }
+
+    private boolean areaFound(int proxy) {
+        // the fat bounds were hit, check the actual bounds
+        Collider collider = (Collider) this.tree.getUserData(proxy);
+        return !collider.getBounds().overlaps(this.areaBounds) || this.areaCallback.found(collider);
+    }
+
+    @Override
+    public void raycast(float fromX, float fromY, float directionX, float directionY, RaycastCallback callback) {
+        RaycastCallback lastCallback = this.raycastCallback;
+        float lastFromX = this.rayFromX;
+        float lastFromY = this.rayFromY;
+        float lastDirectionX = this.rayDirectionX;
+        float lastDirectionY = this.rayDirectionY;
+        this.raycastCallback = callback;
+        this.rayFromX = fromX;
+        this.rayFromY = fromY;
+        this.rayDirectionX = directionX;
+        this.rayDirectionY = directionY;
+
+        this.tree.raycast(fromX, fromY, directionX, directionY, this.treeRaycastCallback);
+
+        this.raycastCallback = lastCallback;
+        this.rayFromX = lastFromX;
+        this.rayFromY = lastFromY;
+        this.rayDirectionX = lastDirectionX;
+        this.rayDirectionY = lastDirectionY;
+    }
+
+    private float raycastFound(int proxy, float maxFraction) {
+        // the fat bounds were hit, check the actual bounds
+        Collider collider = (Collider) this.tree.getUserData(proxy);
+        if (collider.getBounds().raycast(this.rayFromX, this.rayFromY, this.rayDirectionX, this.rayDirectionY, maxFraction) < 0)
+            return maxFraction;
+
+        return this.raycastCallback.found(collider, maxFraction);
+    }
+
+    @Override
+    public void clear() {
+        this.colliders.forEach(c -> c.proxyId = -1);
+        this.colliders.clear();
+        this.tree.clear();
+    }
+}
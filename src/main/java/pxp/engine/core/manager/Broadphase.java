@@ -0,0 +1,103 @@
+package pxp.engine.core.manager;
+
+import pxp.engine.core.component.Collider;
+import pxp.engine.data.collision.AABB;
+
+/**
+ * A broadphase keeps track of colliders and finds the pairs that might be colliding, so that only those reach the
+ * (expensive) hit tests of the {@link CollisionManager}.
+ * @see pxp.engine.data.collision.BroadphaseType
+ */
+public interface Broadphase
+{
+    /**
+     * The margin (in world units) added around the bounds of colliders when checking for a possible collision.<br/>
+     * Shapes that are merely touching are still considered colliding by their hit tests.
+     */
+    float CONTACT_MARGIN = 0.01f;
+
+    /**
+     * Starts tracking a collider
+     * @param collider the collider to add
+     */
+    void add(Collider collider);
+
+    /**
+     * Stops tracking a collider
+     * @param collider the collider to remove
+     */
+    void remove(Collider collider);
+
+    /**
+     * Notifies the broadphase that the shape of a collider was updated (called after {@link Collider#collisionUpdate(int)}
+     * if the shape changed)
+     * @param collider the updated collider
+     */
+    void update(Collider collider);
+
+    /**
+     * Finds all the pairs of tracked colliders that might collide. Each pair is reported once, in no particular order of its colliders.<br/>
+     * Pairs of colliders that are both static or asleep (see {@link Collider#isAwake()}) aren't reported.
+     * @param callback the callback invoked for every pair found
+     */
+    void findPairs(PairCallback callback);
+
+    /**
+     * Finds the tracked colliders whose bounds overlap an area (as of the last step)
+     * @param bounds the area to look in
+     * @param callback the callback invoked for every collider found (it can stop the query)
+     */
+    void query(AABB bounds, QueryCallback callback);
+
+    /**
+     * Finds the tracked colliders whose bounds are crossed by a ray (segment), as of the last step
+     * @param fromX the x position of the start of the ray
+     * @param fromY the y position of the start of the ray
+     * @param directionX the x component of the ray (its length is the length of the segment)
+     * @param directionY the y component of the ray
+     * @param callback the callback invoked for every collider found, which can shorten the ray (or stop the raycast)
+     */
+    void raycast(float fromX, float fromY, float directionX, float directionY, RaycastCallback callback);
+
+    /**
+     * Stops tracking all colliders
+     */
+    void clear();
+
+    /**
+     * Callback for a pair of colliders found by the broadphase
+     */
+    @FunctionalInterface
+    interface PairCallback
+    {
+        void pair(Collider a, Collider b);
+    }
+
+    /**
+     * Callback for a collider found by a query
+     */
+    @FunctionalInterface
+    interface QueryCallback
+    {
+        /**
+         * @param collider the collider found
+         * @return whether the query should continue
+         */
+        boolean found(Collider collider);
+    }
+
+    /**
+     * Callback for a collider found by a raycast
+     */
+    @FunctionalInterface
+    interface RaycastCallback
+    {
+        /**
+         * @param collider the collider whose bounds are crossed by the ray
+         * @param maxFraction the fraction (0-1) of the ray currently searched within
+         * @return the new fraction to search within (the fraction of a hit to only look for closer ones, the max fraction
+         *         to keep searching, or 0 to stop the raycast)
+         */
+        float found(Collider collider, float maxFraction);
+    }
+}
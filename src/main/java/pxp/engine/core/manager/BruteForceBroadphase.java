@@ -0,0 +1,86 @@
+package pxp.engine.core.manager;
+
+import pxp.engine.core.component.Collider;
+import pxp.engine.data.collision.AABB;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The reference broadphase, reports every pair of colliders, leaving all the work to the hit tests.
+ * @see pxp.engine.data.collision.BroadphaseType#BRUTE_FORCE
+ */
+public class BruteForceBroadphase implements Broadphase
+{
+    private final List<Collider> colliders = new ArrayList<>();
+
+    @Override
+    public void add(Collider collider) {
+        if (collider.proxyId != -1) return;
+
+        collider.proxyId = this.colliders.size();
+        this.colliders.add(collider);
+    }
+
+    @Override
+    public void remove(Collider collider) {
+        if (collider.proxyId == -1) return;
+
+        // swap remove, the last collider takes the removed one's place
+        Collider last = this.colliders.remove(this.colliders.size() - 1);
+        if (last != collider) {
+            this.colliders.set(collider.proxyId, last);
+            last.proxyId = collider.proxyId;
+        }
+
+        collider.proxyId = -1;
+    }
+
+    @Override
+    public void update(Collider collider) { }
+
+    @Override
+    public void findPairs(PairCallback callback) {
+        for (int i = 0; i < this.colliders.size(); i++) {
+            Collider a = this.colliders.get(i);
+            // colliders whose layers collide with nothing are skipped entirely
+            if (a.collisionMask == 0)
+                continue;
+
+            for (int j = i + 1; j < this.colliders.size(); j++) {
+                Collider b = this.colliders.get(j);
+                if ((a.isAwake() || b.isAwake()) && a.canCollideWith(b))
+                    callback.pair(a, b);
+            }
+        }
+    }
+
+    @Override
+    public void query(AABB bounds, QueryCallback callback) {
+        for (int i = 0; i < this.colliders.size(); i++) {
+            Collider collider = this.colliders.get(i);
+            if (collider.getBounds().overlaps(bounds) && !callback.found(collider))
+                return;
+        }
+    }
+
+    @Override
+    public void raycast(float fromX, float fromY, float directionX, float directionY, RaycastCallback callback) {
+        float maxFraction = 1f;
+        for (int i = 0; i < this.colliders.size(); i++) {
+            Collider collider = this.colliders.get(i);
+            if (collider.getBounds().raycast(fromX, fromY, directionX, directionY, maxFraction) < 0)
+                continue;
+
+            maxFraction = callback.found(collider, maxFraction);
+            if (maxFraction <= 0)
+                return;
+        }
+    }
+
+    @Override
+    public void clear() {
+        this.colliders.forEach(c -> c.proxyId = -1);
+        this.colliders.clear();
+    }
+}
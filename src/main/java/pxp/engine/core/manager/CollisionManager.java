@@ -6,33 +6,137 @@ import java.util.List;
 import pxp.engine.core.GameObject;
 import pxp.engine.core.component.Collider;
 import pxp.engine.data.CollisionEvent;
+import pxp.engine.data.GameSettings;
 import pxp.engine.data.Vector2;
+import pxp.engine.data.collision.BroadphaseType;
 import pxp.engine.data.collision.Collision;
+import pxp.engine.data.collision.ContactManifold;
+import pxp.engine.data.collision.ContactManifoldPool;
+import pxp.engine.data.collision.LayerCollisionMatrix;
+import pxp.engine.data.collision.RaycastHit;
+import pxp.engine.data.collision.Shape;
 import pxp.util.Pair;
-import pxp.util.Pointer;
-import pxp.util.SwitchPair;
 
 /**
  * The Collision Manager handles all the collision checking and takes the appropriate steps in regard to what happens
  * with a collision. It holds all Game Objects that have colliders and each frame checks those colliders against one another.<br/>
+ * The colliders are first passed through a {@link Broadphase}, which finds the pairs that might collide, and only those are hit tested.<br/>
  * When a collision happens, it creates collision events and dispatches them for the colliders to handle.
  */
 public class CollisionManager
 {
+    /**
+     * The default amount of frames a collider has to stand still before falling asleep (colliders never sleep by default)
+     */
+    public static final int DEFAULT_SLEEP_FRAMES = 0;
+
     /**
      * The currently registered game objects (which have colliders)
      */
     private final List<GameObject> gameObjects = new ArrayList<>();
     /**
-     * The game objects that are currently colliding with another game object
+     * The colliders that were in contact last frame
+     */
+    private ContactPairSet lastContacts = new ContactPairSet();
+    /**
+     * The colliders that are in contact this frame
      */
-    private final List<Pair<GameObject, GameObject>> ongoingCollisions = new ArrayList<>();
+    private ContactPairSet contacts = new ContactPairSet();
 
-    private final List<SwitchPair<Integer, Integer>> ignoredLayers = new ArrayList<>();
+    /**
+     * Which layers collide with one another
+     */
+    private final LayerCollisionMatrix layerMatrix = new LayerCollisionMatrix();
 
+    /**
+     * The broadphase that finds the pairs of colliders to hit test
+     */
+    private Broadphase broadphase;
+    /**
+     * The callback given to the broadphase (stored, so it isn't recreated every frame)
+     */
+    private final Broadphase.PairCallback pairCallback = this::collidePair;
+    /**
+     * The manifolds used by the hit tests, reused every frame so that the narrowphase doesn't allocate
+     */
+    private final ContactManifoldPool manifoldPool = new ContactManifoldPool();
+    /**
+     * The amount of frames a collider has to stand still before falling asleep (0 to never sleep)
+     */
+    private int sleepFrames = DEFAULT_SLEEP_FRAMES;
+    /**
+     * The sleeping colliders touched during this update, woken up once all pairs are found (waking them up while the
+     * broadphase runs would change which pairs it reports)
+     */
+    private final List<Collider> touched = new ArrayList<>();
+
+    // the amount of colliders in each state, as of the last update
+    private int awakeCount = 0;
+    private int sleepingCount = 0;
+    private int staticCount = 0;
+    /**
+     * The amount of pairs found by the broadphase during the last update
+     */
+    private int pairCount = 0;
+
+    /**
+     * The narrowphase running the hit tests on multiple threads (null if they run on the game thread, as the pairs are found)
+     */
+    private ParallelNarrowphase parallelNarrowphase;
+
+    /**
+     * Whether the queries (raycasts, overlaps and shape casts) can find trigger colliders
+     */
+    public boolean queriesHitTriggers = true;
+    /**
+     * Runs the queries against the broadphase
+     */
+    private final CollisionQueries queries = new CollisionQueries(this);
+
+    /**
+     * Creates a collision manager that hit tests every pair of colliders ({@link BroadphaseType#BRUTE_FORCE})
+     * @param ignoredLayers the pairs of layers that don't collide
+     */
     public CollisionManager(List<Pair<String, String>> ignoredLayers) {
+        this(ignoredLayers, new BruteForceBroadphase());
+    }
+
+    /**
+     * Creates a collision manager given the game settings (ignored layers and broadphase)
+     * @param settings the settings of the game
+     */
+    public CollisionManager(GameSettings settings) {
+        this(settings.ignoreCollisionLayers, createBroadphase(settings));
+        this.sleepFrames = settings.collisionSleepFrames;
+
+        if (settings.parallelNarrowphase)
+            this.setParallelNarrowphase(true, settings.narrowphaseThreads);
+    }
+
+    /**
+     * Creates a collision manager using a specific broadphase
+     * @param ignoredLayers the pairs of layers that don't collide
+     * @param broadphase the broadphase used to find the pairs of colliders to hit test
+     */
+    public CollisionManager(List<Pair<String, String>> ignoredLayers, Broadphase broadphase) {
         for (Pair<String, String> ignoredLayer : ignoredLayers)
-            this.ignoredLayers.add(new SwitchPair<>(LayerManager.getLayerId(ignoredLayer.left), LayerManager.getLayerId(ignoredLayer.right)));
+            this.setIgnoreLayers(ignoredLayer);
+
+        this.broadphase = broadphase;
+    }
+
+    /**
+     * Creates the broadphase specified in the game settings
+     * @param settings the settings of the game
+     * @return the broadphase
+     * @see GameSettings#broadphase
+     */
+    public static Broadphase createBroadphase(GameSettings settings) {
+        return switch (settings.broadphase) {
+            case BRUTE_FORCE -> new BruteForceBroadphase();
+            case SPATIAL_HASH -> new SpatialHashBroadphase(settings.collisionCellSize);
+            case AABB_TREE -> new AABBTreeBroadphase();
+        };
     }
 
     /**
@@ -42,6 +146,9 @@ public class CollisionManager
     public void register(GameObject obj) {
         if (!this.gameObjects.contains(obj))
             this.gameObjects.add(obj);
+
+        for (Collider collider : obj.colliders)
+            this.broadphase.add(collider);
     }
 
     /**
@@ -50,6 +157,98 @@ public class CollisionManager
      */
     public void unregister(GameObject obj) {
         this.gameObjects.remove(obj);
+
+        for (Collider collider : obj.colliders)
+            this.broadphase.remove(collider);
+    }
+
+    /**
+     * Unregisters a single collider (that was removed from its game object) from the step check
+     * @param collider the collider to unregister
+     */
+    public void unregister(Collider collider) {
+        this.broadphase.remove(collider);
+    }
+
+    /**
+     * Gets the broadphase used to find the pairs of colliders to hit test
+     */
+    public Broadphase getBroadphase() {
+        return this.broadphase;
+    }
+
+    /**
+     * Switches to another broadphase, moving all the registered colliders to it<br/>
+     * <i>Useful for comparing broadphases</i>
+     * @param broadphase the new broadphase
+     */
+    public void setBroadphase(Broadphase broadphase) {
+        this.broadphase.clear();
+        this.broadphase = broadphase;
+
+        for (GameObject obj : this.gameObjects)
+            for (Collider collider : obj.colliders)
+                this.broadphase.add(collider);
+    }
+
+    /**
+     * Sets the amount of frames a collider has to stand still before falling asleep
+     * @param sleepFrames the amount of frames (0 to never sleep)
+     * @see GameSettings#collisionSleepFrames
+     */
+    public void setSleepFrames(int sleepFrames) {
+        if (sleepFrames < 0)
+            throw new IllegalArgumentException("The amount of sleep frames cannot be negative.");
+
+        this.sleepFrames = sleepFrames;
+    }
+
+    /**
+     * Gets the amount of colliders that were awake (neither static nor asleep) during the last update
+     */
+    public int getAwakeCount() {
+        return this.awakeCount;
+    }
+
+    /**
+     * Gets the amount of colliders that were asleep during the last update
+     */
+    public int getSleepingCount() {
+        return this.sleepingCount;
+    }
+
+    /**
+     * Gets the amount of static colliders during the last update
+     */
+    public int getStaticCount() {
+        return this.staticCount;
+    }
+
+    /**
+     * Gets the amount of pairs of colliders the broadphase found (and that could collide) during the last update
+     */
+    public int getPairCount() {
+        return this.pairCount;
+    }
+
+    /**
+     * Gets the amount of pairs of colliders in contact after the last update
+     */
+    public int getContactCount() {
+        return this.lastContacts.size();
+    }
+
+    /**
+     * Enables or disables running the hit tests on multiple threads
+     * @param parallel whether the hit tests run on multiple threads
+     * @param threads the amount of threads (0 to use all available processors)
+     * @see GameSettings#parallelNarrowphase
+     */
+    public void setParallelNarrowphase(boolean parallel, int threads) {
+        if (this.parallelNarrowphase != null)
+            this.parallelNarrowphase.shutdown();
+
+        this.parallelNarrowphase = parallel ? new ParallelNarrowphase(threads) : null;
     }
 
     /**
@@ -57,10 +256,7 @@ public class CollisionManager
      * @param layers the layers to disable the collision of
      */
     public void setIgnoreLayers(Pair<String, String> layers) {
-        SwitchPair<Integer, Integer> ignored = new SwitchPair<>(LayerManager.getLayerId(layers.left), LayerManager.getLayerId(layers.right));
-        if (this.ignoredLayers.contains(ignored)) return;
-
-        this.ignoredLayers.add(ignored);
+        this.layerMatrix.setCollision(LayerManager.getLayerId(layers.left), LayerManager.getLayerId(layers.right), false);
     }
 
     /**
@@ -68,58 +264,207 @@ public class CollisionManager
      * @param layers the layers to collide again
      */
     public void setDontIgnoreLayers(Pair<String, String> layers) {
-        SwitchPair<Integer, Integer> ignored = new SwitchPair<>(LayerManager.getLayerId(layers.left), LayerManager.getLayerId(layers.right));
-        this.ignoredLayers.remove(ignored);
+        this.layerMatrix.setCollision(LayerManager.getLayerId(layers.left), LayerManager.getLayerId(layers.right), true);
+    }
+
+    /**
+     * Gets the collision matrix of the layers (changes are applied starting with the next step)
+     */
+    public LayerCollisionMatrix getLayerMatrix() {
+        return this.layerMatrix;
+    }
+
+    /**
+     * Casts a ray, finding the closest collider it hits (as of the last step)
+     * @param origin the point the ray starts from
+     * @param direction the direction of the ray (doesn't need to be normalized)
+     * @param distance the length of the ray
+     * @param layerMask the layers that can be hit ({@link pxp.engine.data.LayerMask#EVERYTHING} or {@link pxp.engine.data.LayerMask#create(String...)})
+     * @param hit the hit to write the result into
+     * @return true if a collider was hit
+     */
+    public boolean raycast(Vector2 origin, Vector2 direction, float distance, int layerMask, RaycastHit hit) {
+        return this.queries.raycast(origin, direction, distance, layerMask, hit);
+    }
+
+    /**
+     * Casts a ray, finding all the colliders it hits (as of the last step), sorted by distance
+     * @param origin the point the ray starts from
+     * @param direction the direction of the ray (doesn't need to be normalized)
+     * @param distance the length of the ray
+     * @param layerMask the layers that can be hit
+     * @param hits the hits to write the results into (missing hits are created), if there are more hits than its length, only the closest are kept
+     * @return the amount of hits
+     */
+    public int raycastAll(Vector2 origin, Vector2 direction, float distance, int layerMask, RaycastHit[] hits) {
+        return this.queries.raycastAll(origin, direction, distance, layerMask, hits);
+    }
+
+    /**
+     * Finds the colliders that overlap a circle (as of the last step)
+     * @param center the center of the circle
+     * @param radius the radius of the circle
+     * @param layerMask the layers that can be found
+     * @param results the array to write the colliders into (the query stops once it is full)
+     * @return the amount of colliders found
+     */
+    public int overlapCircle(Vector2 center, float radius, int layerMask, Collider[] results) {
+        return this.queries.overlapCircle(center, radius, layerMask, results);
+    }
+
+    /**
+     * Finds the colliders that overlap a box (as of the last step)
+     * @param center the center of the box
+     * @param halfSize half of the size of the box
+     * @param angle the rotation of the box, in degrees
+     * @param layerMask the layers that can be found
+     * @param results the array to write the colliders into (the query stops once it is full)
+     * @return the amount of colliders found
+     */
+    public int overlapBox(Vector2 center, Vector2 halfSize, float angle, int layerMask, Collider[] results) {
+        return this.queries.overlapBox(center, halfSize, angle, layerMask, results);
     }
 
     /**
-     * Runs every step and performs hit tests on all colliders
+     * Moves a shape along a direction, finding the first collider it hits (as of the last step)<br/>
+     * <i>The shape can belong to a collider (it won't hit itself), for example {@link Collider#getShape()}</i>
+     * @param shape the shape to cast (a box or a circle)
+     * @param direction the direction of the cast (doesn't need to be normalized)
+     * @param distance the distance the shape moves
+     * @param layerMask the layers that can be hit
+     * @param hit the hit to write the result into
+     * @return true if a collider was hit
+     */
+    public boolean shapeCast(Shape shape, Vector2 direction, float distance, int layerMask, RaycastHit hit) {
+        return this.queries.shapeCast(shape, direction, distance, layerMask, hit);
+    }
+
+    /**
+     * Runs every step and performs hit tests on the pairs of colliders found by the broadphase
      */
     public void update() {
         List<GameObject> lock = new ArrayList<>(this.gameObjects);
-        lock.forEach((object) -> {
-            Collider[] components = object.getComponentsOfType(Collider.class);
-
-            for (Collider component : components)
-                component.collisionUpdate();
-
-            List<Collider> incomingColliders = new ArrayList<>(object.colliders);
-
-            incomingColliders.forEach((incomingCol) -> {
-
-                lock.forEach((other) -> {
-
-                    if (!other.equals(object)) {
-
-                        List<Collider> otherColliders = new ArrayList<>(other.colliders);
-                        otherColliders.forEach((otherCol) -> {
-
-                            if (this.ignoredLayers.contains(new SwitchPair<>(incomingCol.layer, otherCol.layer)))
-                                return;
-
-                            Pointer<Vector2> reflectVelocity = new Pointer<>(null);
-                            Pointer<Float> toi = new Pointer<>(0.0F);
-                            Collision collision = new Collision(incomingCol, otherCol);
-                            CollisionEvent event;
-                            if (incomingCol.collisionCheck(otherCol, reflectVelocity, toi, collision.contactPoint)) {
-                                if (this.ongoingCollisions.contains(new Pair<>(object, other)))
-                                    event = new CollisionEvent(CollisionEvent.Time.STAY, collision);
-                                else {
-                                    this.ongoingCollisions.add(new Pair<>(object, other));
-                                    event = new CollisionEvent(CollisionEvent.Time.ENTER, collision);
-                                }
-
-                                incomingCol.collide(event, reflectVelocity, toi.value);
-                            }
-                            else if (this.ongoingCollisions.contains(new Pair<>(object, other))) {
-                                event = new CollisionEvent(CollisionEvent.Time.EXIT, collision);
-                                incomingCol.stoppedColliding(event);
-                                this.ongoingCollisions.remove(new Pair<>(object, other));
-                            }
-                        });
-                    }
-                });
-            });
-        });
+
+        this.awakeCount = 0;
+        this.sleepingCount = 0;
+        this.staticCount = 0;
+        this.pairCount = 0;
+
+        // update all shapes first, so that the broadphase sees this frame's bounds
+        for (GameObject object : lock) {
+            // the registered colliders, which include the ones created by components (i.e.: the tiles of a tilemap)
+            List<Collider> colliders = object.colliders;
+
+            for (int i = 0; i < colliders.size(); i++) {
+                Collider component = colliders.get(i);
+                component.collisionMask = this.layerMatrix.getMask(component.layer) & component.collidesWith.mask;
+
+                // the shapes of still static and sleeping colliders don't change
+                if (component.collisionUpdate(this.sleepFrames))
+                    this.broadphase.update(component);
+
+                if (component.isStatic)
+                    this.staticCount++;
+                else if (component.isSleeping())
+                    this.sleepingCount++;
+                else
+                    this.awakeCount++;
+            }
+        }
+
+        this.broadphase.findPairs(this.pairCallback);
+
+        if (this.parallelNarrowphase != null) {
+            // the contacts are sorted, so they are dispatched in the same order no matter the amount of threads
+            int count = this.parallelNarrowphase.run();
+            for (int i = 0; i < count; i++) {
+                ParallelNarrowphase.Contact contact = this.parallelNarrowphase.getContact(i);
+                this.dispatch(contact.collider, contact.otherCollider, contact.manifold);
+            }
+        }
+
+        // being touched wakes sleeping colliders up
+        for (int i = 0; i < this.touched.size(); i++)
+            this.touched.get(i).wakeUp();
+        this.touched.clear();
+
+        // the contacts of last frame that are missing from this frame have ended
+        for (int i = 0; i < this.lastContacts.size(); i++) {
+            if (this.contacts.contains(this.lastContacts.getKey(i)))
+                continue;
+
+            Collider incomingCol = this.lastContacts.getCollider(i);
+            Collider otherCol = this.lastContacts.getOtherCollider(i);
+
+            // unregistered (destroyed) colliders don't get exit events
+            if (incomingCol.proxyId == -1 || otherCol.proxyId == -1)
+                continue;
+
+            // pairs that aren't awake aren't tested, but since neither of them moved they are still in contact
+            if (!incomingCol.isAwake() && !otherCol.isAwake()) {
+                this.contacts.add(incomingCol, otherCol);
+                continue;
+            }
+
+            incomingCol.stoppedColliding(new CollisionEvent(CollisionEvent.Time.EXIT, new Collision(incomingCol, otherCol)));
+        }
+
+        // this frame's contacts become last frame's
+        ContactPairSet last = this.lastContacts;
+        this.lastContacts = this.contacts;
+        this.contacts = last;
+        this.contacts.clear();
+    }
+
+    /**
+     * Hit tests a pair of colliders found by the broadphase, from the perspective of both colliders
+     */
+    private void collidePair(Collider a, Collider b) {
+        // the broadphases already skip these, but they're checked again in case of a custom broadphase
+        if (a.gameObject == b.gameObject || !a.canCollideWith(b) || !a.isAwake() && !b.isAwake())
+            return;
+
+        this.pairCount++;
+        if (this.parallelNarrowphase != null) {
+            this.parallelNarrowphase.addPair(a, b);
+            return;
+        }
+
+        this.collisionCheck(a, b);
+        this.collisionCheck(b, a);
+    }
+
+    /**
+     * Hit tests a collider against another and dispatches the collision events (enter or stay) to the incoming collider
+     * @param incomingCol the collider that receives the events and position correction
+     * @param otherCol the collider it is tested against
+     */
+    private void collisionCheck(Collider incomingCol, Collider otherCol) {
+        ContactManifold manifold = this.manifoldPool.obtain();
+        if (incomingCol.collisionCheck(otherCol, manifold))
+            this.dispatch(incomingCol, otherCol, manifold);
+
+        this.manifoldPool.free(manifold);
+    }
+
+    /**
+     * Dispatches the collision event (enter or stay) of a contact to the incoming collider
+     * @param incomingCol the collider that receives the event and position correction
+     * @param otherCol the collider it is in contact with
+     * @param manifold the result of the hit test
+     */
+    private void dispatch(Collider incomingCol, Collider otherCol, ContactManifold manifold) {
+        Collision collision = new Collision(incomingCol, otherCol);
+        if (manifold.contactCount > 0)
+            collision.contactPoint.set(manifold.contactPoints[0]);
+
+        // woken up after the pairs are found
+        if (otherCol.isSleeping())
+            this.touched.add(otherCol);
+
+        this.contacts.add(incomingCol, otherCol);
+        CollisionEvent.Time time = this.lastContacts.contains(incomingCol, otherCol) ? CollisionEvent.Time.STAY : CollisionEvent.Time.ENTER;
+
+        incomingCol.collide(new CollisionEvent(time, collision), manifold);
     }
 }
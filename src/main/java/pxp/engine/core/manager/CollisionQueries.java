@@ -0,0 +1,290 @@
+package pxp.engine.core.manager;
+
+import pxp.engine.core.Transform;
+import pxp.engine.core.component.Collider;
+import pxp.engine.data.Vector2;
+import pxp.engine.data.collision.AABB;
+import pxp.engine.data.collision.Box;
+import pxp.engine.data.collision.Circle;
+import pxp.engine.data.collision.ContactManifold;
+import pxp.engine.data.collision.RaycastHit;
+import pxp.engine.data.collision.Shape;
+
+/**
+ * The physics queries of the {@link CollisionManager} (raycasts, overlaps and shape casts). The candidates are found
+ * by the broadphase of the manager, then tested against the exact shapes of the colliders (as of the last step).<br/>
+ * The state of a query is kept in reused fields, so querying doesn't allocate. <i>Queries are not thread safe.</i>
+ */
+class CollisionQueries
+{
+    private final CollisionManager manager;
+
+    // reused shapes
+    private final Vector2 zero = new Vector2();
+    private final Circle circle = new Circle(new Vector2(), 0);
+    private final Transform boxTransform = new Transform(new Vector2());
+    private final Box box = new Box(new Vector2(), new Vector2(), this.boxTransform);
+    private final Circle castCircle = new Circle(new Vector2(), 0);
+    private final Box castBox = new Box(new Vector2(), new Vector2(), new Transform(new Vector2()));
+
+    // reused results
+    private final RaycastHit scratchHit = new RaycastHit();
+    private final ContactManifold manifold = new ContactManifold();
+    private final AABB bounds = new AABB();
+    private final AABB scratchBounds = new AABB();
+
+    // the state of the current query
+    private int layerMask;
+    private float fromX;
+    private float fromY;
+    private float directionX;
+    private float directionY;
+    private float distance;
+    private RaycastHit closestHit;
+    private boolean found;
+    private RaycastHit[] hits;
+    private int hitCount;
+    private Shape queryShape;
+    private Shape castShape;
+    private Collider[] results;
+    private int resultCount;
+
+    // the callbacks given to the broadphase (stored, so they aren't recreated every query)
+    private final Broadphase.RaycastCallback closestRaycastCallback = this::closestRaycastFound;
+    private final Broadphase.RaycastCallback allRaycastCallback = this::allRaycastFound;
+    private final Broadphase.QueryCallback overlapCallback = this::overlapFound;
+    private final Broadphase.QueryCallback shapeCastCallback = this::shapeCastFound;
+
+    CollisionQueries(CollisionManager manager) {
+        this.manager = manager;
+    }
+
+    boolean raycast(Vector2 origin, Vector2 direction, float distance, int layerMask, RaycastHit hit) {
+        if (!this.setRay(origin, direction, distance, layerMask))
+            return false;
+
+        this.closestHit = hit;
+        this.found = false;
+        this.manager.getBroadphase().raycast(this.fromX, this.fromY, this.directionX, this.directionY, this.closestRaycastCallback);
+
+        this.closestHit = null;
+        return this.found;
+    }
+
+    private float closestRaycastFound(Collider collider, float maxFraction) {
+        if (!this.accepts(collider) || !collider.getShape().raycast(this.fromX, this.fromY, this.directionX, this.directionY, maxFraction, this.scratchHit))
+            return maxFraction;
+
+        this.closestHit.set(this.scratchHit);
+        this.closestHit.collider = collider;
+        this.closestHit.distance = this.scratchHit.fraction * this.distance;
+        this.found = true;
+
+        // only closer hits matter from now on
+        return this.scratchHit.fraction;
+    }
+
+    int raycastAll(Vector2 origin, Vector2 direction, float distance, int layerMask, RaycastHit[] hits) {
+        if (hits.length == 0 || !this.setRay(origin, direction, distance, layerMask))
+            return 0;
+
+        this.hits = hits;
+        this.hitCount = 0;
+        this.manager.getBroadphase().raycast(this.fromX, this.fromY, this.directionX, this.directionY, this.allRaycastCallback);
+
+        this.hits = null;
+        return this.hitCount;
+    }
+
+    private float allRaycastFound(Collider collider, float maxFraction) {
+        if (!this.accepts(collider) || !collider.getShape().raycast(this.fromX, this.fromY, this.directionX, this.directionY, maxFraction, this.scratchHit))
+            return maxFraction;
+
+        // the hits are kept sorted by distance, when the buffer is full the furthest one is replaced
+        int index = this.hitCount < this.hits.length ? this.hitCount++ : this.hits.length - 1;
+        if (this.hits[index] == null)
+            this.hits[index] = new RaycastHit();
+
+        RaycastHit hit = this.hits[index].set(this.scratchHit);
+        hit.collider = collider;
+        hit.distance = hit.fraction * this.distance;
+
+        while (index > 0 && this.hits[index - 1].fraction > hit.fraction) {
+            this.hits[index] = this.hits[index - 1];
+            this.hits[--index] = hit;
+        }
+
+        // once the buffer is full, only hits closer than the furthest one matter
+        return this.hitCount == this.hits.length ? this.hits[this.hitCount - 1].fraction : maxFraction;
+    }
+
+    int overlapCircle(Vector2 center, float radius, int layerMask, Collider[] results) {
+        this.circle.center.set(center);
+        this.circle.radius = radius;
+
+        return this.overlap(this.circle, layerMask, results);
+    }
+
+    int overlapBox(Vector2 center, Vector2 halfSize, float angle, int layerMask, Collider[] results) {
+        this.boxTransform.position.set(center);
+        this.boxTransform.rotation.z = angle;
+        this.box.set(this.zero, halfSize, this.boxTransform);
+
+        return this.overlap(this.box, layerMask, results);
+    }
+
+    private int overlap(Shape shape, int layerMask, Collider[] results) {
+        if (results.length == 0)
+            return 0;
+
+        this.layerMask = layerMask;
+        this.queryShape = shape;
+        this.results = results;
+        this.resultCount = 0;
+
+        // the hit tests count touching shapes (within the contact margin) as overlapping
+        float margin = Broadphase.CONTACT_MARGIN;
+        shape.getBounds(this.bounds);
+        this.bounds.set(this.bounds.minX - margin, this.bounds.minY - margin, this.bounds.maxX + margin, this.bounds.maxY + margin);
+        this.manager.getBroadphase().query(this.bounds, this.overlapCallback);
+
+        this.queryShape = null;
+        this.results = null;
+        return this.resultCount;
+    }
+
+    private boolean overlapFound(Collider collider) {
+        if (!this.accepts(collider) || !this.overlaps(this.queryShape, collider.getShape()))
+            return true;
+
+        this.results[this.resultCount++] = collider;
+        return this.resultCount < this.results.length;
+    }
+
+    /**
+     * Checks whether two shapes overlap (the manifold holds the result of the hit test)<br/>
+     * The hit test of a box and a circle only measures the distance to the edges of the box, so a circle entirely inside
+     * a box is found by checking its center
+     */
+    private boolean overlaps(Shape shape, Shape other) {
+        if (shape.hitTest(other, this.zero, this.manifold.reset()))
+            return true;
+
+        if (shape instanceof Circle circle && other instanceof Box box)
+            return box.contains(circle.center.x, circle.center.y);
+        if (shape instanceof Box box && other instanceof Circle circle)
+            return box.contains(circle.center.x, circle.center.y);
+
+        return false;
+    }
+
+    boolean shapeCast(Shape shape, Vector2 direction, float distance, int layerMask, RaycastHit hit) {
+        // the origin of the ray isn't used, the shape is the origin of the cast
+        if (!this.setRay(this.zero, direction, distance, layerMask))
+            return false;
+
+        // the sweep tests need the shape at the end of its movement
+        Shape castEnd;
+        if (shape instanceof Circle circle) {
+            this.castCircle.center.set(circle.center.x + this.directionX, circle.center.y + this.directionY);
+            this.castCircle.radius = circle.radius;
+            castEnd = this.castCircle;
+        }
+        else if (shape instanceof Box box)
+            castEnd = this.castBox.set(box, this.directionX, this.directionY);
+        else
+            throw new IllegalArgumentException("Only boxes and circles can be cast.");
+
+        // the area covered by the whole movement
+        shape.getBounds(this.bounds);
+        castEnd.getBounds(this.scratchBounds);
+        float margin = Broadphase.CONTACT_MARGIN;
+        this.bounds.set(
+            Math.min(this.bounds.minX, this.scratchBounds.minX) - margin, Math.min(this.bounds.minY, this.scratchBounds.minY) - margin,
+            Math.max(this.bounds.maxX, this.scratchBounds.maxX) + margin, Math.max(this.bounds.maxY, this.scratchBounds.maxY) + margin
+        );
+
+        this.castShape = shape;
+        this.queryShape = castEnd;
+        this.closestHit = hit;
+        this.closestHit.fraction = 1;
+        this.found = false;
+        this.manager.getBroadphase().query(this.bounds, this.shapeCastCallback);
+
+        this.castShape = null;
+        this.queryShape = null;
+        this.closestHit = null;
+        return this.found;
+    }
+
+    private boolean shapeCastFound(Collider collider) {
+        // the cast shape can belong to a collider
+        Shape other = collider.getShape();
+        if (!this.accepts(collider) || other == this.castShape)
+            return true;
+
+        float fraction;
+        if (this.overlaps(this.castShape, other))
+            fraction = 0;
+        else if (this.queryShape.sweepTest(other, this.directionX, this.directionY, this.manifold.reset()))
+            fraction = this.manifold.toi;
+        else
+            return true;
+
+        if (this.found && fraction >= this.closestHit.fraction)
+            return true;
+
+        RaycastHit hit = this.closestHit;
+        hit.collider = collider;
+        hit.fraction = fraction;
+        hit.distance = fraction * this.distance;
+
+        // the normal of the hit surface points back against the cast
+        if (this.manifold.normal.x != 0 || this.manifold.normal.y != 0)
+            hit.normal.set(-this.manifold.normal.x, -this.manifold.normal.y);
+        else
+            hit.normal.set(-this.directionX / this.distance, -this.directionY / this.distance);
+
+        if (this.manifold.contactCount > 0)
+            hit.point.set(this.manifold.contactPoints[0]);
+        else {
+            // no contact point, use the center of the shape at the time of the hit
+            this.castShape.getBounds(this.scratchBounds);
+            hit.point.set(
+                (this.scratchBounds.minX + this.scratchBounds.maxX) * 0.5f + this.directionX * fraction,
+                (this.scratchBounds.minY + this.scratchBounds.maxY) * 0.5f + this.directionY * fraction
+            );
+        }
+
+        this.found = true;
+        // nothing can be hit before the start
+        return fraction > 0;
+    }
+
+    /**
+     * Sets the ray of the current query (the direction is scaled to the distance)
+     * @return false if the ray is empty
+     */
+    private boolean setRay(Vector2 origin, Vector2 direction, float distance, int layerMask) {
+        float length = direction.getMagnitude();
+        if (length == 0 || distance <= 0)
+            return false;
+
+        this.layerMask = layerMask;
+        this.fromX = origin.x;
+        this.fromY = origin.y;
+        this.directionX = direction.x / length * distance;
+        this.directionY = direction.y / length * distance;
+        this.distance = distance;
+        return true;
+    }
+
+    /**
+     * Whether a collider can be found by the current query (its layer is in the mask)
+     */
+    private boolean accepts(Collider collider) {
+        return (this.layerMask & (1 << collider.layer)) != 0
+            && (this.manager.queriesHitTriggers || !collider.trigger)
+            && collider.getShape() != null;
+    }
+}
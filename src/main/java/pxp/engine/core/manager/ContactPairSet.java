@@ -0,0 +1,172 @@
+package pxp.engine.core.manager;
+
+import pxp.engine.core.component.Collider;
+
+import java.util.Arrays;
+
+/**
+ * A set of (ordered) pairs of colliders that are in contact, keyed by the ids of the colliders.<br/>
+ * The keys are stored in an open addressed table (linear probing), while the pairs themselves are stored densely,
+ * so that iterating and clearing the set only costs as much as the amount of pairs in it.<br/>
+ * <i>Pairs can't be removed one by one, the set is meant to be filled during a frame and cleared afterwards.</i>
+ */
+public class ContactPairSet
+{
+    private static final int EMPTY = -1;
+
+    /**
+     * The table, each slot holding the index of a pair (or {@link ContactPairSet#EMPTY})
+     */
+    private int[] table = new int[64];
+
+    // the pairs, in the order they were added
+    private long[] keys = new long[32];
+    private int[] slots = new int[32];
+    private Collider[] colliders = new Collider[32];
+    private Collider[] otherColliders = new Collider[32];
+    private int size = 0;
+
+    public ContactPairSet() {
+        Arrays.fill(this.table, EMPTY);
+    }
+
+    /**
+     * Creates the key of an ordered pair of colliders
+     * @param collider the collider that receives the events
+     * @param other the collider it is in contact with
+     * @return the key of the pair
+     */
+    public static long key(Collider collider, Collider other) {
+        return ((long) collider.id << 32) | (other.id & 0xffffffffL);
+    }
+
+    /**
+     * Adds a pair of colliders to the set
+     * @param collider the collider that receives the events
+     * @param other the collider it is in contact with
+     * @return true if the pair wasn't already in the set
+     */
+    public boolean add(Collider collider, Collider other) {
+        // keep the table at most half full
+        if ((this.size + 1) * 2 > this.table.length)
+            this.grow();
+
+        long key = key(collider, other);
+        int slot = this.findSlot(key);
+        if (this.table[slot] != EMPTY)
+            return false;
+
+        if (this.size == this.keys.length) {
+            int length = this.size * 2;
+            this.keys = Arrays.copyOf(this.keys, length);
+            this.slots = Arrays.copyOf(this.slots, length);
+            this.colliders = Arrays.copyOf(this.colliders, length);
+            this.otherColliders = Arrays.copyOf(this.otherColliders, length);
+        }
+
+        int index = this.size++;
+        this.keys[index] = key;
+        this.slots[index] = slot;
+        this.colliders[index] = collider;
+        this.otherColliders[index] = other;
+        this.table[slot] = index;
+
+        return true;
+    }
+
+    /**
+     * Checks whether a pair of colliders is in the set
+     * @param collider the collider that receives the events
+     * @param other the collider it is in contact with
+     */
+    public boolean contains(Collider collider, Collider other) {
+        return this.contains(key(collider, other));
+    }
+
+    /**
+     * Checks whether a pair is in the set, given its key
+     * @see ContactPairSet#key(Collider, Collider)
+     */
+    public boolean contains(long key) {
+        return this.table[this.findSlot(key)] != EMPTY;
+    }
+
+    /**
+     * The amount of pairs in the set
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Gets the key of the pair at an index (0 to {@link ContactPairSet#size()}, in the order the pairs were added)
+     */
+    public long getKey(int index) {
+        return this.keys[index];
+    }
+
+    /**
+     * Gets the collider (that receives the events) of the pair at an index
+     */
+    public Collider getCollider(int index) {
+        return this.colliders[index];
+    }
+
+    /**
+     * Gets the other collider of the pair at an index
+     */
+    public Collider getOtherCollider(int index) {
+        return this.otherColliders[index];
+    }
+
+    /**
+     * Removes all pairs (only the used slots are cleared)
+     */
+    public void clear() {
+        for (int i = 0; i < this.size; i++) {
+            this.table[this.slots[i]] = EMPTY;
+            // don't hold on to destroyed colliders
+            this.colliders[i] = null;
+            this.otherColliders[i] = null;
+        }
+
+        this.size = 0;
+    }
+
+    /**
+     * Finds the slot of a key, or the empty slot where it should be placed (linear probing)
+     */
+    private int findSlot(long key) {
+        int mask = this.table.length - 1;
+        int slot = hash(key) & mask;
+
+        while (this.table[slot] != EMPTY && this.keys[this.table[slot]] != key)
+            slot = (slot + 1) & mask;
+
+        return slot;
+    }
+
+    /**
+     * Doubles the table, re-inserting all pairs
+     */
+    private void grow() {
+        this.table = new int[this.table.length * 2];
+        Arrays.fill(this.table, EMPTY);
+
+        for (int i = 0; i < this.size; i++) {
+            int slot = this.findSlot(this.keys[i]);
+            this.table[slot] = i;
+            this.slots[i] = slot;
+        }
+    }
+
+    private static int hash(long key) {
+        // murmur3 finalizer, the ids are sequential so they need a good mix
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+}
@@ -0,0 +1,593 @@
+package pxp.engine.core.manager;
+
+import pxp.engine.data.collision.AABB;
+
+import java.util.Arrays;
+
+/**
+ * A dynamic bounding volume hierarchy of axis aligned bounding boxes.<br/>
+ * Every leaf (proxy) stores a <i>fat</i> bounding box, bigger than the object it represents, so that objects that only
+ * moved a little don't need to be re-inserted. Leaves are inserted next to the sibling that grows the tree the least and
+ * the tree is kept balanced using rotations (like an AVL tree), so queries stay O(log n) regardless of the sizes of the objects.<br/>
+ * The nodes are stored in flat arrays and recycled through a free list, so the tree doesn't allocate once it has grown.
+ */
+public class DynamicAABBTree
+{
+    /**
+     * The id of a non-existent node
+     */
+    public static final int NULL = -1;
+
+    /**
+     * How much the fat bounds are grown in the direction of the displacement, when a proxy is moved
+     */
+    public static final float DISPLACEMENT_MULTIPLIER = 2f;
+
+    /**
+     * The amount of units the bounds of a proxy are grown by on every side
+     */
+    public final float margin;
+
+    // nodes
+    private float[] minX;
+    private float[] minY;
+    private float[] maxX;
+    private float[] maxY;
+    /**
+     * The parent of a node, or the next free node if the node is in the free list
+     */
+    private int[] parent;
+    private int[] child1;
+    private int[] child2;
+    /**
+     * The height of a node (leaf = 0, free = -1)
+     */
+    private int[] height;
+    private Object[] userData;
+
+    private int root = NULL;
+    private int freeList = NULL;
+    private int nodeCount = 0;
+    private int proxyCount = 0;
+
+    /**
+     * The traversal stack used by queries (reused)
+     */
+    private int[] stack = new int[64];
+    /**
+     * The first free index of the stack, so that queries started from a callback don't overwrite the running ones
+     */
+    private int stackTop = 0;
+
+    /**
+     * Creates an empty tree
+     * @param margin the amount of units the bounds of a proxy are grown by on every side
+     */
+    public DynamicAABBTree(float margin) {
+        this.margin = margin;
+        this.allocateNodes(16);
+    }
+
+    /**
+     * Creates a proxy (leaf) in the tree
+     * @param bounds the tight bounds of the object (will be fattened by the margin)
+     * @param userData the object the proxy represents
+     * @return the id of the proxy
+     */
+    public int createProxy(AABB bounds, Object userData) {
+        int proxy = this.allocateNode();
+
+        this.setNodeBounds(proxy,
+            bounds.minX - this.margin, bounds.minY - this.margin,
+            bounds.maxX + this.margin, bounds.maxY + this.margin
+        );
+        this.userData[proxy] = userData;
+        this.height[proxy] = 0;
+
+        this.insertLeaf(proxy);
+        this.proxyCount++;
+
+        return proxy;
+    }
+
+    /**
+     * Removes a proxy from the tree
+     * @param proxy the id of the proxy
+     */
+    public void destroyProxy(int proxy) {
+        this.removeLeaf(proxy);
+        this.freeNode(proxy);
+        this.proxyCount--;
+    }
+
+    /**
+     * Moves a proxy, given its new tight bounds. The proxy is only re-inserted if the new bounds escaped its fat bounds,
+     * in which case the new fat bounds are also extended in the direction of the displacement.
+     * @param proxy the id of the proxy
+     * @param bounds the new tight bounds of the object
+     * @param dx the displacement on the x-axis since the last move
+     * @param dy the displacement on the y-axis since the last move
+     * @return whether the proxy was re-inserted
+     */
+    public boolean moveProxy(int proxy, AABB bounds, float dx, float dy) {
+        if (this.minX[proxy] <= bounds.minX && this.minY[proxy] <= bounds.minY
+        &&  this.maxX[proxy] >= bounds.maxX && this.maxY[proxy] >= bounds.maxY)
+            return false;
+
+        this.removeLeaf(proxy);
+
+        float minX = bounds.minX - this.margin;
+        float minY = bounds.minY - this.margin;
+        float maxX = bounds.maxX + this.margin;
+        float maxY = bounds.maxY + this.margin;
+
+        // predict the movement
+        dx *= DISPLACEMENT_MULTIPLIER;
+        dy *= DISPLACEMENT_MULTIPLIER;
+        if (dx < 0) minX += dx; else maxX += dx;
+        if (dy < 0) minY += dy; else maxY += dy;
+
+        this.setNodeBounds(proxy, minX, minY, maxX, maxY);
+        this.insertLeaf(proxy);
+
+        return true;
+    }
+
+    /**
+     * Gets the object a proxy represents
+     * @param proxy the id of the proxy
+     * @return the user data given when the proxy was created
+     */
+    public Object getUserData(int proxy) {
+        return this.userData[proxy];
+    }
+
+    /**
+     * Gets the fat bounds of a proxy
+     * @param proxy the id of the proxy
+     * @param out the bounding box to write the bounds into
+     * @return the provided bounding box
+     */
+    public AABB getFatBounds(int proxy, AABB out) {
+        return out.set(this.minX[proxy], this.minY[proxy], this.maxX[proxy], this.maxY[proxy]);
+    }
+
+    /**
+     * Finds all proxies whose fat bounds overlap the provided bounds
+     * @param bounds the bounds to look in
+     * @param callback the callback invoked for every proxy found (it can stop the query)
+     */
+    public void query(AABB bounds, QueryCallback callback) {
+        if (this.root == NULL) return;
+
+        int base = this.stackTop;
+        int top = base;
+        this.push(top++, this.root);
+
+        while (top > base) {
+            int node = this.stack[--top];
+
+            if (this.minX[node] > bounds.maxX || this.maxX[node] < bounds.minX
+            ||  this.minY[node] > bounds.maxY || this.maxY[node] < bounds.minY)
+                continue;
+
+            if (this.child1[node] == NULL) {
+                this.stackTop = top;
+                boolean proceed = callback.found(node);
+                this.stackTop = base;
+
+                if (!proceed)
+                    return;
+            }
+            else {
+                this.push(top++, this.child1[node]);
+                this.push(top++, this.child2[node]);
+            }
+        }
+    }
+
+    /**
+     * Finds all proxies whose fat bounds are crossed by a ray (segment), skipping the parts of the tree the ray can't reach
+     * @param fromX the x position of the start of the ray
+     * @param fromY the y position of the start of the ray
+     * @param directionX the x component of the ray (its length is the length of the segment)
+     * @param directionY the y component of the ray
+     * @param callback the callback invoked for every proxy found, returning the fraction of the ray to keep searching within
+     */
+    public void raycast(float fromX, float fromY, float directionX, float directionY, RaycastCallback callback) {
+        if (this.root == NULL) return;
+
+        float maxFraction = 1f;
+        int base = this.stackTop;
+        int top = base;
+        this.push(top++, this.root);
+
+        while (top > base) {
+            int node = this.stack[--top];
+
+            if (AABB.raycast(this.minX[node], this.minY[node], this.maxX[node], this.maxY[node], fromX, fromY, directionX, directionY, maxFraction) < 0)
+                continue;
+
+            if (this.child1[node] == NULL) {
+                this.stackTop = top;
+                maxFraction = callback.found(node, maxFraction);
+                this.stackTop = base;
+
+                if (maxFraction <= 0)
+                    return;
+            }
+            else {
+                this.push(top++, this.child1[node]);
+                this.push(top++, this.child2[node]);
+            }
+        }
+    }
+
+    private void push(int index, int node) {
+        if (index == this.stack.length)
+            this.stack = Arrays.copyOf(this.stack, this.stack.length * 2);
+
+        this.stack[index] = node;
+    }
+
+    /**
+     * Gets the height of the tree (0 when empty or containing a single proxy)
+     */
+    public int getHeight() {
+        return this.root == NULL ? 0 : this.height[this.root];
+    }
+
+    /**
+     * Gets the amount of proxies in the tree
+     */
+    public int getProxyCount() {
+        return this.proxyCount;
+    }
+
+    /**
+     * Removes all proxies from the tree
+     */
+    public void clear() {
+        this.root = NULL;
+        this.proxyCount = 0;
+        this.nodeCount = 0;
+        this.allocateNodes(this.parent.length);
+    }
+
+    // ========================== NODES ==========================
+
+    /**
+     * (Re)creates the node arrays with the given capacity, all nodes being free
+     */
+    private void allocateNodes(int capacity) {
+        this.minX = new float[capacity];
+        this.minY = new float[capacity];
+        this.maxX = new float[capacity];
+        this.maxY = new float[capacity];
+        this.parent = new int[capacity];
+        this.child1 = new int[capacity];
+        this.child2 = new int[capacity];
+        this.height = new int[capacity];
+        this.userData = new Object[capacity];
+
+        this.linkFreeNodes(0);
+    }
+
+    /**
+     * Links the nodes from the given index to the end of the arrays into the free list
+     */
+    private void linkFreeNodes(int from) {
+        int capacity = this.parent.length;
+        for (int i = from; i < capacity - 1; i++) {
+            this.parent[i] = i + 1;
+            this.height[i] = -1;
+        }
+        this.parent[capacity - 1] = NULL;
+        this.height[capacity - 1] = -1;
+
+        this.freeList = from;
+    }
+
+    private int allocateNode() {
+        // grow the arrays if there are no free nodes left
+        if (this.freeList == NULL) {
+            int capacity = this.parent.length * 2;
+            this.minX = Arrays.copyOf(this.minX, capacity);
+            this.minY = Arrays.copyOf(this.minY, capacity);
+            this.maxX = Arrays.copyOf(this.maxX, capacity);
+            this.maxY = Arrays.copyOf(this.maxY, capacity);
+            this.parent = Arrays.copyOf(this.parent, capacity);
+            this.child1 = Arrays.copyOf(this.child1, capacity);
+            this.child2 = Arrays.copyOf(this.child2, capacity);
+            this.height = Arrays.copyOf(this.height, capacity);
+            this.userData = Arrays.copyOf(this.userData, capacity);
+
+            this.linkFreeNodes(this.nodeCount);
+        }
+
+        int node = this.freeList;
+        this.freeList = this.parent[node];
+
+        this.parent[node] = NULL;
+        this.child1[node] = NULL;
+        this.child2[node] = NULL;
+        this.height[node] = 0;
+        this.userData[node] = null;
+        this.nodeCount++;
+
+        return node;
+    }
+
+    private void freeNode(int node) {
+        this.parent[node] = this.freeList;
+        this.height[node] = -1;
+        this.userData[node] = null;
+        this.freeList = node;
+        this.nodeCount--;
+    }
+
+    private void setNodeBounds(int node, float minX, float minY, float maxX, float maxY) {
+        this.minX[node] = minX;
+        this.minY[node] = minY;
+        this.maxX[node] = maxX;
+        this.maxY[node] = maxY;
+    }
+
+    /**
+     * Sets the bounds of a node to the union of two other nodes' bounds
+     */
+    private void unionBounds(int node, int a, int b) {
+        this.setNodeBounds(node,
+            Math.min(this.minX[a], this.minX[b]), Math.min(this.minY[a], this.minY[b]),
+            Math.max(this.maxX[a], this.maxX[b]), Math.max(this.maxY[a], this.maxY[b])
+        );
+    }
+
+    /**
+     * The perimeter of a node (used as cost, since it is a better heuristic than area for 2d trees)
+     */
+    private float perimeter(int node) {
+        return 2f * ((this.maxX[node] - this.minX[node]) + (this.maxY[node] - this.minY[node]));
+    }
+
+    /**
+     * The perimeter of the union of two nodes
+     */
+    private float unionPerimeter(int a, int b) {
+        float width = Math.max(this.maxX[a], this.maxX[b]) - Math.min(this.minX[a], this.minX[b]);
+        float height = Math.max(this.maxY[a], this.maxY[b]) - Math.min(this.minY[a], this.minY[b]);
+        return 2f * (width + height);
+    }
+
+    // ========================== TREE ==========================
+
+    private void insertLeaf(int leaf) {
+        if (this.root == NULL) {
+            this.root = leaf;
+            this.parent[leaf] = NULL;
+            return;
+        }
+
+        // find the best sibling, going down the cheapest path
+        int index = this.root;
+        while (this.child1[index] != NULL) {
+            int c1 = this.child1[index];
+            int c2 = this.child2[index];
+
+            float combinedPerimeter = this.unionPerimeter(index, leaf);
+
+            // the cost of creating a new parent for this node and the leaf
+            float cost = 2f * combinedPerimeter;
+            // the minimum cost of pushing the leaf further down the tree
+            float inheritanceCost = 2f * (combinedPerimeter - this.perimeter(index));
+
+            float cost1 = this.descendCost(c1, leaf) + inheritanceCost;
+            float cost2 = this.descendCost(c2, leaf) + inheritanceCost;
+
+            if (cost < cost1 && cost < cost2)
+                break;
+
+            index = cost1 < cost2 ? c1 : c2;
+        }
+
+        int sibling = index;
+
+        // create a new parent for the sibling and the leaf
+        int oldParent = this.parent[sibling];
+        int newParent = this.allocateNode();
+        this.parent[newParent] = oldParent;
+        this.unionBounds(newParent, leaf, sibling);
+        this.height[newParent] = this.height[sibling] + 1;
+
+        if (oldParent != NULL) {
+            if (this.child1[oldParent] == sibling)
+                this.child1[oldParent] = newParent;
+            else
+                this.child2[oldParent] = newParent;
+        }
+        else
+            this.root = newParent;
+
+        this.child1[newParent] = sibling;
+        this.child2[newParent] = leaf;
+        this.parent[sibling] = newParent;
+        this.parent[leaf] = newParent;
+
+        this.refit(this.parent[leaf]);
+    }
+
+    /**
+     * The cost of descending into a child when inserting a leaf
+     */
+    private float descendCost(int child, int leaf) {
+        if (this.child1[child] == NULL)
+            return this.unionPerimeter(child, leaf);
+
+        return this.unionPerimeter(child, leaf) - this.perimeter(child);
+    }
+
+    private void removeLeaf(int leaf) {
+        if (leaf == this.root) {
+            this.root = NULL;
+            return;
+        }
+
+        int parent = this.parent[leaf];
+        int grandParent = this.parent[parent];
+        int sibling = this.child1[parent] == leaf ? this.child2[parent] : this.child1[parent];
+
+        if (grandParent != NULL) {
+            // the sibling takes the parent's place
+            if (this.child1[grandParent] == parent)
+                this.child1[grandParent] = sibling;
+            else
+                this.child2[grandParent] = sibling;
+
+            this.parent[sibling] = grandParent;
+            this.freeNode(parent);
+
+            this.refit(grandParent);
+        }
+        else {
+            this.root = sibling;
+            this.parent[sibling] = NULL;
+            this.freeNode(parent);
+        }
+    }
+
+    /**
+     * Walks up the tree from a node, balancing and recalculating the bounds and heights
+     */
+    private void refit(int index) {
+        while (index != NULL) {
+            index = this.balance(index);
+
+            int c1 = this.child1[index];
+            int c2 = this.child2[index];
+
+            this.height[index] = 1 + Math.max(this.height[c1], this.height[c2]);
+            this.unionBounds(index, c1, c2);
+
+            index = this.parent[index];
+        }
+    }
+
+    /**
+     * Performs a left or right rotation if the node A is imbalanced
+     * @return the new root of the subtree
+     */
+    private int balance(int iA) {
+        if (this.child1[iA] == NULL || this.height[iA] < 2)
+            return iA;
+
+        int iB = this.child1[iA];
+        int iC = this.child2[iA];
+        int balance = this.height[iC] - this.height[iB];
+
+        // rotate C up
+        if (balance > 1) {
+            int iF = this.child1[iC];
+            int iG = this.child2[iC];
+
+            this.child1[iC] = iA;
+            this.parent[iC] = this.parent[iA];
+            this.parent[iA] = iC;
+            this.replaceChild(this.parent[iC], iA, iC);
+
+            if (this.height[iF] > this.height[iG]) {
+                this.child2[iC] = iF;
+                this.child2[iA] = iG;
+                this.parent[iG] = iA;
+                this.unionBounds(iA, iB, iG);
+                this.unionBounds(iC, iA, iF);
+                this.height[iA] = 1 + Math.max(this.height[iB], this.height[iG]);
+                this.height[iC] = 1 + Math.max(this.height[iA], this.height[iF]);
+            }
+            else {
+                this.child2[iC] = iG;
+                this.child2[iA] = iF;
+                this.parent[iF] = iA;
+                this.unionBounds(iA, iB, iF);
+                this.unionBounds(iC, iA, iG);
+                this.height[iA] = 1 + Math.max(this.height[iB], this.height[iF]);
+                this.height[iC] = 1 + Math.max(this.height[iA], this.height[iG]);
+            }
+
+            return iC;
+        }
+
+        // rotate B up
+        if (balance < -1) {
+            int iD = this.child1[iB];
+            int iE = this.child2[iB];
+
+            this.child1[iB] = iA;
+            this.parent[iB] = this.parent[iA];
+            this.parent[iA] = iB;
+            this.replaceChild(this.parent[iB], iA, iB);
+
+            if (this.height[iD] > this.height[iE]) {
+                this.child2[iB] = iD;
+                this.child1[iA] = iE;
+                this.parent[iE] = iA;
+                this.unionBounds(iA, iC, iE);
+                this.unionBounds(iB, iA, iD);
+                this.height[iA] = 1 + Math.max(this.height[iC], this.height[iE]);
+                this.height[iB] = 1 + Math.max(this.height[iA], this.height[iD]);
+            }
+            else {
+                this.child2[iB] = iE;
+                this.child1[iA] = iD;
+                this.parent[iD] = iA;
+                this.unionBounds(iA, iC, iD);
+                this.unionBounds(iB, iA, iE);
+                this.height[iA] = 1 + Math.max(this.height[iC], this.height[iD]);
+                this.height[iB] = 1 + Math.max(this.height[iA], this.height[iE]);
+            }
+
+            return iB;
+        }
+
+        return iA;
+    }
+
+    /**
+     * Replaces a child of a node (or the root if the node is null)
+     */
+    private void replaceChild(int node, int oldChild, int newChild) {
+        if (node == NULL)
+            this.root = newChild;
+        else if (this.child1[node] == oldChild)
+            this.child1[node] = newChild;
+        else
+            this.child2[node] = newChild;
+    }
+
+    /**
+     * Callback for proxies found by a query
+     */
+    @FunctionalInterface
+    public interface QueryCallback
+    {
+        /**
+         * @param proxy the id of the proxy found
+         * @return whether the query should continue
+         */
+        boolean found(int proxy);
+    }
+
+    /**
+     * Callback for proxies found by a raycast
+     */
+    @FunctionalInterface
+    public interface RaycastCallback
+    {
+        /**
+         * @param proxy the id of the proxy found
+         * @param maxFraction the fraction (0-1) of the ray currently searched within
+         * @return the new fraction to search within (the fraction of a hit to only look for closer ones, the max fraction
+         *         to keep searching, or 0 to stop the raycast)
+         */
+        float found(int proxy, float maxFraction);
+    }
+}
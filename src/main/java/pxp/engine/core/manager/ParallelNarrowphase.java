@@ -0,0 +1,260 @@
+package pxp.engine.core.manager;
+
+import pxp.engine.core.component.Collider;
+import pxp.engine.data.collision.ContactManifold;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs the hit tests of the pairs found by the broadphase on multiple threads (using fork-join).<br/>
+ * All pairs are tested against the shapes as they were at the start of the narrowphase (no position is corrected
+ * while testing). Each thread writes its contacts into its own buffer, which are then merged and sorted by the ids
+ * of the colliders, so that the {@link CollisionManager} can dispatch them on the game thread in the same order no
+ * matter the amount of threads.
+ * @see pxp.engine.data.GameSettings#parallelNarrowphase
+ */
+public class ParallelNarrowphase
+{
+    /**
+     * The minimum amount of pairs a task tests before splitting in two
+     */
+    public static final int MIN_PAIRS_PER_TASK = 64;
+
+    private static final Comparator<Contact> ORDER = Comparator.comparingLong(contact -> contact.key);
+
+    /**
+     * The amount of threads the hit tests run on
+     */
+    public final int threads;
+    /**
+     * The pool of worker threads (null if running on a single thread)
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * The buffers of all the live worker threads
+     */
+    private final List<Buffer> buffers = new ArrayList<>();
+    /**
+     * The buffer used when the hit tests run on the game thread
+     */
+    private final Buffer gameThreadBuffer = new Buffer();
+
+    // the pairs of colliders to test this frame
+    private Collider[] pairColliders = new Collider[64];
+    private Collider[] pairOthers = new Collider[64];
+    private int pairCount = 0;
+
+    /**
+     * The contacts of all buffers, sorted
+     */
+    private Contact[] contacts = new Contact[64];
+    private int contactCount = 0;
+
+    /**
+     * Creates a parallel narrowphase
+     * @param threads the amount of threads to run the hit tests on (0 to use all available processors)
+     */
+    public ParallelNarrowphase(int threads) {
+        if (threads < 0)
+            throw new IllegalArgumentException("The amount of threads cannot be negative.");
+
+        this.threads = threads == 0 ? Runtime.getRuntime().availableProcessors() : threads;
+        this.pool = this.threads > 1 ? new ForkJoinPool(this.threads, Worker::new, null, false) : null;
+    }
+
+    /**
+     * Adds a pair of colliders to be tested (from the perspective of both colliders) when the narrowphase runs
+     */
+    public void addPair(Collider collider, Collider other) {
+        if (this.pairCount == this.pairColliders.length) {
+            this.pairColliders = Arrays.copyOf(this.pairColliders, this.pairCount * 2);
+            this.pairOthers = Arrays.copyOf(this.pairOthers, this.pairCount * 2);
+        }
+
+        this.pairColliders[this.pairCount] = collider;
+        this.pairOthers[this.pairCount] = other;
+        this.pairCount++;
+    }
+
+    /**
+     * Tests all the pairs added since the last run, then sorts the contacts found
+     * @return the amount of contacts found
+     * @see ParallelNarrowphase#getContact(int)
+     */
+    public int run() {
+        this.gameThreadBuffer.count = 0;
+        synchronized (this.buffers) {
+            for (Buffer buffer : this.buffers)
+                buffer.count = 0;
+        }
+
+        if (this.pool == null || this.pairCount <= MIN_PAIRS_PER_TASK)
+            this.test(0, this.pairCount, this.gameThreadBuffer);
+        else
+            this.pool.invoke(new TestTask(0, this.pairCount));
+
+        // merge the buffers
+        this.contactCount = 0;
+        this.merge(this.gameThreadBuffer);
+        synchronized (this.buffers) {
+            for (Buffer buffer : this.buffers)
+                this.merge(buffer);
+        }
+
+        // the buffers are filled in whatever order the threads ran in
+        Arrays.sort(this.contacts, 0, this.contactCount, ORDER);
+
+        // don't hold on to destroyed colliders
+        Arrays.fill(this.pairColliders, 0, this.pairCount, null);
+        Arrays.fill(this.pairOthers, 0, this.pairCount, null);
+        this.pairCount = 0;
+
+        return this.contactCount;
+    }
+
+    /**
+     * Gets a contact found by the last run, in order (sorted by the ids of the colliders)
+     * @param index the index of the contact (0 to the amount returned by {@link ParallelNarrowphase#run()})
+     */
+    public Contact getContact(int index) {
+        return this.contacts[index];
+    }
+
+    /**
+     * Stops the worker threads
+     */
+    public void shutdown() {
+        if (this.pool != null)
+            this.pool.shutdown();
+    }
+
+    private void merge(Buffer buffer) {
+        if (this.contactCount + buffer.count > this.contacts.length)
+            this.contacts = Arrays.copyOf(this.contacts, Math.max(this.contacts.length * 2, this.contactCount + buffer.count));
+
+        System.arraycopy(buffer.contacts, 0, this.contacts, this.contactCount, buffer.count);
+        this.contactCount += buffer.count;
+    }
+
+    /**
+     * Tests a range of pairs, writing the contacts into a buffer
+     */
+    private void test(int from, int to, Buffer buffer) {
+        for (int i = from; i < to; i++) {
+            Collider collider = this.pairColliders[i];
+            Collider other = this.pairOthers[i];
+
+            buffer.test(collider, other);
+            buffer.test(other, collider);
+        }
+    }
+
+    /**
+     * A contact found by the narrowphase, from the perspective of the collider
+     */
+    public static class Contact
+    {
+        /**
+         * The collider that receives the events and position correction
+         */
+        public Collider collider;
+        /**
+         * The collider it is in contact with
+         */
+        public Collider otherCollider;
+        /**
+         * The result of the hit test
+         */
+        public final ContactManifold manifold = new ContactManifold();
+
+        private long key;
+    }
+
+    /**
+     * The contacts found by a single thread (reused every frame)
+     */
+    private static class Buffer
+    {
+        private Contact[] contacts = new Contact[0];
+        private int count = 0;
+
+        private void test(Collider collider, Collider other) {
+            if (this.count == this.contacts.length) {
+                this.contacts = Arrays.copyOf(this.contacts, Math.max(16, this.count * 2));
+                for (int i = this.count; i < this.contacts.length; i++)
+                    this.contacts[i] = new Contact();
+            }
+
+            // only keep the contact if the shapes collide
+            Contact contact = this.contacts[this.count];
+            if (collider.collisionCheck(other, contact.manifold.reset())) {
+                contact.collider = collider;
+                contact.otherCollider = other;
+                contact.key = ContactPairSet.key(collider, other);
+                this.count++;
+            }
+        }
+    }
+
+    /**
+     * A worker thread of the pool, owning a buffer
+     */
+    private final class Worker extends ForkJoinWorkerThread
+    {
+        private final Buffer buffer = new Buffer();
+
+        private Worker(ForkJoinPool pool) {
+            super(pool);
+            this.setName("PXP Narrowphase " + this.getPoolIndex());
+            this.setDaemon(true);
+
+            synchronized (ParallelNarrowphase.this.buffers) {
+                ParallelNarrowphase.this.buffers.add(this.buffer);
+            }
+        }
+
+        @Override
+        protected void onTermination(Throwable exception) {
+            // idle workers are ended by the pool (and replaced by new ones when needed)
+            synchronized (ParallelNarrowphase.this.buffers) {
+                ParallelNarrowphase.this.buffers.remove(this.buffer);
+            }
+
+            super.onTermination(exception);
+        }
+    }
+
+    /**
+     * Splits the range of pairs in halves until it is small enough, then tests it on the worker's buffer
+     */
+    @SuppressWarnings("serial") // tasks are never serialized
+    private final class TestTask extends RecursiveAction
+    {
+        private final int from;
+        private final int to;
+
+        private TestTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.to - this.from <= MIN_PAIRS_PER_TASK) {
+                Buffer buffer = Thread.currentThread() instanceof Worker worker ? worker.buffer : ParallelNarrowphase.this.gameThreadBuffer;
+                ParallelNarrowphase.this.test(this.from, this.to, buffer);
+                return;
+            }
+
+            int middle = (this.from + this.to) >>> 1;
+            invokeAll(new TestTask(this.from, middle), new TestTask(middle, this.to));
+        }
+    }
+}
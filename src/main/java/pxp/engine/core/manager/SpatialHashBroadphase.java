@@ -0,0 +1,381 @@
+package pxp.engine.core.manager;
+
+import pxp.engine.core.component.Collider;
+import pxp.engine.data.collision.AABB;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A uniform grid broadphase. Every frame the colliders are hashed into the cells their bounds cover and only colliders
+ * that share a cell are reported as pairs.<br/>
+ * The grid is stored in flat arrays (an open addressed table of cells, each pointing to a linked list of entries), which
+ * are reused between frames, so a steady-state frame doesn't allocate.
+ * @see pxp.engine.data.collision.BroadphaseType#SPATIAL_HASH
+ */
+public class SpatialHashBroadphase implements Broadphase
+{
+    /**
+     * The size of a cell (in world units)
+     */
+    public final float cellSize;
+    private final float invCellSize;
+
+    private final List<Collider> colliders = new ArrayList<>();
+
+    // the first cell covered by each collider this frame (indexed by proxy id)
+    private int[] minCellX = new int[16];
+    private int[] minCellY = new int[16];
+
+    // the cells of the grid (open addressed by cell coordinates)
+    private long[] cellKeys = new long[64];
+    private int[] cellX = new int[64];
+    private int[] cellY = new int[64];
+    private int[] cellHead = new int[64];
+    private int[] cellStamp = new int[64];
+    /**
+     * The slots of the cells used this frame (so that we don't have to look through the whole table)
+     */
+    private int[] usedCells = new int[32];
+    private int usedCellCount = 0;
+    /**
+     * The frame stamp, a cell is only valid this frame if its stamp matches (so that the table never needs clearing)
+     */
+    private int stamp = 0;
+
+    // the entries of the cells, each being a collider (proxy id) and the next entry in the same cell
+    private int[] entryProxy = new int[64];
+    private int[] entryNext = new int[64];
+    private int entryCount = 0;
+
+    /**
+     * Whether colliders were added or removed since the grid was last built (the grid can't be used by queries until rebuilt)
+     */
+    private boolean dirty = true;
+    /**
+     * The stamp of the last query that found each collider (indexed by proxy id), so that a query doesn't report
+     * colliders that span multiple cells more than once
+     */
+    private int[] queryMark = new int[16];
+    private int queryStamp = 0;
+
+    /**
+     * Creates a spatial hash broadphase, given the cell size
+     * @param cellSize the size of a cell in world units, ideally a bit bigger than most colliders
+     */
+    public SpatialHashBroadphase(float cellSize) {
+        if (cellSize <= 0)
+            throw new IllegalArgumentException("The cell size must be greater than 0.");
+
+        this.cellSize = cellSize;
+        this.invCellSize = 1f / cellSize;
+    }
+
+    @Override
+    public void add(Collider collider) {
+        if (collider.proxyId != -1) return;
+
+        collider.proxyId = this.colliders.size();
+        this.colliders.add(collider);
+
+        if (this.colliders.size() > this.minCellX.length) {
+            int length = this.minCellX.length * 2;
+            this.minCellX = Arrays.copyOf(this.minCellX, length);
+            this.minCellY = Arrays.copyOf(this.minCellY, length);
+            this.queryMark = Arrays.copyOf(this.queryMark, length);
+        }
+
+        this.dirty = true;
+    }
+
+    @Override
+    public void remove(Collider collider) {
+        if (collider.proxyId == -1) return;
+
+        // swap remove, the last collider takes the removed one's place
+        Collider last = this.colliders.remove(this.colliders.size() - 1);
+        if (last != collider) {
+            this.colliders.set(collider.proxyId, last);
+            last.proxyId = collider.proxyId;
+        }
+
+        collider.proxyId = -1;
+        this.dirty = true;
+    }
+
+    @Override
+    public void update(Collider collider) {
+        // the grid is rebuilt from the bounds in findPairs
+    }
+
+    @Override
+    public void findPairs(PairCallback callback) {
+        this.rebuild();
+
+        for (int c = 0; c < this.usedCellCount; c++) {
+            int slot = this.usedCells[c];
+            int x = this.cellX[slot];
+            int y = this.cellY[slot];
+
+            for (int e1 = this.cellHead[slot]; e1 != -1; e1 = this.entryNext[e1]) {
+                int p1 = this.entryProxy[e1];
+                // colliders whose layers collide with nothing are only in the grid for the queries
+                if (this.colliders.get(p1).collisionMask == 0)
+                    continue;
+
+                for (int e2 = this.entryNext[e1]; e2 != -1; e2 = this.entryNext[e2]) {
+                    int p2 = this.entryProxy[e2];
+
+                    // colliders can share multiple cells, only report the pair in the first cell they share
+                    if (x != Math.max(this.minCellX[p1], this.minCellX[p2]) || y != Math.max(this.minCellY[p1], this.minCellY[p2]))
+                        continue;
+
+                    Collider a = this.colliders.get(p1);
+                    Collider b = this.colliders.get(p2);
+                    if ((a.isAwake() || b.isAwake()) && a.canCollideWith(b) && a.getBounds().overlaps(b.getBounds(), CONTACT_MARGIN))
+                        callback.pair(a, b);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void query(AABB bounds, QueryCallback callback) {
+        int minX = this.toCell(bounds.minX);
+        int minY = this.toCell(bounds.minY);
+        int maxX = this.toCell(bounds.maxX);
+        int maxY = this.toCell(bounds.maxY);
+
+        // looking through more cells than there are colliders is slower than checking every collider
+        if (this.dirty || (long) (maxX - minX + 1) * (maxY - minY + 1) > this.colliders.size()) {
+            for (int i = 0; i < this.colliders.size(); i++) {
+                Collider collider = this.colliders.get(i);
+                if (collider.getBounds().overlaps(bounds) && !callback.found(collider))
+                    return;
+            }
+
+            return;
+        }
+
+        int mark = this.nextQueryMark();
+        for (int x = minX; x <= maxX; x++) {
+            for (int y = minY; y <= maxY; y++) {
+                int slot = this.findSlot(x, y);
+                if (this.cellStamp[slot] != this.stamp)
+                    continue;
+
+                for (int e = this.cellHead[slot]; e != -1; e = this.entryNext[e]) {
+                    int proxy = this.entryProxy[e];
+                    if (this.queryMark[proxy] == mark)
+                        continue;
+                    this.queryMark[proxy] = mark;
+
+                    Collider collider = this.colliders.get(proxy);
+                    if (collider.getBounds().overlaps(bounds) && !callback.found(collider))
+                        return;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void raycast(float fromX, float fromY, float directionX, float directionY, RaycastCallback callback) {
+        float maxFraction = 1f;
+
+        // walking through more cells than there are colliders is slower than checking every collider
+        if (this.dirty || (Math.abs(directionX) + Math.abs(directionY)) * this.invCellSize > this.colliders.size()) {
+            for (int i = 0; i < this.colliders.size(); i++) {
+                Collider collider = this.colliders.get(i);
+                if (collider.getBounds().raycast(fromX, fromY, directionX, directionY, maxFraction) < 0)
+                    continue;
+
+                maxFraction = callback.found(collider, maxFraction);
+                if (maxFraction <= 0)
+                    return;
+            }
+
+            return;
+        }
+
+        // walk the cells crossed by the ray in order (a DDA), so that the ray can stop early once it's shortened
+        int x = this.toCell(fromX);
+        int y = this.toCell(fromY);
+        int stepX = directionX > 0 ? 1 : directionX < 0 ? -1 : 0;
+        int stepY = directionY > 0 ? 1 : directionY < 0 ? -1 : 0;
+        // the fraction of the ray at which it reaches the next cell on each axis, and how much it takes to cross a cell
+        float nextX = stepX == 0 ? Float.MAX_VALUE : ((stepX > 0 ? x + 1 : x) * this.cellSize - fromX) / directionX;
+        float nextY = stepY == 0 ? Float.MAX_VALUE : ((stepY > 0 ? y + 1 : y) * this.cellSize - fromY) / directionY;
+        float deltaX = stepX == 0 ? Float.MAX_VALUE : this.cellSize / Math.abs(directionX);
+        float deltaY = stepY == 0 ? Float.MAX_VALUE : this.cellSize / Math.abs(directionY);
+
+        int mark = this.nextQueryMark();
+        while (true) {
+            int slot = this.findSlot(x, y);
+            if (this.cellStamp[slot] == this.stamp) {
+                for (int e = this.cellHead[slot]; e != -1; e = this.entryNext[e]) {
+                    int proxy = this.entryProxy[e];
+                    if (this.queryMark[proxy] == mark)
+                        continue;
+                    this.queryMark[proxy] = mark;
+
+                    Collider collider = this.colliders.get(proxy);
+                    if (collider.getBounds().raycast(fromX, fromY, directionX, directionY, maxFraction) < 0)
+                        continue;
+
+                    maxFraction = callback.found(collider, maxFraction);
+                    if (maxFraction <= 0)
+                        return;
+                }
+            }
+
+            if (Math.min(nextX, nextY) > maxFraction)
+                return;
+
+            if (nextX < nextY) {
+                x += stepX;
+                nextX += deltaX;
+            }
+            else {
+                y += stepY;
+                nextY += deltaY;
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        this.colliders.forEach(c -> c.proxyId = -1);
+        this.colliders.clear();
+        this.dirty = true;
+    }
+
+    private int nextQueryMark() {
+        // in the unlikely case the stamp wraps around, old marks could look valid
+        if (++this.queryStamp == 0) {
+            Arrays.fill(this.queryMark, 0);
+            this.queryStamp = 1;
+        }
+
+        return this.queryStamp;
+    }
+
+    /**
+     * Hashes all colliders into the cells covered by their bounds
+     */
+    private void rebuild() {
+        // in the unlikely case the stamp wraps around, stale cells could look valid, so we invalidate all of them
+        if (++this.stamp == 0) {
+            Arrays.fill(this.cellStamp, 0);
+            this.stamp = 1;
+        }
+        this.usedCellCount = 0;
+        this.entryCount = 0;
+        this.dirty = false;
+
+        for (int i = 0; i < this.colliders.size(); i++) {
+            AABB bounds = this.colliders.get(i).getBounds();
+
+            int minX = this.toCell(bounds.minX - CONTACT_MARGIN);
+            int minY = this.toCell(bounds.minY - CONTACT_MARGIN);
+            int maxX = this.toCell(bounds.maxX + CONTACT_MARGIN);
+            int maxY = this.toCell(bounds.maxY + CONTACT_MARGIN);
+
+            this.minCellX[i] = minX;
+            this.minCellY[i] = minY;
+
+            for (int x = minX; x <= maxX; x++)
+                for (int y = minY; y <= maxY; y++)
+                    this.insert(x, y, i);
+        }
+    }
+
+    private int toCell(float position) {
+        return (int) Math.floor(position * this.invCellSize);
+    }
+
+    /**
+     * Adds a collider (proxy id) to a cell, creating the cell if it isn't used this frame
+     */
+    private void insert(int x, int y, int proxy) {
+        // keep the table at most half full
+        if ((this.usedCellCount + 1) * 2 > this.cellKeys.length)
+            this.growCells();
+
+        int slot = this.findSlot(x, y);
+        if (this.cellStamp[slot] != this.stamp) {
+            this.cellStamp[slot] = this.stamp;
+            this.cellKeys[slot] = key(x, y);
+            this.cellX[slot] = x;
+            this.cellY[slot] = y;
+            this.cellHead[slot] = -1;
+
+            if (this.usedCellCount == this.usedCells.length)
+                this.usedCells = Arrays.copyOf(this.usedCells, this.usedCells.length * 2);
+            this.usedCells[this.usedCellCount++] = slot;
+        }
+
+        if (this.entryCount == this.entryProxy.length) {
+            this.entryProxy = Arrays.copyOf(this.entryProxy, this.entryProxy.length * 2);
+            this.entryNext = Arrays.copyOf(this.entryNext, this.entryNext.length * 2);
+        }
+
+        int entry = this.entryCount++;
+        this.entryProxy[entry] = proxy;
+        this.entryNext[entry] = this.cellHead[slot];
+        this.cellHead[slot] = entry;
+    }
+
+    /**
+     * Finds the slot of a cell, or the empty slot where it should be placed (linear probing)
+     */
+    private int findSlot(int x, int y) {
+        long key = key(x, y);
+        int mask = this.cellKeys.length - 1;
+        int slot = hash(x, y) & mask;
+
+        while (this.cellStamp[slot] == this.stamp && this.cellKeys[slot] != key)
+            slot = (slot + 1) & mask;
+
+        return slot;
+    }
+
+    /**
+     * Doubles the cell table, re-inserting the cells used this frame
+     */
+    private void growCells() {
+        long[] oldKeys = this.cellKeys;
+        int[] oldX = this.cellX;
+        int[] oldY = this.cellY;
+        int[] oldHead = this.cellHead;
+        int[] oldUsed = Arrays.copyOf(this.usedCells, this.usedCellCount);
+
+        int length = oldKeys.length * 2;
+        this.cellKeys = new long[length];
+        this.cellX = new int[length];
+        this.cellY = new int[length];
+        this.cellHead = new int[length];
+        this.cellStamp = new int[length];
+
+        for (int i = 0; i < oldUsed.length; i++) {
+            int oldSlot = oldUsed[i];
+            int slot = this.findSlot(oldX[oldSlot], oldY[oldSlot]);
+
+            this.cellStamp[slot] = this.stamp;
+            this.cellKeys[slot] = oldKeys[oldSlot];
+            this.cellX[slot] = oldX[oldSlot];
+            this.cellY[slot] = oldY[oldSlot];
+            this.cellHead[slot] = oldHead[oldSlot];
+            this.usedCells[i] = slot;
+        }
+    }
+
+    private static long key(int x, int y) {
+        return ((long) x << 32) | (y & 0xffffffffL);
+    }
+
+    private static int hash(int x, int y) {
+        int h = x * 73856093 ^ y * 19349663;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,129 @@
+package pxp.engine.data;
+
+import java.util.Arrays;
+
+/**
+ * A Curve maps a time from 0 to 1 to a value, interpolating linearly between keys (i.e.: the size of a particle over its
+ * lifetime).<br/>
+ * The curve is sampled into a lookup table whenever its keys change, so evaluating it is a single array read.
+ */
+public class Curve
+{
+    /**
+     * The amount of samples of the lookup table
+     */
+    private static final int SAMPLES = 64;
+
+    /**
+     * The times of the keys, ordered (the first keyCount are used)
+     */
+    private float[] times = new float[4];
+    /**
+     * The values of the keys
+     */
+    private float[] values = new float[4];
+    /**
+     * The amount of keys
+     */
+    private int keyCount = 0;
+    /**
+     * The sampled values (null if the keys changed since sampling)
+     */
+    private float[] samples = null;
+
+    /**
+     * Creates a curve without keys (always 0)
+     */
+    public Curve() {}
+
+    /**
+     * Creates a curve that goes from one value to another
+     * @param from the value at time 0
+     * @param to the value at time 1
+     */
+    public Curve(float from, float to) {
+        this.addKey(0f, from);
+        this.addKey(1f, to);
+    }
+
+    /**
+     * Creates a curve that always has the same value
+     * @param value the value
+     */
+    public static Curve constant(float value) {
+        return new Curve(value, value);
+    }
+
+    /**
+     * Adds a key to the curve (replacing the key at the same time, if any)
+     * @param time the time of the key (0 to 1)
+     * @param value the value at that time
+     * @return this curve (for chaining)
+     */
+    public Curve addKey(float time, float value) {
+        if (time < 0f || time > 1f)
+            throw new IllegalArgumentException("The time of a key must be between 0 and 1 (was " + time + ")");
+
+        int i = 0;
+        while (i < this.keyCount && this.times[i] < time)
+            i++;
+
+        if (i == this.keyCount || this.times[i] != time) {
+            if (this.keyCount == this.times.length) {
+                this.times = Arrays.copyOf(this.times, this.keyCount * 2);
+                this.values = Arrays.copyOf(this.values, this.keyCount * 2);
+            }
+
+            // make room for the key
+            System.arraycopy(this.times, i, this.times, i + 1, this.keyCount - i);
+            System.arraycopy(this.values, i, this.values, i + 1, this.keyCount - i);
+            this.times[i] = time;
+            this.keyCount++;
+        }
+
+        this.values[i] = value;
+
+        this.samples = null;
+        return this;
+    }
+
+    /**
+     * Gets the value of the curve at a time
+     * @param time the time (0 to 1, clamped)
+     */
+    public float evaluate(float time) {
+        if (this.samples == null)
+            this.sample();
+
+        int index = (int) (time * (SAMPLES - 1) + 0.5f);
+        return this.samples[index < 0 ? 0 : (index >= SAMPLES ? SAMPLES - 1 : index)];
+    }
+
+    /**
+     * Gets the exact value of the curve at a time (without the lookup table)
+     * @param time the time (0 to 1)
+     */
+    public float evaluateExact(float time) {
+        if (this.keyCount == 0)
+            return 0f;
+
+        if (time <= this.times[0])
+            return this.values[0];
+
+        for (int i = 1; i < this.keyCount; i++)
+            if (time <= this.times[i]) {
+                float t = (time - this.times[i - 1]) / (this.times[i] - this.times[i - 1]);
+                return this.values[i - 1] + (this.values[i] - this.values[i - 1]) * t;
+            }
+
+        return this.values[this.keyCount - 1];
+    }
+
+    private void sample() {
+        float[] samples = new float[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++)
+            samples[i] = this.evaluateExact(i / (float) (SAMPLES - 1));
+
+        this.samples = samples;
+    }
+}
@@ -0,0 +1,31 @@
+package pxp.engine.data;
+
+import pxp.engine.core.component.ParticleSystem;
+
+/**
+ * The shape particles are emitted from, relative to the transform of the particle system
+ * @see ParticleSystem#shape
+ */
+public enum EmissionShape
+{
+    /**
+     * From the position of the transform, in every direction
+     */
+    POINT,
+    /**
+     * From inside a circle (of radius {@link ParticleSystem#shapeSize}.x), away from its center
+     */
+    CIRCLE,
+    /**
+     * From the edge of a circle (of radius {@link ParticleSystem#shapeSize}.x), away from its center
+     */
+    CIRCLE_EDGE,
+    /**
+     * From inside a box (of size {@link ParticleSystem#shapeSize}), in every direction
+     */
+    BOX,
+    /**
+     * From the position of the transform, in a cone (of {@link ParticleSystem#coneAngle} degrees) pointing up
+     */
+    CONE;
+}
@@ -2,7 +2,9 @@ package pxp.engine.data;
 
 import pxp.engine.data.assets.AssetManager;
 import pxp.engine.data.assets.SpriteAsset;
+import pxp.engine.data.collision.BroadphaseType;
 import pxp.engine.data.ui.Cursor;
+import pxp.logging.MetricsExporter;
 import pxp.util.Pair;
 
 import java.util.ArrayList;
@@ -26,10 +28,32 @@ public class GameSettings
      * The desired FPS (not guaranteed, depends on hardware)
      */
     public int targetFPS = 60;
+    /**
+     * Whether the game is simulated (updates, collisions and routines) in ticks of a fixed duration, decoupled from
+     * the frame rate. A frame simulates as many ticks as the time since the last frame covers (possibly none), so the
+     * results of the simulation don't depend on the frame rate.<br/>
+     * <i>Use {@link pxp.engine.core.Time#alpha} to interpolate the rendering between ticks</i>
+     */
+    public boolean fixedTimestep = false;
+    /**
+     * The amount of simulation ticks per second (when using a {@link GameSettings#fixedTimestep})
+     */
+    public int tickRate = 50;
+    /**
+     * The maximum amount of ticks simulated in a single frame (when using a {@link GameSettings#fixedTimestep}).<br/>
+     * If a frame takes longer than that, the remaining time is dropped and the simulation slows down, instead of
+     * needing more and more ticks to catch up
+     */
+    public int maxSubsteps = 5;
     /**
      * Whether the game should play in fullscreen
      */
     public boolean fullscreen = false;
+    /**
+     * Whether the game runs without a window, stepped by a {@link pxp.engine.core.HeadlessRunner} instead of Processing
+     * (nothing is rendered)
+     */
+    public boolean headless = false;
 
     /**
      * The default cursor to use<br/>
@@ -52,12 +76,42 @@ public class GameSettings
      */
     public TextureFilter textureFilter = TextureFilter.POINT;
 
+    /**
+     * Whether consecutive sprites (in the same sorting layer order) that share the same image, blend mode and tint are
+     * drawn at once, as a single shape, instead of one by one<br/>
+     * <i>Sprites are never reordered, so keeping the sprites of a sprite sheet next to each other (with the order in layer) makes the batches bigger</i>
+     * @see pxp.engine.core.SpriteBatch
+     */
+    public boolean spriteBatching = false;
+
+    /**
+     * Whether renderers outside the view of the camera are skipped when rendering (only renderers with known bounds,
+     * such as sprites, can be skipped)
+     * @see pxp.engine.core.CameraCulling
+     */
+    public boolean cameraCulling = true;
+
     /**
      * The sorting layers, in the desired order of rendering<br/>
      * Should contain a "Default" layer (placed anywhere). If one is not present, one will be inserted at the 0th index.
      */
     public String[] sortingLayers = new String[] { "Default" };
 
+    /**
+     * The sorting layers that rarely change (i.e.: backgrounds, scenery), which are rendered once into an image and only
+     * re-rendered when one of their game objects changes or the camera moves past the margin<br/>
+     * <i>Only the position, size and look of the game objects are checked for changes, renderers that draw something else
+     * must mark their layer as changed ({@link pxp.engine.core.Scene#markStaticLayerDirty(String)})</i>
+     * @see pxp.engine.core.StaticLayerCache
+     */
+    public String[] staticSortingLayers = new String[0];
+
+    /**
+     * How much bigger than the view of the camera the images of the static sorting layers are, on each side (as a
+     * fraction of the view), so that the camera can move that much before they are re-rendered
+     */
+    public float staticLayerMargin = 0.25f;
+
     /**
      * The layers of the game, assignable to game objects<br/>
      * Used for collisions and physics<br/>
@@ -73,11 +127,94 @@ public class GameSettings
      */
     public List<Pair<String, String>> ignoreCollisionLayers = new ArrayList<>();
 
+    /**
+     * The broadphase used to find the colliders that might collide, before hit testing them<br/>
+     * <i>{@link BroadphaseType#BRUTE_FORCE} hit tests everything against everything and should only be used as a reference</i>
+     */
+    public BroadphaseType broadphase = BroadphaseType.SPATIAL_HASH;
+
+    /**
+     * The size (in world units) of a cell of the {@link BroadphaseType#SPATIAL_HASH} broadphase<br/>
+     * Should be a bit bigger than most colliders of the game
+     */
+    public float collisionCellSize = 2f;
+
+    /**
+     * The amount of frames a collider has to stand still before falling asleep (0 to never sleep)<br/>
+     * Sleeping colliders aren't tested against static or other sleeping colliders, until they move or are touched<br/>
+     * <i>The shape of a sleeping collider isn't rebuilt, so changing its size, offset, rotation or scale requires
+     * {@link pxp.engine.core.component.Collider#refreshShape()}</i>
+     */
+    public int collisionSleepFrames = 0;
+
+    /**
+     * Whether the hit tests of the pairs found by the broadphase run on multiple threads<br/>
+     * All pairs are tested against the shapes as they were before any position correction of the frame, then the events
+     * and corrections are dispatched on the game thread, sorted by collider, so the results don't depend on the amount of threads
+     */
+    public boolean parallelNarrowphase = false;
+
+    /**
+     * The amount of threads used by the {@link GameSettings#parallelNarrowphase} (0 uses all available processors)
+     */
+    public int narrowphaseThreads = 0;
+
     /**
      * Forces the game to draw Gizmos, no matter component preference
      */
     public boolean forceDrawGizmos = false;
 
+    /**
+     * Whether the assets are loaded on worker threads while the game runs, instead of before the first scene loads<br/>
+     * <i>The first scene is then a loading scene: it must not use any asset until {@link AssetManager#getLoader()} is done</i>
+     * @see pxp.engine.data.assets.AssetLoader
+     */
+    public boolean asyncAssetLoading = false;
+
+    /**
+     * The amount of worker threads that load the assets (0 to use all available processors)
+     */
+    public int assetLoadingThreads = 0;
+
+    /**
+     * Whether the frame profiler records the timings of every frame from the start (it can also be enabled later)
+     * @see pxp.engine.core.FrameProfiler
+     */
+    public boolean profiler = false;
+
+    /**
+     * Whether the overlay of the frame profiler is drawn from the start (enables the profiler)
+     */
+    public boolean profilerOverlay = false;
+
+    /**
+     * The amount of frames the frame profiler keeps
+     */
+    public int profilerFrames = 300;
+
+    /**
+     * Whether the engine records its metrics (frame rate, frame times, scene counts, collisions, routines, memory) into
+     * the default {@link pxp.logging.Metrics} registry
+     * @see pxp.engine.core.EngineMetrics
+     */
+    public boolean metrics = false;
+
+    /**
+     * The file the metrics are exported to (relative to the working directory), or null to not export them
+     * (requires {@link GameSettings#metrics})
+     */
+    public String metricsFile = null;
+
+    /**
+     * The format of the exported metrics
+     */
+    public MetricsExporter.Format metricsFormat = MetricsExporter.Format.JSON_LINES;
+
+    /**
+     * The time between exports of the metrics, in seconds
+     */
+    public float metricsInterval = 10f;
+
     /**
      * Creates a new GameSettings structure, it is preferred to use an initializer, i.e: <br/>
      * <code>new GameSettings() {{ size = ...; targetFPS = ...; }}</code>
@@ -0,0 +1,149 @@
+package pxp.engine.data;
+
+import java.util.Arrays;
+
+/**
+ * A Gradient maps a time from 0 to 1 to a color, interpolating each channel linearly between keys (i.e.: the color of a
+ * particle over its lifetime).<br/>
+ * The gradient is sampled into a lookup table (of ARGB hexes) whenever its keys change, so evaluating it is a single
+ * array read.
+ */
+public class Gradient
+{
+    /**
+     * The amount of samples of the lookup table
+     */
+    private static final int SAMPLES = 64;
+
+    /**
+     * The times of the keys, ordered (the first keyCount are used)
+     */
+    private float[] times = new float[4];
+    /**
+     * The colors of the keys (ARGB hexes)
+     */
+    private int[] colors = new int[4];
+    /**
+     * The amount of keys
+     */
+    private int keyCount = 0;
+    /**
+     * The sampled colors (null if the keys changed since sampling)
+     */
+    private int[] samples = null;
+
+    /**
+     * Creates a gradient without keys (always white)
+     */
+    public Gradient() {}
+
+    /**
+     * Creates a gradient that goes from one color to another
+     * @param from the color at time 0
+     * @param to the color at time 1
+     */
+    public Gradient(Color from, Color to) {
+        this.addKey(0f, from);
+        this.addKey(1f, to);
+    }
+
+    /**
+     * Adds a key to the gradient (replacing the key at the same time, if any)
+     * @param time the time of the key (0 to 1)
+     * @param color the color at that time
+     * @return this gradient (for chaining)
+     */
+    public Gradient addKey(float time, Color color) {
+        if (time < 0f || time > 1f)
+            throw new IllegalArgumentException("The time of a key must be between 0 and 1 (was " + time + ")");
+
+        int i = 0;
+        while (i < this.keyCount && this.times[i] < time)
+            i++;
+
+        if (i == this.keyCount || this.times[i] != time) {
+            if (this.keyCount == this.times.length) {
+                this.times = Arrays.copyOf(this.times, this.keyCount * 2);
+                this.colors = Arrays.copyOf(this.colors, this.keyCount * 2);
+            }
+
+            // make room for the key
+            System.arraycopy(this.times, i, this.times, i + 1, this.keyCount - i);
+            System.arraycopy(this.colors, i, this.colors, i + 1, this.keyCount - i);
+            this.times[i] = time;
+            this.keyCount++;
+        }
+
+        this.colors[i] = color.getHex();
+
+        this.samples = null;
+        return this;
+    }
+
+    /**
+     * Gets the color of the gradient at a time
+     * @param time the time (0 to 1, clamped)
+     * @return the ARGB hex of the color
+     */
+    public int evaluate(float time) {
+        if (this.samples == null)
+            this.sample();
+
+        int index = (int) (time * (SAMPLES - 1) + 0.5f);
+        return this.samples[index < 0 ? 0 : (index >= SAMPLES ? SAMPLES - 1 : index)];
+    }
+
+    /**
+     * Gets the exact color of the gradient at a time (without the lookup table)
+     * @param time the time (0 to 1)
+     * @return the ARGB hex of the color
+     */
+    public int evaluateExact(float time) {
+        if (this.keyCount == 0)
+            return 0xFFFFFFFF;
+
+        if (time <= this.times[0])
+            return this.colors[0];
+
+        for (int i = 1; i < this.keyCount; i++)
+            if (time <= this.times[i]) {
+                float t = (time - this.times[i - 1]) / (this.times[i] - this.times[i - 1]);
+                return lerp(this.colors[i - 1], this.colors[i], t);
+            }
+
+        return this.colors[this.keyCount - 1];
+    }
+
+    /**
+     * Multiplies two ARGB hexes, channel by channel
+     */
+    public static int multiply(int a, int b) {
+        int alpha = ((a >>> 24) * (b >>> 24) + 127) / 255;
+        int red = (((a >> 16) & 0xFF) * ((b >> 16) & 0xFF) + 127) / 255;
+        int green = (((a >> 8) & 0xFF) * ((b >> 8) & 0xFF) + 127) / 255;
+        int blue = ((a & 0xFF) * (b & 0xFF) + 127) / 255;
+        return (alpha << 24) | (red << 16) | (green << 8) | blue;
+    }
+
+    /**
+     * Interpolates between two ARGB hexes, channel by channel
+     */
+    private static int lerp(int a, int b, float t) {
+        int result = 0;
+        for (int shift = 0; shift < 32; shift += 8) {
+            int from = (a >>> shift) & 0xFF;
+            int to = (b >>> shift) & 0xFF;
+            result |= Math.round(from + (to - from) * t) << shift;
+        }
+
+        return result;
+    }
+
+    private void sample() {
+        int[] samples = new int[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++)
+            samples[i] = this.evaluateExact(i / (float) (SAMPLES - 1));
+
+        this.samples = samples;
+    }
+}
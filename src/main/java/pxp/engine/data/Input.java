@@ -67,6 +67,15 @@ public class Input
      */
     public float scrollAmount = 0f;
 
+    /**
+     * Whether a simulation tick of this frame already saw the clicks and scrolling (the next ticks of the frame don't)
+     */
+    private boolean tickConsumed = false;
+    /**
+     * Whether the fixed updates of a tick are running
+     */
+    private boolean ticking = false;
+
 
     private Input(GameProcess process) {
         inputInstances.put(process.hashCode(), this);
@@ -108,7 +117,7 @@ public class Input
      * @return whether the mouse button is clicked
      */
     public boolean _getMouseButtonClick(MouseButton mouseButton) {
-        return mouseButtonsClicked[mouseButton.ordinal()] != null;
+        return !this.isConsumed() && mouseButtonsClicked[mouseButton.ordinal()] != null;
     }
 
     /**
@@ -128,6 +137,30 @@ public class Input
         mouseButtonsClicked = new MouseButton[MouseButton.values().length];
         scrollAmount = 0;
         isScrolling = false;
+        tickConsumed = false;
+    }
+
+    /**
+     * [Internal] Marks the clicks and scrolling of this frame as seen by a simulation tick, so that the next ticks of
+     * the frame don't see them again (the updates of the frame still do)
+     */
+    public void _consumeTick() {
+        tickConsumed = true;
+    }
+
+    /**
+     * [Internal] Sets whether the fixed updates of a tick are running
+     * @param ticking whether a tick is running
+     */
+    public void _setTicking(boolean ticking) {
+        this.ticking = ticking;
+    }
+
+    /**
+     * Whether the clicks and scrolling are hidden (from the ticks after the first one of the frame)
+     */
+    private boolean isConsumed() {
+        return ticking && tickConsumed;
     }
 
 
@@ -137,13 +170,15 @@ public class Input
      * Whether the scroll wheel is being used this frame
      */
     public static boolean isScrolling() {
-        return getDefault().isScrolling;
+        Input input = getDefault();
+        return !input.isConsumed() && input.isScrolling;
     }
     /**
      * How much scrolling is being done this frame
      */
     public static float getScrollAmount() {
-        return getDefault().scrollAmount;
+        Input input = getDefault();
+        return input.isConsumed() ? 0f : input.scrollAmount;
     }
 
     /**
@@ -197,4 +232,20 @@ public class Input
     public static void reset() {
         getDefault()._reset();
     }
+
+    /**
+     * [Internal] Marks the clicks and scrolling of this frame as seen by a simulation tick
+     * @see Input#_consumeTick()
+     */
+    public static void consumeTick() {
+        getDefault()._consumeTick();
+    }
+
+    /**
+     * [Internal] Sets whether the fixed updates of a tick are running
+     * @see Input#_setTicking(boolean)
+     */
+    public static void setTicking(boolean ticking) {
+        getDefault()._setTicking(ticking);
+    }
 }
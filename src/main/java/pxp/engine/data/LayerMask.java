@@ -10,8 +10,30 @@ import java.util.List;
  */
 public class LayerMask
 {
+    /**
+     * A mask that contains all layers
+     */
+    public static final int EVERYTHING = ~0;
+    /**
+     * A mask that contains no layers
+     */
+    public static final int NOTHING = 0;
+
     public int mask;
 
+    /**
+     * Creates an empty layer mask
+     */
+    public LayerMask() { }
+
+    /**
+     * Creates a layer mask given the raw mask (bit n is set if the mask contains layer n)
+     * @see LayerMask#create(String...)
+     */
+    public LayerMask(int mask) {
+        this.mask = mask;
+    }
+
     public boolean hasLayer(int layer) {
         return this.mask == (this.mask | 1 << layer);
     }
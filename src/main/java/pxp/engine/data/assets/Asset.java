@@ -25,6 +25,34 @@ public abstract class Asset implements Cloneable
      */
     protected abstract void load(PApplet processing);
 
+    /**
+     * Whether the heavy part of loading (reading and decoding the file) can run on a worker thread
+     * @see AssetLoader
+     */
+    protected boolean canLoadAsync() {
+        return false;
+    }
+
+    /**
+     * Prepares what the asset needs from the game thread (i.e.: shared state of a library that isn't thread safe),
+     * before any worker starts (only called if {@link Asset#canLoadAsync()})
+     */
+    protected void prepareAsync(PApplet processing) { }
+
+    /**
+     * Reads and decodes the asset on a worker thread (only called if {@link Asset#canLoadAsync()}), before
+     * {@link Asset#finishLoad(PApplet)} runs on the game thread
+     */
+    protected void loadAsync(PApplet processing) { }
+
+    /**
+     * Finishes loading the asset on the game thread, after {@link Asset#loadAsync(PApplet)} (by default, the whole asset
+     * is loaded here)
+     */
+    protected void finishLoad(PApplet processing) {
+        this.load(processing);
+    }
+
     @Override
     public Asset clone() {
         try {
@@ -0,0 +1,278 @@
+package pxp.engine.data.assets;
+
+import processing.core.PApplet;
+import processing.core.PImage;
+import processing.opengl.PGraphicsOpenGL;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * The Asset Loader loads assets without freezing the game: the files are read and decoded (images, sounds, fonts) on a
+ * pool of worker threads, while the game keeps running. What must happen on the game thread (finishing the assets,
+ * packing the texture atlas, uploading the images to the GPU) is done a bit every frame, within a time budget.<br/>
+ * Assets that can't be loaded on a worker thread (i.e.: custom assets) are loaded on the game thread, one at a time.<br/>
+ * The future completes (and the progress callbacks run) on the game thread, so they can change scenes:
+ * <pre>
+ * // the first scene shows the progress, without using any asset that isn't loaded yet
+ * AssetManager.getLoader().getFuture().thenRun(() -> GameProcess.getInstance().setScene(1));
+ * </pre>
+ * @see AssetManager#loadAsync(int)
+ * @see pxp.engine.data.GameSettings#asyncAssetLoading
+ */
+public class AssetLoader
+{
+    private final AssetManager manager;
+    private final PApplet processing;
+    private final int threads;
+
+    /**
+     * The assets to load
+     */
+    private final List<Asset> assets;
+    /**
+     * The assets decoded by the workers, waiting to be finished on the game thread
+     */
+    private final Queue<Asset> decoded = new ConcurrentLinkedQueue<>();
+    /**
+     * The assets loaded entirely on the game thread
+     */
+    private final Queue<Asset> synchronous = new ArrayDeque<>();
+    /**
+     * The first failure of a worker (rethrown on the game thread)
+     */
+    private volatile RuntimeException failure = null;
+    private ExecutorService workers = null;
+
+    /**
+     * The amount of finished assets (read from any thread)
+     */
+    private final AtomicInteger finished = new AtomicInteger();
+    /**
+     * The images left to upload to the GPU (after the atlas is packed), or null before
+     */
+    private List<PImage> uploads = null;
+    private int uploaded = 0;
+
+    private final CompletableFuture<Void> future = new CompletableFuture<>();
+    private final List<Consumer<Float>> progressCallbacks = new ArrayList<>();
+
+    /**
+     * [Internal] Creates a loader (see {@link AssetManager#loadAsync(int)})
+     * @param manager the asset manager the assets belong to
+     * @param processing the PApplet to load with
+     * @param assets the assets to load
+     * @param threads the amount of worker threads (0 to use all available processors)
+     */
+    AssetLoader(AssetManager manager, PApplet processing, List<Asset> assets, int threads) {
+        this.manager = manager;
+        this.processing = processing;
+        this.assets = assets;
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * [Internal] Creates a loader that has nothing left to load
+     */
+    static AssetLoader completed(AssetManager manager, PApplet processing) {
+        AssetLoader loader = new AssetLoader(manager, processing, Collections.emptyList(), 1);
+        loader.uploads = Collections.emptyList();
+        loader.future.complete(null);
+        return loader;
+    }
+
+    /**
+     * [Internal] Starts decoding the assets on the workers
+     */
+    void start() {
+        AtomicInteger count = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(this.threads, run -> {
+            Thread thread = new Thread(run, "PXP Asset Loader " + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // everything is prepared on the game thread before any worker starts
+        for (Asset asset : this.assets) {
+            if (!asset.canLoadAsync())
+                this.synchronous.add(asset);
+            else
+                asset.prepareAsync(this.processing);
+        }
+
+        for (Asset asset : this.assets) {
+            if (!asset.canLoadAsync())
+                continue;
+
+            this.workers.execute(() -> {
+                if (this.failure != null)
+                    return;
+
+                try {
+                    asset.loadAsync(this.processing);
+                    this.decoded.add(asset);
+                }
+                catch (Throwable e) {
+                    // errors too, otherwise the asset would never finish and the loader would wait forever
+                    this.failure = new RuntimeException("The asset " + asset.path + " could not be loaded.", e);
+                }
+            });
+        }
+
+        // the submitted assets still load, then the threads end
+        this.workers.shutdown();
+    }
+
+    /**
+     * [Internal] Finishes the decoded assets on the game thread, until a time budget runs out (at least one step is
+     * always done, so loading can't stall)
+     * @param budget the time budget in nanoseconds
+     * @return whether loading is done
+     * @throws RuntimeException if an asset couldn't be loaded (the future completes with the same exception)
+     */
+    public boolean update(long budget) {
+        if (this.future.isDone())
+            return true;
+
+        long start = System.nanoTime();
+        try {
+            do {
+                if (!this.step())
+                    break;
+            } while (System.nanoTime() - start < budget);
+        }
+        catch (RuntimeException | Error e) {
+            this.workers.shutdownNow();
+            this.future.completeExceptionally(e);
+            throw e;
+        }
+
+        return this.future.isDone();
+    }
+
+    /**
+     * Does a single step of loading on the game thread
+     * @return whether there may be more to do right away
+     */
+    private boolean step() {
+        if (this.failure != null)
+            throw this.failure;
+
+        // finish an asset
+        Asset asset = this.decoded.poll();
+        if (asset == null)
+            asset = this.synchronous.poll();
+
+        if (asset != null) {
+            asset.finishLoad(this.processing);
+            this.finished.incrementAndGet();
+            this.notifyProgress();
+            return true;
+        }
+
+        // waiting for the workers
+        if (this.finished.get() < this.assets.size())
+            return false;
+
+        // all assets are loaded, the sprites can be packed
+        if (this.uploads == null) {
+            this.manager.packAtlas(this.processing);
+            this.uploads = this.findUploads();
+            return true;
+        }
+
+        if (this.uploaded < this.uploads.size()) {
+            // creates the texture of the image
+            ((PGraphicsOpenGL) this.processing.g).getTexture(this.uploads.get(this.uploaded++));
+            return true;
+        }
+
+        this.future.complete(null);
+        this.notifyProgress();
+        return false;
+    }
+
+    /**
+     * Finds the images of the sprites (after packing), which are uploaded to the GPU when using OpenGL
+     */
+    private List<PImage> findUploads() {
+        if (!(this.processing.g instanceof PGraphicsOpenGL))
+            return Collections.emptyList();
+
+        // sprite sheets, sub sprites and atlas pages share their images, which are only uploaded once
+        Set<PImage> images = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<PImage> uploads = new ArrayList<>();
+        for (Asset asset : this.assets)
+            if (asset instanceof SpriteAsset sprite && sprite.getPImage() != null && images.add(sprite.getPImage()))
+                uploads.add(sprite.getPImage());
+
+        return uploads;
+    }
+
+    private void notifyProgress() {
+        float progress = this.getProgress();
+        for (Consumer<Float> callback : this.progressCallbacks)
+            callback.accept(progress);
+    }
+
+    /**
+     * Adds a callback for when the progress changes (called on the game thread)
+     * @param callback called with the progress, from 0 to 1
+     * @return this loader (for chaining)
+     */
+    public AssetLoader onProgress(Consumer<Float> callback) {
+        this.progressCallbacks.add(callback);
+        return this;
+    }
+
+    /**
+     * Gets the future that completes when all assets are loaded (on the game thread), or with the exception that stopped
+     * the loading
+     */
+    public CompletableFuture<Void> getFuture() {
+        return this.future;
+    }
+
+    /**
+     * Gets how much of the loading is done, from 0 to 1 (every asset counts the same, and packing and uploading the
+     * sprites counts as one more asset)
+     */
+    public float getProgress() {
+        if (this.future.isDone())
+            return 1f;
+
+        return this.finished.get() / (this.assets.size() + 1f);
+    }
+
+    /**
+     * Gets the amount of assets finished
+     */
+    public int getLoadedCount() {
+        return this.finished.get();
+    }
+
+    /**
+     * Gets the amount of assets to load
+     */
+    public int getTotalCount() {
+        return this.assets.size();
+    }
+
+    /**
+     * Whether loading is over: all assets are loaded (and the sprites packed and uploaded), or an asset failed to load
+     */
+    public boolean isDone() {
+        return this.future.isDone();
+    }
+}
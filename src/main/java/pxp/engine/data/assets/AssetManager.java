@@ -2,9 +2,18 @@ package pxp.engine.data.assets;
 
 import pxp.engine.core.GameProcess;
 import processing.core.PApplet;
+import processing.core.PImage;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 
 /**
  * The AssetManager manages assets like images (sprites, sprite sheets) or sounds<br/>
@@ -44,6 +53,32 @@ public class AssetManager
      * Whether the assets were loaded into memory
      */
     private boolean loaded = false;
+    /**
+     * The loader of the assets, if they are loaded asynchronously
+     */
+    private AssetLoader loader = null;
+
+    // texture atlas
+    /**
+     * The width and height of the atlas pages (0 if sprites aren't packed into an atlas)
+     */
+    private int atlasPageSize = 0;
+    /**
+     * The amount of pixels around each sprite in the atlas
+     */
+    private int atlasPadding = 0;
+    /**
+     * The path the atlas layout is saved to (in the sketch folder), or null if it isn't saved
+     */
+    private String atlasLayoutPath = null;
+    /**
+     * The names of the sprites that aren't packed into the atlas
+     */
+    private Set<String> atlasExcluded = new HashSet<>();
+    /**
+     * The texture atlas the sprites were packed into (after loading)
+     */
+    private TextureAtlas atlas = null;
 
     /**
      * Creates a sprite asset which will be loaded once when the game starts and kept in memory until the process is terminated
@@ -174,6 +209,46 @@ public class AssetManager
         return getInstance()._getSpriteFromSheet(name, index);
     }
 
+    /**
+     * Packs the sprites into texture atlases when the assets are loaded, so that sprites from different files share the
+     * same textures (sprite sheets are packed whole, their sub sprites follow them)
+     * @param pageSize the width and height of the atlas pages (sprites bigger than a page are not packed)
+     * @param padding the amount of pixels around each sprite (repeating its edges)
+     * @see TextureAtlas
+     */
+    public static void useAtlas(int pageSize, int padding) {
+        getInstance()._useAtlas(pageSize, padding, null);
+    }
+
+    /**
+     * Packs the sprites into texture atlases when the assets are loaded, so that sprites from different files share the
+     * same textures (sprite sheets are packed whole, their sub sprites follow them).<br/>
+     * The layout of the atlas is saved, so later startups only pack the sprites again if they changed
+     * @param pageSize the width and height of the atlas pages (sprites bigger than a page are not packed)
+     * @param padding the amount of pixels around each sprite (repeating its edges)
+     * @param layoutPath the path to save the layout to (in the sketch folder)
+     * @see TextureAtlas
+     */
+    public static void useAtlas(int pageSize, int padding, String layoutPath) {
+        getInstance()._useAtlas(pageSize, padding, layoutPath);
+    }
+
+    /**
+     * Keeps sprites out of the texture atlas (i.e.: big backgrounds or images that are read pixel by pixel)
+     * @param names the unique names of the sprite assets
+     */
+    public static void excludeFromAtlas(String... names) {
+        getInstance()._excludeFromAtlas(names);
+    }
+
+    /**
+     * Retrieves the texture atlas the sprites were packed into
+     * @return the texture atlas, or null if the sprites aren't packed (or weren't loaded yet)
+     */
+    public static TextureAtlas getAtlas() {
+        return getInstance().atlas;
+    }
+
     /**
      * [Internal] Loads the assets into memory (can only happen once per asset manager)
      */
@@ -189,6 +264,79 @@ public class AssetManager
         this.loaded = true;
         for (Asset asset : this.assets.values())
             asset.load(processing);
+
+        this.packAtlas(processing);
+    }
+
+    /**
+     * Starts loading the assets on worker threads, without freezing the game (can only happen once per asset manager)
+     * @param threads the amount of worker threads (0 to use all available processors)
+     * @return the loader, to follow the progress with
+     * @see AssetLoader
+     */
+    public static AssetLoader loadAsync(int threads) {
+        return AssetManager.getInstance().loadAsync(GameProcess.getInstance(), threads);
+    }
+    /**
+     * Starts loading the assets on worker threads given a specific processing PApplet (can only happen once per asset manager)
+     * @param processing the PApplet to load with (its graphics must be set up)
+     * @param threads the amount of worker threads (0 to use all available processors)
+     * @return the loader, to follow the progress with (an already done one, if the assets were loaded before)
+     */
+    public AssetLoader loadAsync(PApplet processing, int threads) {
+        if (this.loader != null)
+            return this.loader;
+
+        if (this.loaded)
+            this.loader = AssetLoader.completed(this, processing);
+        else {
+            this.loaded = true;
+            this.loader = new AssetLoader(this, processing, new ArrayList<>(this.assets.values()), threads);
+            this.loader.start();
+        }
+
+        return this.loader;
+    }
+
+    /**
+     * Gets the loader of the assets, if they are loaded asynchronously
+     * @return the loader or null
+     */
+    public static AssetLoader getLoader() {
+        return getInstance().loader;
+    }
+
+    /**
+     * [Internal] Packs the loaded sprites into the texture atlas, reading the saved layout if the sprites didn't change
+     */
+    void packAtlas(PApplet processing) {
+        if (this.atlasPageSize <= 0)
+            return;
+
+        // sorted by name, so that the layout is the same every startup
+        Map<String, SpriteAsset> sprites = new TreeMap<>();
+        this.assets.forEach((name, asset) -> {
+            if (!(asset instanceof SpriteAsset) || this.atlasExcluded.contains(name))
+                return;
+
+            SpriteAsset sprite = (SpriteAsset) asset;
+            if (!sprite.isSubSprite && sprite.getPImage() != null)
+                sprites.put(name, sprite);
+        });
+
+        if (sprites.isEmpty())
+            return;
+
+        File layout = this.atlasLayoutPath == null ? null : new File(processing.sketchPath(this.atlasLayoutPath));
+        TextureAtlas atlas = layout == null ? null : TextureAtlas.read(layout);
+        if (atlas == null || !atlas.matches(sprites, this.atlasPageSize, this.atlasPadding)) {
+            atlas = TextureAtlas.pack(sprites, this.atlasPageSize, this.atlasPadding);
+            if (layout != null)
+                atlas.save(layout);
+        }
+
+        atlas.build(processing, sprites);
+        this.atlas = atlas;
     }
 
 
@@ -313,6 +461,30 @@ public class AssetManager
         assets.put(name, asset);
     }
 
+    /**
+     * Packs the sprites into texture atlases when the assets are loaded
+     * @param pageSize the width and height of the atlas pages (sprites bigger than a page are not packed)
+     * @param padding the amount of pixels around each sprite (repeating its edges)
+     * @param layoutPath the path to save the layout to (in the sketch folder), or null to always pack the sprites
+     * @see AssetManager#useAtlas(int, int, String)
+     */
+    public void _useAtlas(int pageSize, int padding, String layoutPath) {
+        if (pageSize <= 0 || padding < 0)
+            throw new IllegalArgumentException("The atlas page size must be positive and the padding can't be negative");
+
+        this.atlasPageSize = pageSize;
+        this.atlasPadding = padding;
+        this.atlasLayoutPath = layoutPath;
+    }
+
+    /**
+     * Keeps sprites out of the texture atlas
+     * @param names the unique names of the sprite assets
+     */
+    public void _excludeFromAtlas(String... names) {
+        this.atlasExcluded.addAll(Arrays.asList(names));
+    }
+
     /**
      * Checks the name of an asset against the stored assets to check for it to be unique
      * @param name the name to check
@@ -357,6 +529,25 @@ public class AssetManager
         return this._get(DEFAULT_FONT, FontAsset.class);
     }
 
+    /**
+     * Estimates the memory used by the pixels of the loaded sprites (in instance)
+     * @return the size in bytes
+     */
+    public long _getImageMemory() {
+        // sprite sheets, sub sprites and atlas pages share their images, which are only counted once
+        Set<PImage> images = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Asset asset : this.assets.values()) {
+            if (asset instanceof SpriteAsset sprite && sprite.getPImage() != null)
+                images.add(sprite.getPImage());
+        }
+
+        long bytes = 0;
+        for (PImage image : images)
+            bytes += (long) image.pixelWidth * image.pixelHeight * 4;
+
+        return bytes;
+    }
+
     /**
      * Retrieves the default font (Arial)
      * @return the Arial Font
@@ -365,6 +556,14 @@ public class AssetManager
         return getInstance()._getDefaultFont();
     }
 
+    /**
+     * Estimates the memory used by the pixels of the loaded sprites (4 bytes per pixel, every image counted once)
+     * @return the size in bytes
+     */
+    public static long getImageMemory() {
+        return getInstance()._getImageMemory();
+    }
+
     // =========== SECONDARY INSTANCES ===========
 
     /**
@@ -388,6 +587,10 @@ public class AssetManager
         getInstance().assets.forEach((name, asset) -> {
             manager.assets.put(name, asset.clone());
         });
+        manager.atlasPageSize = getInstance().atlasPageSize;
+        manager.atlasPadding = getInstance().atlasPadding;
+        manager.atlasLayoutPath = getInstance().atlasLayoutPath;
+        manager.atlasExcluded.addAll(getInstance().atlasExcluded);
 
         return manager;
     }
@@ -4,6 +4,9 @@ import pxp.util.ArrayUtil;
 import processing.core.PApplet;
 import processing.core.PFont;
 
+import java.util.HashMap;
+import java.util.Map;
+
 public class FontAsset extends Asset
 {
     public static final int NORMAL = 0;
@@ -21,6 +24,11 @@ public class FontAsset extends Asset
 
     private PFont[] fonts;
 
+    /**
+     * The glyph advances measured so far, by style and text size
+     */
+    private final Map<Long, GlyphAdvances> advances = new HashMap<>();
+
     /**
      * Creates a font from names or paths of each style of the font (the fonts need to exist in the data directory if
      * they are paths or locally on the machine if they are names)<br/>
@@ -66,6 +74,7 @@ public class FontAsset extends Asset
     public void add(String... styles) {
         this.fontIds = ArrayUtil.concat(fontIds, styles);
         fonts = new PFont[fontIds.length];
+        advances.clear();
     }
 
     @Override
@@ -75,6 +84,19 @@ public class FontAsset extends Asset
                 fonts[i] = processing.createFont(fontIds[i], this.size, this.smooth);
     }
 
+    @Override
+    protected boolean canLoadAsync() {
+        return true;
+    }
+
+    @Override
+    protected void loadAsync(PApplet processing) {
+        this.load(processing);
+    }
+
+    @Override
+    protected void finishLoad(PApplet processing) { }
+
     /**
      * Retrieves the font style
      * @param style the font style
@@ -96,4 +118,22 @@ public class FontAsset extends Asset
 
         return this.fonts[style];
     }
+
+    /**
+     * Retrieves the glyph advances of a font style at a text size (created the first time they are needed)
+     * @param style the index of the style of the font
+     * @param size the text size
+     * @return the glyph advances
+     */
+    public GlyphAdvances getGlyphAdvances(int style, float size) {
+        long key = ((long) style << 32) | (Float.floatToIntBits(size) & 0xFFFFFFFFL);
+
+        GlyphAdvances glyphAdvances = this.advances.get(key);
+        if (glyphAdvances == null) {
+            glyphAdvances = new GlyphAdvances(style, size);
+            this.advances.put(key, glyphAdvances);
+        }
+
+        return glyphAdvances;
+    }
 }
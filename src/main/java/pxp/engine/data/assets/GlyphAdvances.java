@@ -0,0 +1,50 @@
+package pxp.engine.data.assets;
+
+import processing.core.PGraphics;
+
+import java.util.Arrays;
+
+/**
+ * The advances (widths) of the glyphs of a font style at a text size, measured once per character and kept by the
+ * {@link FontAsset}, so that text can be laid out without measuring strings.<br/>
+ * The characters are kept in pages of 256, created as they are used.
+ * @see FontAsset#getGlyphAdvances(int, float)
+ */
+public class GlyphAdvances
+{
+    /**
+     * The font style index and text size the advances are measured with
+     */
+    public final int style;
+    public final float size;
+
+    private final float[][] pages = new float[256][];
+
+    GlyphAdvances(int style, float size) {
+        this.style = style;
+        this.size = size;
+    }
+
+    /**
+     * Gets the advance of a character, measuring it if it wasn't measured yet
+     * @param c the character
+     * @param graphics the graphics to measure with (their font and text size must be the ones of these advances)
+     * @return the width of the character, in pixels
+     */
+    public float get(char c, PGraphics graphics) {
+        float[] page = this.pages[c >>> 8];
+        if (page == null) {
+            page = new float[256];
+            Arrays.fill(page, Float.NaN);
+            this.pages[c >>> 8] = page;
+        }
+
+        float advance = page[c & 0xFF];
+        if (Float.isNaN(advance)) {
+            advance = graphics.textWidth(c);
+            page[c & 0xFF] = advance;
+        }
+
+        return advance;
+    }
+}
@@ -1,6 +1,7 @@
 package pxp.engine.data.assets;
 
 import processing.core.PApplet;
+import processing.sound.Sound;
 import processing.sound.SoundFile;
 
 /**
@@ -29,7 +30,32 @@ public class SoundAsset extends Asset
 
     @Override
     protected void load(PApplet processing) {
-        this.sound = new SoundFile(processing, this.path);
+        this.loadAsync(processing);
+        this.finishLoad(processing);
+    }
+
+    @Override
+    protected boolean canLoadAsync() {
+        return true;
+    }
+
+    @Override
+    protected void prepareAsync(PApplet processing) {
+        // the audio engine is a singleton created (without locking) by the first sound, so it is created here
+        new Sound(processing);
+    }
+
+    @Override
+    protected void loadAsync(PApplet processing) {
+        // decodes the whole file into memory (the library caches the samples in a map that isn't thread safe, so the
+        // sounds are decoded one at a time)
+        synchronized (SoundFile.class) {
+            this.sound = new SoundFile(processing, this.path);
+        }
+    }
+
+    @Override
+    protected void finishLoad(PApplet processing) {
         this.sound.amp(volume);
     }
 
@@ -46,6 +46,10 @@ public class SpriteAsset extends Asset
      * The PImage instance, the image loaded into memory
      */
     private PImage image;
+    /**
+     * The image of this sprite alone, in case it is a sub sprite (created when needed)
+     */
+    private PImage croppedImage = null;
     /**
      * The pixels per unit (the amount of pixels that would fit in 1 vertical or horizontal unit in the xOy plane of the 2D Game)<br/>
      * <i>Default: 100 pixels per unit</i>
@@ -72,7 +76,24 @@ public class SpriteAsset extends Asset
 
     @Override
     protected void load(PApplet processing) {
+        this.loadAsync(processing);
+        this.finishLoad(processing);
+    }
+
+    @Override
+    protected boolean canLoadAsync() {
+        return true;
+    }
+
+    @Override
+    protected void loadAsync(PApplet processing) {
         image = processing.loadImage(this.path);
+        if (image == null)
+            throw new RuntimeException("The image " + this.path + " could not be loaded.");
+    }
+
+    @Override
+    protected void finishLoad(PApplet processing) {
         size = new Vector2(image.width, image.height);
     }
 
@@ -84,6 +105,34 @@ public class SpriteAsset extends Asset
         return this.image;
     }
 
+    /**
+     * Retrieves the image of this sprite alone (a copy of its part of the sprite sheet or atlas, if it is a sub sprite)
+     * @return the PImage
+     */
+    public PImage getCroppedPImage() {
+        if (!this.isSubSprite)
+            return this.image;
+
+        if (this.croppedImage == null)
+            this.croppedImage = this.image.get((int) this.pos.x, (int) this.pos.y, (int) this.size.x, (int) this.size.y);
+
+        return this.croppedImage;
+    }
+
+    /**
+     * [Internal] Turns this sprite into a sub sprite of a texture atlas page (the size stays the same)
+     * @param page the image of the atlas page
+     * @param x the x position of the sprite in the page
+     * @param y the y position of the sprite in the page
+     * @see TextureAtlas
+     */
+    public void setAtlasRegion(PImage page, int x, int y) {
+        this.image = page;
+        this.pos = new Vector2(x, y);
+        this.isSubSprite = true;
+        this.croppedImage = null;
+    }
+
     /**
      * Gets the pixels per unit
      * @return the pixels per unit for this sprite
@@ -96,16 +145,18 @@ public class SpriteAsset extends Asset
      * Calculates and mathematically splits the sprite into a grid using
      * @see SpriteAsset#totalRows
      * @see SpriteAsset#totalColumns
+     * @param sheet the sprite sheet (its position is added in case it was packed into an atlas)
      */
-    private void calculateSprite() {
-        int rowSize = (int) (size == null ? image.height : size.x) / totalRows;
-        int colSize = (int) (size == null ? image.width : size.y) / totalColumns;
+    private void calculateSprite(SpriteAsset sheet) {
+        int rowSize = (int) sheet.size.y / totalRows;
+        int colSize = (int) sheet.size.x / totalColumns;
+        Vector2 offset = sheet.isSubSprite ? sheet.pos : new Vector2(0, 0);
 
         int index = 0;
         for (int row = 0; row < totalRows; row++)
             for (int col = 0; col < totalColumns; col++) {
                 if (index == this.index) {
-                    this.pos = new Vector2(col * colSize, row * rowSize);
+                    this.pos = new Vector2(offset.x + col * colSize, offset.y + row * rowSize);
                     this.size = new Vector2(colSize, rowSize);
 
                     return;
@@ -132,7 +183,7 @@ public class SpriteAsset extends Asset
         asset.totalColumns = this.totalColumns;
         asset.index = index;
         asset.isSubSprite = true;
-        asset.calculateSprite();
+        asset.calculateSprite(this);
 
         return asset;
     }
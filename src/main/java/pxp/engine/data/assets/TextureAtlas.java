@@ -0,0 +1,368 @@
+package pxp.engine.data.assets;
+
+import processing.core.PApplet;
+import processing.core.PConstants;
+import processing.core.PImage;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The Texture Atlas packs sprites into a few large images (pages), so that consecutive sprites from different files
+ * share the same texture (which lets them be batched).<br/>
+ * The sprites are packed with a skyline (bottom-left) packer, each surrounded by padding that repeats its edge pixels,
+ * so that texture filtering doesn't pick up the neighbouring sprites. Packed sprites become sub sprites of their page.<br/>
+ * The layout (where every sprite is placed) can be saved to disk and read on later startups, in which case it is only
+ * packed again if the sprites changed.
+ * @see AssetManager#useAtlas(int, int, String)
+ */
+public class TextureAtlas
+{
+    /**
+     * The header of a saved layout (with the version of the format)
+     */
+    private static final String HEADER = "pxp-atlas 1";
+
+    /**
+     * The width and height of the pages
+     */
+    public final int pageSize;
+    /**
+     * The amount of pixels around each sprite
+     */
+    public final int padding;
+
+    /**
+     * The amount of pages
+     */
+    private int pageCount = 0;
+    /**
+     * The place of every packed sprite, by the name of its asset
+     */
+    private final Map<String, Region> regions = new LinkedHashMap<>();
+
+    /**
+     * The images of the pages (after building)
+     */
+    private final List<PImage> pages = new ArrayList<>();
+
+    private TextureAtlas(int pageSize, int padding) {
+        this.pageSize = pageSize;
+        this.padding = padding;
+    }
+
+    /**
+     * Packs sprites into pages (sprites that don't fit in a page are left out)
+     * @param sprites the loaded sprites, by the names of their assets
+     * @param pageSize the width and height of the pages
+     * @param padding the amount of pixels around each sprite
+     * @return the layout of the atlas (not built)
+     */
+    public static TextureAtlas pack(Map<String, SpriteAsset> sprites, int pageSize, int padding) {
+        TextureAtlas atlas = new TextureAtlas(pageSize, padding);
+
+        // the tallest sprites first, then by name (so the layout doesn't depend on the order of the map)
+        List<Map.Entry<String, SpriteAsset>> entries = new ArrayList<>(sprites.entrySet());
+        entries.sort(Comparator.<Map.Entry<String, SpriteAsset>>comparingInt(e -> -(int) e.getValue().size.y)
+            .thenComparingInt(e -> -(int) e.getValue().size.x)
+            .thenComparing(Map.Entry::getKey));
+
+        List<Skyline> skylines = new ArrayList<>();
+        for (Map.Entry<String, SpriteAsset> entry : entries) {
+            int width = (int) entry.getValue().size.x;
+            int height = (int) entry.getValue().size.y;
+            int paddedWidth = width + padding * 2;
+            int paddedHeight = height + padding * 2;
+            if (paddedWidth > pageSize || paddedHeight > pageSize)
+                continue;
+
+            // the first page it fits in, or a new one
+            int page = 0;
+            int[] position = null;
+            for (; page < skylines.size(); page++)
+                if ((position = skylines.get(page).insert(paddedWidth, paddedHeight)) != null)
+                    break;
+
+            if (position == null) {
+                skylines.add(new Skyline(pageSize));
+                position = skylines.get(page).insert(paddedWidth, paddedHeight);
+            }
+
+            atlas.regions.put(entry.getKey(), new Region(page, position[0] + padding, position[1] + padding, width, height));
+        }
+
+        atlas.pageCount = skylines.size();
+        return atlas;
+    }
+
+    /**
+     * Reads a layout saved with {@link TextureAtlas#save(File)}
+     * @param file the file to read
+     * @return the layout, or null if the file doesn't exist or isn't a layout
+     */
+    public static TextureAtlas read(File file) {
+        if (!file.exists())
+            return null;
+
+        String[] lines = PApplet.loadStrings(file);
+        if (lines == null || lines.length < 2 || !lines[0].equals(HEADER))
+            return null;
+
+        try {
+            String[] settings = lines[1].split(" ");
+            TextureAtlas atlas = new TextureAtlas(Integer.parseInt(settings[0]), Integer.parseInt(settings[1]));
+            atlas.pageCount = Integer.parseInt(settings[2]);
+
+            for (int i = 2; i < lines.length; i++) {
+                if (lines[i].isEmpty())
+                    continue;
+
+                // the name goes last, since it can contain spaces
+                String[] values = lines[i].split(" ", 6);
+                atlas.regions.put(values[5], new Region(
+                    Integer.parseInt(values[0]), Integer.parseInt(values[1]), Integer.parseInt(values[2]),
+                    Integer.parseInt(values[3]), Integer.parseInt(values[4])
+                ));
+            }
+
+            return atlas;
+        }
+        catch (RuntimeException e) {
+            // an outdated or broken layout, it will be packed again
+            return null;
+        }
+    }
+
+    /**
+     * Saves the layout, to be read on later startups
+     * @param file the file to write
+     */
+    public void save(File file) {
+        List<String> lines = new ArrayList<>();
+        lines.add(HEADER);
+        lines.add(this.pageSize + " " + this.padding + " " + this.pageCount);
+        this.regions.forEach((name, region) ->
+            lines.add(region.page + " " + region.x + " " + region.y + " " + region.width + " " + region.height + " " + name)
+        );
+
+        PApplet.saveStrings(file, lines.toArray(new String[0]));
+    }
+
+    /**
+     * Checks whether this layout was packed from the same sprites (with the same sizes) and settings
+     * @param sprites the loaded sprites, by the names of their assets
+     * @param pageSize the width and height of the pages
+     * @param padding the amount of pixels around each sprite
+     */
+    public boolean matches(Map<String, SpriteAsset> sprites, int pageSize, int padding) {
+        if (this.pageSize != pageSize || this.padding != padding)
+            return false;
+
+        // every packed sprite must still exist with the same size, and every sprite that fits must be packed
+        for (Map.Entry<String, SpriteAsset> entry : sprites.entrySet()) {
+            SpriteAsset sprite = entry.getValue();
+            Region region = this.regions.get(entry.getKey());
+            if (region == null) {
+                if (sprite.size.x + padding * 2 <= pageSize && sprite.size.y + padding * 2 <= pageSize)
+                    return false;
+            }
+            else if (region.width != (int) sprite.size.x || region.height != (int) sprite.size.y)
+                return false;
+        }
+
+        for (String name : this.regions.keySet())
+            if (!sprites.containsKey(name))
+                return false;
+
+        return true;
+    }
+
+    /**
+     * Creates the pages and copies the sprites into them, then turns the packed sprites into sub sprites of their pages
+     * @param processing the PApplet to create the images with
+     * @param sprites the loaded sprites, by the names of their assets (must match the layout)
+     */
+    public void build(PApplet processing, Map<String, SpriteAsset> sprites) {
+        this.pages.clear();
+        for (int i = 0; i < this.pageCount; i++) {
+            PImage page = processing.createImage(this.pageSize, this.pageSize, PConstants.ARGB);
+            page.loadPixels();
+            this.pages.add(page);
+        }
+
+        this.regions.forEach((name, region) -> this.copy(sprites.get(name).getPImage(), this.pages.get(region.page), region));
+
+        for (PImage page : this.pages)
+            page.updatePixels();
+
+        this.regions.forEach((name, region) -> sprites.get(name).setAtlasRegion(this.pages.get(region.page), region.x, region.y));
+    }
+
+    /**
+     * Copies a sprite into its region, repeating its edge pixels into the padding
+     */
+    private void copy(PImage image, PImage page, Region region) {
+        image.loadPixels();
+
+        for (int y = -this.padding; y < region.height + this.padding; y++) {
+            int sourceY = Math.max(0, Math.min(region.height - 1, y));
+            int pageY = region.y + y;
+            for (int x = -this.padding; x < region.width + this.padding; x++) {
+                int sourceX = Math.max(0, Math.min(region.width - 1, x));
+                page.pixels[pageY * page.width + region.x + x] = image.pixels[sourceY * image.width + sourceX];
+            }
+        }
+    }
+
+    /**
+     * Gets the amount of pages
+     */
+    public int getPageCount() {
+        return this.pageCount;
+    }
+
+    /**
+     * Gets the image of a page (after building)
+     * @param page the index of the page
+     */
+    public PImage getPage(int page) {
+        return this.pages.get(page);
+    }
+
+    /**
+     * Gets the place of a packed sprite
+     * @param name the name of the asset of the sprite
+     * @return the region, or null if the sprite isn't packed
+     */
+    public Region getRegion(String name) {
+        return this.regions.get(name);
+    }
+
+    /**
+     * The place of a sprite in the atlas (in pixels, without the padding)
+     */
+    public static class Region
+    {
+        public final int page;
+        public final int x;
+        public final int y;
+        public final int width;
+        public final int height;
+
+        public Region(int page, int x, int y, int width, int height) {
+            this.page = page;
+            this.x = x;
+            this.y = y;
+            this.width = width;
+            this.height = height;
+        }
+    }
+
+    /**
+     * The skyline of a page: the top edge of the packed rects, as horizontal segments from left to right.
+     * Rects are placed where their bottom would be lowest (then where they waste the least width)
+     */
+    private static class Skyline
+    {
+        private final int size;
+        /**
+         * The segments, as x, y and width
+         */
+        private final List<int[]> segments = new ArrayList<>();
+
+        private Skyline(int size) {
+            this.size = size;
+            this.segments.add(new int[] { 0, 0, size });
+        }
+
+        /**
+         * Places a rect on the skyline
+         * @return the position (x and y) of the rect, or null if it doesn't fit
+         */
+        private int[] insert(int width, int height) {
+            int bestIndex = -1;
+            int bestX = 0;
+            int bestY = 0;
+            int bestBottom = Integer.MAX_VALUE;
+            int bestWidth = Integer.MAX_VALUE;
+
+            for (int i = 0; i < this.segments.size(); i++) {
+                int x = this.segments.get(i)[0];
+                int y = this.fit(i, width);
+                if (y < 0 || y + height > this.size)
+                    continue;
+
+                int segmentWidth = this.segments.get(i)[2];
+                if (y + height < bestBottom || (y + height == bestBottom && segmentWidth < bestWidth)) {
+                    bestIndex = i;
+                    bestX = x;
+                    bestY = y;
+                    bestBottom = y + height;
+                    bestWidth = segmentWidth;
+                }
+            }
+
+            if (bestIndex == -1)
+                return null;
+
+            this.add(bestIndex, bestX, bestY + height, width);
+            return new int[] { bestX, bestY };
+        }
+
+        /**
+         * Finds the height a rect placed at the start of a segment would rest at
+         * @return the y of the rect, or -1 if it goes past the right edge
+         */
+        private int fit(int index, int width) {
+            int x = this.segments.get(index)[0];
+            if (x + width > this.size)
+                return -1;
+
+            int y = 0;
+            int remaining = width;
+            for (int i = index; remaining > 0; i++) {
+                int[] segment = this.segments.get(i);
+                y = Math.max(y, segment[1]);
+                remaining -= segment[2];
+            }
+
+            return y;
+        }
+
+        /**
+         * Adds the top edge of a placed rect, cutting the segments it covers
+         */
+        private void add(int index, int x, int y, int width) {
+            this.segments.add(index, new int[] { x, y, width });
+
+            for (int i = index + 1; i < this.segments.size(); i++) {
+                int[] previous = this.segments.get(i - 1);
+                int[] segment = this.segments.get(i);
+                int overlap = previous[0] + previous[2] - segment[0];
+                if (overlap <= 0)
+                    break;
+
+                segment[0] += overlap;
+                segment[2] -= overlap;
+                if (segment[2] > 0)
+                    break;
+
+                this.segments.remove(i--);
+            }
+
+            // merge the neighbouring segments at the same height
+            for (int i = 0; i < this.segments.size() - 1; i++) {
+                int[] segment = this.segments.get(i);
+                int[] next = this.segments.get(i + 1);
+                if (segment[1] == next[1]) {
+                    segment[2] += next[2];
+                    this.segments.remove(i-- + 1);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package pxp.engine.data.collision;
+
+/**
+ * A mutable axis aligned bounding box, defined by its minimum and maximum corners (in world units).<br/>
+ * Used by the broadphase to quickly discard pairs of shapes that can't possibly collide.<br/>
+ * <i>This is not a {@link Shape} and cannot be hit tested. For an axis aligned collision shape use {@link Box}.</i>
+ */
+public class AABB
+{
+    public float minX;
+    public float minY;
+    public float maxX;
+    public float maxY;
+
+    /**
+     * Creates an empty bounding box at 0,0
+     */
+    public AABB() { }
+
+    /**
+     * Creates a bounding box given the minimum and maximum corners
+     */
+    public AABB(float minX, float minY, float maxX, float maxY) {
+        this.set(minX, minY, maxX, maxY);
+    }
+
+    /**
+     * Sets the corners of this bounding box
+     * @return this bounding box
+     */
+    public AABB set(float minX, float minY, float maxX, float maxY) {
+        this.minX = minX;
+        this.minY = minY;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        return this;
+    }
+
+    /**
+     * Copies the corners of another bounding box
+     * @return this bounding box
+     */
+    public AABB set(AABB other) {
+        return this.set(other.minX, other.minY, other.maxX, other.maxY);
+    }
+
+    /**
+     * Checks whether this bounding box overlaps another one (touching edges count as overlap)
+     * @param other the other bounding box
+     * @return true if the boxes overlap
+     */
+    public boolean overlaps(AABB other) {
+        return this.minX <= other.maxX && this.maxX >= other.minX
+            && this.minY <= other.maxY && this.maxY >= other.minY;
+    }
+
+    /**
+     * Checks whether this bounding box overlaps another one, with both boxes grown by a margin
+     * @param other the other bounding box
+     * @param margin the amount of units to grow each box by (on every side)
+     * @return true if the grown boxes overlap
+     */
+    public boolean overlaps(AABB other, float margin) {
+        margin *= 2;
+        return this.minX <= other.maxX + margin && this.maxX + margin >= other.minX
+            && this.minY <= other.maxY + margin && this.maxY + margin >= other.minY;
+    }
+
+    /**
+     * Finds the fraction of a ray (segment) at which it enters this bounding box (slab test)
+     * @param fromX the x position of the start of the ray
+     * @param fromY the y position of the start of the ray
+     * @param directionX the x component of the ray (its length is the length of the segment)
+     * @param directionY the y component of the ray
+     * @param maxFraction the fraction (0-1) of the ray to search within
+     * @return the fraction of entry (0 if the ray starts inside), or -1 if the ray misses this box within the max fraction
+     */
+    public float raycast(float fromX, float fromY, float directionX, float directionY, float maxFraction) {
+        return raycast(this.minX, this.minY, this.maxX, this.maxY, fromX, fromY, directionX, directionY, maxFraction);
+    }
+
+    /**
+     * Finds the fraction of a ray (segment) at which it enters a bounding box (slab test)
+     * @return the fraction of entry (0 if the ray starts inside), or -1 if the ray misses the box within the max fraction
+     * @see AABB#raycast(float, float, float, float, float)
+     */
+    public static float raycast(float minX, float minY, float maxX, float maxY, float fromX, float fromY, float directionX, float directionY, float maxFraction) {
+        float enter = 0;
+        float exit = maxFraction;
+
+        if (directionX == 0) {
+            if (fromX < minX || fromX > maxX) return -1;
+        }
+        else {
+            float inverse = 1f / directionX;
+            float t1 = (minX - fromX) * inverse;
+            float t2 = (maxX - fromX) * inverse;
+            enter = Math.max(enter, Math.min(t1, t2));
+            exit = Math.min(exit, Math.max(t1, t2));
+            if (enter > exit) return -1;
+        }
+
+        if (directionY == 0) {
+            if (fromY < minY || fromY > maxY) return -1;
+        }
+        else {
+            float inverse = 1f / directionY;
+            float t1 = (minY - fromY) * inverse;
+            float t2 = (maxY - fromY) * inverse;
+            enter = Math.max(enter, Math.min(t1, t2));
+            exit = Math.min(exit, Math.max(t1, t2));
+            if (enter > exit) return -1;
+        }
+
+        return enter;
+    }
+
+    @Override
+    public String toString() {
+        return "AABB [min: " + minX + ", " + minY + ", max: " + maxX + ", " + maxY + "]";
+    }
+}
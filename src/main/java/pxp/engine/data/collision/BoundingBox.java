@@ -28,15 +28,48 @@ public class BoundingBox extends Shape {
     }
 
     @Override
-    public boolean hitTest(Shape other, Vector2 velocity, Pointer<Vector2> reflectVelocity, Pointer<Float> toi, Vector2 contactPoint) {
+    public boolean hitTest(Shape other, Vector2 velocity, ContactManifold manifold) {
+        // this shape is deprecated, so it simply adapts its old out parameters to the manifold (allocating)
+        Pointer<Vector2> reflectVelocity = new Pointer<>(null);
+        Pointer<Float> toi = new Pointer<>(0.0F);
+        Vector2 contactPoint = new Vector2();
+
+        boolean hit;
         if (other instanceof BoundingBox aabb)
-            return this.hitTest(aabb, velocity, reflectVelocity, toi, contactPoint);
+            hit = this.hitTest(aabb, velocity, reflectVelocity, toi, contactPoint);
         else if (other instanceof Circle circle)
-            return this.hitTest(circle, velocity, reflectVelocity, toi, contactPoint);
+            hit = this.hitTest(circle, velocity, reflectVelocity, toi, contactPoint);
+        else
+            return false;
+
+        if (reflectVelocity.value != null) {
+            float penetration = reflectVelocity.value.getMagnitude();
+            Vector2 normal = reflectVelocity.value.getNormalized();
+            manifold.setNormal(normal.x, normal.y, penetration);
+        }
+        manifold.toi = toi.value;
+        manifold.addContactPoint(contactPoint.x, contactPoint.y);
+
+        return hit;
+    }
+
+    @Override
+    public boolean sweepTest(Shape other, float velocityX, float velocityY, ContactManifold manifold) {
+        // this shape is deprecated and only supports discrete hit tests
+        return false;
+    }
 
+    @Override
+    public boolean raycast(float fromX, float fromY, float directionX, float directionY, float maxFraction, RaycastHit hit) {
+        // this shape is deprecated and doesn't support queries
         return false;
     }
 
+    @Override
+    public AABB getBounds(AABB out) {
+        return out.set(this.center.x - this.halfSize.x, this.center.y - this.halfSize.y, this.center.x + this.halfSize.x, this.center.y + this.halfSize.y);
+    }
+
     /**
      * Checks if this Bounding Box, given a velocity, intersects another Bounding Box and gives out the time of impact.<br/>
      * <i>This doesn't provide a reflectVelocity or a contact point, since they are axis aligned, therefore the points
@@ -1,12 +1,11 @@
 package pxp.engine.data.collision;
 
-import pxp.engine.core.GameProcess;
 import pxp.engine.core.Transform;
 import pxp.engine.data.Vector2;
-import pxp.util.Pointer;
 
 /**
- * An axis independent rect shape.
+ * An axis independent rect shape.<br/>
+ * The world space corners are calculated once, in {@link Box#update()}, and reused by every hit test.
  */
 public class Box extends Shape
 {
@@ -21,138 +20,484 @@ public class Box extends Shape
     /**
      * The transform of the game object that the Collider is the child of
      */
-    private final Transform transform;
+    private Transform transform;
+
+    /**
+     * The four corners of the rectangle in world space, as of the last update
+     */
+    private final Vector2[] corners = new Vector2[] { new Vector2(), new Vector2(), new Vector2(), new Vector2() };
+    /**
+     * The normals of the top and right edges in world space (the bottom and left ones are parallel), as of the last update
+     */
+    private final Vector2[] axes = new Vector2[] { new Vector2(), new Vector2() };
 
     public Box(Vector2 offset, Vector2 halfSize, Transform transform) {
+        this.set(offset, halfSize, transform);
+    }
+
+    /**
+     * Sets the offset, half size and transform of this box and updates it
+     * @return this box
+     */
+    public Box set(Vector2 offset, Vector2 halfSize, Transform transform) {
         this.offset = offset;
         this.halfSize = halfSize;
         this.transform = transform;
+
+        this.update();
+        return this;
+    }
+
+    /**
+     * Copies another box, moved by an offset (in world units)<br/>
+     * <i>The offset only applies to the world space corners, until the next update</i>
+     * @return this box
+     */
+    public Box set(Box other, float offsetX, float offsetY) {
+        this.offset = other.offset;
+        this.halfSize = other.halfSize;
+        this.transform = other.transform;
+
+        for (int i = 0; i < 4; i++)
+            this.corners[i].set(other.corners[i].x + offsetX, other.corners[i].y + offsetY);
+        for (int i = 0; i < 2; i++)
+            this.axes[i].set(other.axes[i]);
+
+        return this;
+    }
+
+    /**
+     * Recalculates the world space corners and axes<br/>
+     * <i>Must be called after changing the offset, half size or the transform</i>
+     */
+    public void update() {
+        this.corners[0].set(this.offset.x - this.halfSize.x, this.offset.y - this.halfSize.y);
+        this.corners[1].set(this.offset.x + this.halfSize.x, this.offset.y - this.halfSize.y);
+        this.corners[2].set(this.offset.x + this.halfSize.x, this.offset.y + this.halfSize.y);
+        this.corners[3].set(this.offset.x - this.halfSize.x, this.offset.y + this.halfSize.y);
+
+        // the corners are now in WORLD position
+        this.transform.localToWorld(this.corners);
+
+        for (int i = 0; i < 2; i++) {
+            Vector2 from = this.corners[i];
+            Vector2 to = this.corners[i + 1];
+
+            // perpendicular of the edge
+            this.axes[i].set(-(to.y - from.y), to.x - from.x).normalize();
+        }
     }
 
     @Override
-    public boolean hitTest(Shape other, Vector2 velocity, Pointer<Vector2> reflectVelocity, Pointer<Float> toi, Vector2 contactPoint) {
+    public boolean hitTest(Shape other, Vector2 velocity, ContactManifold manifold) {
         if (other instanceof Box box)
-            return this.hitTest(box, velocity, reflectVelocity, toi, contactPoint);
+            return this.hitTest(box, velocity, manifold);
         else if (other instanceof Circle circle)
-            return this.hitTest(circle, velocity, reflectVelocity, toi, contactPoint);
+            return this.hitTest(circle, velocity, manifold);
 
         return false;
     }
 
-    // Get the four corners of the rectangle in world space
-    private Vector2[] getCorners() {
-        Vector2 offset = this.offset.clone();
+    @Override
+    public boolean sweepTest(Shape other, float velocityX, float velocityY, ContactManifold manifold) {
+        if (other instanceof Box box)
+            return this.sweepTest(box, velocityX, velocityY, manifold);
+        else if (other instanceof Circle circle) {
+            // seen from this box, the circle moves the other way
+            if (!this.sweepCircle(circle.center.x + velocityX, circle.center.y + velocityY, -velocityX, -velocityY, circle.radius, manifold))
+                return false;
 
-        Vector2[] corners = new Vector2[4];
-        corners[0] = this.transform.localToWorld(Vector2.add(offset, new Vector2(-halfSize.x, -halfSize.y)));
-        corners[1] = this.transform.localToWorld(Vector2.add(offset, new Vector2(halfSize.x, -halfSize.y)));
-        corners[2] = this.transform.localToWorld(Vector2.add(offset, new Vector2(halfSize.x, halfSize.y)));
-        corners[3] = this.transform.localToWorld(Vector2.add(offset, new Vector2(-halfSize.x, halfSize.y)));
+            // the contact was found on this box at its current position, so it's moved back to the time of impact
+            Vector2 contact = manifold.contactPoints[0];
+            float remaining = 1 - manifold.toi;
+            contact.set(contact.x - velocityX * remaining, contact.y - velocityY * remaining);
+
+            // the normal points into the box, it should point into the circle
+            manifold.flip();
+            return true;
+        }
 
-        // the returned corners are in WORLD position
-        return corners;
+        return false;
     }
-    // Project points onto an axis
-    private Projection projectOntoAxis(Vector2[] points, Vector2 axis) {
-        float min = Float.MAX_VALUE;
-        float max = -Float.MAX_VALUE;
 
-        for (Vector2 point : points) {
-            float projection = point.dot(axis);
-            min = Math.min(min, projection);
-            max = Math.max(max, projection);
+    @Override
+    public boolean raycast(float fromX, float fromY, float directionX, float directionY, float maxFraction, RaycastHit hit) {
+        Vector2 axisU = this.axes[0];
+        Vector2 axisV = this.axes[1];
+
+        // the center and half extents of this box, along its axes
+        float centerX = (this.corners[0].x + this.corners[2].x) * 0.5f;
+        float centerY = (this.corners[0].y + this.corners[2].y) * 0.5f;
+        float diagonalX = this.corners[2].x - this.corners[0].x;
+        float diagonalY = this.corners[2].y - this.corners[0].y;
+        float extentU = Math.abs(diagonalX * axisU.x + diagonalY * axisU.y) * 0.5f;
+        float extentV = Math.abs(diagonalX * axisV.x + diagonalY * axisV.y) * 0.5f;
+
+        // the ray in the local space of this box
+        float u = (fromX - centerX) * axisU.x + (fromY - centerY) * axisU.y;
+        float v = (fromX - centerX) * axisV.x + (fromY - centerY) * axisV.y;
+        float du = directionX * axisU.x + directionY * axisU.y;
+        float dv = directionX * axisV.x + directionY * axisV.y;
+
+        // starting inside
+        if (Math.abs(u) <= extentU && Math.abs(v) <= extentV) {
+            float length = (float) Math.sqrt(directionX * directionX + directionY * directionY);
+            hit.fraction = 0;
+            hit.point.set(fromX, fromY);
+            hit.normal.set(-directionX / length, -directionY / length);
+            return true;
+        }
+
+        float fraction = AABB.raycast(-extentU, -extentV, extentU, extentV, u, v, du, dv, maxFraction);
+        if (fraction < 0)
+            return false;
+
+        // the face that was hit is the one the ray is (closest to being) on
+        float hitU = u + du * fraction;
+        float hitV = v + dv * fraction;
+        float normalU = 0;
+        float normalV = 0;
+        if (extentU - Math.abs(hitU) < extentV - Math.abs(hitV))
+            normalU = Math.signum(hitU);
+        else
+            normalV = Math.signum(hitV);
+
+        hit.fraction = fraction;
+        hit.point.set(fromX + directionX * fraction, fromY + directionY * fraction);
+        hit.normal.set(normalU * axisU.x + normalV * axisV.x, normalU * axisU.y + normalV * axisV.y);
+        return true;
+    }
+
+    @Override
+    public AABB getBounds(AABB out) {
+        out.set(this.corners[0].x, this.corners[0].y, this.corners[0].x, this.corners[0].y);
+        for (int i = 1; i < 4; i++) {
+            out.minX = Math.min(out.minX, this.corners[i].x);
+            out.minY = Math.min(out.minY, this.corners[i].y);
+            out.maxX = Math.max(out.maxX, this.corners[i].x);
+            out.maxY = Math.max(out.maxY, this.corners[i].y);
         }
 
-        return new Projection(min, max);
+        return out;
     }
 
-    private boolean hitTest(Box box, Vector2 velocity, Pointer<Vector2> reflectVelocity, Pointer<Float> toi, Vector2 contactPoint) {
-        Vector2[] thisCorners = this.getCorners();
-        Vector2[] otherCorners = box.getCorners();
+    /**
+     * Checks whether a point is inside this box (as of the last update)
+     * @param x the x of the point in world units
+     * @param y the y of the point in world units
+     * @return true if the point is inside (or on the edge of) this box
+     */
+    public boolean contains(float x, float y) {
+        for (int i = 0; i < 2; i++) {
+            Vector2 axis = this.axes[i];
+            float projection = x * axis.x + y * axis.y;
 
-        // Combine normals of edges for both rectangles
-        Vector2[] axes = new Vector2[4];
-        for (int i = 0; i < 2; i++) { // Top and left edges
-            axes[i] = Vector2.vector(thisCorners[i], thisCorners[i + 1]).perpendicular().getNormalized();
-            axes[i + 2] = Vector2.vector(otherCorners[i], otherCorners[i + 1]).perpendicular().getNormalized();
+            if (projection < projectMin(this.corners, axis.x, axis.y) || projection > projectMax(this.corners, axis.x, axis.y))
+                return false;
         }
 
+        return true;
+    }
+
+    // Project points onto an axis, the minimum of the projection
+    private static float projectMin(Vector2[] points, float axisX, float axisY) {
+        float min = Float.MAX_VALUE;
+        for (Vector2 point : points)
+            min = Math.min(min, point.x * axisX + point.y * axisY);
+
+        return min;
+    }
+    // Project points onto an axis, the maximum of the projection
+    private static float projectMax(Vector2[] points, float axisX, float axisY) {
+        float max = -Float.MAX_VALUE;
+        for (Vector2 point : points)
+            max = Math.max(max, point.x * axisX + point.y * axisY);
+
+        return max;
+    }
+
+    private boolean hitTest(Box box, Vector2 velocity, ContactManifold manifold) {
+        Vector2[] thisCorners = this.corners;
+        Vector2[] otherCorners = box.corners;
+
         float minOverlap = Float.MAX_VALUE;
-        Vector2 smallestAxis = null;
-        Vector2 movement = velocity.clone();
+        float smallestAxisX = 0;
+        float smallestAxisY = 0;
+        boolean foundAxis = false;
         float epsilon = 0.001f; // Small value to avoid floating-point issues
 
-        for (Vector2 axis : axes) {
-            // Project both rectangles onto the axis
-            Projection thisProj = projectOntoAxis(thisCorners, axis);
-            Projection otherProj = projectOntoAxis(otherCorners, axis);
+        // Combine normals of edges for both rectangles (top and right edges of this one, then the other)
+        for (int i = 0; i < 4; i++) {
+            Vector2 axis = i < 2 ? this.axes[i] : box.axes[i - 2];
+            float axisX = axis.x;
+            float axisY = axis.y;
 
-            // Check for overlap
-            float overlap = thisProj.getOverlap(otherProj);
+            // Project both rectangles onto the axis and check for overlap
+            float overlap = Math.min(projectMax(thisCorners, axisX, axisY), projectMax(otherCorners, axisX, axisY))
+                          - Math.max(projectMin(thisCorners, axisX, axisY), projectMin(otherCorners, axisX, axisY));
             if (overlap <= 0) return false; // No collision
 
             // Skip tiny overlaps caused by precision issues
             if (overlap < epsilon) continue;
 
             // Use velocity to determine correct resolution direction
-            float dot = movement.dot(axis);
+            float dot = velocity.x * axisX + velocity.y * axisY;
             if (dot < 0) {
-                axis = axis.multiply(-1); // Flip axis if needed
+                // Flip axis if needed
+                axisX = -axisX;
+                axisY = -axisY;
             }
 
             // Keep track of the smallest overlap
             if (overlap < minOverlap) {
                 minOverlap = overlap;
-                smallestAxis = axis;
+                smallestAxisX = axisX;
+                smallestAxisY = axisY;
+                foundAxis = true;
             }
         }
 
+        // all overlaps were tiny, the boxes are merely touching
+        if (!foundAxis)
+            return true;
+
         // Push vector is along the smallest axis
         float maxPenetration = 1.0f; // Example: Limit penetration resolution
         minOverlap = Math.min(minOverlap, maxPenetration);
-        reflectVelocity.value = smallestAxis.multiply(minOverlap);
+        manifold.setNormal(smallestAxisX, smallestAxisY, minOverlap);
 
         return true;
+    }
 
+    /**
+     * Sweeps this box along its velocity against another (still) box, using the separating axis theorem on the
+     * intervals of both boxes moving over time (a swept AABB test, for boxes that aren't rotated)
+     */
+    private boolean sweepTest(Box box, float velocityX, float velocityY, ContactManifold manifold) {
+        float first = -Float.MAX_VALUE;
+        float last = Float.MAX_VALUE;
+        float normalX = 0;
+        float normalY = 0;
+        boolean thisAxis = false;
+
+        for (int i = 0; i < 4; i++) {
+            Vector2 axis = i < 2 ? this.axes[i] : box.axes[i - 2];
+            float axisX = axis.x;
+            float axisY = axis.y;
+
+            // the interval of this box starts behind by the velocity (projected on the axis)
+            float speed = velocityX * axisX + velocityY * axisY;
+            float thisMin = projectMin(this.corners, axisX, axisY) - speed;
+            float thisMax = projectMax(this.corners, axisX, axisY) - speed;
+            float otherMin = projectMin(box.corners, axisX, axisY);
+            float otherMax = projectMax(box.corners, axisX, axisY);
+
+            if (speed == 0) {
+                // not moving along this axis, so the intervals have to overlap the whole time
+                if (thisMax <= otherMin || thisMin >= otherMax)
+                    return false;
+
+                continue;
+            }
+
+            // the times the intervals start and stop overlapping
+            float enter = speed > 0 ? (otherMin - thisMax) / speed : (otherMax - thisMin) / speed;
+            float exit = speed > 0 ? (otherMax - thisMin) / speed : (otherMin - thisMax) / speed;
+
+            if (enter > first) {
+                first = enter;
+                normalX = speed > 0 ? axisX : -axisX;
+                normalY = speed > 0 ? axisY : -axisY;
+                thisAxis = i < 2;
+            }
+            last = Math.min(last, exit);
+
+            if (first > last)
+                return false;
+        }
+
+        // overlapping at the start is left to the hit test, and the impact has to happen during this movement
+        if (first < 0 || first > 1)
+            return false;
+
+        manifold.toi = first;
+        manifold.setNormal(normalX, normalY, 0);
+
+        // the corner hitting the face: of the other box if the axis is one of this box's faces, otherwise of this box
+        float remaining = 1 - first;
+        if (thisAxis) {
+            Vector2 corner = support(box.corners, -normalX, -normalY);
+            manifold.addContactPoint(corner.x, corner.y);
+        }
+        else {
+            Vector2 corner = support(this.corners, normalX, normalY);
+            manifold.addContactPoint(corner.x - velocityX * remaining, corner.y - velocityY * remaining);
+        }
+
+        return true;
+    }
+
+    /**
+     * Sweeps a circle against this (still) box, writing the time of impact, the normal (from the circle towards the box
+     * at the time of impact) and the contact point (on the box) into the manifold<br/>
+     * The box is grown by the radius of the circle (rounding the corners) and the center of the circle is cast against it.
+     * @param startX the x position of the center of the circle at the start of the movement
+     * @param startY the y position of the center of the circle at the start of the movement
+     * @param velocityX the x component of the velocity of the circle relative to this box
+     * @param velocityY the y component of the velocity of the circle relative to this box
+     * @param radius the radius of the circle
+     * @param manifold the manifold to write into
+     * @return whether the circle hits this box during the movement
+     */
+    boolean sweepCircle(float startX, float startY, float velocityX, float velocityY, float radius, ContactManifold manifold) {
+        Vector2 axisU = this.axes[0];
+        Vector2 axisV = this.axes[1];
+
+        // the center and half extents of this box, along its axes
+        float centerX = (this.corners[0].x + this.corners[2].x) * 0.5f;
+        float centerY = (this.corners[0].y + this.corners[2].y) * 0.5f;
+        float diagonalX = this.corners[2].x - this.corners[0].x;
+        float diagonalY = this.corners[2].y - this.corners[0].y;
+        float extentU = Math.abs(diagonalX * axisU.x + diagonalY * axisU.y) * 0.5f;
+        float extentV = Math.abs(diagonalX * axisV.x + diagonalY * axisV.y) * 0.5f;
+
+        // the movement of the circle in the local space of this box
+        float u = (startX - centerX) * axisU.x + (startY - centerY) * axisU.y;
+        float v = (startX - centerX) * axisV.x + (startY - centerY) * axisV.y;
+        float du = velocityX * axisU.x + velocityY * axisU.y;
+        float dv = velocityX * axisV.x + velocityY * axisV.y;
+
+        // slab test against the box grown by the radius
+        float enter = -Float.MAX_VALUE;
+        float exit = Float.MAX_VALUE;
+        boolean enterU = false;
+        float growU = extentU + radius;
+        float growV = extentV + radius;
+
+        if (du == 0) {
+            if (Math.abs(u) > growU) return false;
+        }
+        else {
+            float t1 = (-growU - u) / du;
+            float t2 = (growU - u) / du;
+            enter = Math.min(t1, t2);
+            exit = Math.max(t1, t2);
+            enterU = true;
+        }
+
+        if (dv == 0) {
+            if (Math.abs(v) > growV) return false;
+        }
+        else {
+            float t1 = (-growV - v) / dv;
+            float t2 = (growV - v) / dv;
+            if (Math.min(t1, t2) > enter) {
+                enter = Math.min(t1, t2);
+                enterU = false;
+            }
+            exit = Math.min(exit, Math.max(t1, t2));
+        }
+
+        if (enter > exit || enter > 1)
+            return false;
+
+        float toi = Math.max(enter, 0);
+        float hitU = u + du * toi;
+        float hitV = v + dv * toi;
+
+        // the outward normal and the contact point, in the local space of this box
+        float normalU, normalV, contactU, contactV;
+        if (Math.abs(hitU) > extentU && Math.abs(hitV) > extentV) {
+            // the grown box has rounded corners (a circle around each corner of this box)
+            contactU = Math.signum(hitU) * extentU;
+            contactV = Math.signum(hitV) * extentV;
+
+            toi = Circle.raycast(u - contactU, v - contactV, du, dv, radius);
+            if (toi < 0 || toi > 1)
+                return false;
+
+            normalU = (u + du * toi - contactU) / radius;
+            normalV = (v + dv * toi - contactV) / radius;
+        }
+        else {
+            // overlapping at the start is left to the hit test
+            if (enter < 0)
+                return false;
+
+            normalU = enterU ? Math.signum(hitU) : 0;
+            normalV = enterU ? 0 : Math.signum(hitV);
+            contactU = hitU - normalU * radius;
+            contactV = hitV - normalV * radius;
+        }
+
+        manifold.toi = toi;
+        // the normal points from the circle into the box
+        manifold.setNormal(-(normalU * axisU.x + normalV * axisV.x), -(normalU * axisU.y + normalV * axisV.y), 0);
+        manifold.addContactPoint(centerX + contactU * axisU.x + contactV * axisV.x, centerY + contactU * axisU.y + contactV * axisV.y);
+
+        return true;
     }
 
-    private boolean hitTest(Circle circle, Vector2 velocity, Pointer<Vector2> reflectVelocity, Pointer<Float> toi, Vector2 contactPoint) {
+    // The point furthest along a direction
+    private static Vector2 support(Vector2[] points, float directionX, float directionY) {
+        Vector2 support = points[0];
+        float max = -Float.MAX_VALUE;
+        for (Vector2 point : points) {
+            float projection = point.x * directionX + point.y * directionY;
+            if (projection > max) {
+                max = projection;
+                support = point;
+            }
+        }
+
+        return support;
+    }
+
+    private boolean hitTest(Circle circle, Vector2 velocity, ContactManifold manifold) {
         Vector2 center = circle.center;
-        Vector2[] corners = this.getCorners();
+        Vector2[] corners = this.corners;
 
         // Find the closest point on the rectangle to the circle's center
-        Vector2 closestPoint = center;
+        float closestX = center.x;
+        float closestY = center.y;
         float minDistance = Float.MAX_VALUE;
 
         for (int i = 0; i < 4; i++) {
-            Vector2 point = Vector2.projectPointOntoLine(center, corners[i], corners[(i + 1) % 4]);
-            float distance = point.distance(center);
+            Vector2 start = corners[i];
+            Vector2 end = corners[(i + 1) % 4];
+
+            // project the center onto the edge, clamped to the segment
+            float edgeX = end.x - start.x;
+            float edgeY = end.y - start.y;
+            float lengthSquared = edgeX * edgeX + edgeY * edgeY;
+            float t = lengthSquared == 0 ? 0 : ((center.x - start.x) * edgeX + (center.y - start.y) * edgeY) / lengthSquared;
+            t = Math.max(0, Math.min(1, t));
+
+            float pointX = start.x + edgeX * t;
+            float pointY = start.y + edgeY * t;
+            float distance = (float) Math.sqrt((center.x - pointX) * (center.x - pointX) + (center.y - pointY) * (center.y - pointY));
 
             if (distance < minDistance) {
                 minDistance = distance;
-                closestPoint = point;
+                closestX = pointX;
+                closestY = pointY;
             }
         }
 
         float overlap = circle.radius - minDistance;
         if (overlap > 0) {
-            reflectVelocity.value = Vector2.vector(closestPoint, center).getNormalized().multiply(overlap);
+            // from the closest point towards the circle's center
+            float normalX = 0;
+            float normalY = 0;
+            if (minDistance > Float.MIN_VALUE) {
+                normalX = (center.x - closestX) / minDistance;
+                normalY = (center.y - closestY) / minDistance;
+            }
+
+            manifold.setNormal(normalX, normalY, overlap);
+            manifold.addContactPoint(closestX, closestY);
             return true;
         }
         return false;
     }
 }
-
-// Utility class for projections
-class Projection {
-    public float min, max;
-
-    public Projection(float min, float max) {
-        this.min = min;
-        this.max = max;
-    }
-
-    public float getOverlap(Projection other) {
-        return Math.min(this.max, other.max) - Math.max(this.min, other.min);
-    }
-}
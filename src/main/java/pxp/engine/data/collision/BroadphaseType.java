@@ -0,0 +1,24 @@
+package pxp.engine.data.collision;
+
+/**
+ * The broadphase used by the CollisionManager to find pairs of colliders that might collide, before hit testing them
+ * @see pxp.engine.data.GameSettings#broadphase
+ */
+public enum BroadphaseType
+{
+    /**
+     * Every collider is hit tested against every other collider (O(n²)).<br/>
+     * <i>Slow, but it is the reference to compare the other broadphases against</i>
+     */
+    BRUTE_FORCE,
+    /**
+     * Colliders are placed into a uniform grid of cells and only colliders sharing a cell are hit tested.<br/>
+     * Works best when colliders have similar sizes (see {@link pxp.engine.data.GameSettings#collisionCellSize})
+     */
+    SPATIAL_HASH,
+    /**
+     * Colliders are kept in a dynamic bounding volume hierarchy (a tree of bounding boxes), which is only updated when they move enough.<br/>
+     * Works best when colliders have very different sizes
+     */
+    AABB_TREE;
+}
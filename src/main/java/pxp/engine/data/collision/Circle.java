@@ -2,7 +2,6 @@ package pxp.engine.data.collision;
 
 import pxp.engine.data.Vector2;
 import pxp.util.Mathf;
-import pxp.util.Pointer;
 
 // this file was lost, this is a decompiled file of the latest found version
 // this happened to multiple files (including BoundingBox and others)
@@ -26,73 +25,171 @@ public class Circle extends Shape
     }
 
     @Override
-    public boolean hitTest(Shape other, Vector2 velocity, Pointer<Vector2> reflectVelocity, Pointer<Float> toiOut, Vector2 contactPoint) {
+    public boolean hitTest(Shape other, Vector2 velocity, ContactManifold manifold) {
         if (other instanceof Circle circle)
-            return this.hitTest(circle, velocity, reflectVelocity, toiOut, contactPoint);
+            return this.hitTest(circle, velocity, manifold);
         else if (other instanceof Box box) {
-            Pointer<Vector2> _reflectVelocity = new Pointer<>(null);
-            boolean hit = box.hitTest(this, velocity, _reflectVelocity, toiOut, contactPoint);
+            // the box writes the manifold from its own perspective, so we flip it
+            boolean hit = box.hitTest(this, velocity, manifold);
+            manifold.flip();
 
-            if (_reflectVelocity.value != null)
-                _reflectVelocity.value.multiply(-1.0F);
-
-            reflectVelocity.value = _reflectVelocity.value;
             return hit;
         }
 
         return false;
     }
 
+    @Override
+    public boolean sweepTest(Shape other, float velocityX, float velocityY, ContactManifold manifold) {
+        if (other instanceof Circle circle)
+            return this.sweepTest(circle, velocityX, velocityY, manifold);
+        else if (other instanceof Box box)
+            return box.sweepCircle(this.center.x - velocityX, this.center.y - velocityY, velocityX, velocityY, this.radius, manifold);
+
+        return false;
+    }
+
+    @Override
+    public boolean raycast(float fromX, float fromY, float directionX, float directionY, float maxFraction, RaycastHit hit) {
+        float offsetX = fromX - this.center.x;
+        float offsetY = fromY - this.center.y;
+
+        // starting inside
+        if (offsetX * offsetX + offsetY * offsetY <= this.radius * this.radius) {
+            float length = (float) Math.sqrt(directionX * directionX + directionY * directionY);
+            hit.fraction = 0;
+            hit.point.set(fromX, fromY);
+            hit.normal.set(-directionX / length, -directionY / length);
+            return true;
+        }
+
+        float fraction = raycast(offsetX, offsetY, directionX, directionY, this.radius);
+        if (fraction < 0 || fraction > maxFraction)
+            return false;
+
+        float x = fromX + directionX * fraction;
+        float y = fromY + directionY * fraction;
+
+        hit.fraction = fraction;
+        hit.point.set(x, y);
+        hit.normal.set((x - this.center.x) / this.radius, (y - this.center.y) / this.radius);
+        return true;
+    }
+
+    @Override
+    public AABB getBounds(AABB out) {
+        return out.set(this.center.x - this.radius, this.center.y - this.radius, this.center.x + this.radius, this.center.y + this.radius);
+    }
+
     /**
      * Checks if this circle, given a velocity, collides with another circle, returning whether the collision happened
-     * and giving out a reflection velocity and a toi (in the specific case of Circle, TOI shouldn't be used)
+     * and writing the normal, penetration and contact point into the manifold (in the specific case of Circle, TOI isn't calculated)
      * @param other the other circle to test against
      * @param velocity the velocity of this circle
-     * @param reflectVelocity the velocity to subtract from the current velocity in order to get the correct position
-     *                        will be set from null to a vector, which lets the collider know to use this instead of toi
-     * @param toiOut the time of impact that can be used to lerp from previous position to current position (discrete)
-     *               to get the correct position
-     * @param contactPoint the point where the circles intersect
+     * @param manifold the manifold to write into, the normal points from this circle towards the other. If the circles
+     *                 are only touching, the penetration stays 0, which lets the collider know that no correction is needed
      * @return whether the collision happened
      */
-    private boolean hitTest(Circle other, Vector2 velocity, Pointer<Vector2> reflectVelocity, Pointer<Float> toiOut, Vector2 contactPoint) {
+    private boolean hitTest(Circle other, Vector2 velocity, ContactManifold manifold) {
         /*
          * Note: This code was lost, then recovered from compiled java binaries, ergo it lacks comments.
          */
 
-        Vector2 C1 = this.center.clone();
-        Vector2 C2 = other.center.clone();
+        Vector2 C1 = this.center;
+        Vector2 C2 = other.center;
 
         float radii = this.radius + other.radius;
-        float distance = C1.distance(C2);
+        float dX = C2.x - C1.x;
+        float dY = C2.y - C1.y;
+        float distance = (float) Math.sqrt(dX * dX + dY * dY);
 
         if (distance <= radii) {
             float overlap = radii - distance;
-            Vector2 reflect = Vector2.vector(C1, C2).getNormalized();
-            reflect.multiply(overlap);
+            float normalX = 0;
+            float normalY = 0;
+            if (distance > Float.MIN_VALUE) {
+                normalX = dX / distance;
+                normalY = dY / distance;
+            }
 
-            reflectVelocity.value = reflect;
+            manifold.setNormal(normalX, normalY, overlap);
 
-            Vector2 prevPos = Vector2.subtract(C1, velocity);
-            Vector2 recalculatedVelocity = Vector2.subtract(velocity, reflect);
-            Vector2 correctPosition = Vector2.add(prevPos, recalculatedVelocity);
+            // the position this circle would have after the correction
+            float correctX = C1.x - normalX * overlap;
+            float correctY = C1.y - normalY * overlap;
 
-            float t = this.radius / correctPosition.distance(C2);
-            float x = Mathf.lerp(correctPosition.x, C2.x, t);
-            float y = Mathf.lerp(correctPosition.y, C2.y, t);
+            float correctDistance = (float) Math.sqrt((C2.x - correctX) * (C2.x - correctX) + (C2.y - correctY) * (C2.y - correctY));
+            float t = this.radius / correctDistance;
+            float x = Mathf.lerp(correctX, C2.x, t);
+            float y = Mathf.lerp(correctY, C2.y, t);
 
-            contactPoint.set(x, y);
+            manifold.addContactPoint(x, y);
 
             return true;
         }
         else if (distance - 0.01F <= radii) {
-            reflectVelocity.value = new Vector2();
             return true;
         }
 
         return false;
     }
 
+    /**
+     * Sweeps this circle along its velocity against another (still) circle, writing the time of impact, the normal
+     * (from this circle towards the other at the time of impact) and the contact point into the manifold
+     * @param other the other circle to test against
+     * @param velocityX the x component of the velocity of this circle relative to the other
+     * @param velocityY the y component of the velocity of this circle relative to the other
+     * @param manifold the manifold to write into
+     * @return whether the circles hit during the movement
+     */
+    private boolean sweepTest(Circle other, float velocityX, float velocityY, ContactManifold manifold) {
+        float radii = this.radius + other.radius;
+
+        // the other circle grown by this radius, hit by the center of this circle moving from its previous position
+        float startX = this.center.x - velocityX;
+        float startY = this.center.y - velocityY;
+        float toi = raycast(startX - other.center.x, startY - other.center.y, velocityX, velocityY, radii);
+        if (toi < 0 || toi > 1)
+            return false;
+
+        float x = startX + velocityX * toi;
+        float y = startY + velocityY * toi;
+        float normalX = (other.center.x - x) / radii;
+        float normalY = (other.center.y - y) / radii;
+
+        manifold.toi = toi;
+        manifold.setNormal(normalX, normalY, 0);
+        manifold.addContactPoint(x + normalX * this.radius, y + normalY * this.radius);
+
+        return true;
+    }
+
+    /**
+     * Finds the first time a point, moving along a direction, enters a circle
+     * @param offsetX the x offset of the start of the point from the center of the circle
+     * @param offsetY the y offset of the start of the point from the center of the circle
+     * @param directionX the x component of the movement of the point (the time is expressed in fractions of this)
+     * @param directionY the y component of the movement of the point
+     * @param radius the radius of the circle
+     * @return the time of entry (0 or more), or -1 if the point never enters the circle or already starts inside it
+     */
+    static float raycast(float offsetX, float offsetY, float directionX, float directionY, float radius) {
+        float a = directionX * directionX + directionY * directionY;
+        float b = offsetX * directionX + offsetY * directionY;
+        float c = offsetX * offsetX + offsetY * offsetY - radius * radius;
+
+        // starts inside, or moves away from the circle
+        if (c < 0 || b >= 0 || a == 0)
+            return -1;
+
+        float discriminant = b * b - a * c;
+        if (discriminant < 0)
+            return -1;
+
+        return (-b - (float) Math.sqrt(discriminant)) / a;
+    }
+
     /**
      * Unused method to calculate a tangent force synchronized with the velocity that would neatly slide a circle along
      * another circle using the tangent formed between the circles (the perpendicular of C1 -> Contact Point)
@@ -0,0 +1,119 @@
+package pxp.engine.data.collision;
+
+import pxp.engine.data.Vector2;
+
+/**
+ * A mutable structure the hit tests of {@link Shape}s write the result of a collision into.<br/>
+ * Manifolds are meant to be reused (see {@link ContactManifoldPool}), so that testing shapes doesn't allocate anything.
+ * <b>Do not keep references to a manifold or its vectors after the hit test, as they will be overwritten!</b>
+ */
+public class ContactManifold
+{
+    /**
+     * The maximum amount of contact points a manifold can hold
+     */
+    public static final int MAX_CONTACT_POINTS = 2;
+
+    /**
+     * The direction of the collision from the perspective of the tested shape (a unit vector pointing towards the other
+     * shape or along the movement into it). The tested shape is corrected by moving it back against this direction.<br/>
+     * <i>Zero if the collision doesn't require a correction (i.e.: the shapes are merely touching)</i>
+     */
+    public final Vector2 normal = new Vector2();
+    /**
+     * How deep the shapes overlap along the normal (in world units)
+     */
+    public float penetration = 0f;
+    /**
+     * The time of impact, expressed as a float from 0-1 between the previous and current position of the tested shape<br/>
+     * <i>1 (the current position) unless the collision was found by a sweep test</i>
+     */
+    public float toi = 1f;
+    /**
+     * The contact points of the collision (only the first {@link ContactManifold#contactCount} are valid)
+     */
+    public final Vector2[] contactPoints = new Vector2[] { new Vector2(), new Vector2() };
+    /**
+     * The amount of valid contact points
+     */
+    public int contactCount = 0;
+
+    /**
+     * Resets the manifold to a blank state, to be reused by another hit test
+     * @return this manifold
+     */
+    public ContactManifold reset() {
+        this.normal.set(0, 0);
+        this.penetration = 0f;
+        this.toi = 1f;
+        this.contactCount = 0;
+        return this;
+    }
+
+    /**
+     * Sets the normal and penetration of the collision
+     * @param normalX the x component of the (unit) normal
+     * @param normalY the y component of the (unit) normal
+     * @param penetration how deep the shapes overlap along the normal
+     */
+    public void setNormal(float normalX, float normalY, float penetration) {
+        this.normal.set(normalX, normalY);
+        this.penetration = penetration;
+    }
+
+    /**
+     * Adds a contact point (ignored if the manifold is full)
+     */
+    public void addContactPoint(float x, float y) {
+        if (this.contactCount == MAX_CONTACT_POINTS)
+            return;
+
+        this.contactPoints[this.contactCount++].set(x, y);
+    }
+
+    /**
+     * Flips the normal, so that the manifold is seen from the perspective of the other shape
+     */
+    public void flip() {
+        this.normal.set(-this.normal.x, -this.normal.y);
+    }
+
+    /**
+     * Whether the collision requires the position of the tested shape to be corrected
+     */
+    public boolean hasCorrection() {
+        return this.penetration > 0f;
+    }
+
+    /**
+     * Whether the collision was found along the movement of the tested shape (by a sweep test), in which case the tested
+     * shape is moved back to the time of impact
+     */
+    public boolean hasTimeOfImpact() {
+        return this.toi < 1f;
+    }
+
+    /**
+     * Calculates the velocity to subtract from the current velocity of the tested shape in order to correct its position
+     * @param out the vector to write the velocity into
+     * @return the provided vector
+     */
+    public Vector2 getReflectVelocity(Vector2 out) {
+        return out.set(this.normal.x * this.penetration, this.normal.y * this.penetration);
+    }
+
+    /**
+     * Copies the values of another manifold into this one
+     * @return this manifold
+     */
+    public ContactManifold set(ContactManifold other) {
+        this.normal.set(other.normal);
+        this.penetration = other.penetration;
+        this.toi = other.toi;
+        this.contactCount = other.contactCount;
+        for (int i = 0; i < other.contactCount; i++)
+            this.contactPoints[i].set(other.contactPoints[i]);
+
+        return this;
+    }
+}
@@ -0,0 +1,45 @@
+package pxp.engine.data.collision;
+
+import java.util.Arrays;
+
+/**
+ * A pool of {@link ContactManifold}s, so that hit tests can reuse manifolds instead of allocating new ones.<br/>
+ * <i>This pool is not thread safe, every thread needs its own</i>
+ */
+public class ContactManifoldPool
+{
+    private ContactManifold[] free = new ContactManifold[8];
+    private int freeCount = 0;
+
+    /**
+     * Gets a blank manifold from the pool (creates one if the pool is empty)
+     * @return a reset manifold
+     */
+    public ContactManifold obtain() {
+        if (this.freeCount == 0)
+            return new ContactManifold();
+
+        ContactManifold manifold = this.free[--this.freeCount];
+        this.free[this.freeCount] = null;
+        return manifold.reset();
+    }
+
+    /**
+     * Returns a manifold to the pool<br/>
+     * <b>The manifold must not be used after being freed!</b>
+     * @param manifold the manifold to return
+     */
+    public void free(ContactManifold manifold) {
+        if (this.freeCount == this.free.length)
+            this.free = Arrays.copyOf(this.free, this.free.length * 2);
+
+        this.free[this.freeCount++] = manifold;
+    }
+
+    /**
+     * Gets the amount of manifolds waiting in the pool
+     */
+    public int getFreeCount() {
+        return this.freeCount;
+    }
+}
@@ -0,0 +1,75 @@
+package pxp.engine.data.collision;
+
+import java.util.Arrays;
+
+/**
+ * The collision matrix of the layers, stored as one bitmask per layer (bit n of a layer's mask is set if it collides with layer n).<br/>
+ * The matrix is always symmetric and, by default, every layer collides with every other layer.
+ */
+public class LayerCollisionMatrix
+{
+    /**
+     * The maximum amount of layers (the amount of bits in a mask)
+     */
+    public static final int MAX_LAYERS = 32;
+
+    private final int[] masks = new int[MAX_LAYERS];
+
+    /**
+     * Creates a collision matrix where every layer collides with every other layer
+     */
+    public LayerCollisionMatrix() {
+        Arrays.fill(this.masks, ~0);
+    }
+
+    /**
+     * Enables or disables the collision of two layers (works both ways)
+     * @param layerA the id of a layer
+     * @param layerB the id of the other layer
+     * @param collide whether the layers should collide
+     */
+    public void setCollision(int layerA, int layerB, boolean collide) {
+        checkLayer(layerA);
+        checkLayer(layerB);
+
+        if (collide) {
+            this.masks[layerA] |= 1 << layerB;
+            this.masks[layerB] |= 1 << layerA;
+        }
+        else {
+            this.masks[layerA] &= ~(1 << layerB);
+            this.masks[layerB] &= ~(1 << layerA);
+        }
+    }
+
+    /**
+     * Checks whether two layers collide
+     * @param layerA the id of a layer
+     * @param layerB the id of the other layer
+     * @return true if the layers collide
+     */
+    public boolean canCollide(int layerA, int layerB) {
+        return (this.masks[layerA] & (1 << layerB)) != 0;
+    }
+
+    /**
+     * Gets the mask of the layers that a layer collides with
+     * @param layer the id of the layer
+     * @return the mask (bit n is set if the layer collides with layer n)
+     */
+    public int getMask(int layer) {
+        return this.masks[layer];
+    }
+
+    /**
+     * Makes every layer collide with every other layer again
+     */
+    public void reset() {
+        Arrays.fill(this.masks, ~0);
+    }
+
+    private static void checkLayer(int layer) {
+        if (layer < 0 || layer >= MAX_LAYERS)
+            throw new IndexOutOfBoundsException("The layer id " + layer + " is out of bounds! Up to " + MAX_LAYERS + " layers are possible.");
+    }
+}
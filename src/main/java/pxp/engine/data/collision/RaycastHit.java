@@ -0,0 +1,50 @@
+package pxp.engine.data.collision;
+
+import pxp.engine.core.component.Collider;
+import pxp.engine.data.Vector2;
+
+/**
+ * The result of a raycast or shape cast, written by the queries of the CollisionManager.<br/>
+ * Hits are meant to be reused between queries, so that querying doesn't allocate.
+ */
+public class RaycastHit
+{
+    /**
+     * The collider that was hit
+     */
+    public Collider collider;
+    /**
+     * The point where the ray (or the cast shape) hit the collider, in world units
+     */
+    public final Vector2 point = new Vector2();
+    /**
+     * The normal of the surface that was hit (pointing back towards the ray)
+     */
+    public final Vector2 normal = new Vector2();
+    /**
+     * The fraction (0-1) of the ray's distance at which the hit happened (0 if the ray started inside the collider)
+     */
+    public float fraction;
+    /**
+     * The distance from the origin of the ray to the hit, in world units
+     */
+    public float distance;
+
+    /**
+     * Copies the values of another hit into this one
+     * @return this hit
+     */
+    public RaycastHit set(RaycastHit other) {
+        this.collider = other.collider;
+        this.point.set(other.point);
+        this.normal.set(other.normal);
+        this.fraction = other.fraction;
+        this.distance = other.distance;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "RaycastHit [collider: " + collider + ", point: " + point + ", normal: " + normal + ", distance: " + distance + "]";
+    }
+}
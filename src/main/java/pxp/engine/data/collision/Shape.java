@@ -1,20 +1,52 @@
 package pxp.engine.data.collision;
 
 import pxp.engine.data.Vector2;
-import pxp.util.Pointer;
 
 /**
  * Abstract Shape class
  */
 public abstract class Shape {
    /**
-    * Checks if this shape collides with another
+    * Checks if this shape collides with another<br/>
+    * <i>Hit tests must not allocate, they are run for every pair of colliders, every frame</i>
     * @param other the other shape to test against
-    * @param velocity the velocity of this shape
-    * @param reflectVelocity the out velocity vector to correct the position of this shape
-    * @param toiOut the out time of impact
-    * @param contactPoint the contact point of the collision (if one can be established)
+    * @param velocity the velocity of this shape (not modified)
+    * @param manifold the (reset) manifold to write the normal, penetration, time of impact and contact points into
     * @return whether the shapes hit
     */
-   public abstract boolean hitTest(Shape other, Vector2 velocity, Pointer<Vector2> reflectVelocity, Pointer<Float> toiOut, Vector2 contactPoint);
+   public abstract boolean hitTest(Shape other, Vector2 velocity, ContactManifold manifold);
+
+   /**
+    * Sweeps this shape along its movement (from its current position minus the velocity, to its current position) against
+    * another, still shape, finding the first time of impact<br/>
+    * Used for continuous collision detection, when the {@link Shape#hitTest} of the current positions doesn't hit
+    * (fast shapes can pass through thin ones between two frames)<br/>
+    * <i>Sweep tests must not allocate either</i>
+    * @param other the other shape to test against (at its current position)
+    * @param velocityX the x component of the velocity of this shape relative to the other shape
+    * @param velocityY the y component of the velocity of this shape relative to the other shape
+    * @param manifold the (reset) manifold to write the normal (along the movement, into the other shape), time of impact and contact points into
+    * @return whether the shapes hit during the movement
+    */
+   public abstract boolean sweepTest(Shape other, float velocityX, float velocityY, ContactManifold manifold);
+
+   /**
+    * Casts a ray (segment) against this shape<br/>
+    * <i>Raycasts must not allocate either</i>
+    * @param fromX the x position of the start of the ray
+    * @param fromY the y position of the start of the ray
+    * @param directionX the x component of the ray (its length is the length of the segment)
+    * @param directionY the y component of the ray
+    * @param maxFraction the fraction (0-1) of the ray to search within
+    * @param hit the hit to write the fraction, point and normal into (only written if this shape is hit)
+    * @return whether the ray hits this shape within the max fraction (a ray starting inside the shape hits it at 0)
+    */
+   public abstract boolean raycast(float fromX, float fromY, float directionX, float directionY, float maxFraction, RaycastHit hit);
+
+   /**
+    * Calculates the world space axis aligned bounds of this shape
+    * @param out the bounding box to write the bounds into
+    * @return the provided bounding box
+    */
+   public abstract AABB getBounds(AABB out);
 }
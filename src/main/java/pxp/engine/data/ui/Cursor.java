@@ -37,7 +37,7 @@ public class Cursor
         }
 
         if (this.id == -1) {
-            context.cursor(sprite.getPImage());
+            context.cursor(sprite.getCroppedPImage());
             return;
         }
 
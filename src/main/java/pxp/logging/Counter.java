@@ -0,0 +1,44 @@
+package pxp.logging;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A metric that only goes up (i.e.: the amount of frames rendered)<br/>
+ * Incrementing doesn't allocate, and can be done from any thread
+ * @see Metrics#counter(String, String, String...)
+ */
+public class Counter extends Metric
+{
+    private final AtomicLong value = new AtomicLong();
+
+    Counter(String name, String help, String[] labels) {
+        super(name, help, labels);
+    }
+
+    /**
+     * Adds one to the counter
+     */
+    public void increment() {
+        this.value.incrementAndGet();
+    }
+
+    /**
+     * Adds to the counter
+     * @param amount the amount to add (must not be negative)
+     */
+    public void increment(long amount) {
+        this.value.addAndGet(amount);
+    }
+
+    /**
+     * Gets the value of the counter
+     */
+    public long get() {
+        return this.value.get();
+    }
+
+    @Override
+    public String getType() {
+        return "counter";
+    }
+}
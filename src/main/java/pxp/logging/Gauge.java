@@ -0,0 +1,47 @@
+package pxp.logging;
+
+import java.util.function.DoubleSupplier;
+
+/**
+ * A metric that goes up and down (i.e.: the amount of game objects).<br/>
+ * The value is either set (which doesn't allocate, and can be done from any thread), or read from a supplier every
+ * time the metric is exported (the supplier runs on the thread of the exporter, so it must be thread safe)
+ * @see Metrics#gauge(String, String, String...)
+ * @see Metrics#gauge(String, String, DoubleSupplier, String...)
+ */
+public class Gauge extends Metric
+{
+    /**
+     * The bits of the value
+     */
+    private volatile long value = Double.doubleToRawLongBits(0);
+    private final DoubleSupplier supplier;
+
+    Gauge(String name, String help, DoubleSupplier supplier, String[] labels) {
+        super(name, help, labels);
+        this.supplier = supplier;
+    }
+
+    /**
+     * Sets the value (ignored if the gauge reads a supplier)
+     * @param value the new value
+     */
+    public void set(double value) {
+        this.value = Double.doubleToRawLongBits(value);
+    }
+
+    /**
+     * Gets the value (reading the supplier, if it has one)
+     */
+    public double get() {
+        if (this.supplier != null)
+            return this.supplier.getAsDouble();
+
+        return Double.longBitsToDouble(this.value);
+    }
+
+    @Override
+    public String getType() {
+        return "gauge";
+    }
+}
@@ -0,0 +1,96 @@
+package pxp.logging;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A metric that counts observed values into buckets (i.e.: how many frames took up to 16ms, up to 33ms...), along with
+ * their sum.<br/>
+ * Observing doesn't allocate, and can be done from any thread
+ * @see Metrics#histogram(String, String, double[], String...)
+ */
+public class Histogram extends Metric
+{
+    /**
+     * The upper bounds of the buckets, ascending (values above the last one go in an extra bucket)
+     */
+    private final double[] bounds;
+    /**
+     * The amount of values in every bucket (not cumulative)
+     */
+    private final AtomicLongArray counts;
+    /**
+     * The bits of the sum of the values
+     */
+    private final AtomicLong sum = new AtomicLong(Double.doubleToRawLongBits(0));
+
+    Histogram(String name, String help, double[] bounds, String[] labels) {
+        super(name, help, labels);
+
+        for (int i = 1; i < bounds.length; i++)
+            if (bounds[i] <= bounds[i - 1])
+                throw new IllegalArgumentException("The bounds of the buckets of a histogram must be ascending.");
+
+        this.bounds = bounds.clone();
+        this.counts = new AtomicLongArray(bounds.length + 1);
+    }
+
+    /**
+     * Counts a value into its bucket
+     * @param value the observed value
+     */
+    public void observe(double value) {
+        // the first bucket whose bound isn't below the value
+        int low = 0;
+        int high = this.bounds.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (this.bounds[middle] < value)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+
+        this.counts.incrementAndGet(low);
+
+        long bits;
+        do bits = this.sum.get();
+        while (!this.sum.compareAndSet(bits, Double.doubleToRawLongBits(Double.longBitsToDouble(bits) + value)));
+    }
+
+    /**
+     * Gets the amount of buckets (including the one above the last bound)
+     */
+    public int getBucketCount() {
+        return this.counts.length();
+    }
+
+    /**
+     * Gets the upper bound of a bucket
+     * @param bucket the index of the bucket
+     * @return the bound (infinity for the last bucket)
+     */
+    public double getBound(int bucket) {
+        return bucket < this.bounds.length ? this.bounds[bucket] : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Gets the amount of values in a bucket
+     * @param bucket the index of the bucket
+     */
+    public long getCount(int bucket) {
+        return this.counts.get(bucket);
+    }
+
+    /**
+     * Gets the sum of the observed values
+     */
+    public double getSum() {
+        return Double.longBitsToDouble(this.sum.get());
+    }
+
+    @Override
+    public String getType() {
+        return "histogram";
+    }
+}
@@ -0,0 +1,69 @@
+package pxp.logging;
+
+import java.util.Arrays;
+
+/**
+ * A metric of the {@link Metrics} registry: a named value (or set of values), with labels that tell apart metrics of the
+ * same name (i.e.: the same count for different scenes)
+ */
+public abstract class Metric
+{
+    /**
+     * The name of the metric (letters, digits and underscores, i.e.: pxp_frames_total)
+     */
+    public final String name;
+    /**
+     * The description of the metric
+     */
+    public final String help;
+    /**
+     * The labels of the metric, as pairs of names and values (i.e.: { "scene", "0" })
+     */
+    final String[] labels;
+
+    Metric(String name, String help, String[] labels) {
+        if (!name.matches("[a-zA-Z_][a-zA-Z0-9_]*"))
+            throw new IllegalArgumentException("The name of a metric can only contain letters, digits and underscores: " + name);
+        if (labels.length % 2 != 0)
+            throw new IllegalArgumentException("The labels of a metric must be pairs of names and values.");
+
+        this.name = name;
+        this.help = help;
+        this.labels = labels.clone();
+    }
+
+    /**
+     * Gets the type of the metric, as named by Prometheus (counter, gauge or histogram)
+     */
+    public abstract String getType();
+
+    /**
+     * Gets the amount of labels
+     */
+    public int getLabelCount() {
+        return this.labels.length / 2;
+    }
+
+    /**
+     * Gets the name of a label
+     * @param index the index of the label
+     */
+    public String getLabelName(int index) {
+        return this.labels[index * 2];
+    }
+
+    /**
+     * Gets the value of a label
+     * @param index the index of the label
+     */
+    public String getLabelValue(int index) {
+        return this.labels[index * 2 + 1];
+    }
+
+    /**
+     * Whether this metric has a name and labels
+     */
+    boolean is(String name, String[] labels) {
+        return this.name.equals(name) && Arrays.equals(this.labels, labels);
+    }
+}
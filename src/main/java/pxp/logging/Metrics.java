@@ -0,0 +1,118 @@
+package pxp.logging;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+/**
+ * The Metrics registry holds the metrics of the game (counters, gauges and histograms), which are written to disk by
+ * {@link MetricsExporter}s.<br/>
+ * Metrics are created once (i.e.: when the game starts) and kept, so that recording them doesn't allocate. Registering
+ * a metric that exists (with the same name and labels) returns the existing one.
+ * <pre>
+ * Counter deaths = Metrics.getInstance().counter("game_deaths_total", "The amount of times the player died");
+ * ...
+ * deaths.increment();
+ * </pre>
+ */
+public class Metrics
+{
+    private static Metrics instance;
+
+    /**
+     * Gets the default registry (the one the engine records its metrics in)
+     */
+    public static synchronized Metrics getInstance() {
+        if (instance == null)
+            instance = new Metrics();
+
+        return instance;
+    }
+
+    private final List<Metric> metrics = new ArrayList<>();
+
+    /**
+     * Creates an empty registry (most of the time, the default one should be used)
+     * @see Metrics#getInstance()
+     */
+    public Metrics() { }
+
+    /**
+     * Registers a counter
+     * @param name the name of the metric
+     * @param help the description of the metric
+     * @param labels the labels of the metric, as pairs of names and values
+     * @return the counter (the existing one, if it was registered before)
+     */
+    public Counter counter(String name, String help, String... labels) {
+        return this.register(Counter.class, name, labels, () -> new Counter(name, help, labels));
+    }
+
+    /**
+     * Registers a gauge that is set
+     * @param name the name of the metric
+     * @param help the description of the metric
+     * @param labels the labels of the metric, as pairs of names and values
+     * @return the gauge (the existing one, if it was registered before)
+     */
+    public Gauge gauge(String name, String help, String... labels) {
+        return this.register(Gauge.class, name, labels, () -> new Gauge(name, help, null, labels));
+    }
+
+    /**
+     * Registers a gauge that reads a supplier when exported
+     * @param name the name of the metric
+     * @param help the description of the metric
+     * @param supplier supplies the value (on the thread of the exporter)
+     * @param labels the labels of the metric, as pairs of names and values
+     * @return the gauge (the existing one, if it was registered before)
+     */
+    public Gauge gauge(String name, String help, DoubleSupplier supplier, String... labels) {
+        return this.register(Gauge.class, name, labels, () -> new Gauge(name, help, supplier, labels));
+    }
+
+    /**
+     * Registers a histogram
+     * @param name the name of the metric
+     * @param help the description of the metric
+     * @param bounds the upper bounds of the buckets, ascending
+     * @param labels the labels of the metric, as pairs of names and values
+     * @return the histogram (the existing one, if it was registered before)
+     */
+    public Histogram histogram(String name, String help, double[] bounds, String... labels) {
+        return this.register(Histogram.class, name, labels, () -> new Histogram(name, help, bounds, labels));
+    }
+
+    /**
+     * Removes a metric
+     * @param metric the metric to remove
+     */
+    public synchronized void unregister(Metric metric) {
+        this.metrics.remove(metric);
+    }
+
+    /**
+     * Gets the registered metrics, in the order they were registered
+     * @return a copy of the list of metrics
+     */
+    public synchronized List<Metric> getMetrics() {
+        return new ArrayList<>(this.metrics);
+    }
+
+    private synchronized <T extends Metric> T register(Class<T> type, String name, String[] labels, Supplier<T> create) {
+        for (Metric metric : this.metrics) {
+            if (!metric.is(name, labels))
+                continue;
+
+            if (!type.isInstance(metric))
+                throw new IllegalArgumentException("The metric " + name + " is already registered as a " + metric.getType() + ".");
+
+            return type.cast(metric);
+        }
+
+        T metric = create.get();
+        this.metrics.add(metric);
+        return metric;
+    }
+}
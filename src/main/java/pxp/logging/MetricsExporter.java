@@ -0,0 +1,383 @@
+package pxp.logging;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The Metrics Exporter writes snapshots of the metrics of a registry to a local file, periodically (on its own thread),
+ * in one of two formats:
+ * <ul>
+ *     <li>JSON lines: every snapshot is appended to the file as a line. When the file reaches its maximum size, it is
+ *     renamed to file.1 (file.1 to file.2 and so on) and a new one is started, keeping a maximum amount of files</li>
+ *     <li>Prometheus text: every snapshot replaces the file (atomically, so it can be read by a collector at any time,
+ *     i.e.: the textfile collector of the node exporter)</li>
+ * </ul>
+ * <pre>
+ * new MetricsExporter(Metrics.getInstance(), new File("metrics.jsonl"), MetricsExporter.Format.JSON_LINES).start(10f);
+ * </pre>
+ */
+public class MetricsExporter
+{
+    /**
+     * The formats of the snapshots
+     */
+    public enum Format
+    {
+        JSON_LINES,
+        PROMETHEUS
+    }
+
+    public final Metrics metrics;
+    public final File file;
+    public final Format format;
+
+    /**
+     * The size the file can reach before it is rolled over, in bytes (JSON lines only)
+     */
+    private long maxFileSize = 10L * 1024 * 1024;
+    /**
+     * The amount of rolled over files kept besides the current one (JSON lines only)
+     */
+    private int maxFiles = 5;
+
+    private ScheduledExecutorService executor = null;
+    /**
+     * Whether the last export failed (so the failure is only logged once in a row)
+     */
+    private boolean failed = false;
+
+    /**
+     * Creates an exporter (not started)
+     * @param metrics the registry to export
+     * @param file the file to write
+     * @param format the format of the snapshots
+     */
+    public MetricsExporter(Metrics metrics, File file, Format format) {
+        this.metrics = metrics;
+        this.file = file;
+        this.format = format;
+    }
+
+    /**
+     * Sets the size the file can reach before it is rolled over (JSON lines only)
+     * @param bytes the size in bytes
+     * @return this exporter (for chaining)
+     */
+    public MetricsExporter setMaxFileSize(long bytes) {
+        if (bytes <= 0)
+            throw new IllegalArgumentException("The maximum size of the file must be positive.");
+
+        this.maxFileSize = bytes;
+        return this;
+    }
+
+    /**
+     * Sets the amount of rolled over files kept besides the current one (JSON lines only)
+     * @param files the amount of files (0 to delete the file when it's full)
+     * @return this exporter (for chaining)
+     */
+    public MetricsExporter setMaxFiles(int files) {
+        if (files < 0)
+            throw new IllegalArgumentException("The amount of files can't be negative.");
+
+        this.maxFiles = files;
+        return this;
+    }
+
+    /**
+     * Starts exporting periodically, on a daemon thread (the first snapshot is written after one interval)
+     * @param interval the time between snapshots, in seconds
+     * @return this exporter (for chaining)
+     */
+    public synchronized MetricsExporter start(float interval) {
+        if (interval <= 0f)
+            throw new IllegalArgumentException("The interval between snapshots must be positive.");
+        if (this.executor != null)
+            return this;
+
+        this.executor = Executors.newSingleThreadScheduledExecutor(run -> {
+            Thread thread = new Thread(run, "PXP Metrics Exporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        long period = (long) (interval * 1000d);
+        this.executor.scheduleAtFixedRate(this::export, period, period, TimeUnit.MILLISECONDS);
+        return this;
+    }
+
+    /**
+     * Stops exporting periodically, writing a last snapshot
+     */
+    public synchronized void stop() {
+        if (this.executor == null)
+            return;
+
+        this.executor.shutdownNow();
+        this.executor = null;
+        this.export();
+    }
+
+    /**
+     * Writes a snapshot now (errors are logged, not thrown)
+     */
+    public synchronized void export() {
+        try {
+            long time = System.currentTimeMillis();
+            if (this.format == Format.JSON_LINES)
+                this.append(toJson(this.metrics.getMetrics(), time) + "\n");
+            else
+                this.replace(toPrometheus(this.metrics.getMetrics()));
+
+            this.failed = false;
+        }
+        catch (IOException | RuntimeException e) {
+            if (!this.failed)
+                Debug.warn("[Metrics] Could not export the metrics to " + this.file + ": " + e.getMessage());
+
+            this.failed = true;
+        }
+    }
+
+    /**
+     * Appends a line to the file, rolling the files over first if it would get too big
+     */
+    private void append(String line) throws IOException {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        Path path = this.file.toPath();
+        if (Files.exists(path) && Files.size(path) > 0 && Files.size(path) + bytes.length > this.maxFileSize)
+            this.rollOver();
+
+        if (path.getParent() != null)
+            Files.createDirectories(path.getParent());
+
+        Files.write(path, bytes, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private void rollOver() throws IOException {
+        Files.deleteIfExists(this.rolled(this.maxFiles));
+        for (int i = this.maxFiles - 1; i >= 0; i--) {
+            Path from = i == 0 ? this.file.toPath() : this.rolled(i);
+            if (Files.exists(from))
+                Files.move(from, this.rolled(i + 1), StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        // no rolled over files are kept
+        Files.deleteIfExists(this.file.toPath());
+    }
+
+    private Path rolled(int index) {
+        return new File(this.file.getPath() + "." + index).toPath();
+    }
+
+    /**
+     * Replaces the file by writing a temporary file next to it and moving it over
+     */
+    private void replace(String text) throws IOException {
+        Path path = this.file.getAbsoluteFile().toPath();
+        Files.createDirectories(path.getParent());
+
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.writeString(temporary, text, StandardCharsets.UTF_8);
+        try {
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (IOException e) {
+            // the file system can't move atomically
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // ==================== FORMATS ====================
+
+    /**
+     * Formats metrics as a line of JSON:
+     * <code>{"time":...,"metrics":[{"name":"...","type":"...","labels":{...},"value":...}, ...]}</code><br/>
+     * Histograms have their buckets (as pairs of upper bound and non-cumulative count), sum and count instead of a value
+     * @param metrics the metrics
+     * @param time the time of the snapshot, in milliseconds since the epoch
+     */
+    public static String toJson(List<Metric> metrics, long time) {
+        StringBuilder json = new StringBuilder();
+        json.append("{\"time\":").append(time).append(",\"metrics\":[");
+
+        for (int i = 0; i < metrics.size(); i++) {
+            Metric metric = metrics.get(i);
+            if (i > 0)
+                json.append(',');
+
+            json.append("{\"name\":");
+            jsonString(json, metric.name);
+            json.append(",\"type\":\"").append(metric.getType()).append('"');
+
+            if (metric.getLabelCount() > 0) {
+                json.append(",\"labels\":{");
+                for (int l = 0; l < metric.getLabelCount(); l++) {
+                    if (l > 0)
+                        json.append(',');
+
+                    jsonString(json, metric.getLabelName(l));
+                    json.append(':');
+                    jsonString(json, metric.getLabelValue(l));
+                }
+                json.append('}');
+            }
+
+            if (metric instanceof Counter counter)
+                json.append(",\"value\":").append(counter.get());
+            else if (metric instanceof Gauge gauge) {
+                json.append(",\"value\":");
+                jsonNumber(json, gauge.get());
+            }
+            else if (metric instanceof Histogram histogram) {
+                long count = 0;
+                json.append(",\"buckets\":[");
+                for (int b = 0; b < histogram.getBucketCount(); b++) {
+                    if (b > 0)
+                        json.append(',');
+
+                    json.append('[');
+                    double bound = histogram.getBound(b);
+                    if (Double.isInfinite(bound))
+                        json.append("\"+Inf\"");
+                    else
+                        jsonNumber(json, bound);
+                    json.append(',').append(histogram.getCount(b)).append(']');
+                    count += histogram.getCount(b);
+                }
+                json.append("],\"sum\":");
+                jsonNumber(json, histogram.getSum());
+                json.append(",\"count\":").append(count);
+            }
+
+            json.append('}');
+        }
+
+        return json.append("]}").toString();
+    }
+
+    /**
+     * Formats metrics in the Prometheus text format (version 0.0.4)
+     * @param metrics the metrics
+     */
+    public static String toPrometheus(List<Metric> metrics) {
+        StringBuilder text = new StringBuilder();
+
+        // the metrics of the same name go together, under a single description
+        List<String> names = new ArrayList<>();
+        for (Metric metric : metrics)
+            if (!names.contains(metric.name))
+                names.add(metric.name);
+
+        for (String name : names) {
+            boolean described = false;
+            for (Metric metric : metrics) {
+                if (!metric.name.equals(name))
+                    continue;
+
+                if (!described) {
+                    text.append("# HELP ").append(name).append(' ')
+                        .append(metric.help.replace("\\", "\\\\").replace("\n", "\\n")).append('\n');
+                    text.append("# TYPE ").append(name).append(' ').append(metric.getType()).append('\n');
+                    described = true;
+                }
+
+                if (metric instanceof Counter counter)
+                    sample(text, name, metric, null, counter.get());
+                else if (metric instanceof Gauge gauge)
+                    sample(text, name, metric, null, gauge.get());
+                else if (metric instanceof Histogram histogram) {
+                    // the buckets of prometheus are cumulative
+                    long count = 0;
+                    for (int b = 0; b < histogram.getBucketCount(); b++) {
+                        count += histogram.getCount(b);
+                        sample(text, name + "_bucket", metric, prometheusNumber(histogram.getBound(b)), count);
+                    }
+                    sample(text, name + "_sum", metric, null, histogram.getSum());
+                    sample(text, name + "_count", metric, null, count);
+                }
+            }
+        }
+
+        return text.toString();
+    }
+
+    private static void sample(StringBuilder text, String name, Metric metric, String le, double value) {
+        text.append(name);
+        if (metric.getLabelCount() > 0 || le != null) {
+            text.append('{');
+            for (int l = 0; l < metric.getLabelCount(); l++) {
+                if (l > 0)
+                    text.append(',');
+
+                text.append(metric.getLabelName(l)).append("=\"").append(prometheusLabel(metric.getLabelValue(l))).append('"');
+            }
+
+            if (le != null) {
+                if (metric.getLabelCount() > 0)
+                    text.append(',');
+
+                text.append("le=\"").append(le).append('"');
+            }
+            text.append('}');
+        }
+
+        text.append(' ').append(prometheusNumber(value)).append('\n');
+    }
+
+    private static String prometheusNumber(double value) {
+        if (Double.isNaN(value))
+            return "NaN";
+        if (Double.isInfinite(value))
+            return value > 0 ? "+Inf" : "-Inf";
+        if (value == Math.rint(value) && Math.abs(value) < 1e15)
+            return Long.toString((long) value);
+
+        return Double.toString(value);
+    }
+
+    private static String prometheusLabel(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static void jsonNumber(StringBuilder json, double value) {
+        // json has no NaN or infinity
+        if (Double.isNaN(value) || Double.isInfinite(value))
+            json.append("null");
+        else if (value == Math.rint(value) && Math.abs(value) < 1e15)
+            json.append((long) value);
+        else
+            json.append(value);
+    }
+
+    private static void jsonString(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20)
+                        json.append(String.format("\\u%04x", (int) c));
+                    else
+                        json.append(c);
+                }
+            }
+        }
+        json.append('"');
+    }
+}
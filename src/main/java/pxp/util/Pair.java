@@ -1,5 +1,7 @@
 package pxp.util;
 
+import java.util.Objects;
+
 /**
  * A pair of two values.<br/>
  * Checking equality with {@link Pair#equals(Object)} will check the values and order of this pair against another, instead of the hash code.
@@ -21,4 +23,9 @@ public class Pair<T1,T2>
 
         return this.left.equals(pair.left) && this.right.equals(pair.right);
     }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.left, this.right);
+    }
 }
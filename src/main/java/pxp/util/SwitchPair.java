@@ -1,5 +1,7 @@
 package pxp.util;
 
+import java.util.Objects;
+
 /**
  * Has the same functionality as a Pair, but when using {@link SwitchPair#equals(Object)}, it checks each value against each of the other values.
  */
@@ -17,4 +19,10 @@ public class SwitchPair<T1, T2> extends Pair<T1, T2>
             (this.left.equals(pair.left) && this.right.equals(pair.right)) ||
             (this.left.equals(pair.right) && this.right.equals(pair.left));
     }
+
+    @Override
+    public int hashCode() {
+        // the order of the values doesn't matter, so neither can it for the hash
+        return Objects.hashCode(this.left) + Objects.hashCode(this.right);
+    }
 }
@@ -0,0 +1,74 @@
+import pxp.engine.core.Transform;
+import pxp.engine.data.Vector2;
+import pxp.engine.data.Vector3;
+import pxp.engine.data.collision.Box;
+import pxp.engine.data.collision.Circle;
+import pxp.engine.data.collision.ContactManifold;
+import pxp.engine.data.collision.Shape;
+
+import java.lang.management.ManagementFactory;
+
+// Measures the time and allocations of the shape hit tests (should be 0 bytes per test)
+
+public class NarrowphaseBenchmark
+{
+    private static final int WARMUP = 200_000;
+    private static final int ITERATIONS = 2_000_000;
+
+    private static final ContactManifold manifold = new ContactManifold();
+    private static int hits = 0;
+
+    public static void main(String[] args) {
+        Box boxA = new Box(new Vector2(), new Vector2(1, 1), new Transform(new Vector2(0, 0), new Vector3(0, 0, 15)));
+        Box boxB = new Box(new Vector2(), new Vector2(1, 1), new Transform(new Vector2(1.5f, 0.5f)));
+        Circle circleA = new Circle(new Vector2(1.5f, 0.2f), 0.75f);
+        Circle circleB = new Circle(new Vector2(2.5f, 0.4f), 0.5f);
+        Vector2 velocity = new Vector2(0.2f, 0.05f);
+
+        bench("Box/Box", boxA, boxB, velocity);
+        bench("Box/Circle", boxA, circleA, velocity);
+        bench("Circle/Circle", circleA, circleB, velocity);
+        bench("Circle/Box", circleA, boxB, velocity);
+
+        for (int i = 0; i < WARMUP; i++)
+            boxA.update();
+
+        long bytes = allocatedBytes();
+        long time = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++)
+            boxA.update();
+        time = System.nanoTime() - time;
+        bytes = allocatedBytes() - bytes;
+
+        print("Box.update", time, bytes);
+        System.out.println("(" + hits + " hits)");
+    }
+
+    private static void bench(String name, Shape a, Shape b, Vector2 velocity) {
+        for (int i = 0; i < WARMUP; i++)
+            test(a, b, velocity);
+
+        long bytes = allocatedBytes();
+        long time = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++)
+            test(a, b, velocity);
+        time = System.nanoTime() - time;
+        bytes = allocatedBytes() - bytes;
+
+        print(name, time, bytes);
+    }
+
+    private static void test(Shape a, Shape b, Vector2 velocity) {
+        if (a.hitTest(b, velocity, manifold.reset()))
+            hits++;
+    }
+
+    private static void print(String name, long time, long bytes) {
+        System.out.printf("%-14s %8.2f ns/op %8.3f bytes/op%n", name, (double) time / ITERATIONS, (double) bytes / ITERATIONS);
+    }
+
+    private static long allocatedBytes() {
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
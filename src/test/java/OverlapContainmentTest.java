@@ -0,0 +1,46 @@
+import pxp.engine.core.GameObject;
+import pxp.engine.core.HeadlessRunner;
+import pxp.engine.core.Scene;
+import pxp.engine.core.component.BoxCollider;
+import pxp.engine.core.component.Camera;
+import pxp.engine.core.component.Collider;
+import pxp.engine.core.component.Component;
+import pxp.engine.core.manager.CollisionManager;
+import pxp.engine.data.GameObjectSupplier;
+import pxp.engine.data.GameSettings;
+import pxp.engine.data.LayerMask;
+import pxp.engine.data.Vector2;
+
+// The overlap queries must find a box collider that entirely contains the query shape (and the other way around)
+
+public class OverlapContainmentTest
+{
+    public static void main(String[] args) {
+        HeadlessRunner runner = HeadlessRunner.create(new GameSettings(), new Scene(new GameObjectSupplier[] {
+            () -> new GameObject("cam", new Component[] { new Camera() }),
+            // a 4x4 box around the origin
+            () -> new GameObject("box", new Component[] { new BoxCollider(new Vector2(), new Vector2(2, 2)) {{ this.isStatic = true; }} })
+        }));
+        runner.start();
+        runner.run(3);
+
+        CollisionManager collisions = runner.process.collisionManager;
+        Collider[] results = new Collider[4];
+
+        check("circle inside the box", collisions.overlapCircle(new Vector2(0.5f, 0.5f), 0.25f, LayerMask.EVERYTHING, results), 1);
+        check("circle crossing the edge", collisions.overlapCircle(new Vector2(2f, 0f), 0.25f, LayerMask.EVERYTHING, results), 1);
+        check("circle outside the box", collisions.overlapCircle(new Vector2(3f, 0f), 0.25f, LayerMask.EVERYTHING, results), 0);
+        check("box inside the box", collisions.overlapBox(new Vector2(), new Vector2(0.5f, 0.5f), 30f, LayerMask.EVERYTHING, results), 1);
+        check("box around the box", collisions.overlapBox(new Vector2(), new Vector2(5f, 5f), 0f, LayerMask.EVERYTHING, results), 1);
+        check("circle around the box", collisions.overlapCircle(new Vector2(), 5f, LayerMask.EVERYTHING, results), 1);
+
+        System.out.println("OK");
+        System.exit(0);
+    }
+
+    private static void check(String name, int found, int expected) {
+        System.out.println(name + ": " + found);
+        if (found != expected)
+            throw new RuntimeException(name + " found " + found + " colliders instead of " + expected + ".");
+    }
+}
@@ -0,0 +1,50 @@
+import pxp.engine.core.GameObject;
+import pxp.engine.core.HeadlessRunner;
+import pxp.engine.core.Scene;
+import pxp.engine.core.Transform;
+import pxp.engine.core.component.Camera;
+import pxp.engine.core.component.CircleCollider;
+import pxp.engine.core.component.Component;
+import pxp.engine.core.component.Tilemap;
+import pxp.engine.data.GameObjectSupplier;
+import pxp.engine.data.GameSettings;
+import pxp.engine.data.Vector2;
+
+// A circle falls onto a row of tiles and must be pushed out of them, resting on top of the row
+
+public class TilemapCollisionTest
+{
+    public static void main(String[] args) {
+        HeadlessRunner runner = HeadlessRunner.create(new GameSettings(), new Scene(new GameObjectSupplier[] {
+            () -> new GameObject("cam", new Component[] { new Camera() }),
+            () -> new GameObject("ground", new Component[] {
+                // a single row of 4 solid tiles, from (0, 0) to (4, 1)
+                new Tilemap(null, 4, 1, new int[] { 0, 0, 0, 0 }) {{ this.tileSize = new Vector2(1, 1); }}
+            }),
+            () -> new GameObject("ball", new Component[] {
+                new CircleCollider(new Vector2(), 0.5f),
+                new Component() {
+                    @Override
+                    public void fixedUpdate() {
+                        // falls down (towards +y) every frame
+                        this.transform().position.y += 0.1f;
+                    }
+                }
+            }) {{ this.transform = new Transform(new Vector2(1.5f, -2f)); }}
+        }));
+        runner.start();
+        runner.run(60);
+
+        GameObject ball = runner.getScene().getGameObject("ball");
+        float y = ball.transform.position.y;
+        int contacts = runner.process.collisionManager.getContactCount();
+        System.out.println("ball y = " + y + ", contacts = " + contacts);
+
+        // resting on top of the row: the center is a radius above it (within the movement of a frame)
+        if (contacts == 0 || y > -0.5f + 0.1f || y < -0.5f - 0.1f)
+            throw new RuntimeException("The ball wasn't stopped by the tiles (y = " + y + ", contacts = " + contacts + ").");
+
+        System.out.println("OK");
+        System.exit(0);
+    }
+}